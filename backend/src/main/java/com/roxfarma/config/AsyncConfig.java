@@ -0,0 +1,42 @@
+package com.roxfarma.config;
+
+import com.roxfarma.util.MedicionConexiones;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Configuración de tareas programadas y ejecución en segundo plano
+ * @author grupo2
+ */
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    /**
+     * Executor acotado para las consultas en paralelo de endpoints compuestos.
+     * Debe ser menor que el pool de Hikari para no acaparar todas las conexiones.
+     * Si la cola se llena, la consulta se rechaza y el endpoint responde 503 sin
+     * esperar (ver ConsultasParalelas): ejecutarla en el hilo de la petición
+     * ignoraría el plazo del grupo.
+     * Las conexiones que toma cada consulta se suman a la medición de la petición.
+     */
+    @Bean(name = "consultasExecutor")
+    public ThreadPoolTaskExecutor consultasExecutor(
+            @Value("${consultas.paralelas.hilos:4}") int hilos,
+            @Value("${consultas.paralelas.cola:100}") int cola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(cola);
+        executor.setThreadNamePrefix("consultas-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(MedicionConexiones::propagar);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
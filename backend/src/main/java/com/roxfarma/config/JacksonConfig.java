@@ -6,30 +6,56 @@ import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
 /**
  * Configuración de Jackson para manejar proxies de Hibernate y fechas
+ * Además de JSON, las respuestas se pueden pedir en formatos binarios con el
+ * header Accept (para terminales de venta con enlaces lentos):
+ * - application/x-jackson-smile: no repite los nombres de campo en los listados
+ * - application/cbor
+ * Los tres formatos usan la misma configuración. Los convertidores reemplazan a
+ * los que Spring registra por defecto y quedan después del de JSON, así un
+ * cliente que no pide un formato binario sigue recibiendo JSON.
  * @author grupo2
  */
 @Configuration
 public class JacksonConfig {
 
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
     @Bean
     public ObjectMapper objectMapper() {
-        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
-        
+        return configurar(Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(configurar(Jackson2ObjectMapperBuilder.smile().build()));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(configurar(Jackson2ObjectMapperBuilder.cbor().build()));
+    }
+
+    private static ObjectMapper configurar(ObjectMapper mapper) {
         // Registrar módulo de Hibernate para manejar proxies lazy
         Hibernate6Module hibernate6Module = new Hibernate6Module();
         hibernate6Module.configure(Hibernate6Module.Feature.FORCE_LAZY_LOADING, false);
         hibernate6Module.configure(Hibernate6Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS, true);
-        
+
         mapper.registerModule(hibernate6Module);
-        
+
         // Registrar módulo de Java 8 para manejar LocalDateTime, LocalDate, etc.
         mapper.registerModule(new JavaTimeModule());
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        
+
         return mapper;
     }
 }
@@ -0,0 +1,49 @@
+package com.roxfarma.config;
+
+import com.roxfarma.service.MetricasService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuración de la medición de retención de conexiones (ver /api/metricas)
+ * - Envuelve el DataSource de Hikari para medir cada conexión
+ * - Registra el filtro que agrupa las mediciones por endpoint
+ * Con open-in-view desactivado, una petición retiene la conexión solo mientras
+ * dura cada transacción del servicio, no durante la escritura del JSON.
+ * @author grupo2
+ */
+@Configuration
+public class MedicionConexionesConfig {
+
+    /**
+     * Estático: los BeanPostProcessor se crean antes que el resto de beans.
+     */
+    @Bean
+    public static BeanPostProcessor medicionConexionesPostProcessor(
+            ObjectProvider<MetricasService> metricasService) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof MedicionConexionesDataSource)) {
+                    return new MedicionConexionesDataSource(dataSource, metricasService);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<MedicionConexionesFilter> medicionConexionesFilter(MetricasService metricasService) {
+        FilterRegistrationBean<MedicionConexionesFilter> registro =
+                new FilterRegistrationBean<>(new MedicionConexionesFilter(metricasService));
+        registro.addUrlPatterns("/api/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+}
@@ -0,0 +1,89 @@
+package com.roxfarma.config;
+
+import com.roxfarma.service.MetricasService;
+import com.roxfarma.util.MedicionConexiones;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource que mide cuánto tiempo se retiene cada conexión del pool
+ * - Cada conexión entregada es un proxy que toma el tiempo al pedirla y lo
+ *   registra una sola vez al cerrarla (devolverla a Hikari)
+ * - Si el hilo atiende una petición, el tiempo se suma a su medición; si no
+ *   (tareas programadas, streaming), se registra como "segundo-plano"
+ * @author grupo2
+ */
+public class MedicionConexionesDataSource extends DelegatingDataSource {
+
+    static final String SEGUNDO_PLANO = "segundo-plano";
+
+    private final ObjectProvider<MetricasService> metricasService;
+
+    public MedicionConexionesDataSource(DataSource destino, ObjectProvider<MetricasService> metricasService) {
+        super(destino);
+        this.metricasService = metricasService;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return medir(obtenerDataSourceDestino().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return medir(obtenerDataSourceDestino().getConnection(username, password));
+    }
+
+    private DataSource obtenerDataSourceDestino() {
+        DataSource destino = getTargetDataSource();
+        if (destino == null) {
+            throw new IllegalStateException("DataSource destino no configurado");
+        }
+        return destino;
+    }
+
+    private Connection medir(Connection conexion) {
+        long inicio = System.nanoTime();
+        AtomicBoolean cerrada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, (proxy, metodo, args) -> {
+                    switch (metodo.getName()) {
+                        case "getTargetConnection":
+                            return conexion;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (cerrada.compareAndSet(false, true)) {
+                                registrar(System.nanoTime() - inicio);
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return metodo.invoke(conexion, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    private void registrar(long nanos) {
+        if (!MedicionConexiones.registrar(nanos)) {
+            MetricasService metricas = metricasService.getIfAvailable();
+            if (metricas != null) {
+                metricas.registrarRetencionConexiones(SEGUNDO_PLANO, 1, nanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.roxfarma.config;
+
+import com.roxfarma.service.MetricasService;
+import com.roxfarma.util.MedicionConexiones;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Filtro que registra, por endpoint, el tiempo que cada petición retuvo conexiones
+ * Va antes que la seguridad, así también cuenta la carga del usuario del token.
+ * El endpoint es el método más el patrón del mapeo ("GET /api/productos/{id}"),
+ * para que los IDs de la URL no abran una métrica por recurso.
+ * @author grupo2
+ */
+public class MedicionConexionesFilter extends OncePerRequestFilter {
+
+    static final String SIN_MAPEO = "sin-mapeo";
+
+    private final MetricasService metricasService;
+
+    public MedicionConexionesFilter(MetricasService metricasService) {
+        this.metricasService = metricasService;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        MedicionConexiones medicion = MedicionConexiones.iniciar();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MedicionConexiones.terminar();
+            metricasService.registrarRetencionConexiones(endpoint(request),
+                    medicion.getConexiones(), medicion.getNanos());
+        }
+    }
+
+    private String endpoint(HttpServletRequest request) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return patron != null ? request.getMethod() + " " + patron : SIN_MAPEO;
+    }
+}
@@ -1,6 +1,7 @@
 package com.roxfarma.config;
 
 import com.roxfarma.security.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -60,6 +61,8 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
+                // Despachos asíncronos (SSE) y de error ya fueron autorizados en la petición original
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 // Endpoints públicos - DEBEN IR PRIMERO
                 .requestMatchers("/api/auth/**", "/api/test/**").permitAll()
                 // Permitir peticiones OPTIONS (CORS preflight)
@@ -71,12 +74,17 @@ public class SecurityConfig {
                 .requestMatchers("/api/ventas/**").hasAnyRole("ADMINISTRADOR", "TRABAJADOR")
                 .requestMatchers("/api/pedidos/**").hasAnyRole("ADMINISTRADOR", "TRABAJADOR")
                 .requestMatchers("/api/dashboard/**").hasAnyRole("ADMINISTRADOR", "TRABAJADOR")
+                .requestMatchers("/api/inventario/**").hasAnyRole("ADMINISTRADOR", "TRABAJADOR")
+                .requestMatchers("/api/almacenes/**").hasAnyRole("ADMINISTRADOR", "TRABAJADOR")
+                .requestMatchers("/api/eventos/**").hasAnyRole("ADMINISTRADOR", "TRABAJADOR")
                 
                 .requestMatchers("/api/usuarios/**").hasRole("ADMINISTRADOR")
                 .requestMatchers("/api/clientes/**").hasRole("ADMINISTRADOR")
                 .requestMatchers("/api/proveedores/**").hasRole("ADMINISTRADOR")
                 .requestMatchers("/api/categorias/**").hasRole("ADMINISTRADOR")
                 .requestMatchers("/api/reportes/**").hasRole("ADMINISTRADOR")
+                .requestMatchers("/api/metricas/**").hasRole("ADMINISTRADOR")
+                .requestMatchers("/api/reabastecimiento/**").hasRole("ADMINISTRADOR")
                 
                 .anyRequest().authenticated()
             )
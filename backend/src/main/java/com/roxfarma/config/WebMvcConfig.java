@@ -0,0 +1,44 @@
+package com.roxfarma.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuración de Spring MVC para respuestas asíncronas
+ * Las respuestas en streaming (StreamingResponseBody) se escriben en este executor.
+ * Al existir "consultasExecutor", Spring Boot no crea su executor por defecto y
+ * MVC usaría uno sin límite de hilos; por eso se define explícitamente aquí.
+ * @author grupo2
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Value("${streaming.hilos:4}")
+    private int hilos;
+
+    @Value("${streaming.cola:50}")
+    private int cola;
+
+    @Value("${streaming.timeout-ms:300000}")
+    private long timeoutMs;
+
+    @Bean(name = "mvcAsyncExecutor")
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(cola);
+        executor.setThreadNamePrefix("streaming-");
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+        configurer.setDefaultTimeout(timeoutMs);
+    }
+}
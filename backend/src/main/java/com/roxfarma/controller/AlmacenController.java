@@ -0,0 +1,59 @@
+package com.roxfarma.controller;
+
+import com.roxfarma.dto.AlmacenDTO;
+import com.roxfarma.model.Almacen;
+import com.roxfarma.service.AlmacenService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para gestión de Almacenes.
+ * Acceso:
+ * - GET: ADMINISTRADOR y TRABAJADOR
+ * - POST, PUT: Solo ADMINISTRADOR
+ * @author grupo2
+ */
+@RestController
+@RequestMapping("/api/almacenes")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class AlmacenController {
+
+    private final AlmacenService almacenService;
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<List<Almacen>> listarAlmacenes() {
+        log.info("GET /api/almacenes");
+        return ResponseEntity.ok(almacenService.listarAlmacenes());
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<Almacen> obtenerAlmacen(@PathVariable Long id) {
+        log.info("GET /api/almacenes/{}", id);
+        return ResponseEntity.ok(almacenService.obtenerAlmacenPorId(id));
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Almacen> crearAlmacen(@Valid @RequestBody AlmacenDTO dto) {
+        log.info("POST /api/almacenes - Creando almacén: {}", dto.getNombre());
+        return ResponseEntity.ok(almacenService.crearAlmacen(dto));
+    }
+
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Almacen> actualizarAlmacen(@PathVariable Long id,
+                                                     @Valid @RequestBody AlmacenDTO dto) {
+        log.info("PUT /api/almacenes/{}", id);
+        return ResponseEntity.ok(almacenService.actualizarAlmacen(id, dto));
+    }
+}
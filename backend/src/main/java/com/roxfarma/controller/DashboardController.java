@@ -1,12 +1,19 @@
 package com.roxfarma.controller;
 
-import com.roxfarma.model.Producto;
+import com.roxfarma.dto.DashboardResumenDTO;
+import com.roxfarma.dto.ResumenProductoDTO;
+import com.roxfarma.repository.projection.TotalesInventario;
+import com.roxfarma.service.AlertaStreamService;
+import com.roxfarma.service.DashboardService;
 import com.roxfarma.service.ProductoService;
+import com.roxfarma.util.ConsultasParalelas;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -24,6 +31,33 @@ import java.util.Map;
 public class DashboardController {
     
     private final ProductoService productoService;
+    private final DashboardService dashboardService;
+    private final AlertaStreamService alertaStreamService;
+    private final ConsultasParalelas consultasParalelas;
+    
+    /**
+     * Snapshot combinado (alertas + estadísticas) servido desde caché de corta duración
+     */
+    @GetMapping("/resumen")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<DashboardResumenDTO> obtenerResumen() {
+        log.info("GET /api/dashboard/resumen");
+        return ResponseEntity.ok(dashboardService.obtenerResumen());
+    }
+    
+    /**
+     * Canal SSE con los deltas de alertas (entradas y salidas de stock bajo / vencimiento).
+     * Al reconectar, el navegador envía Last-Event-ID; también se acepta ?desde= para
+     * clientes que no usan EventSource.
+     */
+    @GetMapping(value = "/alertas/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public SseEmitter suscribirAlertas(
+            @RequestHeader(value = "Last-Event-ID", required = false) String ultimoEventoId,
+            @RequestParam(value = "desde", required = false) String desde) {
+        log.info("GET /api/dashboard/alertas/stream");
+        return alertaStreamService.suscribir(ultimoEventoId != null ? ultimoEventoId : desde);
+    }
     
     @GetMapping("/alertas")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
@@ -32,13 +66,21 @@ public class DashboardController {
         
         Map<String, Object> alertas = new HashMap<>();
         
+        // Consultas independientes: se ejecutan en paralelo
+        ConsultasParalelas.Grupo grupo = consultasParalelas.nuevoGrupo();
+        ConsultasParalelas.Tarea<List<ResumenProductoDTO>> stockBajoTarea =
+                grupo.enviar(() -> productoService.obtenerProductosConStockBajo(10));
+        ConsultasParalelas.Tarea<List<ResumenProductoDTO>> proximosVencerTarea =
+                grupo.enviar(() -> productoService.obtenerProductosProximosAVencer(30));
+        grupo.esperarTodas();
+        
         // stock bajo
-        List<Producto> stockBajo = productoService.obtenerProductosConStockBajo(10);
+        List<ResumenProductoDTO> stockBajo = stockBajoTarea.obtener();
         alertas.put("stockBajo", stockBajo);
         alertas.put("cantidadStockBajo", stockBajo.size());
         
         // vencimiento
-        List<Producto> proximosVencer = productoService.obtenerProductosProximosAVencer(30);
+        List<ResumenProductoDTO> proximosVencer = proximosVencerTarea.obtener();
         alertas.put("proximosVencer", proximosVencer);
         alertas.put("cantidadProximosVencer", proximosVencer.size());
         
@@ -52,17 +94,22 @@ public class DashboardController {
         
         Map<String, Object> estadisticas = new HashMap<>();
         
-        // Total de productos
-        List<Producto> productos = productoService.listarTodosLosProductos();
-        estadisticas.put("totalProductos", productos.size());
+        ConsultasParalelas.Grupo grupo = consultasParalelas.nuevoGrupo();
+        ConsultasParalelas.Tarea<TotalesInventario> totalesTarea =
+                grupo.enviar(productoService::obtenerTotalesInventario);
+        ConsultasParalelas.Tarea<List<ResumenProductoDTO>> stockBajoTarea =
+                grupo.enviar(() -> productoService.obtenerProductosConStockBajo(10));
+        ConsultasParalelas.Tarea<List<ResumenProductoDTO>> proximosVencerTarea =
+                grupo.enviar(() -> productoService.obtenerProductosProximosAVencer(30));
+        grupo.esperarTodas();
         
-        int stockTotal = productos.stream()
-                .mapToInt(Producto::getStock)
-                .sum();
-        estadisticas.put("stockTotal", stockTotal);
+        // Total de productos y stock, calculados en la base de datos
+        TotalesInventario totales = totalesTarea.obtener();
+        estadisticas.put("totalProductos", totales.getTotalProductos());
+        estadisticas.put("stockTotal", totales.getStockTotal());
         
-        estadisticas.put("alertasStockBajo", productoService.obtenerProductosConStockBajo(10).size());
-        estadisticas.put("alertasVencimiento", productoService.obtenerProductosProximosAVencer(30).size());
+        estadisticas.put("alertasStockBajo", stockBajoTarea.obtener().size());
+        estadisticas.put("alertasVencimiento", proximosVencerTarea.obtener().size());
         
         return ResponseEntity.ok(estadisticas);
     }
@@ -0,0 +1,76 @@
+package com.roxfarma.controller;
+
+import com.roxfarma.dto.EventoOutboxDTO;
+import com.roxfarma.service.OutboxRelayService;
+import com.roxfarma.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para consumir los eventos de dominio del outbox
+ * - GET /api/eventos lee los eventos posteriores a un cursor (secuencia del último
+ *   evento recibido); con esperaMs la petición espera a que haya eventos (long-poll)
+ * - La secuencia sigue el orden de confirmación: un evento que confirma tarde
+ *   recibe una secuencia mayor al cursor y no se pierde
+ * - Un consumidor con nombre puede guardar su posición en el servidor y omitir
+ *   el cursor: se usa la posición guardada
+ * @author grupo2
+ */
+@RestController
+@RequestMapping("/api/eventos")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class EventoController {
+
+    private static final int MAX_LIMITE = 500;
+    private static final long MAX_ESPERA_MS = 30000;
+
+    private final OutboxRelayService outboxRelayService;
+    private final OutboxService outboxService;
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public DeferredResult<List<EventoOutboxDTO>> obtenerEventos(
+            @RequestParam(required = false) Long despues,
+            @RequestParam(required = false) String consumidor,
+            @RequestParam(defaultValue = "100") int limite,
+            @RequestParam(defaultValue = "0") long esperaMs) {
+
+        long cursor = despues != null ? despues
+                : consumidor != null ? outboxService.obtenerOffset(consumidor).orElse(0L)
+                : 0L;
+        log.debug("GET /api/eventos - Después de: {}, límite: {}, espera: {} ms", cursor, limite, esperaMs);
+
+        return outboxRelayService.obtenerEventos(cursor,
+                Math.max(1, Math.min(limite, MAX_LIMITE)),
+                Math.max(0, Math.min(esperaMs, MAX_ESPERA_MS)));
+    }
+
+    @GetMapping("/offsets/{consumidor}")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<Map<String, Object>> obtenerOffset(@PathVariable String consumidor) {
+        return ResponseEntity.ok(Map.of(
+                "consumidor", consumidor,
+                "ultimoEvento", outboxService.obtenerOffset(consumidor).orElse(0L)));
+    }
+
+    /**
+     * Confirma que el consumidor procesó hasta la secuencia 'ultimoEvento'. Una posición menor
+     * a la guardada se ignora.
+     */
+    @PutMapping("/offsets/{consumidor}")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<Void> guardarOffset(@PathVariable String consumidor, @RequestParam long ultimoEvento) {
+        log.info("PUT /api/eventos/offsets/{} - Último evento: {}", consumidor, ultimoEvento);
+        outboxService.guardarOffset(consumidor, ultimoEvento);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,156 @@
+package com.roxfarma.controller;
+
+import com.roxfarma.dto.ConteoFisicoDTO;
+import com.roxfarma.dto.ReporteConteoDTO;
+import com.roxfarma.dto.StockAlmacenDTO;
+import com.roxfarma.dto.StockHistoricoDTO;
+import com.roxfarma.config.JacksonConfig;
+import com.roxfarma.dto.TransferenciaDTO;
+import com.roxfarma.model.Lote;
+import com.roxfarma.service.ConteoFisicoService;
+import com.roxfarma.service.InventarioService;
+import com.roxfarma.service.KardexService;
+import com.roxfarma.service.LoteService;
+import com.roxfarma.service.StockHistoricoService;
+import com.roxfarma.util.FormatosRespuesta;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para consultas de inventario (kardex) y stock por almacén
+ * @author grupo2
+ */
+@RestController
+@RequestMapping("/api/inventario")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class InventarioController {
+
+    private final KardexService kardexService;
+    private final StockHistoricoService stockHistoricoService;
+    private final LoteService loteService;
+    private final ConteoFisicoService conteoFisicoService;
+    private final InventarioService inventarioService;
+    private final FormatosRespuesta formatosRespuesta;
+
+    /**
+     * Kardex del producto en el periodo, con saldo acumulado por movimiento.
+     * La respuesta se escribe en streaming; si no se indica 'hasta', se usa la fecha actual.
+     * Se escribe en JSON, Smile o CBOR según el header Accept.
+     */
+    @GetMapping(value = "/kardex/{idProducto}", produces = {MediaType.APPLICATION_JSON_VALUE,
+            JacksonConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<StreamingResponseBody> obtenerKardex(
+            @PathVariable Long idProducto,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        FormatosRespuesta.Formato formato = formatosRespuesta.elegir(accept);
+        log.info("GET /api/inventario/kardex/{} - Desde: {} hasta: {} ({})", idProducto, desde, fin, formato.tipo());
+
+        return ResponseEntity.ok()
+                .contentType(formato.tipo())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(kardexService.generarKardex(idProducto, desde, fin, formato.mapper().getFactory()));
+    }
+
+    /**
+     * Stock que tenía el producto en un momento pasado.
+     */
+    @GetMapping("/stock-historico/{idProducto}")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<StockHistoricoDTO> obtenerStockHistorico(
+            @PathVariable Long idProducto,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fecha) {
+
+        log.info("GET /api/inventario/stock-historico/{} - Fecha: {}", idProducto, fecha);
+        return ResponseEntity.ok(stockHistoricoService.obtenerStockAl(idProducto, fecha));
+    }
+
+    /**
+     * Stock de todo el catálogo en un momento pasado.
+     */
+    @GetMapping("/stock-historico")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<List<StockHistoricoDTO>> obtenerCatalogoHistorico(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fecha) {
+
+        log.info("GET /api/inventario/stock-historico - Fecha: {}", fecha);
+        return ResponseEntity.ok(stockHistoricoService.obtenerCatalogoAl(fecha));
+    }
+
+    /**
+     * Genera manualmente el corte de stock de una fecha (por defecto, la medianoche de hoy).
+     */
+    @PostMapping("/checkpoints")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Map<String, Object>> generarCheckpoint(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaCorte) {
+
+        LocalDateTime corte = fechaCorte != null ? fechaCorte : LocalDate.now().atStartOfDay();
+        log.info("POST /api/inventario/checkpoints - Corte: {}", corte);
+
+        int productos = stockHistoricoService.generarCheckpoint(corte);
+        return ResponseEntity.ok(Map.of("fechaCorte", corte, "productos", productos));
+    }
+
+    /**
+     * Lotes del producto ordenados por vencimiento (el primero es el siguiente en salir).
+     */
+    @GetMapping("/lotes/{idProducto}")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<List<Lote>> listarLotes(@PathVariable Long idProducto) {
+        log.info("GET /api/inventario/lotes/{}", idProducto);
+        return ResponseEntity.ok(loteService.listarLotesPorProducto(idProducto));
+    }
+
+    /**
+     * Concilia un inventario físico: ajusta el stock de los productos contados
+     * y retorna el reporte de diferencias.
+     */
+    @PostMapping("/conteos")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<ReporteConteoDTO> conciliarConteo(@Valid @RequestBody ConteoFisicoDTO dto) {
+        log.info("POST /api/inventario/conteos - {} productos", dto.getItems().size());
+        return ResponseEntity.ok(conteoFisicoService.conciliar(dto));
+    }
+
+    /**
+     * Stock del producto en cada almacén.
+     */
+    @GetMapping("/almacenes/{idProducto}")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<List<StockAlmacenDTO>> obtenerStockPorAlmacen(@PathVariable Long idProducto) {
+        log.info("GET /api/inventario/almacenes/{}", idProducto);
+        return ResponseEntity.ok(inventarioService.listarStockPorAlmacen(idProducto));
+    }
+
+    /**
+     * Transfiere stock de un producto entre dos almacenes (todo o nada).
+     */
+    @PostMapping("/transferencias")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<List<StockAlmacenDTO>> transferirStock(@Valid @RequestBody TransferenciaDTO dto) {
+        log.info("POST /api/inventario/transferencias - Producto: {}, {} -> {}",
+                dto.getIdProducto(), dto.getIdAlmacenOrigen(), dto.getIdAlmacenDestino());
+        inventarioService.transferirStock(dto);
+        return ResponseEntity.ok(inventarioService.listarStockPorAlmacen(dto.getIdProducto()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.roxfarma.controller;
+
+import com.roxfarma.service.CacheEntidadesService;
+import com.roxfarma.service.MetricasService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Controlador REST para métricas internas, solo accesible para admin.
+ * @author grupo2
+ */
+@RestController
+@RequestMapping("/api/metricas")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class MetricasController {
+
+    private final MetricasService metricasService;
+    private final CacheEntidadesService cacheEntidadesService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Map<String, Object>> obtenerMetricas() {
+        log.info("GET /api/metricas");
+
+        Map<String, Object> metricas = new HashMap<>();
+        metricas.put("contadores", metricasService.obtenerContadores());
+        metricas.put("concurrencia", calcularTasasConcurrencia());
+        metricas.put("cache", cacheEntidadesService.obtenerEstadisticas());
+        metricas.put("conexiones", metricasService.obtenerRetencionConexiones());
+        return ResponseEntity.ok(metricas);
+    }
+
+    /**
+     * Tasa de ediciones de producto rechazadas por versión desactualizada y
+     * tasa de operaciones de stock rechazadas por stock insuficiente en el almacén.
+     */
+    private Map<String, Double> calcularTasasConcurrencia() {
+        Map<String, Double> tasas = new HashMap<>();
+        tasas.put("tasaConflictoEdicion", tasa(metricasService.obtener("producto.actualizacion.conflicto"),
+                metricasService.obtener("producto.actualizacion")));
+        tasas.put("tasaStockInsuficiente", tasa(metricasService.obtener("inventario.stock.insuficiente"),
+                metricasService.obtener("inventario.stock.operacion")));
+        return tasas;
+    }
+
+    private double tasa(long valor, long total) {
+        return total > 0 ? (double) valor / total : 0.0;
+    }
+}
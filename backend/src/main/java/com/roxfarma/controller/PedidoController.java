@@ -1,16 +1,26 @@
 package com.roxfarma.controller;
 
+import com.roxfarma.dto.CambioEstadoLoteDTO;
 import com.roxfarma.dto.PedidoDTO;
+import com.roxfarma.dto.PendientePedidoDTO;
+import com.roxfarma.dto.RecepcionPedidoDTO;
+import com.roxfarma.dto.ResultadoCambioEstadoDTO;
+import com.roxfarma.dto.ResumenPedidoDTO;
 import com.roxfarma.model.EstadoPedido;
 import com.roxfarma.model.Pedido;
+import com.roxfarma.model.RecepcionPedido;
 import com.roxfarma.service.PedidoService;
+import com.roxfarma.service.RecepcionPedidoService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -25,6 +35,7 @@ import java.util.List;
 public class PedidoController {
     
     private final PedidoService pedidoService;
+    private final RecepcionPedidoService recepcionPedidoService;
     
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
@@ -34,12 +45,21 @@ public class PedidoController {
         return ResponseEntity.ok(pedido);
     }
     
+    /**
+     * Listado paginado de pedidos (resumen sin líneas), filtrable por estado,
+     * proveedor y rango de fechas. Las líneas se obtienen con GET /{id}.
+     */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
-    public ResponseEntity<List<Pedido>> listarPedidos() {
-        log.info("GET /api/pedidos");
-        List<Pedido> pedidos = pedidoService.listarPedidos();
-        return ResponseEntity.ok(pedidos);
+    public ResponseEntity<Page<ResumenPedidoDTO>> listarPedidos(
+            @RequestParam(required = false) EstadoPedido estado,
+            @RequestParam(required = false) Long idProveedor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "20") int tamano) {
+        log.info("GET /api/pedidos - Estado: {}, proveedor: {}, página: {}", estado, idProveedor, pagina);
+        return ResponseEntity.ok(pedidoService.listarPedidos(estado, idProveedor, desde, hasta, pagina, tamano));
     }
     
     @GetMapping("/{id}")
@@ -58,4 +78,55 @@ public class PedidoController {
         Pedido pedido = pedidoService.actualizarEstadoPedido(id, estado);
         return ResponseEntity.ok(pedido);
     }
+    
+    /**
+     * Cambia el estado de varios pedidos; los que no admiten el cambio se informan como rechazados.
+     */
+    @PutMapping("/estado")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<ResultadoCambioEstadoDTO> cambiarEstadoEnLote(@Valid @RequestBody CambioEstadoLoteDTO dto) {
+        log.info("PUT /api/pedidos/estado - {} pedidos a {}", dto.getIds().size(), dto.getEstado());
+        return ResponseEntity.ok(pedidoService.cambiarEstadoEnLote(dto.getIds(), dto.getEstado()));
+    }
+    
+    /**
+     * Descarta un pedido BORRADOR generado por el reabastecimiento.
+     */
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<Void> descartarBorrador(@PathVariable Long id) {
+        log.info("DELETE /api/pedidos/{}", id);
+        pedidoService.descartarBorrador(id);
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * Registra una entrega del proveedor; puede cubrir solo parte de lo pedido.
+     */
+    @PostMapping("/{id}/recepciones")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<RecepcionPedido> registrarRecepcion(@PathVariable Long id,
+                                                              @Valid @RequestBody RecepcionPedidoDTO dto) {
+        log.info("POST /api/pedidos/{}/recepciones - {} líneas", id, dto.getItems().size());
+        RecepcionPedido recepcion = recepcionPedidoService.registrarRecepcion(id, dto);
+        return ResponseEntity.ok(recepcion);
+    }
+    
+    @GetMapping("/{id}/recepciones")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<List<RecepcionPedido>> listarRecepciones(@PathVariable Long id) {
+        log.info("GET /api/pedidos/{}/recepciones", id);
+        return ResponseEntity.ok(recepcionPedidoService.listarRecepciones(id));
+    }
+    
+    /**
+     * Líneas de pedido con unidades por recibir, opcionalmente de un producto.
+     */
+    @GetMapping("/pendientes")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<List<PendientePedidoDTO>> listarPendientes(
+            @RequestParam(required = false) Long idProducto) {
+        log.info("GET /api/pedidos/pendientes - Producto: {}", idProducto);
+        return ResponseEntity.ok(recepcionPedidoService.listarPendientes(idProducto));
+    }
 }
@@ -1,15 +1,39 @@
 package com.roxfarma.controller;
 
+import com.roxfarma.dto.CambiosCatalogoDTO;
+import com.roxfarma.dto.FiltroCatalogoDTO;
+import com.roxfarma.dto.PrecioProgramadoDTO;
+import com.roxfarma.dto.ProductoBusquedaDTO;
 import com.roxfarma.dto.ProductoDTO;
+import com.roxfarma.dto.ResultadoImportacionDTO;
+import com.roxfarma.dto.ResumenProductoDTO;
+import com.roxfarma.dto.VigenciaPrecioDTO;
+import com.roxfarma.exception.PrecondicionFallidaException;
+import com.roxfarma.exception.PrecondicionRequeridaException;
 import com.roxfarma.model.Producto;
+import com.roxfarma.service.CodigoBarrasService;
+import com.roxfarma.service.ImportacionProductoService;
+import com.roxfarma.service.PrecioService;
 import com.roxfarma.service.ProductoService;
+import com.roxfarma.service.SincronizacionCatalogoService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -17,6 +41,20 @@ import java.util.List;
  * Acceso:
  * - GET: ADMINISTRADOR y TRABAJADOR
  * - POST, PUT, DELETE: Solo ADMINISTRADOR
+ * - POST /importar recibe un CSV (multipart, campo "archivo", UTF-8) y responde
+ *   con el resumen y los errores por fila
+ * Concurrencia:
+ * - GET /{id}, POST y PUT devuelven la versión del producto en la cabecera ETag
+ * - PUT exige la versión editada en If-Match (o en el campo version del cuerpo):
+ *   sin ella responde 428, y si el producto cambió desde entonces, 412
+ * - GET /catalogo devuelve un ETag débil del listado filtrado; con If-None-Match
+ *   igual responde 304 sin cargar productos
+ * - GET /cambios entrega los productos modificados y eliminados desde un cursor,
+ *   para los terminales que mantienen una copia local del catálogo
+ * Precios:
+ * - GET /{id}/precios devuelve el historial con el rango de vigencia de cada precio
+ * - POST /{id}/precios programa un precio a partir de una fecha futura y
+ *   DELETE /{id}/precios/{idPrecio} lo cancela mientras no entre en vigencia
  * @author grupo2
  */
 @RestController
@@ -26,22 +64,119 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class ProductoController {
     
+    private static final int MAX_RESULTADOS_BUSQUEDA = 50;
+    
     private final ProductoService productoService;
+    private final ImportacionProductoService importacionProductoService;
+    private final SincronizacionCatalogoService sincronizacionCatalogoService;
+    private final CodigoBarrasService codigoBarrasService;
+    private final PrecioService precioService;
     
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
-    public ResponseEntity<List<Producto>> listarProductos() {
+    public ResponseEntity<List<ResumenProductoDTO>> listarProductos() {
         log.info("GET /api/productos");
-        List<Producto> productos = productoService.listarTodosLosProductos();
+        List<ResumenProductoDTO> productos = productoService.listarTodosLosProductos();
         return ResponseEntity.ok(productos);
     }
     
+    /**
+     * Listado paginado para la gestión de productos. Responde 304 si los productos
+     * que cumplen el filtro no cambiaron desde el ETag que envía el cliente.
+     */
+    @GetMapping("/catalogo")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<Page<ResumenProductoDTO>> listarCatalogo(
+            FiltroCatalogoDTO filtro,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "20") int tamano,
+            @RequestParam(defaultValue = "nombre") String orden,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direccion,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("GET /api/productos/catalogo - {}, página: {}", filtro, pagina);
+        String etag = productoService.calcularEtagCatalogo(filtro);
+        // no-cache: el navegador guarda la respuesta pero la revalida con If-None-Match cada vez
+        CacheControl revalidar = CacheControl.noCache().cachePrivate();
+        if (coincideEtag(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(revalidar)
+                    .varyBy(HttpHeaders.ACCEPT).build();
+        }
+        Page<ResumenProductoDTO> productos = productoService.listarCatalogo(filtro, pagina, tamano, orden, direccion);
+        // Vary: el navegador guarda por separado la página en JSON y en formato binario
+        return ResponseEntity.ok().eTag(etag).cacheControl(revalidar).varyBy(HttpHeaders.ACCEPT).body(productos);
+    }
+    
+    /**
+     * Cambios del catálogo desde el cursor de la consulta anterior (sin cursor, el
+     * catálogo completo). Mientras 'completo' sea false hay que seguir pidiendo.
+     */
+    @GetMapping("/cambios")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<CambiosCatalogoDTO> obtenerCambios(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "500") int limite) {
+        log.debug("GET /api/productos/cambios - cursor: {}", cursor);
+        return ResponseEntity.ok(sincronizacionCatalogoService.obtenerCambios(cursor, limite));
+    }
+    
+    /**
+     * Búsqueda para el punto de venta: tolera tildes, mayúsculas y errores de tipeo,
+     * y acepta palabras a medio escribir.
+     */
+    @GetMapping("/buscar")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<List<ProductoBusquedaDTO>> buscarProductos(@RequestParam String q,
+                                                                     @RequestParam(defaultValue = "10") int limite) {
+        log.debug("GET /api/productos/buscar - '{}'", q);
+        int limiteValido = Math.max(1, Math.min(limite, MAX_RESULTADOS_BUSQUEDA));
+        return ResponseEntity.ok(productoService.buscarProductos(q, limiteValido));
+    }
+    
+    /**
+     * Producto por el código de barras leído en caja (EAN/UPC o código interno).
+     */
+    @GetMapping("/codigo/{codigo}")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<Producto> buscarPorCodigo(@PathVariable String codigo) {
+        log.debug("GET /api/productos/codigo/{}", codigo);
+        return ResponseEntity.ok(codigoBarrasService.buscarPorCodigo(codigo));
+    }
+    
+    @GetMapping("/{id}/codigos")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<List<String>> listarCodigos(@PathVariable Long id) {
+        log.info("GET /api/productos/{}/codigos", id);
+        return ResponseEntity.ok(codigoBarrasService.listarCodigos(id));
+    }
+    
+    @GetMapping("/{id}/precios")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
+    public ResponseEntity<List<VigenciaPrecioDTO>> listarPrecios(@PathVariable Long id) {
+        log.info("GET /api/productos/{}/precios", id);
+        return ResponseEntity.ok(precioService.listarHistorial(id));
+    }
+    
+    @PostMapping("/{id}/precios")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<List<VigenciaPrecioDTO>> programarPrecio(@PathVariable Long id,
+                                                                   @Valid @RequestBody PrecioProgramadoDTO dto) {
+        log.info("POST /api/productos/{}/precios - {} desde {}", id, dto.getPrecio(), dto.getVigenteDesde());
+        return ResponseEntity.ok(precioService.programar(id, dto));
+    }
+    
+    @DeleteMapping("/{id}/precios/{idPrecio}")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Void> cancelarPrecio(@PathVariable Long id, @PathVariable Long idPrecio) {
+        log.info("DELETE /api/productos/{}/precios/{}", id, idPrecio);
+        precioService.cancelar(id, idPrecio);
+        return ResponseEntity.noContent().build();
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
     public ResponseEntity<Producto> obtenerProducto(@PathVariable Long id) {
         log.info("GET /api/productos/{}", id);
         Producto producto = productoService.obtenerProductoPorId(id);
-        return ResponseEntity.ok(producto);
+        return ResponseEntity.ok().eTag(etag(producto)).body(producto);
     }
     
     @PostMapping
@@ -49,16 +184,40 @@ public class ProductoController {
     public ResponseEntity<Producto> crearProducto(@Valid @RequestBody ProductoDTO dto) {
         log.info("POST /api/productos - Creando producto: {}", dto.getNombre());
         Producto producto = productoService.crearProducto(dto);
-        return ResponseEntity.ok(producto);
+        return ResponseEntity.ok().eTag(etag(producto)).body(producto);
+    }
+    
+    @PostMapping(value = "/importar", consumes = "multipart/form-data")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<ResultadoImportacionDTO> importarProductos(@RequestParam("archivo") MultipartFile archivo)
+            throws IOException {
+        log.info("POST /api/productos/importar - {} ({} bytes)", archivo.getOriginalFilename(), archivo.getSize());
+        if (archivo.isEmpty()) {
+            throw new IllegalArgumentException("El archivo está vacío");
+        }
+        // El archivo subido queda en disco; se lee como flujo, sin getBytes()
+        try (Reader contenido = new InputStreamReader(archivo.getInputStream(), StandardCharsets.UTF_8)) {
+            return ResponseEntity.ok(importacionProductoService.importar(contenido));
+        }
     }
     
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMINISTRADOR')")
     public ResponseEntity<Producto> actualizarProducto(@PathVariable Long id, 
-                                                       @Valid @RequestBody ProductoDTO dto) {
+                                                       @Valid @RequestBody ProductoDTO dto,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("PUT /api/productos/{}", id);
+        Long version = ifMatch != null ? parsearVersion(ifMatch) : null;
+        if (version == null) {
+            version = dto.getVersion();
+        }
+        if (version == null) {
+            throw new PrecondicionRequeridaException(
+                    "Debe indicar la versión del producto editado (cabecera If-Match)");
+        }
+        dto.setVersion(version);
         Producto producto = productoService.actualizarProducto(id, dto);
-        return ResponseEntity.ok(producto);
+        return ResponseEntity.ok().eTag(etag(producto)).body(producto);
     }
     
     @DeleteMapping("/{id}")
@@ -71,17 +230,54 @@ public class ProductoController {
     
     @GetMapping("/alertas/stock-bajo")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
-    public ResponseEntity<List<Producto>> obtenerStockBajo() {
+    public ResponseEntity<List<ResumenProductoDTO>> obtenerStockBajo() {
         log.info("GET /api/productos/alertas/stock-bajo");
-        List<Producto> productos = productoService.obtenerProductosConStockBajo(10);
+        List<ResumenProductoDTO> productos = productoService.obtenerProductosConStockBajo(10);
         return ResponseEntity.ok(productos);
     }
     
     @GetMapping("/alertas/proximos-vencer")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
-    public ResponseEntity<List<Producto>> obtenerProximosVencer() {
+    public ResponseEntity<List<ResumenProductoDTO>> obtenerProximosVencer() {
         log.info("GET /api/productos/alertas/proximos-vencer");
-        List<Producto> productos = productoService.obtenerProductosProximosAVencer(30);
+        List<ResumenProductoDTO> productos = productoService.obtenerProductosProximosAVencer(30);
         return ResponseEntity.ok(productos);
     }
+    
+    private String etag(Producto producto) {
+        return "\"" + producto.getVersion() + "\"";
+    }
+    
+    /**
+     * Acepta "5", "\"5\"" y W/"5". Un If-Match: * no fija versión y se usa la del cuerpo.
+     */
+    private Long parsearVersion(String ifMatch) {
+        String valor = ifMatch.trim();
+        if (valor.equals("*")) {
+            return null;
+        }
+        if (valor.startsWith("W/")) {
+            valor = valor.substring(2);
+        }
+        valor = valor.replace("\"", "");
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new PrecondicionFallidaException("Cabecera If-Match inválida: " + ifMatch);
+        }
+    }
+
+    /**
+     * Comparación débil de If-None-Match: se ignora el prefijo W/ y se aceptan listas.
+     */
+    private boolean coincideEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String valor = etag.substring(2);
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(e -> e.startsWith("W/") ? e.substring(2) : e)
+                .anyMatch(e -> e.equals("*") || e.equals(valor));
+    }
 }
@@ -0,0 +1,31 @@
+package com.roxfarma.controller;
+
+import com.roxfarma.dto.ResultadoReabastecimientoDTO;
+import com.roxfarma.service.ReabastecimientoService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST para ejecutar el reabastecimiento a demanda
+ * La ejecución programada corre sola; este endpoint la adelanta
+ * @author grupo2
+ */
+@RestController
+@RequestMapping("/api/reabastecimiento")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class ReabastecimientoController {
+
+    private final ReabastecimientoService reabastecimientoService;
+
+    @PostMapping("/ejecutar")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<ResultadoReabastecimientoDTO> ejecutar(@RequestParam(defaultValue = "false") boolean completo) {
+        log.info("POST /api/reabastecimiento/ejecutar - Completo: {}", completo);
+        return ResponseEntity.ok(reabastecimientoService.ejecutar(completo));
+    }
+}
@@ -1,5 +1,6 @@
 package com.roxfarma.controller;
 
+import com.roxfarma.dto.ResumenVentaDTO;
 import com.roxfarma.dto.VentaDTO;
 import com.roxfarma.model.Venta;
 import com.roxfarma.service.BoletaService;
@@ -39,9 +40,9 @@ public class VentaController {
     
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'TRABAJADOR')")
-    public ResponseEntity<List<Venta>> listarVentas() {
+    public ResponseEntity<List<ResumenVentaDTO>> listarVentas() {
         log.info("GET /api/ventas");
-        List<Venta> ventas = ventaService.listarVentas();
+        List<ResumenVentaDTO> ventas = ventaService.listarVentas();
         return ResponseEntity.ok(ventas);
     }
     
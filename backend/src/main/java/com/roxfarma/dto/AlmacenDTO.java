@@ -0,0 +1,26 @@
+package com.roxfarma.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para crear o modificar un almacén
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlmacenDTO {
+
+    @NotBlank(message = "El nombre del almacén es obligatorio")
+    @Size(max = 100, message = "El nombre no puede exceder 100 caracteres")
+    private String nombre;
+
+    @Size(max = 200, message = "La dirección no puede exceder 200 caracteres")
+    private String direccion;
+
+    private Boolean activo;
+}
@@ -0,0 +1,26 @@
+package com.roxfarma.dto;
+
+import com.roxfarma.model.EstadoPedido;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para cambiar el estado de varios pedidos en una operación
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CambioEstadoLoteDTO {
+
+    @NotEmpty(message = "Debe indicar al menos un pedido")
+    private List<Long> ids;
+
+    @NotNull(message = "El estado es obligatorio")
+    private EstadoPedido estado;
+}
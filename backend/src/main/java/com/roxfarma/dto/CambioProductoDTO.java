@@ -0,0 +1,43 @@
+package com.roxfarma.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Estado actual de un producto modificado, en la forma compacta que usa la
+ * sincronización del catálogo (la categoría va solo por ID)
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CambioProductoDTO {
+
+    private Long idProducto;
+
+    private String nombre;
+
+    private String presentacion;
+
+    private BigDecimal precio;
+
+    private Integer stock;
+
+    private LocalDate fechaVencimiento;
+
+    private Long idCategoria;
+
+    private Long version;
+
+    private LocalDateTime fechaActualizacion;
+
+    // Posición del cambio; el cliente la recibe codificada en el cursor
+    @JsonIgnore
+    private Long secuenciaCambio;
+}
@@ -0,0 +1,28 @@
+package com.roxfarma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Cambios del catálogo desde un cursor: productos nuevos o modificados e IDs de
+ * productos eliminados. El cliente aplica primero los productos y luego las bajas,
+ * y guarda el cursor para la próxima consulta.
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CambiosCatalogoDTO {
+
+    private List<CambioProductoDTO> productos;
+
+    private List<Long> eliminados;
+
+    private String cursor;
+
+    // false: quedan cambios; el cliente debe volver a consultar de inmediato con el cursor
+    private boolean completo;
+}
@@ -0,0 +1,38 @@
+package com.roxfarma.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para la conciliación masiva de un inventario físico
+ * Si tamanoBloque es null, todo el conteo se aplica en una sola transacción;
+ * si se indica, se aplica en transacciones de ese número de productos.
+ * Las cantidades contadas corresponden a un almacén (idAlmacen, o el principal).
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConteoFisicoDTO {
+
+    @NotEmpty(message = "Debe incluir al menos un producto contado")
+    @Valid
+    private List<ItemConteoDTO> items;
+
+    @Min(value = 1, message = "El tamaño de bloque debe ser al menos 1")
+    private Integer tamanoBloque;
+
+    // Motivo registrado en el kardex; por defecto "CONTEO_FISICO"
+    @Size(max = 50, message = "El motivo no puede superar 50 caracteres")
+    private String motivo;
+
+    // Almacén contado; por defecto el principal
+    private Long idAlmacen;
+}
@@ -0,0 +1,35 @@
+package com.roxfarma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO con la foto (snapshot) completa del dashboard
+ * Reúne en una sola respuesta las alertas y estadísticas que antes
+ * se pedían por separado a /alertas y /estadisticas
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardResumenDTO {
+
+    private long totalProductos;
+
+    private long stockTotal;
+
+    private List<ResumenProductoDTO> stockBajo;
+
+    private int cantidadStockBajo;
+
+    private List<ResumenProductoDTO> proximosVencer;
+
+    private int cantidadProximosVencer;
+
+    // Momento en que se calculó el snapshot (puede ser anterior a la petición)
+    private LocalDateTime generadoEn;
+}
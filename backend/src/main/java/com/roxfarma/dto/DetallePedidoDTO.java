@@ -2,10 +2,13 @@ package com.roxfarma.dto;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+
 /**
  * DTO para transferencia de datos de Detalle de Pedido
  * Representa un producto dentro de un pedido con su cantidad
@@ -23,4 +26,11 @@ public class DetallePedidoDTO {
     @NotNull(message = "La cantidad es obligatoria")
     @Min(value = 1, message = "La cantidad debe ser al menos 1")
     private Integer cantidad;
+    
+    // Código del lote; si no se indica, se genera a partir del pedido
+    @Size(max = 50, message = "El código de lote no puede superar 50 caracteres")
+    private String codigoLote;
+    
+    // Vencimiento del lote; si no se indica, se usa el del producto
+    private LocalDate fechaVencimientoLote;
 }
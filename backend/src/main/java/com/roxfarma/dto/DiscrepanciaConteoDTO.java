@@ -0,0 +1,26 @@
+package com.roxfarma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con la diferencia entre el stock del sistema y el conteo físico de un producto
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscrepanciaConteoDTO {
+
+    private Long idProducto;
+
+    private String nombre;
+
+    private Integer stockSistema;
+
+    private Integer cantidadContada;
+
+    // Positiva = sobrante, negativa = faltante
+    private Integer diferencia;
+}
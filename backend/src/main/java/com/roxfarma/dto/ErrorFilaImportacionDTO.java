@@ -0,0 +1,20 @@
+package com.roxfarma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila del archivo de importación que no se pudo guardar y el motivo
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorFilaImportacionDTO {
+
+    // Línea del archivo donde empieza la fila (el encabezado es la línea 1)
+    private long linea;
+
+    private String mensaje;
+}
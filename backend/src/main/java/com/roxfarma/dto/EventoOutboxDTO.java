@@ -0,0 +1,30 @@
+package com.roxfarma.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.roxfarma.model.TipoEvento;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento del outbox tal como se entrega a los consumidores
+ * El payload ya está serializado en JSON y se incluye sin volver a procesarlo.
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoOutboxDTO {
+
+    private Long idEvento;
+    // Posición en el orden de confirmación; es el cursor de los consumidores
+    private Long secuencia;
+    private TipoEvento tipo;
+    private String agregado;
+    private Long idAgregado;
+    @JsonRawValue
+    private String payload;
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,33 @@
+package com.roxfarma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros del listado paginado de productos; todos opcionales
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroCatalogoDTO {
+
+    // Parte del nombre del producto o de su categoría
+    private String texto;
+
+    private Long idCategoria;
+
+    private Integer stockMin;
+
+    private Integer stockMax;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate vencimientoDesde;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate vencimientoHasta;
+}
@@ -0,0 +1,24 @@
+package com.roxfarma.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con la cantidad contada de un producto en el inventario físico
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemConteoDTO {
+
+    @NotNull(message = "El producto es obligatorio")
+    private Long idProducto;
+
+    @NotNull(message = "La cantidad contada es obligatoria")
+    @Min(value = 0, message = "La cantidad contada no puede ser negativa")
+    private Integer cantidadContada;
+}
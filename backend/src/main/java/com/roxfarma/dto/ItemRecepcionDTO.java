@@ -0,0 +1,33 @@
+package com.roxfarma.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * DTO con las unidades recibidas de una línea del pedido en una entrega
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemRecepcionDTO {
+
+    @NotNull(message = "La línea del pedido es obligatoria")
+    private Long idDetallePedido;
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    private Integer cantidad;
+
+    // Lote de esta entrega; si no se indica, se usa el del detalle del pedido
+    @Size(max = 50, message = "El código de lote no puede superar 50 caracteres")
+    private String codigoLote;
+
+    private LocalDate fechaVencimientoLote;
+}
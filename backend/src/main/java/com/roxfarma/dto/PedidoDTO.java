@@ -26,4 +26,9 @@ public class PedidoDTO {
     @NotEmpty(message = "Debe incluir al menos un producto en el pedido")
     @Valid
     private List<DetallePedidoDTO> detalles;
+
+    /**
+     * Almacén que recibirá la mercadería; si no se indica, el principal.
+     */
+    private Long idAlmacen;
 }
@@ -0,0 +1,28 @@
+package com.roxfarma.dto;
+
+import com.roxfarma.model.EstadoPedido;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Línea de pedido con unidades todavía por recibir
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendientePedidoDTO {
+
+    private Long idPedido;
+    private Long idDetallePedido;
+    private Long idProducto;
+    private String nombreProducto;
+    private Integer cantidad;
+    private Integer cantidadRecibida;
+    private Integer cantidadPendiente;
+    private EstadoPedido estado;
+    private LocalDateTime fecha;
+}
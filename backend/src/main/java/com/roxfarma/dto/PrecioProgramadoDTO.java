@@ -0,0 +1,31 @@
+package com.roxfarma.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO para programar un cambio de precio de un producto a partir de una fecha futura
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrecioProgramadoDTO {
+
+    @NotNull(message = "El precio es obligatorio")
+    @DecimalMin(value = "0.01", message = "El precio debe ser mayor a 0")
+    @Digits(integer = 8, fraction = 2, message = "El precio debe tener máximo 8 dígitos enteros y 2 decimales")
+    private BigDecimal precio;
+
+    @NotNull(message = "La fecha de vigencia es obligatoria")
+    @Future(message = "La fecha de vigencia debe ser futura")
+    private LocalDateTime vigenteDesde;
+}
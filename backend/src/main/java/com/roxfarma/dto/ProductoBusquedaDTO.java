@@ -0,0 +1,25 @@
+package com.roxfarma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Resultado de la búsqueda de productos, con su puntaje de coincidencia
+ * No incluye el stock: se consulta con GET /api/productos/{id}
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductoBusquedaDTO {
+
+    private Long idProducto;
+    private String nombre;
+    private String presentacion;
+    private String categoria;
+    private BigDecimal precio;
+    private Double puntaje;
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 /**
  * DTO para transferencia de datos de Producto
@@ -43,4 +44,15 @@ public class ProductoDTO {
  
     @NotNull(message = "La categoría es obligatoria")
     private Long idCategoria;
+
+    /**
+     * Códigos de barras del producto; reemplazan a los actuales. null = no cambiarlos.
+     */
+    @Size(max = 20, message = "Un producto no puede tener más de 20 códigos de barras")
+    private List<@NotBlank(message = "El código de barras no puede estar vacío") String> codigosBarras;
+
+    /**
+     * Versión del producto que se editó; alternativa al encabezado If-Match.
+     */
+    private Long version;
 }
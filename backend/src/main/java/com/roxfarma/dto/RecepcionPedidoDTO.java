@@ -0,0 +1,27 @@
+package com.roxfarma.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para registrar una entrega (total o parcial) de un pedido
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecepcionPedidoDTO {
+
+    @NotEmpty(message = "Debe incluir al menos una línea recibida")
+    @Valid
+    private List<ItemRecepcionDTO> items;
+
+    @Size(max = 255, message = "La observación no puede superar 255 caracteres")
+    private String observacion;
+}
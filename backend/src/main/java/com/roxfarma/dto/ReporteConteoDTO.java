@@ -0,0 +1,39 @@
+package com.roxfarma.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado de la conciliación de un inventario físico
+ * - discrepancias: productos ajustados y su diferencia
+ * - conflictos: productos cuyo stock cambió durante la conciliación (no se ajustaron,
+ *   deben volver a contarse o enviarse de nuevo)
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+public class ReporteConteoDTO {
+
+    private Long idAlmacen;
+
+    private int productosContados;
+
+    private int productosSinDiferencia;
+
+    private int productosAjustados;
+
+    private long unidadesSobrantes;
+
+    private long unidadesFaltantes;
+
+    private int bloques;
+
+    private List<DiscrepanciaConteoDTO> discrepancias = new ArrayList<>();
+
+    private List<Long> conflictos = new ArrayList<>();
+
+    private List<Long> noEncontrados = new ArrayList<>();
+}
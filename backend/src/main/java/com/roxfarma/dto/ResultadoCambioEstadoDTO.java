@@ -0,0 +1,23 @@
+package com.roxfarma.dto;
+
+import com.roxfarma.model.EstadoPedido;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de un cambio de estado en lote: pedidos cambiados y rechazados
+ * (inexistentes o en un estado desde el que no se permite el cambio)
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoCambioEstadoDTO {
+
+    private EstadoPedido estado;
+    private List<Long> actualizados;
+    private List<Long> rechazados;
+}
@@ -0,0 +1,30 @@
+package com.roxfarma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva de productos desde CSV
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoImportacionDTO {
+
+    private int filasLeidas;
+
+    private int insertados;
+
+    private int actualizados;
+
+    private int filasConError;
+
+    // Solo las primeras; filasConError tiene el total
+    private List<ErrorFilaImportacionDTO> errores;
+
+    private long duracionMs;
+}
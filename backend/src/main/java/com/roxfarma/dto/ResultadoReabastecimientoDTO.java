@@ -0,0 +1,24 @@
+package com.roxfarma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resumen de una ejecución del motor de reabastecimiento
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoReabastecimientoDTO {
+
+    private int productosRevisados;
+    private int sugerencias;
+    private int sinProveedor;
+    private List<Long> pedidosBorrador;
+    private LocalDateTime fecha;
+}
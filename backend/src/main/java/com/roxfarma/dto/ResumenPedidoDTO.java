@@ -0,0 +1,30 @@
+package com.roxfarma.dto;
+
+import com.roxfarma.model.EstadoPedido;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumen de un pedido para el listado, sin sus líneas
+ * Las cantidades de líneas y unidades se calculan en la consulta
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenPedidoDTO {
+
+    private Long idPedido;
+    private LocalDateTime fecha;
+    private EstadoPedido estado;
+    private Long idProveedor;
+    private String nombreProveedor;
+    private Long idAlmacen;
+    private String nombreAlmacen;
+    private Long lineas;
+    private Long unidades;
+    private Long unidadesPendientes;
+}
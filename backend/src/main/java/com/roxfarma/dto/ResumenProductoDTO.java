@@ -0,0 +1,36 @@
+package com.roxfarma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Resumen de un producto para los listados, con la categoría aplanada
+ * Se arma en la consulta (sin cargar entidades), así el listado no arrastra el
+ * grafo de Producto y la conexión se libera antes de escribir el JSON
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenProductoDTO {
+
+    private Long idProducto;
+
+    private String nombre;
+
+    private String presentacion;
+
+    private BigDecimal precio;
+
+    private Integer stock;
+
+    private LocalDate fechaVencimiento;
+
+    private Long idCategoria;
+
+    private String nombreCategoria;
+}
@@ -0,0 +1,29 @@
+package com.roxfarma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Resumen de una venta para el listado, sin sus detalles
+ * Cliente, usuario y almacén van aplanados en lugar de como entidades
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenVentaDTO {
+
+    private Long idVenta;
+    private LocalDateTime fecha;
+    private Long idCliente;
+    private String nombreCliente;
+    private Long idUsuario;
+    private String nombreUsuario;
+    private Long idAlmacen;
+    private String nombreAlmacen;
+    private BigDecimal total;
+}
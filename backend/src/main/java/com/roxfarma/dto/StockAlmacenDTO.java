@@ -0,0 +1,19 @@
+package com.roxfarma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock de un producto en un almacén
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlmacenDTO {
+
+    private Long idAlmacen;
+    private String nombreAlmacen;
+    private Integer cantidad;
+}
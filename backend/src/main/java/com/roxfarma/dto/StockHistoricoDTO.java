@@ -0,0 +1,29 @@
+package com.roxfarma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con el stock reconstruido de un producto en un momento pasado
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHistoricoDTO {
+
+    private Long idProducto;
+
+    private String nombre;
+
+    // Momento consultado
+    private LocalDateTime fecha;
+
+    private Integer stock;
+
+    // Corte desde el que se reprodujeron los movimientos (null si se partió del stock actual)
+    private LocalDateTime fechaCorte;
+}
@@ -0,0 +1,30 @@
+package com.roxfarma.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para transferir stock de un producto entre dos almacenes
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferenciaDTO {
+
+    @NotNull(message = "El producto es obligatorio")
+    private Long idProducto;
+
+    @NotNull(message = "El almacén de origen es obligatorio")
+    private Long idAlmacenOrigen;
+
+    @NotNull(message = "El almacén de destino es obligatorio")
+    private Long idAlmacenDestino;
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    private Integer cantidad;
+}
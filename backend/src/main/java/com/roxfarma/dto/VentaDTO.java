@@ -26,4 +26,9 @@ public class VentaDTO {
     @NotEmpty(message = "Debe incluir al menos un producto en la venta")
     @Valid
     private List<DetalleVentaDTO> detalles;
+
+    /**
+     * Almacén del que sale la mercadería; si no se indica, el principal.
+     */
+    private Long idAlmacen;
 }
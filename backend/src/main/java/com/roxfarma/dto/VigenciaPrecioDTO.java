@@ -0,0 +1,25 @@
+package com.roxfarma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Precio de un producto con su rango de vigencia [vigenteDesde, vigenteHasta)
+ * vigenteHasta es null para el último precio; programado indica que aún no entra en vigencia.
+ * @author grupo2
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VigenciaPrecioDTO {
+
+    private Long idPrecio;
+    private BigDecimal precio;
+    private LocalDateTime vigenteDesde;
+    private LocalDateTime vigenteHasta;
+    private Boolean programado;
+}
@@ -0,0 +1,38 @@
+package com.roxfarma.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado cuando un producto entra o sale de una alerta de inventario
+ * (stock bajo o próximo a vencer). Solo se publica al cruzar el umbral,
+ * no en cada movimiento de stock.
+ * @author grupo2
+ */
+@Getter
+@AllArgsConstructor
+public class AlertaInventarioEvent {
+
+    public enum Tipo {
+        STOCK_BAJO,
+        STOCK_NORMALIZADO,
+        PROXIMO_VENCER,
+        VENCIMIENTO_NORMALIZADO,
+        PRODUCTO_ELIMINADO
+    }
+
+    private final Tipo tipo;
+
+    private final Long idProducto;
+
+    private final String nombre;
+
+    private final Integer stock;
+
+    private final LocalDate fechaVencimiento;
+
+    private final LocalDateTime fecha;
+}
@@ -0,0 +1,33 @@
+package com.roxfarma.event;
+
+import com.roxfarma.dto.EventoOutboxDTO;
+import com.roxfarma.model.TipoEvento;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consumidor en proceso de los eventos del outbox
+ * - OutboxRelayService entrega los eventos en orden de confirmación (secuencia) y en lotes
+ * - La entrega es al menos una vez: tras una caída se puede recibir de nuevo
+ *   un lote ya procesado, por eso el procesamiento debe ser idempotente
+ * - Si procesar lanza una excepción, la posición no avanza y el lote se reintenta
+ * - Un consumidor nuevo empieza en el último evento existente, sin historial
+ * @author grupo2
+ */
+public interface OutboxListener {
+
+    /**
+     * Nombre único del consumidor; identifica su posición guardada.
+     */
+    String getNombre();
+
+    /**
+     * Tipos de evento que le interesan; vacío recibe todos.
+     */
+    default Set<TipoEvento> getTipos() {
+        return Set.of();
+    }
+
+    void procesar(List<EventoOutboxDTO> eventos);
+}
@@ -0,0 +1,19 @@
+package com.roxfarma.exception;
+
+/**
+ * Excepción lanzada cuando una actualización no pudo aplicarse por modificaciones concurrentes,
+ * incluso después de reintentar.
+ * Esta excepción es manejada por GlobalExceptionHandler
+ * y retorna un error HTTP 409 (Conflict).
+ * @author grupo2
+ */
+public class ConflictoConcurrenciaException extends RuntimeException {
+    
+    public ConflictoConcurrenciaException(String mensaje) {
+        super(mensaje);
+    }
+
+    public ConflictoConcurrenciaException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
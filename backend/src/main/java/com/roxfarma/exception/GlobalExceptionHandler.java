@@ -2,6 +2,7 @@ package com.roxfarma.exception;
 
 import com.roxfarma.dto.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -10,6 +11,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -85,6 +87,74 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
     
+    /**
+     * Maneja ConflictoConcurrenciaException y los fallos de bloqueo optimista de JPA (409 Conflict)
+     * Se lanza cuando otro usuario o proceso modificó el registro al mismo tiempo
+     */
+    @ExceptionHandler({ConflictoConcurrenciaException.class, ObjectOptimisticLockingFailureException.class})
+    public ResponseEntity<ErrorResponse> handleConflictoConcurrencia(RuntimeException ex) {
+        log.warn("Conflicto de concurrencia: {}", ex.getMessage());
+        
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "El registro fue modificado por otro usuario. Recargue los datos e intente nuevamente.",
+                LocalDateTime.now()
+        );
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+    
+    /**
+     * Maneja PrecondicionFallidaException (412 Precondition Failed)
+     * Se lanza cuando la versión de If-Match no es la versión actual
+     */
+    @ExceptionHandler(PrecondicionFallidaException.class)
+    public ResponseEntity<ErrorResponse> handlePrecondicionFallida(PrecondicionFallidaException ex) {
+        log.warn("Precondición fallida: {}", ex.getMessage());
+        
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.PRECONDITION_FAILED.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+    
+    /**
+     * Maneja PrecondicionRequeridaException (428 Precondition Required)
+     * Se lanza cuando una actualización no indica qué versión se editó
+     */
+    @ExceptionHandler(PrecondicionRequeridaException.class)
+    public ResponseEntity<ErrorResponse> handlePrecondicionRequerida(PrecondicionRequeridaException ex) {
+        log.warn("Precondición requerida: {}", ex.getMessage());
+        
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.PRECONDITION_REQUIRED.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        
+        return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body(error);
+    }
+    
+    /**
+     * Maneja TiempoEsperaAgotadoException (503 Service Unavailable)
+     * Se lanza cuando las consultas de un endpoint compuesto superan su plazo
+     */
+    @ExceptionHandler(TiempoEsperaAgotadoException.class)
+    public ResponseEntity<ErrorResponse> handleTiempoEsperaAgotado(TiempoEsperaAgotadoException ex) {
+        log.warn("Tiempo de espera agotado: {}", ex.getMessage());
+        
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "El servidor tardó demasiado en responder. Intente nuevamente.",
+                LocalDateTime.now()
+        );
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+    
     /**
      * Maneja MethodArgumentNotValidException (400 Bad Request)
      * Se lanza cuando falla la validación de un DTO con @Valid
@@ -162,6 +232,23 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
     
+    /**
+     * Maneja MaxUploadSizeExceededException (413 Payload Too Large)
+     * Se lanza cuando el archivo subido supera spring.servlet.multipart.max-file-size
+     */
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ErrorResponse> handleMaxUploadSize(MaxUploadSizeExceededException ex) {
+        log.warn("Archivo demasiado grande: {}", ex.getMessage());
+        
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                "El archivo supera el tamaño máximo permitido",
+                LocalDateTime.now()
+        );
+        
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(error);
+    }
+    
     /**
      * Maneja cualquier otra excepción no capturada (500 Internal Server Error)
      * Este es el manejador de último recurso
@@ -0,0 +1,19 @@
+package com.roxfarma.exception;
+
+/**
+ * Excepción lanzada cuando la versión indicada en If-Match no coincide con la versión actual
+ * del recurso: el cliente editó una copia desactualizada.
+ * Esta excepción es manejada por GlobalExceptionHandler
+ * y retorna un error HTTP 412 (Precondition Failed).
+ * @author grupo2
+ */
+public class PrecondicionFallidaException extends RuntimeException {
+    
+    public PrecondicionFallidaException(String mensaje) {
+        super(mensaje);
+    }
+
+    public PrecondicionFallidaException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
@@ -0,0 +1,19 @@
+package com.roxfarma.exception;
+
+/**
+ * Excepción lanzada cuando una actualización no indica la versión del recurso que se editó
+ * (cabecera If-Match o campo version).
+ * Esta excepción es manejada por GlobalExceptionHandler
+ * y retorna un error HTTP 428 (Precondition Required).
+ * @author grupo2
+ */
+public class PrecondicionRequeridaException extends RuntimeException {
+    
+    public PrecondicionRequeridaException(String mensaje) {
+        super(mensaje);
+    }
+
+    public PrecondicionRequeridaException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
@@ -0,0 +1,19 @@
+package com.roxfarma.exception;
+
+/**
+ * Excepción lanzada cuando una operación compuesta no termina dentro de su plazo
+ * Ejemplo: las consultas en paralelo del dashboard o de un reporte
+ * Esta excepción es manejada por GlobalExceptionHandler
+ * y retorna un error HTTP 503 (Service Unavailable).
+ * @author grupo2
+ */
+public class TiempoEsperaAgotadoException extends RuntimeException {
+
+    public TiempoEsperaAgotadoException(String mensaje) {
+        super(mensaje);
+    }
+
+    public TiempoEsperaAgotadoException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
@@ -0,0 +1,50 @@
+package com.roxfarma.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un almacén (ubicación física del stock)
+ * El almacén principal recibe el stock cuando una operación no indica almacén.
+ * @author grupo2
+ */
+@Entity
+@Table(name = "almacen")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class Almacen {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_almacen")
+    private Long idAlmacen;
+
+    @Column(nullable = false, length = 100, unique = true)
+    private String nombre;
+
+    @Column(length = 200)
+    private String direccion;
+
+    @Column(nullable = false)
+    private Boolean principal = false;
+
+    @Column(nullable = false)
+    private Boolean activo = true;
+
+    @Column(name = "fecha_creacion", updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    @PrePersist
+    protected void onCreate() {
+        fechaCreacion = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,37 @@
+package com.roxfarma.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un código de barras de un producto
+ * Un producto puede tener varios (distintas presentaciones de caja, códigos del
+ * proveedor); cada código pertenece a un solo producto. Se guarda normalizado
+ * (ver Gtin), así que el código es la clave primaria.
+ * @author grupo2
+ */
+@Entity
+@Table(name = "codigo_barras", indexes = {
+        @Index(name = "idx_codigo_barras_producto", columnList = "id_producto")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodigoBarras {
+
+    @Id
+    @Column(length = 50)
+    private String codigo;
+
+    @Column(name = "id_producto", nullable = false)
+    private Long idProducto;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+}
@@ -7,14 +7,24 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDate;
 
 /**
  * Entidad que representa el detalle de un Pedido
  * Cada detalle contiene un producto y su cantidad solicitada
+ * Recepciones parciales:
+ * - cantidad_recibida y cantidad_pendiente se mantienen al registrar cada recepción,
+ *   así lo pendiente se consulta sin recorrer el historial de recepciones
+ * - Solo las escribe el UPDATE condicionado de la recepción (updatable = false):
+ *   Hibernate nunca las sobrescribe con una copia en memoria desactualizada
  * @author grupo2
  */
 @Entity
-@Table(name = "detalle_pedido")
+@Table(name = "detalle_pedido", indexes = {
+        @Index(name = "idx_detalle_pedido_pendiente", columnList = "id_producto, cantidad_pendiente")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -38,4 +48,19 @@ public class DetallePedido {
 
     @Column(nullable = false)
     private Integer cantidad;
+
+    @Column(name = "cantidad_recibida", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private Integer cantidadRecibida = 0;
+
+    @Column(name = "cantidad_pendiente", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private Integer cantidadPendiente = 0;
+    
+    // Datos del lote que se creará al recibir el pedido (opcionales)
+    @Column(name = "codigo_lote", length = 50)
+    private String codigoLote;
+    
+    @Column(name = "fecha_vencimiento_lote")
+    private LocalDate fechaVencimientoLote;
 }
@@ -0,0 +1,52 @@
+package com.roxfarma.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Entidad que representa las unidades de una línea del pedido recibidas en una entrega
+ * @author grupo2
+ */
+@Entity
+@Table(name = "detalle_recepcion", indexes = {
+        @Index(name = "idx_detalle_recepcion_detalle_pedido", columnList = "id_detalle_pedido")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class DetalleRecepcion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_detalle_recepcion")
+    private Long idDetalleRecepcion;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_recepcion", nullable = false)
+    @JsonIgnore
+    private RecepcionPedido recepcion;
+
+    @Column(name = "id_detalle_pedido", nullable = false)
+    private Long idDetallePedido;
+
+    @Column(name = "id_producto", nullable = false)
+    private Long idProducto;
+
+    @Column(nullable = false)
+    private Integer cantidad;
+
+    @Column(name = "codigo_lote", nullable = false, length = 50)
+    private String codigoLote;
+
+    @Column(name = "fecha_vencimiento_lote", nullable = false)
+    private LocalDate fechaVencimientoLote;
+}
@@ -16,6 +16,7 @@ import java.math.BigDecimal;
  * Nota
  * - El precio se guarda en el detalle para mantener histórico
  * - Si el precio del producto cambia después, las ventas anteriores mantienen el precio original
+ * - Si las unidades salen de varios lotes, se registra un detalle por lote
  * @author grupo2
  */
 @Entity
@@ -47,6 +48,14 @@ public class DetalleVenta {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal precio;
     
+    /**
+     * Lote del que salieron las unidades (trazabilidad).
+     * Es null para unidades vendidas de stock sin lote.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_lote")
+    private Lote lote;
+    
     //No se persiste en la BD, se calcula en tiempo de ejecución.
     @Transient
     public BigDecimal getSubtotal() {
@@ -3,19 +3,28 @@ package com.roxfarma.model;
 /**
  * Enumeración que representa los estados de un pedido en el sistema
  * Flujo de estados:
- * PENDIENTE → ENVIADO → RECIBIDO
+ * (BORRADOR →) PENDIENTE → ENVIADO → (RECIBIDO_PARCIAL) → RECIBIDO
  * Reglas de negocio
- * - Un pedido inicia en estado PENDIENTE
+ * - El motor de reabastecimiento crea pedidos en BORRADOR; un usuario los aprueba
+ *   (pasan a PENDIENTE) o los descarta
+ * - Un pedido creado por un usuario inicia en estado PENDIENTE
  * - Solo se puede cambiar al siguiente estado en secuencia
- * - Cuando un pedido llega a RECIBIDO, se actualiza el stock automáticamente
+ * - Cada recepción ingresa al stock las cantidades recibidas; mientras quede
+ *   algo pendiente el pedido queda en RECIBIDO_PARCIAL
+ * - Al no quedar nada pendiente el pedido pasa a RECIBIDO automáticamente
+ * - Marcar un pedido como RECIBIDO recibe todo lo que estaba pendiente
  * - Un pedido en estado RECIBIDO no puede modificarse
  * @author grupo2
  */
 public enum EstadoPedido {
 
+    BORRADOR,
+    
     PENDIENTE,
     
     ENVIADO,
     
+    RECIBIDO_PARCIAL,
+    
     RECIBIDO
 }
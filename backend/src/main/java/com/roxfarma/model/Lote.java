@@ -0,0 +1,78 @@
+package com.roxfarma.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un Lote de un producto
+ * - Un mismo producto puede tener varios lotes con distinta fecha de vencimiento
+ * - Los lotes se crean al recibir un pedido, en el almacén que lo recibe
+ * - Una transferencia descuenta del lote de origen y crea en el destino un lote
+ *   con el mismo código y vencimiento
+ * - Las ventas consumen los lotes de su almacén en orden FEFO (primero en vencer,
+ *   primero en salir)
+ * El stock sigue en stock_almacen; cantidadDisponible es la parte del stock del
+ * producto en el almacén que pertenece al lote.
+ * @author grupo2
+ */
+@Entity
+@Table(name = "lote", indexes = {
+        @Index(name = "idx_lote_producto_vencimiento", columnList = "id_producto, fecha_vencimiento"),
+        @Index(name = "idx_lote_almacen_producto", columnList = "id_almacen, id_producto")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class Lote {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_lote")
+    private Long idLote;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_producto", nullable = false)
+    @JsonIgnore
+    private Producto producto;
+
+    // Almacén donde están las unidades del lote
+    @Column(name = "id_almacen", nullable = false)
+    private Long idAlmacen;
+
+    // Código del lote impreso en el empaque
+    @Column(nullable = false, length = 50)
+    private String codigo;
+
+    @Column(name = "fecha_vencimiento", nullable = false)
+    private LocalDate fechaVencimiento;
+
+    @Column(name = "cantidad_inicial", nullable = false)
+    private Integer cantidadInicial;
+
+    @Column(name = "cantidad_disponible", nullable = false)
+    private Integer cantidadDisponible;
+
+    // Pedido con el que ingresó el lote
+    @Column(name = "id_pedido")
+    private Long idPedido;
+
+    @Column(name = "fecha_ingreso", nullable = false)
+    private LocalDateTime fechaIngreso;
+
+    @PrePersist
+    protected void onCreate() {
+        if (fechaIngreso == null) {
+            fechaIngreso = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.roxfarma.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un movimiento de inventario (kardex)
+ * - Tabla de solo inserción: un movimiento nunca se modifica ni se elimina
+ * - Guarda el stock antes y después del movimiento, así el saldo de cualquier
+ *   fecha se obtiene del último movimiento anterior sin recorrer todo el historial
+ * - Referencia a la venta o pedido que lo originó (sin FK, el kardex debe
+ *   sobrevivir aunque se elimine el documento o el producto)
+ * Se indexa por (id_producto, fecha) para que las consultas por producto y
+ * periodo sean recorridos de índice.
+ * @author grupo2
+ */
+@Entity
+@Immutable
+@Table(name = "movimiento_inventario", indexes = {
+        @Index(name = "idx_movimiento_producto_fecha", columnList = "id_producto, fecha"),
+        @Index(name = "idx_movimiento_fecha", columnList = "fecha"),
+        @Index(name = "idx_movimiento_venta", columnList = "id_venta"),
+        @Index(name = "idx_movimiento_pedido", columnList = "id_pedido")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimientoInventario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_movimiento")
+    private Long idMovimiento;
+
+    @Column(name = "id_producto", nullable = false)
+    private Long idProducto;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoMovimiento tipo;
+
+    /**
+     * Motivo del movimiento
+     * Ejemplos: "VENTA", "PEDIDO_RECIBIDO", "STOCK_INICIAL", "AJUSTE_MANUAL"
+     */
+    @Column(nullable = false, length = 50)
+    private String motivo;
+
+    // Unidades movidas, siempre positivas; el signo lo da el tipo o la diferencia de stock
+    @Column(nullable = false)
+    private Integer cantidad;
+
+    @Column(name = "stock_anterior", nullable = false)
+    private Integer stockAnterior;
+
+    @Column(name = "stock_nuevo", nullable = false)
+    private Integer stockNuevo;
+
+    @Column(nullable = false, length = 50)
+    private String usuario;
+
+    @Column(name = "id_venta")
+    private Long idVenta;
+
+    @Column(name = "id_pedido")
+    private Long idPedido;
+
+    /**
+     * Almacén afectado; null en los movimientos sobre el total del producto
+     * (stock inicial, ajustes manuales y movimientos anteriores a los almacenes).
+     */
+    @Column(name = "id_almacen")
+    private Long idAlmacen;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    @PrePersist
+    protected void onCreate() {
+        if (fecha == null) {
+            fecha = LocalDateTime.now();
+        }
+    }
+}
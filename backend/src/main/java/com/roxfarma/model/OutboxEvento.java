@@ -0,0 +1,58 @@
+package com.roxfarma.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un evento de dominio pendiente de entregar (outbox)
+ * - Se inserta en la misma transacción que la venta, pedido o cambio de stock
+ *   que lo origina: si la transacción hace rollback, el evento no existe
+ * - El ID autoincremental se asigna al insertar, no al confirmar; la secuencia
+ *   la asigna el relay cuando el evento ya es visible y es el cursor con el que
+ *   cada consumidor lee los eventos en orden (null mientras no se numera)
+ * - La fecha se toma del reloj de la base de datos con milisegundos
+ * - Los eventos antiguos se purgan según la retención configurada
+ * Las escrituras y lecturas se hacen por JDBC desde OutboxService.
+ * @author grupo2
+ */
+@Entity
+@Immutable
+@Table(name = "outbox_evento", indexes = {
+        @Index(name = "idx_outbox_fecha", columnList = "fecha"),
+        @Index(name = "uk_outbox_secuencia", columnList = "secuencia", unique = true)
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvento {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_evento")
+    private Long idEvento;
+
+    private Long secuencia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TipoEvento tipo;
+
+    @Column(nullable = false, length = 30)
+    private String agregado;
+
+    @Column(name = "id_agregado", nullable = false)
+    private Long idAgregado;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime fecha;
+}
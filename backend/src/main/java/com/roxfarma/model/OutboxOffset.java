@@ -0,0 +1,36 @@
+package com.roxfarma.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa la posición de un consumidor del outbox
+ * - Guarda la secuencia del último evento que el consumidor procesó
+ * - Se actualiza después de procesar cada lote: si el proceso cae antes, el lote
+ *   se vuelve a entregar (entrega al menos una vez)
+ * - Solo avanza, nunca retrocede
+ * @author grupo2
+ */
+@Entity
+@Table(name = "outbox_offset")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxOffset {
+
+    @Id
+    @Column(length = 100)
+    private String consumidor;
+
+    @Column(name = "ultimo_evento", nullable = false)
+    private Long ultimoEvento;
+
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+}
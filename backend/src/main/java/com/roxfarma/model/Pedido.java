@@ -17,7 +17,9 @@ import java.util.List;
  * @author grupo2
  */
 @Entity
-@Table(name = "pedido")
+@Table(name = "pedido", indexes = {
+        @Index(name = "idx_pedido_estado_fecha", columnList = "estado, fecha")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -40,6 +42,13 @@ public class Pedido {
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "id_proveedor", nullable = false)
     private Proveedor proveedor;
+
+    /**
+     * Almacén que recibe la mercadería; si es null se recibe en el principal.
+     */
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "id_almacen")
+    private Almacen almacen;
     
     /**
      * CascadeType.ALL: Las operaciones en el pedido se propagan a los detalles
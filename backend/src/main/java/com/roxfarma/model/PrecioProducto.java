@@ -0,0 +1,50 @@
+package com.roxfarma.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un precio de un producto con su fecha de inicio de vigencia
+ * Cada precio rige desde vigenteDesde hasta el inicio del siguiente precio del mismo
+ * producto, así que la vigencia no se guarda cerrada y agregar un precio no modifica
+ * los anteriores. Los precios con fecha futura son cambios programados: 'aplicado'
+ * indica si ya se copió a Producto.precio.
+ * @author grupo2
+ */
+@Entity
+@Table(name = "precio_producto", indexes = {
+        @Index(name = "idx_precio_producto_vigencia", columnList = "id_producto, vigente_desde"),
+        @Index(name = "idx_precio_pendiente", columnList = "aplicado, vigente_desde")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrecioProducto {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_precio")
+    private Long idPrecio;
+
+    @Column(name = "id_producto", nullable = false)
+    private Long idProducto;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal precio;
+
+    @Column(name = "vigente_desde", nullable = false)
+    private LocalDateTime vigenteDesde;
+
+    @Column(nullable = false)
+    private Boolean aplicado;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+}
@@ -1,11 +1,15 @@
 package com.roxfarma.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -14,10 +18,17 @@ import java.time.LocalDateTime;
 /**
  * Entidad que representa un Producto en el sistema
  Extensible mediante herencia si se necesitan tipos especiales de productos
+ * Está en la caché de segundo nivel: el stock total se escribe por JDBC, así que quien
+ * lo cambia debe invalidar la entrada (ver CacheEntidadesService)
  * @author grupo2
  */
 @Entity
-@Table(name = "producto")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "producto")
+@Table(name = "producto", indexes = {
+        @Index(name = "idx_producto_actualizacion", columnList = "fecha_actualizacion, id_producto"),
+        @Index(name = "uk_producto_secuencia_cambio", columnList = "secuencia_cambio", unique = true)
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -62,14 +73,34 @@ public class Producto {
     @Column(name = "fecha_actualizacion")
     private LocalDateTime fechaActualizacion;
 
+    /**
+     * Control de concurrencia optimista: cada UPDATE incrementa la versión y
+     * falla si otro usuario la cambió antes. Se expone como ETag en la API.
+     */
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
+    /**
+     * Posición del último cambio en la sincronización del catálogo. Cada escritura
+     * la deja en NULL y SincronizacionCatalogoService la numera una vez confirmada;
+     * el valor en memoria (o en la caché) puede no ser el actual.
+     */
+    @JsonIgnore
+    @Column(name = "secuencia_cambio")
+    private Long secuenciaCambio;
+
     @PrePersist
     protected void onCreate() {
         fechaCreacion = LocalDateTime.now();
         fechaActualizacion = LocalDateTime.now();
+        secuenciaCambio = null;
     }
 
     @PreUpdate
     protected void onUpdate() {
         fechaActualizacion = LocalDateTime.now();
+        secuenciaCambio = null;
     }
 }
@@ -0,0 +1,45 @@
+package com.roxfarma.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de un producto eliminado, para que los terminales que sincronizan el
+ * catálogo por cambios sepan que deben quitarlo de su copia local
+ * La posición en la secuencia de bajas la asigna SincronizacionCatalogoService una vez
+ * confirmada la baja (el ID autoincremental no sigue el orden de confirmación).
+ * @author grupo2
+ */
+@Entity
+@Immutable
+@Table(name = "producto_eliminado", indexes = {
+        @Index(name = "idx_producto_eliminado_fecha", columnList = "fecha_eliminacion"),
+        @Index(name = "uk_producto_eliminado_secuencia", columnList = "secuencia", unique = true)
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductoEliminado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_eliminacion")
+    private Long idEliminacion;
+
+    @Column(name = "id_producto", nullable = false)
+    private Long idProducto;
+
+    @Column(name = "fecha_eliminacion", nullable = false)
+    private LocalDateTime fechaEliminacion;
+
+    // Se inserta en NULL y se numera por JDBC
+    @Column(name = "secuencia")
+    private Long secuencia;
+}
@@ -0,0 +1,34 @@
+package com.roxfarma.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un producto por revisar en la próxima ejecución del
+ * motor de reabastecimiento (conjunto de productos "sucios")
+ * - Se marca cada vez que cambia el stock del producto; marcarlo de nuevo solo
+ *   actualiza la fecha
+ * - La ejecución borra las marcas que revisó, salvo las renovadas mientras corría
+ * Las escrituras se hacen por JDBC desde ReabastecimientoService.
+ * @author grupo2
+ */
+@Entity
+@Table(name = "reabastecimiento_pendiente")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReabastecimientoPendiente {
+
+    @Id
+    @Column(name = "id_producto")
+    private Long idProducto;
+
+    @Column(name = "fecha_marca", nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime fechaMarca;
+}
@@ -0,0 +1,51 @@
+package com.roxfarma.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entidad que representa una entrega (recepción) de un pedido de proveedor
+ * - Un pedido puede recibirse en varias entregas; cada una ingresa al stock
+ *   las cantidades recibidas y crea sus lotes
+ * - Sus detalles se insertan en lote por JDBC, por eso la relación es de solo lectura
+ * @author grupo2
+ */
+@Entity
+@Table(name = "recepcion_pedido", indexes = {
+        @Index(name = "idx_recepcion_pedido", columnList = "id_pedido")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class RecepcionPedido {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_recepcion")
+    private Long idRecepcion;
+
+    @Column(name = "id_pedido", nullable = false)
+    private Long idPedido;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    @Column(nullable = false, length = 50)
+    private String usuario;
+
+    @Column(length = 255)
+    private String observacion;
+
+    @OneToMany(mappedBy = "recepcion")
+    private List<DetalleRecepcion> detalles = new ArrayList<>();
+}
@@ -0,0 +1,58 @@
+package com.roxfarma.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa el stock de un producto en un almacén
+ * - Las ventas, recepciones y transferencias actualizan estas filas con UPDATE
+ *   condicionados; dos operaciones sobre el mismo producto en almacenes distintos
+ *   no compiten por la misma fila
+ * - Producto.stock es el total de todos los almacenes; se mantiene al confirmar
+ *   cada transacción (ver MovimientoInventarioService), no se suma al leer
+ * @author grupo2
+ */
+@Entity
+@Table(name = "stock_almacen", indexes = {
+        @Index(name = "idx_stock_almacen_producto", columnList = "id_producto")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlmacen {
+
+    @EmbeddedId
+    private Clave clave;
+
+    @Column(nullable = false)
+    private Integer cantidad;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
+    /**
+     * Clave compuesta: almacén y producto.
+     */
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Clave implements Serializable {
+
+        @Column(name = "id_almacen", nullable = false)
+        private Long idAlmacen;
+
+        @Column(name = "id_producto", nullable = false)
+        private Long idProducto;
+    }
+}
@@ -0,0 +1,57 @@
+package com.roxfarma.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa el stock de un producto en una fecha de corte
+ * - La genera un proceso programado para todo el catálogo con la misma fecha de corte
+ * - Permite reconstruir el stock de cualquier momento pasado reproduciendo solo
+ *   los movimientos del kardex posteriores al corte más cercano
+ * La clave primaria (fecha_corte, id_producto) agrupa físicamente cada corte,
+ * así el catálogo completo de un corte se lee por rangos de producto.
+ * @author grupo2
+ */
+@Entity
+@Immutable
+@Table(name = "stock_checkpoint", indexes = {
+        @Index(name = "idx_checkpoint_producto_fecha", columnList = "id_producto, fecha_corte")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockCheckpoint {
+
+    @EmbeddedId
+    private Clave clave;
+
+    @Column(nullable = false)
+    private Integer stock;
+
+    /**
+     * Clave compuesta: fecha de corte y producto.
+     */
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Clave implements Serializable {
+
+        @Column(name = "fecha_corte", nullable = false)
+        private LocalDateTime fechaCorte;
+
+        @Column(name = "id_producto", nullable = false)
+        private Long idProducto;
+    }
+}
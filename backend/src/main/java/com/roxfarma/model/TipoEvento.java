@@ -0,0 +1,17 @@
+package com.roxfarma.model;
+
+/**
+ * Enumeración que representa el tipo de un evento de dominio publicado en el outbox
+ * - VENTA_REGISTRADA: se confirmó una venta
+ * - PEDIDO_RECIBIDO: se recibió un pedido de proveedor y su stock ingresó
+ * - STOCK_ACTUALIZADO: cambió el stock total de un producto
+ * @author grupo2
+ */
+public enum TipoEvento {
+
+    VENTA_REGISTRADA,
+
+    PEDIDO_RECIBIDO,
+
+    STOCK_ACTUALIZADO
+}
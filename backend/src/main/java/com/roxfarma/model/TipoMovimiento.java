@@ -0,0 +1,17 @@
+package com.roxfarma.model;
+
+/**
+ * Enumeración que representa el tipo de un movimiento de inventario (kardex)
+ * - ENTRADA: incrementa el stock (pedido recibido, stock inicial)
+ * - SALIDA: reduce el stock (venta)
+ * - AJUSTE: corrección manual del stock, puede ser positiva o negativa
+ * @author grupo2
+ */
+public enum TipoMovimiento {
+
+    ENTRADA,
+
+    SALIDA,
+
+    AJUSTE
+}
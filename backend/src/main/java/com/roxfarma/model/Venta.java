@@ -41,6 +41,13 @@ public class Venta {
     @JoinColumn(name = "id_usuario", nullable = false)
     private Usuario usuario;
 
+    /**
+     * Almacén del que salió la mercadería (null en ventas anteriores a los almacenes).
+     */
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "id_almacen")
+    private Almacen almacen;
+
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal total;
     
@@ -0,0 +1,22 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.Almacen;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio (DAO) para la entidad Almacen.
+ * @author grupo2
+ */
+@Repository
+public interface AlmacenRepository extends JpaRepository<Almacen, Long> {
+
+    Optional<Almacen> findFirstByPrincipalTrue();
+
+    List<Almacen> findAllByOrderByNombreAsc();
+
+    boolean existsByNombre(String nombre);
+}
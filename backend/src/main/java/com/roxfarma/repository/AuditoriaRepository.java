@@ -16,7 +16,7 @@ import java.util.List;
  * @author grupo2
  */
 @Repository
-public interface AuditoriaRepository extends JpaRepository<Auditoria, Long> {
+public interface AuditoriaRepository extends JpaRepository<Auditoria, Long>, AuditoriaRepositoryCustom {
     
     List<Auditoria> findByOperacion(String operacion);
 
@@ -0,0 +1,17 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.Auditoria;
+
+import java.util.List;
+
+/**
+ * Operaciones de AuditoriaRepository que no cubre Spring Data.
+ * @author grupo2
+ */
+public interface AuditoriaRepositoryCustom {
+
+    /**
+     * Inserta los registros en lotes JDBC dentro de la transacción actual.
+     */
+    void insertarEnLote(List<Auditoria> registros);
+}
@@ -0,0 +1,40 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.Auditoria;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Implementación JDBC de AuditoriaRepositoryCustom.
+ * @author grupo2
+ */
+@RequiredArgsConstructor
+public class AuditoriaRepositoryImpl implements AuditoriaRepositoryCustom {
+
+    private static final int TAMANO_LOTE = 500;
+
+    private static final String INSERT_AUDITORIA =
+            "INSERT INTO auditoria (operacion, entidad, id_entidad, usuario, fecha, detalles) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertarEnLote(List<Auditoria> registros) {
+        if (registros.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_AUDITORIA, registros, TAMANO_LOTE, (ps, a) -> {
+            ps.setString(1, a.getOperacion());
+            ps.setString(2, a.getEntidad());
+            ps.setObject(3, a.getIdEntidad(), Types.BIGINT);
+            ps.setString(4, a.getUsuario());
+            ps.setTimestamp(5, Timestamp.valueOf(a.getFecha()));
+            ps.setString(6, a.getDetalles());
+        });
+    }
+}
@@ -1,9 +1,14 @@
 package com.roxfarma.repository;
 
 import com.roxfarma.model.Categoria;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Patrón DAO (Data Access Object):
  * - Encapsula toda la lógica de acceso a datos
@@ -23,5 +28,11 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
     // Spring Data JPA proporciona automáticamente todos los métodos CRUD
-    // no se digitará implementación
+
+    /**
+     * Listado completo desde la caché de consultas; se invalida al escribir en la tabla.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Categoria> findAll();
 }
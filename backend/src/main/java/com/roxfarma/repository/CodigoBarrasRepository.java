@@ -0,0 +1,27 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.CodigoBarras;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio (DAO) para la entidad CodigoBarras.
+ * @author grupo2
+ */
+@Repository
+public interface CodigoBarrasRepository extends JpaRepository<CodigoBarras, String> {
+
+    List<CodigoBarras> findByIdProductoOrderByFechaCreacion(Long idProducto);
+
+    List<CodigoBarras> findByCodigoIn(Collection<String> codigos);
+
+    @Modifying
+    @Query("DELETE FROM CodigoBarras c WHERE c.codigo IN :codigos")
+    void eliminarCodigos(@Param("codigos") Collection<String> codigos);
+}
@@ -1,11 +1,17 @@
 package com.roxfarma.repository;
 
+import com.roxfarma.dto.PendientePedidoDTO;
 import com.roxfarma.model.DetallePedido;
 import com.roxfarma.model.Pedido;
 import com.roxfarma.model.Producto;
+import com.roxfarma.repository.projection.CantidadPorProducto;
+import com.roxfarma.repository.projection.ProveedorPorProducto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -16,8 +22,43 @@ import java.util.List;
  * @author grupo2
  */
 @Repository
-public interface DetallePedidoRepository extends JpaRepository<DetallePedido, Long> {
+public interface DetallePedidoRepository extends JpaRepository<DetallePedido, Long>, DetallePedidoRepositoryCustom {
 
     List<DetallePedido> findByPedido(Pedido pedido);
     List<DetallePedido> findByProducto(Producto producto);
+
+    String SELECT_PENDIENTES = "SELECT new com.roxfarma.dto.PendientePedidoDTO(p.idPedido, d.idDetallePedido, " +
+            "pr.idProducto, pr.nombre, d.cantidad, d.cantidadRecibida, d.cantidadPendiente, p.estado, p.fecha) " +
+            "FROM DetallePedido d JOIN d.pedido p JOIN d.producto pr ";
+
+    /**
+     * Líneas con unidades por recibir, de los pedidos más antiguos a los más recientes.
+     */
+    @Query(SELECT_PENDIENTES + "WHERE d.cantidadPendiente > 0 ORDER BY p.fecha, d.idDetallePedido")
+    List<PendientePedidoDTO> listarPendientes();
+
+    /**
+     * Líneas del producto con unidades por recibir (índice id_producto, cantidad_pendiente).
+     */
+    @Query(SELECT_PENDIENTES + "WHERE pr.idProducto = :idProducto AND d.cantidadPendiente > 0 " +
+           "ORDER BY p.fecha, d.idDetallePedido")
+    List<PendientePedidoDTO> listarPendientesPorProducto(@Param("idProducto") Long idProducto);
+
+    /**
+     * Unidades por recibir de cada producto (incluye pedidos en borrador).
+     */
+    @Query("SELECT d.producto.idProducto AS idProducto, SUM(d.cantidadPendiente) AS cantidad " +
+           "FROM DetallePedido d WHERE d.producto.idProducto IN :ids AND d.cantidadPendiente > 0 " +
+           "GROUP BY d.producto.idProducto")
+    List<CantidadPorProducto> sumarPendientePorProducto(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Proveedor de la línea de pedido más reciente de cada producto.
+     */
+    @Query(value = "SELECT d.id_producto AS idProducto, p.id_proveedor AS idProveedor " +
+                   "FROM detalle_pedido d JOIN pedido p ON p.id_pedido = d.id_pedido " +
+                   "WHERE d.id_detalle_pedido IN (SELECT MAX(d2.id_detalle_pedido) FROM detalle_pedido d2 " +
+                   "WHERE d2.id_producto IN (:ids) GROUP BY d2.id_producto)",
+           nativeQuery = true)
+    List<ProveedorPorProducto> buscarUltimoProveedor(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,19 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.DetalleRecepcion;
+
+import java.util.List;
+
+/**
+ * Operaciones de DetallePedidoRepository que no cubre Spring Data.
+ * @author grupo2
+ */
+public interface DetallePedidoRepositoryCustom {
+
+    /**
+     * Suma lo recibido y descuenta lo pendiente de cada línea en un solo envío.
+     * Cada UPDATE exige que la línea tenga pendientes las unidades recibidas.
+     * Retorna la cantidad de líneas que no cumplieron la condición.
+     */
+    int registrarRecibidoEnLote(List<DetalleRecepcion> detalles);
+}
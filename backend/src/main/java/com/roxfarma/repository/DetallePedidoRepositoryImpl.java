@@ -0,0 +1,48 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.DetalleRecepcion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Implementación JDBC de DetallePedidoRepositoryCustom.
+ * @author grupo2
+ */
+@RequiredArgsConstructor
+public class DetallePedidoRepositoryImpl implements DetallePedidoRepositoryCustom {
+
+    private static final int TAMANO_LOTE = 500;
+
+    private static final String REGISTRAR_RECIBIDO =
+            "UPDATE detalle_pedido SET cantidad_recibida = cantidad_recibida + ?, " +
+            "cantidad_pendiente = cantidad_pendiente - ? " +
+            "WHERE id_detalle_pedido = ? AND cantidad_pendiente >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int registrarRecibidoEnLote(List<DetalleRecepcion> detalles) {
+        if (detalles.isEmpty()) {
+            return 0;
+        }
+        int[][] resultados = jdbcTemplate.batchUpdate(REGISTRAR_RECIBIDO, detalles, TAMANO_LOTE, (ps, d) -> {
+            ps.setInt(1, d.getCantidad());
+            ps.setInt(2, d.getCantidad());
+            ps.setLong(3, d.getIdDetallePedido());
+            ps.setInt(4, d.getCantidad());
+        });
+
+        int rechazados = 0;
+        for (int[] lote : resultados) {
+            for (int filas : lote) {
+                // SUCCESS_NO_INFO (-2) no informa filas; la condición ya se validó con el pedido bloqueado
+                if (filas == 0) {
+                    rechazados++;
+                }
+            }
+        }
+        return rechazados;
+    }
+}
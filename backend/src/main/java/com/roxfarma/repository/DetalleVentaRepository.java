@@ -3,12 +3,14 @@ package com.roxfarma.repository;
 import com.roxfarma.model.DetalleVenta;
 import com.roxfarma.model.Producto;
 import com.roxfarma.model.Venta;
+import com.roxfarma.repository.projection.CantidadPorProducto;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -36,4 +38,14 @@ public interface DetalleVentaRepository extends JpaRepository<DetalleVenta, Long
     Long calcularCantidadVendidaPorProducto(@Param("producto") Producto producto,
                                            @Param("inicio") LocalDateTime inicio,
                                            @Param("fin") LocalDateTime fin);
+
+    /**
+     * Unidades vendidas de cada producto desde la fecha, en una sola consulta.
+     */
+    @Query("SELECT dv.producto.idProducto AS idProducto, SUM(dv.cantidad) AS cantidad " +
+           "FROM DetalleVenta dv " +
+           "WHERE dv.producto.idProducto IN :ids AND dv.venta.fecha >= :desde " +
+           "GROUP BY dv.producto.idProducto")
+    List<CantidadPorProducto> sumarVendidoPorProducto(@Param("ids") Collection<Long> ids,
+                                                      @Param("desde") LocalDateTime desde);
 }
@@ -0,0 +1,33 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.Lote;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio (DAO) para la entidad Lote.
+ * @author grupo2
+ */
+@Repository
+public interface LoteRepository extends JpaRepository<Lote, Long>, LoteRepositoryCustom {
+
+    @Query("SELECT l FROM Lote l WHERE l.idAlmacen = :idAlmacen AND l.producto.idProducto = :idProducto " +
+           "AND l.cantidadDisponible > 0")
+    List<Lote> findDisponibles(@Param("idAlmacen") Long idAlmacen, @Param("idProducto") Long idProducto);
+
+    List<Lote> findByProductoIdProductoOrderByFechaVencimientoAsc(Long idProducto);
+
+    /**
+     * Descuenta unidades del lote solo si todavía las tiene.
+     * Retorna 0 si otro proceso ya las consumió (la copia en memoria estaba desactualizada).
+     */
+    @Modifying
+    @Query("UPDATE Lote l SET l.cantidadDisponible = l.cantidadDisponible - :cantidad " +
+           "WHERE l.idLote = :idLote AND l.cantidadDisponible >= :cantidad")
+    int descontar(@Param("idLote") Long idLote, @Param("cantidad") int cantidad);
+}
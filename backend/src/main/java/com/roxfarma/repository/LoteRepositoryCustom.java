@@ -0,0 +1,41 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.Lote;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones de LoteRepository que no cubre Spring Data.
+ * @author grupo2
+ */
+public interface LoteRepositoryCustom {
+
+    /**
+     * Inserta los lotes en lotes JDBC dentro de la transacción actual.
+     * Los IDs generados no se asignan a las entidades.
+     */
+    void insertarEnLote(List<Lote> lotes);
+
+    /**
+     * Lotes con unidades disponibles del producto en el almacén, bloqueados (FOR UPDATE) hasta el
+     * fin de la transacción. Es una lectura actual: ve lo confirmado por otras
+     * transacciones aunque la actual ya tenga su snapshot (REPEATABLE READ).
+     * Las entidades no quedan en el contexto de persistencia.
+     */
+    List<Lote> bloquearDisponibles(Long idAlmacen, Long idProducto);
+
+    /**
+     * Variante de bloquearDisponibles para varios productos con una sola consulta;
+     * las filas se bloquean en orden de producto.
+     */
+    List<Lote> bloquearDisponibles(Long idAlmacen, Collection<Long> idsProducto);
+
+    /**
+     * Descuenta unidades de varios lotes en lotes JDBC. Sin condición: los lotes
+     * deben estar bloqueados por la transacción actual (bloquearDisponibles).
+     * @param cantidades ID del lote → unidades a descontar
+     */
+    void descontarEnLote(Map<Long, Integer> cantidades);
+}
@@ -0,0 +1,107 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.Lote;
+import com.roxfarma.model.Producto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación JDBC de LoteRepositoryCustom.
+ * @author grupo2
+ */
+@RequiredArgsConstructor
+public class LoteRepositoryImpl implements LoteRepositoryCustom {
+
+    private static final int TAMANO_LOTE = 500;
+
+    private static final String INSERT_LOTE =
+            "INSERT INTO lote (id_producto, id_almacen, codigo, fecha_vencimiento, cantidad_inicial, " +
+            "cantidad_disponible, id_pedido, fecha_ingreso) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_DISPONIBLES_BLOQUEANDO =
+            "SELECT id_lote, id_producto, id_almacen, codigo, fecha_vencimiento, cantidad_disponible, id_pedido " +
+            "FROM lote WHERE id_almacen = ? AND id_producto = ? AND cantidad_disponible > 0 " +
+            "ORDER BY id_lote FOR UPDATE";
+
+    private static final String SELECT_DISPONIBLES_VARIOS_BLOQUEANDO =
+            "SELECT id_lote, id_producto, id_almacen, codigo, fecha_vencimiento, cantidad_disponible, id_pedido " +
+            "FROM lote WHERE id_almacen = ? AND id_producto IN (%s) AND cantidad_disponible > 0 " +
+            "ORDER BY id_producto, id_lote FOR UPDATE";
+
+    private static final String UPDATE_DESCONTAR =
+            "UPDATE lote SET cantidad_disponible = cantidad_disponible - ? WHERE id_lote = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertarEnLote(List<Lote> lotes) {
+        if (lotes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_LOTE, lotes, TAMANO_LOTE, (ps, l) -> {
+            ps.setLong(1, l.getProducto().getIdProducto());
+            ps.setLong(2, l.getIdAlmacen());
+            ps.setString(3, l.getCodigo());
+            ps.setDate(4, Date.valueOf(l.getFechaVencimiento()));
+            ps.setInt(5, l.getCantidadInicial());
+            ps.setInt(6, l.getCantidadDisponible());
+            ps.setObject(7, l.getIdPedido(), Types.BIGINT);
+            ps.setTimestamp(8, Timestamp.valueOf(l.getFechaIngreso()));
+        });
+    }
+
+    @Override
+    public List<Lote> bloquearDisponibles(Long idAlmacen, Long idProducto) {
+        return jdbcTemplate.query(SELECT_DISPONIBLES_BLOQUEANDO, this::mapearLote, idAlmacen, idProducto);
+    }
+
+    @Override
+    public List<Lote> bloquearDisponibles(Long idAlmacen, Collection<Long> idsProducto) {
+        if (idsProducto.isEmpty()) {
+            return List.of();
+        }
+        String marcadores = String.join(", ", Collections.nCopies(idsProducto.size(), "?"));
+        List<Object> parametros = new ArrayList<>();
+        parametros.add(idAlmacen);
+        parametros.addAll(idsProducto);
+        return jdbcTemplate.query(String.format(SELECT_DISPONIBLES_VARIOS_BLOQUEANDO, marcadores), this::mapearLote,
+                parametros.toArray());
+    }
+
+    @Override
+    public void descontarEnLote(Map<Long, Integer> cantidades) {
+        if (cantidades.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_DESCONTAR, List.copyOf(cantidades.entrySet()), TAMANO_LOTE, (ps, e) -> {
+            ps.setInt(1, e.getValue());
+            ps.setLong(2, e.getKey());
+        });
+    }
+
+    private Lote mapearLote(ResultSet rs, int fila) throws SQLException {
+        Producto producto = new Producto();
+        producto.setIdProducto(rs.getLong("id_producto"));
+
+        Lote lote = new Lote();
+        lote.setIdLote(rs.getLong("id_lote"));
+        lote.setProducto(producto);
+        lote.setIdAlmacen(rs.getLong("id_almacen"));
+        lote.setCodigo(rs.getString("codigo"));
+        lote.setFechaVencimiento(rs.getDate("fecha_vencimiento").toLocalDate());
+        lote.setCantidadDisponible(rs.getInt("cantidad_disponible"));
+        lote.setIdPedido(rs.getObject("id_pedido", Long.class));
+        return lote;
+    }
+}
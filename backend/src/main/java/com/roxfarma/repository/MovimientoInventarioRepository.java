@@ -0,0 +1,50 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.MovimientoInventario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio (DAO) para la entidad MovimientoInventario (kardex).
+ * Las escrituras se hacen en lote con insertarEnLote; las lecturas
+ * filtran siempre por producto y fecha para aprovechar el índice.
+ * @author grupo2
+ */
+@Repository
+public interface MovimientoInventarioRepository
+        extends JpaRepository<MovimientoInventario, Long>, MovimientoInventarioRepositoryCustom {
+
+    List<MovimientoInventario> findByIdProductoAndFechaBetweenOrderByFechaAscIdMovimientoAsc(
+            Long idProducto, LocalDateTime inicio, LocalDateTime fin);
+
+    List<MovimientoInventario> findByIdVentaOrderByIdMovimientoAsc(Long idVenta);
+
+    List<MovimientoInventario> findByIdPedidoOrderByIdMovimientoAsc(Long idPedido);
+
+    /**
+     * Stock del producto al inicio de la fecha indicada: stock_nuevo del último
+     * movimiento anterior. Cada movimiento guarda su saldo, así que es un solo
+     * salto en el índice (id_producto, fecha) y no una suma desde el origen.
+     */
+    @Query(value = "SELECT m.stock_nuevo FROM movimiento_inventario m " +
+                   "WHERE m.id_producto = :idProducto AND m.fecha < :fecha " +
+                   "ORDER BY m.fecha DESC, m.id_movimiento DESC LIMIT 1",
+           nativeQuery = true)
+    Optional<Integer> obtenerSaldoAntesDe(@Param("idProducto") Long idProducto,
+                                          @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Variación neta de stock del producto en [desde, hasta).
+     */
+    @Query("SELECT COALESCE(SUM(m.stockNuevo - m.stockAnterior), 0) FROM MovimientoInventario m " +
+           "WHERE m.idProducto = :idProducto AND m.fecha >= :desde AND m.fecha < :hasta")
+    Long sumarVariacion(@Param("idProducto") Long idProducto,
+                        @Param("desde") LocalDateTime desde,
+                        @Param("hasta") LocalDateTime hasta);
+}
@@ -0,0 +1,18 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.MovimientoInventario;
+
+import java.util.List;
+
+/**
+ * Operaciones de MovimientoInventarioRepository que no cubre Spring Data.
+ * @author grupo2
+ */
+public interface MovimientoInventarioRepositoryCustom {
+
+    /**
+     * Inserta los movimientos en lotes JDBC dentro de la transacción actual.
+     * Con IDENTITY, Hibernate no puede agrupar inserts; aquí se envían juntos.
+     */
+    void insertarEnLote(List<MovimientoInventario> movimientos);
+}
@@ -0,0 +1,45 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.MovimientoInventario;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Implementación JDBC de MovimientoInventarioRepositoryCustom.
+ * @author grupo2
+ */
+@RequiredArgsConstructor
+public class MovimientoInventarioRepositoryImpl implements MovimientoInventarioRepositoryCustom {
+
+    private static final int TAMANO_LOTE = 500;
+
+    private static final String INSERT_MOVIMIENTO =
+            "INSERT INTO movimiento_inventario (id_producto, tipo, motivo, cantidad, stock_anterior, " +
+            "stock_nuevo, usuario, id_venta, id_pedido, id_almacen, fecha) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertarEnLote(List<MovimientoInventario> movimientos) {
+        if (movimientos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_MOVIMIENTO, movimientos, TAMANO_LOTE, (ps, m) -> {
+            ps.setLong(1, m.getIdProducto());
+            ps.setString(2, m.getTipo().name());
+            ps.setString(3, m.getMotivo());
+            ps.setInt(4, m.getCantidad());
+            ps.setInt(5, m.getStockAnterior());
+            ps.setInt(6, m.getStockNuevo());
+            ps.setString(7, m.getUsuario());
+            ps.setObject(8, m.getIdVenta(), Types.BIGINT);
+            ps.setObject(9, m.getIdPedido(), Types.BIGINT);
+            ps.setObject(10, m.getIdAlmacen(), Types.BIGINT);
+            ps.setTimestamp(11, Timestamp.valueOf(m.getFecha()));
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.OutboxOffset;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repositorio (DAO) para la entidad OutboxOffset.
+ * @author grupo2
+ */
+@Repository
+public interface OutboxOffsetRepository extends JpaRepository<OutboxOffset, String> {
+
+    /**
+     * Guarda la posición del consumidor; si ya tenía una mayor, la conserva.
+     */
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "outbox_offset"))
+    @Query(value = "INSERT INTO outbox_offset (consumidor, ultimo_evento, fecha_actualizacion) " +
+            "VALUES (:consumidor, :ultimoEvento, NOW()) " +
+            "ON DUPLICATE KEY UPDATE ultimo_evento = GREATEST(ultimo_evento, VALUES(ultimo_evento)), " +
+            "fecha_actualizacion = NOW()", nativeQuery = true)
+    int avanzar(@Param("consumidor") String consumidor, @Param("ultimoEvento") Long ultimoEvento);
+}
@@ -1,15 +1,24 @@
 package com.roxfarma.repository;
 
+import com.roxfarma.dto.ResumenPedidoDTO;
 import com.roxfarma.model.EstadoPedido;
 import com.roxfarma.model.Pedido;
 import com.roxfarma.model.Proveedor;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio (DAO) para la entidad Pedido
@@ -30,4 +39,77 @@ public interface PedidoRepository extends JpaRepository<Pedido, Long> {
     List<Pedido> findByEstadoAndProveedor(EstadoPedido estado, Proveedor proveedor);
 
     long countByEstado(EstadoPedido estado);
+
+    /**
+     * Pedido con proveedor, almacén, detalles, productos y categorías en una sola consulta.
+     */
+    @Query("SELECT DISTINCT p FROM Pedido p " +
+           "JOIN FETCH p.proveedor " +
+           "LEFT JOIN FETCH p.almacen " +
+           "LEFT JOIN FETCH p.detalles d " +
+           "LEFT JOIN FETCH d.producto pr " +
+           "LEFT JOIN FETCH pr.categoria " +
+           "WHERE p.idPedido = :id")
+    Optional<Pedido> findConDetallesById(@Param("id") Long id);
+
+    /**
+     * Resumen de pedidos filtrado y paginado; los totales de líneas y unidades se
+     * calculan en la consulta, sin cargar los detalles. Filtros nulos se ignoran.
+     */
+    @Query(value = "SELECT new com.roxfarma.dto.ResumenPedidoDTO(" +
+                   "p.idPedido, p.fecha, p.estado, pv.idProveedor, pv.nombre, a.idAlmacen, a.nombre, " +
+                   "COUNT(d), COALESCE(SUM(d.cantidad), 0L), COALESCE(SUM(d.cantidadPendiente), 0L)) " +
+                   "FROM Pedido p JOIN p.proveedor pv LEFT JOIN p.almacen a LEFT JOIN p.detalles d " +
+                   "WHERE (:estado IS NULL OR p.estado = :estado) " +
+                   "AND (:idProveedor IS NULL OR pv.idProveedor = :idProveedor) " +
+                   "AND (:desde IS NULL OR p.fecha >= :desde) " +
+                   "AND (:hasta IS NULL OR p.fecha < :hasta) " +
+                   "GROUP BY p.idPedido, p.fecha, p.estado, pv.idProveedor, pv.nombre, a.idAlmacen, a.nombre " +
+                   "ORDER BY p.fecha DESC, p.idPedido DESC",
+           countQuery = "SELECT COUNT(p) FROM Pedido p " +
+                        "WHERE (:estado IS NULL OR p.estado = :estado) " +
+                        "AND (:idProveedor IS NULL OR p.proveedor.idProveedor = :idProveedor) " +
+                        "AND (:desde IS NULL OR p.fecha >= :desde) " +
+                        "AND (:hasta IS NULL OR p.fecha < :hasta)")
+    Page<ResumenPedidoDTO> buscarResumen(@Param("estado") EstadoPedido estado,
+                                         @Param("idProveedor") Long idProveedor,
+                                         @Param("desde") LocalDateTime desde,
+                                         @Param("hasta") LocalDateTime hasta,
+                                         Pageable pageable);
+
+    /**
+     * Igual que findConDetallesById, bloqueando el pedido y sus detalles (FOR UPDATE):
+     * dos recepciones del mismo pedido se aplican una después de la otra.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = {"detalles", "detalles.producto"})
+    @Query("SELECT p FROM Pedido p WHERE p.idPedido = :id")
+    Optional<Pedido> findConDetallesParaRecibir(@Param("id") Long id);
+
+    /**
+     * Cambia el estado solo si sigue siendo el esperado (compare-and-set).
+     * Devuelve 0 si otra operación cambió el estado antes.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Pedido p SET p.estado = :nuevo WHERE p.idPedido = :id AND p.estado = :esperado")
+    int cambiarEstado(@Param("id") Long id,
+                      @Param("esperado") EstadoPedido esperado,
+                      @Param("nuevo") EstadoPedido nuevo);
+
+    /**
+     * Cambio de estado de varios pedidos en una sentencia; solo los que siguen en el estado esperado.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Pedido p SET p.estado = :nuevo WHERE p.idPedido IN :ids AND p.estado = :esperado")
+    int cambiarEstadoEnLote(@Param("ids") Collection<Long> ids,
+                            @Param("esperado") EstadoPedido esperado,
+                            @Param("nuevo") EstadoPedido nuevo);
+
+    /**
+     * IDs de los pedidos indicados que están en alguno de los estados, bloqueados (FOR UPDATE)
+     * hasta el fin de la transacción.
+     */
+    @Query(value = "SELECT id_pedido FROM pedido WHERE id_pedido IN (:ids) AND estado IN (:estados) " +
+            "ORDER BY id_pedido FOR UPDATE", nativeQuery = true)
+    List<Long> bloquearPorEstado(@Param("ids") Collection<Long> ids, @Param("estados") Collection<String> estados);
 }
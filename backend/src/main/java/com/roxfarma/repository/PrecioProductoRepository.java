@@ -0,0 +1,44 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.PrecioProducto;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio (DAO) para la entidad PrecioProducto.
+ * @author grupo2
+ */
+@Repository
+public interface PrecioProductoRepository extends JpaRepository<PrecioProducto, Long>, PrecioProductoRepositoryCustom {
+
+    List<PrecioProducto> findByIdProductoOrderByVigenteDesdeAscIdPrecioAsc(Long idProducto);
+
+    List<PrecioProducto> findAllByOrderByIdProductoAscVigenteDesdeAscIdPrecioAsc();
+
+    Optional<PrecioProducto> findByIdProductoAndVigenteDesdeAndAplicadoFalse(Long idProducto, LocalDateTime vigenteDesde);
+
+    /**
+     * Precios programados que ya entraron en vigencia y aún no se copiaron al producto,
+     * en orden cronológico: si un producto tiene varios, el último aplicado es el vigente.
+     */
+    @Query("SELECT p FROM PrecioProducto p WHERE p.aplicado = false AND p.vigenteDesde <= :hasta " +
+           "ORDER BY p.vigenteDesde, p.idPrecio")
+    List<PrecioProducto> buscarPendientes(@Param("hasta") LocalDateTime hasta, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE PrecioProducto p SET p.aplicado = true WHERE p.idPrecio IN :ids")
+    void marcarAplicados(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM PrecioProducto p WHERE p.idProducto = :idProducto")
+    void eliminarDeProducto(@Param("idProducto") Long idProducto);
+}
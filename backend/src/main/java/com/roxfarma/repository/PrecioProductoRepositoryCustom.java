@@ -0,0 +1,17 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.PrecioProducto;
+
+import java.util.List;
+
+/**
+ * Operaciones de PrecioProductoRepository que no cubre Spring Data.
+ * @author grupo2
+ */
+public interface PrecioProductoRepositoryCustom {
+
+    /**
+     * Inserta precios en lotes JDBC dentro de la transacción actual (sin IDs generados).
+     */
+    void insertarEnLote(List<PrecioProducto> precios);
+}
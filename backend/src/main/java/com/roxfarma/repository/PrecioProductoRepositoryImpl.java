@@ -0,0 +1,38 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.PrecioProducto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Implementación JDBC de PrecioProductoRepositoryCustom.
+ * @author grupo2
+ */
+@RequiredArgsConstructor
+public class PrecioProductoRepositoryImpl implements PrecioProductoRepositoryCustom {
+
+    private static final int TAMANO_LOTE = 500;
+
+    private static final String INSERT_PRECIO =
+            "INSERT INTO precio_producto (id_producto, precio, vigente_desde, aplicado, fecha_creacion) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertarEnLote(List<PrecioProducto> precios) {
+        if (precios.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_PRECIO, precios, TAMANO_LOTE, (ps, p) -> {
+            ps.setLong(1, p.getIdProducto());
+            ps.setBigDecimal(2, p.getPrecio());
+            ps.setTimestamp(3, Timestamp.valueOf(p.getVigenteDesde()));
+            ps.setBoolean(4, p.getAplicado());
+            ps.setTimestamp(5, Timestamp.valueOf(p.getFechaCreacion()));
+        });
+    }
+}
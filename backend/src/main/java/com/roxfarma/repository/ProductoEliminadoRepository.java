@@ -0,0 +1,27 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.ProductoEliminado;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio (DAO) para la entidad ProductoEliminado.
+ * @author grupo2
+ */
+@Repository
+public interface ProductoEliminadoRepository extends JpaRepository<ProductoEliminado, Long> {
+
+    /**
+     * Bajas numeradas después del cursor, en orden de la secuencia.
+     */
+    @Query("SELECT e FROM ProductoEliminado e WHERE e.secuencia > :despues ORDER BY e.secuencia")
+    List<ProductoEliminado> buscarDesde(@Param("despues") Long despues, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.secuencia), 0L) FROM ProductoEliminado e")
+    Long obtenerUltimaSecuencia();
+}
@@ -1,23 +1,53 @@
 package com.roxfarma.repository;
 
+import com.roxfarma.dto.CambioProductoDTO;
+import com.roxfarma.dto.ResumenProductoDTO;
 import com.roxfarma.model.Categoria;
 import com.roxfarma.model.Producto;
+import com.roxfarma.repository.projection.ProductoIndexable;
+import com.roxfarma.repository.projection.StockActual;
+import com.roxfarma.repository.projection.TotalesInventario;
+import com.roxfarma.repository.projection.VersionCatalogo;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto, Long> {
+public interface ProductoRepository extends JpaRepository<Producto, Long>, ProductoRepositoryCustom {
+
+    /**
+     * Condiciones del listado paginado; un parámetro null no filtra.
+     * :texto llega en minúsculas y con los comodines de LIKE.
+     */
+    String FILTRO_CATALOGO =
+            "(:texto IS NULL OR LOWER(p.nombre) LIKE :texto OR LOWER(p.categoria.nombre) LIKE :texto) " +
+            "AND (:idCategoria IS NULL OR p.categoria.idCategoria = :idCategoria) " +
+            "AND (:stockMin IS NULL OR p.stock >= :stockMin) " +
+            "AND (:stockMax IS NULL OR p.stock <= :stockMax) " +
+            "AND (:vencimientoDesde IS NULL OR p.fechaVencimiento >= :vencimientoDesde) " +
+            "AND (:vencimientoHasta IS NULL OR p.fechaVencimiento <= :vencimientoHasta)";
+
+    /**
+     * Inicio de las consultas de listados: arma ResumenProductoDTO sin cargar entidades.
+     */
+    String RESUMEN_PRODUCTO =
+            "SELECT new com.roxfarma.dto.ResumenProductoDTO(p.idProducto, p.nombre, p.presentacion, p.precio, " +
+            "p.stock, p.fechaVencimiento, c.idCategoria, c.nombre) FROM Producto p JOIN p.categoria c ";
 
     List<Producto> findByStockLessThan(Integer umbral);
 
     List<Producto> findByFechaVencimientoBefore(LocalDate fecha);
 
+    List<Producto> findByFechaVencimiento(LocalDate fecha);
+
     List<Producto> findByCategoria(Categoria categoria);
 
     @Query("SELECT p FROM Producto p WHERE LOWER(p.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))")
@@ -25,4 +55,65 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
 
     @Query("SELECT p FROM Producto p WHERE p.categoria.idCategoria = :idCategoria")
     List<Producto> findByCategoriaId(@Param("idCategoria") Long idCategoria);
+
+    @Query("SELECT COUNT(p) AS totalProductos, COALESCE(SUM(p.stock), 0L) AS stockTotal FROM Producto p")
+    TotalesInventario calcularTotalesInventario();
+
+    @Query("SELECT p.idProducto AS idProducto, p.nombre AS nombre, p.stock AS stock, " +
+           "p.fechaVencimiento AS fechaVencimiento FROM Producto p WHERE p.idProducto IN :ids")
+    List<StockActual> buscarStockActual(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.idProducto AS idProducto, p.nombre AS nombre, p.presentacion AS presentacion, " +
+           "c.nombre AS categoria, p.precio AS precio FROM Producto p JOIN p.categoria c")
+    List<ProductoIndexable> listarIndexables();
+
+    @Query("SELECT p.idProducto AS idProducto, p.nombre AS nombre, p.presentacion AS presentacion, " +
+           "c.nombre AS categoria, p.precio AS precio FROM Producto p JOIN p.categoria c " +
+           "WHERE c.idCategoria = :idCategoria")
+    List<ProductoIndexable> listarIndexablesPorCategoria(@Param("idCategoria") Long idCategoria);
+
+    @Query(RESUMEN_PRODUCTO + "ORDER BY p.idProducto")
+    List<ResumenProductoDTO> listarResumen();
+
+    @Query(RESUMEN_PRODUCTO + "WHERE p.stock < :umbral ORDER BY p.stock, p.idProducto")
+    List<ResumenProductoDTO> listarResumenConStockMenorA(@Param("umbral") Integer umbral);
+
+    @Query(RESUMEN_PRODUCTO + "WHERE p.fechaVencimiento < :fecha ORDER BY p.fechaVencimiento, p.idProducto")
+    List<ResumenProductoDTO> listarResumenQueVencenAntesDe(@Param("fecha") LocalDate fecha);
+
+    @Query(value = RESUMEN_PRODUCTO + "WHERE " + FILTRO_CATALOGO,
+           countQuery = "SELECT COUNT(p) FROM Producto p WHERE " + FILTRO_CATALOGO)
+    Page<ResumenProductoDTO> buscarCatalogo(@Param("texto") String texto,
+                                  @Param("idCategoria") Long idCategoria,
+                                  @Param("stockMin") Integer stockMin,
+                                  @Param("stockMax") Integer stockMax,
+                                  @Param("vencimientoDesde") LocalDate vencimientoDesde,
+                                  @Param("vencimientoHasta") LocalDate vencimientoHasta,
+                                  Pageable pageable);
+
+    /**
+     * Cada cambio de un producto incrementa su versión y fija fecha_actualizacion
+     * (también las escrituras por JDBC), y una baja reduce el total. Renombrar una
+     * categoría incrementa su versión, que se suma una vez por cada producto listado.
+     */
+    @Query("SELECT COUNT(p) AS total, MAX(p.fechaActualizacion) AS ultimaActualizacion, " +
+           "COALESCE(SUM(p.version), 0L) AS sumaVersiones, " +
+           "COALESCE(SUM(c.version), 0L) AS sumaVersionesCategorias " +
+           "FROM Producto p JOIN p.categoria c WHERE " + FILTRO_CATALOGO)
+    VersionCatalogo calcularVersionCatalogo(@Param("texto") String texto,
+                                            @Param("idCategoria") Long idCategoria,
+                                            @Param("stockMin") Integer stockMin,
+                                            @Param("stockMax") Integer stockMax,
+                                            @Param("vencimientoDesde") LocalDate vencimientoDesde,
+                                            @Param("vencimientoHasta") LocalDate vencimientoHasta);
+
+    /**
+     * Productos cuyo último cambio tiene secuencia posterior a 'despues', en orden de
+     * secuencia. Los cambios aún sin numerar (secuencia NULL) no se incluyen.
+     */
+    @Query("SELECT new com.roxfarma.dto.CambioProductoDTO(p.idProducto, p.nombre, p.presentacion, p.precio, " +
+           "p.stock, p.fechaVencimiento, p.categoria.idCategoria, p.version, p.fechaActualizacion, " +
+           "p.secuenciaCambio) " +
+           "FROM Producto p WHERE p.secuenciaCambio > :despues ORDER BY p.secuenciaCambio")
+    List<CambioProductoDTO> buscarCambiosDesde(@Param("despues") Long despues, Pageable pageable);
 }
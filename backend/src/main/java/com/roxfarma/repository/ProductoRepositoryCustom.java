@@ -0,0 +1,31 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.PrecioProducto;
+import com.roxfarma.model.Producto;
+
+import java.util.List;
+
+/**
+ * Operaciones de ProductoRepository que no cubre Spring Data.
+ * @author grupo2
+ */
+public interface ProductoRepositoryCustom {
+
+    /**
+     * Inserta productos nuevos en lotes JDBC dentro de la transacción actual y
+     * asigna a cada uno el ID generado. La categoría solo necesita el ID.
+     */
+    void insertarEnLote(List<Producto> productos);
+
+    /**
+     * Actualiza en lotes los datos de catálogo (no el stock) de productos existentes.
+     */
+    void actualizarCatalogoEnLote(List<Producto> productos);
+
+    /**
+     * Copia a cada producto su precio programado que entró en vigencia. Se aplican en
+     * el orden de la lista: si un producto aparece varias veces, queda el último. Se omite
+     * si el producto tiene un precio aplicado con vigencia posterior (un cambio manual).
+     */
+    void actualizarPreciosEnLote(List<PrecioProducto> precios);
+}
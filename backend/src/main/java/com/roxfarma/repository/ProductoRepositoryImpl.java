@@ -0,0 +1,116 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.PrecioProducto;
+import com.roxfarma.model.Producto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementación JDBC de ProductoRepositoryCustom.
+ * Escribe directamente en la tabla: quien la usa debe invalidar la caché de segundo
+ * nivel de los productos actualizados (ver CacheEntidadesService).
+ * @author grupo2
+ */
+@RequiredArgsConstructor
+public class ProductoRepositoryImpl implements ProductoRepositoryCustom {
+
+    private static final int TAMANO_LOTE = 500;
+
+    private static final String INSERT_PRODUCTO =
+            "INSERT INTO producto (nombre, presentacion, descripcion, precio, fecha_vencimiento, stock, " +
+            "id_categoria, fecha_creacion, fecha_actualizacion, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String UPDATE_CATALOGO =
+            "UPDATE producto SET nombre = ?, presentacion = ?, descripcion = ?, precio = ?, fecha_vencimiento = ?, " +
+            "id_categoria = ?, fecha_actualizacion = ?, secuencia_cambio = NULL, version = version + 1 WHERE id_producto = ?";
+
+    // Un precio fijado a mano después del inicio de vigencia del programado prevalece sobre este
+    private static final String UPDATE_PRECIO =
+            "UPDATE producto SET precio = ?, fecha_actualizacion = ?, secuencia_cambio = NULL, version = version + 1 " +
+            "WHERE id_producto = ? AND NOT EXISTS (SELECT 1 FROM precio_producto pp " +
+            "WHERE pp.id_producto = ? AND pp.aplicado = TRUE AND pp.vigente_desde > ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertarEnLote(List<Producto> productos) {
+        if (productos.isEmpty()) {
+            return;
+        }
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        // batchUpdate de JdbcTemplate no devuelve las claves generadas; con
+        // rewriteBatchedStatements el driver igual las entrega por cada envío
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexion -> {
+            try (PreparedStatement ps = conexion.prepareStatement(INSERT_PRODUCTO, Statement.RETURN_GENERATED_KEYS)) {
+                for (int desde = 0; desde < productos.size(); desde += TAMANO_LOTE) {
+                    List<Producto> lote = productos.subList(desde, Math.min(desde + TAMANO_LOTE, productos.size()));
+                    for (Producto p : lote) {
+                        ps.setString(1, p.getNombre());
+                        ps.setString(2, p.getPresentacion());
+                        ps.setString(3, p.getDescripcion());
+                        ps.setBigDecimal(4, p.getPrecio());
+                        ps.setDate(5, Date.valueOf(p.getFechaVencimiento()));
+                        ps.setInt(6, p.getStock());
+                        ps.setLong(7, p.getCategoria().getIdCategoria());
+                        ps.setTimestamp(8, ahora);
+                        ps.setTimestamp(9, ahora);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet claves = ps.getGeneratedKeys()) {
+                        for (Producto p : lote) {
+                            if (!claves.next()) {
+                                throw new IllegalStateException("El driver no devolvió los IDs de los productos insertados");
+                            }
+                            p.setIdProducto(claves.getLong(1));
+                            p.setVersion(0L);
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void actualizarCatalogoEnLote(List<Producto> productos) {
+        if (productos.isEmpty()) {
+            return;
+        }
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_CATALOGO, productos, TAMANO_LOTE, (ps, p) -> {
+            ps.setString(1, p.getNombre());
+            ps.setString(2, p.getPresentacion());
+            ps.setString(3, p.getDescripcion());
+            ps.setBigDecimal(4, p.getPrecio());
+            ps.setDate(5, Date.valueOf(p.getFechaVencimiento()));
+            ps.setLong(6, p.getCategoria().getIdCategoria());
+            ps.setTimestamp(7, ahora);
+            ps.setLong(8, p.getIdProducto());
+        });
+    }
+
+    @Override
+    public void actualizarPreciosEnLote(List<PrecioProducto> precios) {
+        if (precios.isEmpty()) {
+            return;
+        }
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_PRECIO, precios, TAMANO_LOTE, (ps, p) -> {
+            ps.setBigDecimal(1, p.getPrecio());
+            ps.setTimestamp(2, ahora);
+            ps.setLong(3, p.getIdProducto());
+            ps.setLong(4, p.getIdProducto());
+            ps.setTimestamp(5, Timestamp.valueOf(p.getVigenteDesde()));
+        });
+    }
+}
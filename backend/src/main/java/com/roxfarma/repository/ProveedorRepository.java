@@ -1,13 +1,25 @@
 package com.roxfarma.repository;
 
 import com.roxfarma.model.Proveedor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repositorio (DAO) para la entidad Proveedor
  * @author grupo2
  */
 @Repository
 public interface ProveedorRepository extends JpaRepository<Proveedor, Long> {
+
+    /**
+     * Listado completo desde la caché de consultas; se invalida al escribir en la tabla.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Proveedor> findAll();
 }
@@ -0,0 +1,22 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.RecepcionPedido;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio (DAO) para la entidad RecepcionPedido.
+ * @author grupo2
+ */
+@Repository
+public interface RecepcionPedidoRepository extends JpaRepository<RecepcionPedido, Long>,
+        RecepcionPedidoRepositoryCustom {
+
+    @EntityGraph(attributePaths = "detalles")
+    List<RecepcionPedido> findByIdPedidoOrderByFechaAsc(Long idPedido);
+
+    long countByIdPedido(Long idPedido);
+}
@@ -0,0 +1,17 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.DetalleRecepcion;
+
+import java.util.List;
+
+/**
+ * Operaciones de RecepcionPedidoRepository que no cubre Spring Data.
+ * @author grupo2
+ */
+public interface RecepcionPedidoRepositoryCustom {
+
+    /**
+     * Inserta los detalles de una recepción en lotes JDBC dentro de la transacción actual.
+     */
+    void insertarDetallesEnLote(Long idRecepcion, List<DetalleRecepcion> detalles);
+}
@@ -0,0 +1,39 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.DetalleRecepcion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.List;
+
+/**
+ * Implementación JDBC de RecepcionPedidoRepositoryCustom.
+ * @author grupo2
+ */
+@RequiredArgsConstructor
+public class RecepcionPedidoRepositoryImpl implements RecepcionPedidoRepositoryCustom {
+
+    private static final int TAMANO_LOTE = 500;
+
+    private static final String INSERT_DETALLE =
+            "INSERT INTO detalle_recepcion (id_recepcion, id_detalle_pedido, id_producto, cantidad, codigo_lote, " +
+            "fecha_vencimiento_lote) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertarDetallesEnLote(Long idRecepcion, List<DetalleRecepcion> detalles) {
+        if (detalles.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_DETALLE, detalles, TAMANO_LOTE, (ps, d) -> {
+            ps.setLong(1, idRecepcion);
+            ps.setLong(2, d.getIdDetallePedido());
+            ps.setLong(3, d.getIdProducto());
+            ps.setInt(4, d.getCantidad());
+            ps.setString(5, d.getCodigoLote());
+            ps.setDate(6, Date.valueOf(d.getFechaVencimientoLote()));
+        });
+    }
+}
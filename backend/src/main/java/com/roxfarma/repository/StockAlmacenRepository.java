@@ -0,0 +1,54 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.StockAlmacen;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio (DAO) para la entidad StockAlmacen.
+ * Las escrituras son UPDATE/INSERT atómicos sobre la fila del almacén, sin leerla antes.
+ * Declaran la tabla que modifican (HINT_NATIVE_SPACES): sin ella, Hibernate invalida
+ * toda la caché de segundo nivel en cada sentencia nativa.
+ * @author grupo2
+ */
+@Repository
+public interface StockAlmacenRepository extends JpaRepository<StockAlmacen, StockAlmacen.Clave>,
+        StockAlmacenRepositoryCustom {
+
+    List<StockAlmacen> findByClaveIdProducto(Long idProducto);
+
+    List<StockAlmacen> findByClaveIdAlmacenAndClaveIdProductoIn(Long idAlmacen, Collection<Long> idsProducto);
+
+    /**
+     * Descuenta unidades del almacén solo si las tiene.
+     * Retorna 0 si el stock del almacén no alcanza.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stock_almacen"))
+    @Query(value = "UPDATE stock_almacen SET cantidad = cantidad - :cantidad, fecha_actualizacion = NOW() " +
+                   "WHERE id_almacen = :idAlmacen AND id_producto = :idProducto AND cantidad >= :cantidad",
+           nativeQuery = true)
+    int descontar(@Param("idAlmacen") Long idAlmacen, @Param("idProducto") Long idProducto,
+                  @Param("cantidad") int cantidad);
+
+    /**
+     * Suma unidades al almacén, creando la fila si el producto aún no tenía stock allí.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stock_almacen"))
+    @Query(value = "INSERT INTO stock_almacen (id_almacen, id_producto, cantidad, fecha_actualizacion) " +
+                   "VALUES (:idAlmacen, :idProducto, :cantidad, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE cantidad = cantidad + VALUES(cantidad), fecha_actualizacion = NOW()",
+           nativeQuery = true)
+    int incrementar(@Param("idAlmacen") Long idAlmacen, @Param("idProducto") Long idProducto,
+                    @Param("cantidad") int cantidad);
+}
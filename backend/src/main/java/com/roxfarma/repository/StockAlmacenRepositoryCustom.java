@@ -0,0 +1,16 @@
+package com.roxfarma.repository;
+
+import java.util.SortedMap;
+
+/**
+ * Operaciones de StockAlmacenRepository que no cubre Spring Data.
+ * @author grupo2
+ */
+public interface StockAlmacenRepositoryCustom {
+
+    /**
+     * Suma unidades a varios productos del mismo almacén en un solo envío,
+     * creando las filas que no existan. Las filas se bloquean en orden de producto.
+     */
+    void incrementarEnLote(Long idAlmacen, SortedMap<Long, Integer> cantidadesPorProducto);
+}
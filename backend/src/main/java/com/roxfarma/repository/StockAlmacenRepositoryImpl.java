@@ -0,0 +1,40 @@
+package com.roxfarma.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Implementación JDBC de StockAlmacenRepositoryCustom.
+ * Con rewriteBatchedStatements el lote viaja como un único INSERT de varias filas.
+ * @author grupo2
+ */
+@RequiredArgsConstructor
+public class StockAlmacenRepositoryImpl implements StockAlmacenRepositoryCustom {
+
+    private static final int TAMANO_LOTE = 500;
+
+    private static final String INCREMENTAR =
+            "INSERT INTO stock_almacen (id_almacen, id_producto, cantidad, fecha_actualizacion) " +
+            "VALUES (?, ?, ?, NOW()) " +
+            "ON DUPLICATE KEY UPDATE cantidad = cantidad + VALUES(cantidad), fecha_actualizacion = NOW()";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void incrementarEnLote(Long idAlmacen, SortedMap<Long, Integer> cantidadesPorProducto) {
+        if (cantidadesPorProducto.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> filas = new ArrayList<>(cantidadesPorProducto.entrySet());
+        jdbcTemplate.batchUpdate(INCREMENTAR, filas, TAMANO_LOTE, (ps, fila) -> {
+            ps.setLong(1, idAlmacen);
+            ps.setLong(2, fila.getKey());
+            ps.setInt(3, fila.getValue());
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package com.roxfarma.repository;
+
+import com.roxfarma.model.StockCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repositorio (DAO) para la entidad StockCheckpoint.
+ * Las escrituras se hacen con un INSERT en lote desde StockHistoricoService.
+ * @author grupo2
+ */
+@Repository
+public interface StockCheckpointRepository extends JpaRepository<StockCheckpoint, StockCheckpoint.Clave> {
+
+    /**
+     * Corte más reciente del producto en o antes de la fecha (un salto en el índice).
+     */
+    Optional<StockCheckpoint> findFirstByClaveIdProductoAndClaveFechaCorteLessThanEqualOrderByClaveFechaCorteDesc(
+            Long idProducto, LocalDateTime fecha);
+
+    /**
+     * Corte más cercano posterior a la fecha, para reproducir hacia atrás.
+     */
+    Optional<StockCheckpoint> findFirstByClaveIdProductoAndClaveFechaCorteGreaterThanOrderByClaveFechaCorteAsc(
+            Long idProducto, LocalDateTime fecha);
+
+    @Query("SELECT MAX(s.clave.fechaCorte) FROM StockCheckpoint s WHERE s.clave.fechaCorte <= :fecha")
+    LocalDateTime obtenerUltimoCorteHasta(@Param("fecha") LocalDateTime fecha);
+
+    boolean existsByClaveFechaCorte(LocalDateTime fechaCorte);
+}
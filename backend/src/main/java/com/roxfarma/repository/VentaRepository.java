@@ -1,5 +1,6 @@
 package com.roxfarma.repository;
 
+import com.roxfarma.dto.ResumenVentaDTO;
 import com.roxfarma.model.Cliente;
 import com.roxfarma.model.Usuario;
 import com.roxfarma.model.Venta;
@@ -20,6 +21,14 @@ import java.util.List;
 @Repository
 public interface VentaRepository extends JpaRepository<Venta, Long> {
 
+    /**
+     * Listado de ventas armado en la consulta, sin cargar detalles ni entidades relacionadas.
+     */
+    @Query("SELECT new com.roxfarma.dto.ResumenVentaDTO(v.idVenta, v.fecha, c.idCliente, c.nombre, " +
+           "u.idUsuario, u.nombre, a.idAlmacen, a.nombre, v.total) " +
+           "FROM Venta v JOIN v.cliente c JOIN v.usuario u LEFT JOIN v.almacen a ORDER BY v.idVenta")
+    List<ResumenVentaDTO> listarResumen();
+
     List<Venta> findByFechaBetween(LocalDateTime inicio, LocalDateTime fin);
 
     List<Venta> findByCliente(Cliente cliente);
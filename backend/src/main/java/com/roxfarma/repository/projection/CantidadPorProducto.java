@@ -0,0 +1,12 @@
+package com.roxfarma.repository.projection;
+
+/**
+ * Proyección con una cantidad agregada (SUM) por producto
+ * @author grupo2
+ */
+public interface CantidadPorProducto {
+
+    Long getIdProducto();
+
+    Long getCantidad();
+}
@@ -0,0 +1,20 @@
+package com.roxfarma.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección con los campos de un producto que usa el índice de búsqueda
+ * @author grupo2
+ */
+public interface ProductoIndexable {
+
+    Long getIdProducto();
+
+    String getNombre();
+
+    String getPresentacion();
+
+    String getCategoria();
+
+    BigDecimal getPrecio();
+}
@@ -0,0 +1,12 @@
+package com.roxfarma.repository.projection;
+
+/**
+ * Proyección con el proveedor del último pedido que incluyó al producto
+ * @author grupo2
+ */
+public interface ProveedorPorProducto {
+
+    Long getIdProducto();
+
+    Long getIdProveedor();
+}
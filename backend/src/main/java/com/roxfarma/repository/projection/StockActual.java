@@ -0,0 +1,20 @@
+package com.roxfarma.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección con el stock actual de un producto
+ * Se usa en operaciones masivas que actualizan el stock por JDBC: al no cargar
+ * la entidad, Hibernate no vuelve a escribir la fila al confirmar
+ * @author grupo2
+ */
+public interface StockActual {
+
+    Long getIdProducto();
+
+    String getNombre();
+
+    Integer getStock();
+
+    LocalDate getFechaVencimiento();
+}
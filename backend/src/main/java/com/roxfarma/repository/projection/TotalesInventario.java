@@ -0,0 +1,13 @@
+package com.roxfarma.repository.projection;
+
+/**
+ * Proyección con los totales agregados del inventario
+ * Se calcula en una sola consulta (COUNT y SUM) sin cargar las entidades
+ * @author grupo2
+ */
+public interface TotalesInventario {
+
+    Long getTotalProductos();
+
+    Long getStockTotal();
+}
@@ -0,0 +1,19 @@
+package com.roxfarma.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección con lo necesario para saber si un listado de productos cambió
+ * Se calcula con agregados (COUNT, MAX y SUM) sin cargar las entidades
+ * @author grupo2
+ */
+public interface VersionCatalogo {
+
+    Long getTotal();
+
+    LocalDateTime getUltimaActualizacion();
+
+    Long getSumaVersiones();
+
+    Long getSumaVersionesCategorias();
+}
@@ -0,0 +1,101 @@
+package com.roxfarma.service;
+
+import com.roxfarma.event.AlertaInventarioEvent;
+import com.roxfarma.model.Producto;
+import com.roxfarma.repository.ProductoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Servicio que detecta cruces de umbral en las alertas de inventario
+ * Reglas:
+ * - Stock bajo: stock menor a UMBRAL_STOCK_BAJO unidades
+ * - Próximo a vencer: vence antes de DIAS_ALERTA_VENCIMIENTO días
+ * Solo se publica un evento cuando el producto entra o sale de la alerta,
+ * así los clientes reciben deltas y no el listado completo.
+ * @author grupo2
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AlertaInventarioService {
+
+    public static final int UMBRAL_STOCK_BAJO = 10;
+    public static final int DIAS_ALERTA_VENCIMIENTO = 30;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductoRepository productoRepository;
+
+    /**
+     * Compara el estado anterior del producto con el actual y publica los cruces.
+     * Para productos nuevos, stockAnterior y vencimientoAnterior son null.
+     */
+    public void evaluarCambio(Producto producto, Integer stockAnterior, LocalDate vencimientoAnterior) {
+        boolean bajoAntes = stockAnterior != null && esStockBajo(stockAnterior);
+        boolean bajoAhora = esStockBajo(producto.getStock());
+
+        if (!bajoAntes && bajoAhora) {
+            publicar(AlertaInventarioEvent.Tipo.STOCK_BAJO, producto);
+        } else if (bajoAntes && !bajoAhora) {
+            publicar(AlertaInventarioEvent.Tipo.STOCK_NORMALIZADO, producto);
+        }
+
+        boolean venceAntes = vencimientoAnterior != null && esProximoAVencer(vencimientoAnterior);
+        boolean venceAhora = esProximoAVencer(producto.getFechaVencimiento());
+
+        if (!venceAntes && venceAhora) {
+            publicar(AlertaInventarioEvent.Tipo.PROXIMO_VENCER, producto);
+        } else if (venceAntes && !venceAhora) {
+            publicar(AlertaInventarioEvent.Tipo.VENCIMIENTO_NORMALIZADO, producto);
+        }
+    }
+
+    public void notificarEliminacion(Producto producto) {
+        if (esStockBajo(producto.getStock()) || esProximoAVencer(producto.getFechaVencimiento())) {
+            publicar(AlertaInventarioEvent.Tipo.PRODUCTO_ELIMINADO, producto);
+        }
+    }
+
+    /**
+     * Los productos también entran en la ventana de vencimiento con el paso de los días,
+     * sin que nadie los modifique. Cada madrugada se publican los que entran ese día.
+     */
+    @Scheduled(cron = "${alertas.vencimiento.cron:0 5 0 * * *}")
+    @Transactional(readOnly = true)
+    public void detectarNuevosVencimientos() {
+        LocalDate fechaEntrada = LocalDate.now().plusDays(DIAS_ALERTA_VENCIMIENTO - 1);
+        List<Producto> productos = productoRepository.findByFechaVencimiento(fechaEntrada);
+
+        productos.forEach(producto -> publicar(AlertaInventarioEvent.Tipo.PROXIMO_VENCER, producto));
+
+        log.info("Revisión diaria de vencimientos: {} productos entran en alerta", productos.size());
+    }
+
+    private boolean esStockBajo(Integer stock) {
+        return stock != null && stock < UMBRAL_STOCK_BAJO;
+    }
+
+    private boolean esProximoAVencer(LocalDate fechaVencimiento) {
+        return fechaVencimiento != null
+                && fechaVencimiento.isBefore(LocalDate.now().plusDays(DIAS_ALERTA_VENCIMIENTO));
+    }
+
+    private void publicar(AlertaInventarioEvent.Tipo tipo, Producto producto) {
+        log.debug("Alerta de inventario {} para producto ID: {}", tipo, producto.getIdProducto());
+        eventPublisher.publishEvent(new AlertaInventarioEvent(
+                tipo,
+                producto.getIdProducto(),
+                producto.getNombre(),
+                producto.getStock(),
+                producto.getFechaVencimiento(),
+                LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,376 @@
+package com.roxfarma.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roxfarma.event.AlertaInventarioEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Canal Server-Sent Events para las alertas de inventario
+ * Diseño:
+ * - Las conexiones son asíncronas (SseEmitter), no ocupan un hilo por cliente
+ * - Cada evento se serializa una sola vez y se reenvía igual a todos los clientes
+ * - Un único hilo despachador numera los eventos y los encola a cada cliente, lo
+ *   que mantiene el orden
+ * - Cada cliente tiene una cola acotada que vacía un pool fijo de pocos hilos,
+ *   un mensaje por tarea para repartir los hilos entre los clientes
+ * - Un cliente que no lee se desconecta (al reconectarse con Last-Event-ID recibe
+ *   lo que se perdió): si su cola se llena o si un envío supera su plazo
+ * - Se guarda un historial acotado para que un cliente que se reconecta con
+ *   Last-Event-ID reciba solo los eventos que se perdió
+ * El token de reanudación tiene el formato "arranque-secuencia"; si el servidor
+ * se reinició o el token ya salió del historial, se envía un evento "resync"
+ * para que el cliente recargue /api/dashboard/resumen.
+ * @author grupo2
+ */
+@Service
+@Slf4j
+public class AlertaStreamService {
+
+    private static final String EVENTO_ALERTA = "alerta";
+    private static final String EVENTO_RESYNC = "resync";
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+    private final int tamanoHistorial;
+    private final int tamanoCola;
+    private final long plazoEnvioNanos;
+
+    private final long arranque = System.currentTimeMillis();
+    private final Map<SseEmitter, Cliente> clientes = new ConcurrentHashMap<>();
+
+    // Solo se accede desde el hilo despachador
+    private final Deque<EventoEmitido> historial = new ArrayDeque<>();
+    private long secuencia = 0;
+
+    private final ExecutorService despachador = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "alertas-sse");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private final ExecutorService envios;
+
+    public AlertaStreamService(ObjectMapper objectMapper,
+                               @Value("${alertas.sse.timeout-ms:1800000}") long timeoutMs,
+                               @Value("${alertas.sse.historial:1000}") int tamanoHistorial,
+                               @Value("${alertas.sse.cola:100}") int tamanoCola,
+                               @Value("${alertas.sse.hilos-envio:4}") int hilosEnvio,
+                               @Value("${alertas.sse.plazo-envio-ms:5000}") long plazoEnvioMs) {
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+        this.tamanoHistorial = tamanoHistorial;
+        this.tamanoCola = tamanoCola;
+        this.plazoEnvioNanos = TimeUnit.MILLISECONDS.toNanos(plazoEnvioMs);
+        this.envios = Executors.newFixedThreadPool(hilosEnvio, r -> {
+            Thread hilo = new Thread(r, "alertas-sse-envio");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Registra una nueva suscripción. Si se recibe un token de reanudación,
+     * se reenvían los eventos posteriores a ese token.
+     */
+    public SseEmitter suscribir(String ultimoEventoId) {
+        SseEmitter emisor = new SseEmitter(timeoutMs);
+        emisor.onCompletion(() -> quitar(emisor));
+        emisor.onTimeout(() -> quitar(emisor));
+        emisor.onError(e -> quitar(emisor));
+
+        registrar(emisor, ultimoEventoId);
+
+        log.debug("Nueva suscripción SSE de alertas (token de reanudación: {})", ultimoEventoId);
+        return emisor;
+    }
+
+    void registrar(SseEmitter emisor, String ultimoEventoId) {
+        despachador.execute(() -> {
+            Cliente cliente = new Cliente(emisor);
+            clientes.put(emisor, cliente);
+            if (ultimoEventoId != null && !ultimoEventoId.isBlank()) {
+                reenviarPendientes(cliente, ultimoEventoId);
+            }
+        });
+    }
+
+    /**
+     * Se ejecuta después del commit, así nunca se notifica un cambio que terminó en rollback.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alPublicarAlerta(AlertaInventarioEvent evento) {
+        final String datos;
+        try {
+            datos = objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            log.error("No se pudo serializar la alerta de inventario: {}", e.getMessage());
+            return;
+        }
+
+        despachador.execute(() -> {
+            long id = ++secuencia;
+            Set<ResponseBodyEmitter.DataWithMediaType> mensaje = SseEmitter.event()
+                    .id(token(id))
+                    .name(EVENTO_ALERTA)
+                    .data(datos, MediaType.APPLICATION_JSON)
+                    .build();
+
+            historial.addLast(new EventoEmitido(id, mensaje));
+            if (historial.size() > tamanoHistorial) {
+                historial.removeFirst();
+            }
+
+            difundir(mensaje);
+        });
+    }
+
+    /**
+     * Comentario periódico para que proxies y balanceadores no cierren las conexiones inactivas.
+     */
+    @Scheduled(fixedRateString = "${alertas.sse.heartbeat-ms:25000}")
+    public void enviarLatido() {
+        if (clientes.isEmpty()) {
+            return;
+        }
+        despachador.execute(() -> difundir(SseEmitter.event().comment("ping").build()));
+    }
+
+    /**
+     * Desconecta a los clientes con un envío en curso desde hace más del plazo, para
+     * que un socket que no se vacía no retenga un hilo del pool en cada evento.
+     */
+    @Scheduled(fixedRateString = "${alertas.sse.revision-envios-ms:1000}")
+    public void revisarEnvios() {
+        long ahora = System.nanoTime();
+        for (Cliente cliente : List.copyOf(clientes.values())) {
+            if (cliente.enviandoDesdeHace(ahora) > plazoEnvioNanos) {
+                desconectar(cliente, "un envío superó el plazo");
+            }
+        }
+    }
+
+    public int getClientesConectados() {
+        return clientes.size();
+    }
+
+    /**
+     * Si faltan más eventos de los que entran en la cola del cliente, también se pide resync.
+     */
+    private void reenviarPendientes(Cliente cliente, String ultimoEventoId) {
+        long ultimo = parsearSecuencia(ultimoEventoId);
+        long primeroDisponible = historial.isEmpty() ? secuencia + 1 : historial.peekFirst().id();
+
+        if (ultimo < 0 || ultimo > secuencia || ultimo + 1 < primeroDisponible || secuencia - ultimo > tamanoCola) {
+            cliente.encolar(SseEmitter.event().name(EVENTO_RESYNC).data("{}", MediaType.APPLICATION_JSON).build());
+            return;
+        }
+
+        for (EventoEmitido evento : historial) {
+            if (evento.id() > ultimo) {
+                cliente.encolar(evento.mensaje());
+            }
+        }
+    }
+
+    String token(long secuencia) {
+        return arranque + "-" + secuencia;
+    }
+
+    /**
+     * Retorna la secuencia del token o -1 si pertenece a otro arranque del servidor.
+     */
+    long parsearSecuencia(String token) {
+        int separador = token.lastIndexOf('-');
+        if (separador <= 0) {
+            return -1;
+        }
+        try {
+            long arranqueToken = Long.parseLong(token.substring(0, separador));
+            long secuenciaToken = Long.parseLong(token.substring(separador + 1));
+            return arranqueToken == arranque ? secuenciaToken : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void difundir(Set<ResponseBodyEmitter.DataWithMediaType> mensaje) {
+        for (Cliente cliente : List.copyOf(clientes.values())) {
+            if (!cliente.encolar(mensaje)) {
+                desconectar(cliente, tamanoCola + " eventos sin enviar");
+            }
+        }
+    }
+
+    /**
+     * La conexión terminó (completada, vencida o con error): solo se olvida al cliente.
+     */
+    private void quitar(SseEmitter emisor) {
+        Cliente cliente = clientes.remove(emisor);
+        if (cliente != null) {
+            cliente.cerrar(false);
+        }
+    }
+
+    /**
+     * Cierra la conexión de un cliente que no lee lo que se le envía.
+     */
+    private void desconectar(Cliente cliente, String motivo) {
+        if (clientes.remove(cliente.emisor, cliente)) {
+            log.warn("Cliente SSE de alertas desconectado: {}", motivo);
+            cliente.cerrar(true);
+        }
+    }
+
+    private void ejecutarEnvio(Runnable tarea) {
+        try {
+            envios.execute(tarea);
+        } catch (RejectedExecutionException e) {
+            log.debug("Envío SSE descartado, el servicio se está deteniendo");
+        }
+    }
+
+    @PreDestroy
+    void detener() {
+        despachador.shutdownNow();
+        envios.shutdownNow();
+        clientes.keySet().forEach(SseEmitter::complete);
+    }
+
+    /**
+     * Conexión de un cliente con su cola de mensajes pendientes. Como mucho una
+     * tarea de envío a la vez atiende la cola, así el cliente recibe los eventos en
+     * orden; cada tarea envía un mensaje y, si quedan más, se vuelve a encolar detrás
+     * de las de los demás clientes.
+     */
+    private final class Cliente {
+
+        private final SseEmitter emisor;
+        private final Deque<Set<ResponseBodyEmitter.DataWithMediaType>> cola = new ArrayDeque<>();
+        private boolean enviando;
+        private boolean cerrado;
+        private boolean completarAlCerrar;
+        private Thread hiloEnvio;
+        private long envioDesde;
+
+        private Cliente(SseEmitter emisor) {
+            this.emisor = emisor;
+        }
+
+        /**
+         * @return false si la cola está llena (el cliente no lee lo que se le envía)
+         */
+        synchronized boolean encolar(Set<ResponseBodyEmitter.DataWithMediaType> mensaje) {
+            if (cerrado) {
+                return true;
+            }
+            if (cola.size() >= tamanoCola) {
+                return false;
+            }
+            cola.addLast(mensaje);
+            if (!enviando) {
+                enviando = true;
+                ejecutarEnvio(this::vaciar);
+            }
+            return true;
+        }
+
+        /**
+         * Nanosegundos que lleva el envío en curso, o 0 si no está enviando.
+         */
+        synchronized long enviandoDesdeHace(long ahora) {
+            return hiloEnvio != null ? ahora - envioDesde : 0;
+        }
+
+        /**
+         * @param completar si hay que completar el emisor; con un envío en curso lo
+         *        completa el hilo de envío al terminar (complete() espera a send())
+         */
+        void cerrar(boolean completar) {
+            boolean completarAhora;
+            synchronized (this) {
+                if (cerrado) {
+                    return;
+                }
+                cerrado = true;
+                cola.clear();
+                completarAlCerrar = completar;
+                completarAhora = completar && !enviando;
+                if (completar && hiloEnvio != null) {
+                    // Si el envío está bloqueado en el socket, la interrupción lo puede cortar
+                    hiloEnvio.interrupt();
+                }
+            }
+            if (completarAhora) {
+                ejecutarEnvio(emisor::complete);
+            }
+        }
+
+        private void vaciar() {
+            Set<ResponseBodyEmitter.DataWithMediaType> mensaje;
+            synchronized (this) {
+                mensaje = cerrado ? null : cola.pollFirst();
+                if (mensaje == null) {
+                    enviando = false;
+                    return;
+                }
+                hiloEnvio = Thread.currentThread();
+                envioDesde = System.nanoTime();
+            }
+
+            boolean enviado = enviar(mensaje);
+
+            boolean seguir = false;
+            boolean completar = false;
+            synchronized (this) {
+                hiloEnvio = null;
+                if (enviado && !cerrado && !cola.isEmpty()) {
+                    seguir = true;
+                } else {
+                    enviando = false;
+                    completar = enviado && cerrado && completarAlCerrar;
+                }
+            }
+            if (completar) {
+                emisor.complete();
+            } else if (seguir) {
+                ejecutarEnvio(this::vaciar);
+            }
+        }
+
+        private boolean enviar(Set<ResponseBodyEmitter.DataWithMediaType> mensaje) {
+            try {
+                emisor.send(mensaje);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Cliente SSE desconectado: {}", e.getMessage());
+                quitar(emisor);
+                emisor.completeWithError(e);
+                return false;
+            }
+        }
+    }
+
+    private record EventoEmitido(long id, Set<ResponseBodyEmitter.DataWithMediaType> mensaje) {
+    }
+}
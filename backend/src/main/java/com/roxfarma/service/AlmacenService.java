@@ -0,0 +1,126 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.AlmacenDTO;
+import com.roxfarma.exception.ResourceNotFoundException;
+import com.roxfarma.model.Almacen;
+import com.roxfarma.repository.AlmacenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Servicio de lógica de negocio para gestión de Almacenes
+ * - Siempre existe un almacén principal (schema.sql o database/migraciones/002_stock_por_almacen.sql);
+ *   al arrancar solo se busca su ID
+ * - Las operaciones que no indican almacén usan el principal
+ * @author grupo2
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AlmacenService {
+
+    private final AlmacenRepository almacenRepository;
+
+    private volatile Long idPrincipal;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void inicializar() {
+        idPrincipal = almacenRepository.findFirstByPrincipalTrue()
+                .map(Almacen::getIdAlmacen)
+                .orElseThrow(() -> new IllegalStateException(
+                        "No existe un almacén principal; aplicar database/migraciones/002_stock_por_almacen.sql"));
+        log.info("Almacén principal: ID {}", idPrincipal);
+    }
+
+    @Transactional
+    public Almacen crearAlmacen(AlmacenDTO dto) {
+        log.info("Creando almacén: {}", dto.getNombre());
+
+        if (almacenRepository.existsByNombre(dto.getNombre())) {
+            throw new IllegalArgumentException("Ya existe un almacén con el nombre: " + dto.getNombre());
+        }
+
+        Almacen almacen = new Almacen();
+        almacen.setNombre(dto.getNombre());
+        almacen.setDireccion(dto.getDireccion());
+        almacen.setPrincipal(false);
+        almacen.setActivo(dto.getActivo() == null || dto.getActivo());
+
+        Almacen almacenGuardado = almacenRepository.save(almacen);
+        log.info("Almacén creado con ID: {}", almacenGuardado.getIdAlmacen());
+        return almacenGuardado;
+    }
+
+    /**
+     * Modifica nombre, dirección y estado. El almacén principal no puede desactivarse.
+     */
+    @Transactional
+    public Almacen actualizarAlmacen(Long id, AlmacenDTO dto) {
+        log.info("Actualizando almacén ID: {}", id);
+
+        Almacen almacen = obtenerAlmacenPorId(id);
+        if (Boolean.FALSE.equals(dto.getActivo()) && almacen.getPrincipal()) {
+            throw new IllegalArgumentException("El almacén principal no puede desactivarse");
+        }
+
+        almacen.setNombre(dto.getNombre());
+        almacen.setDireccion(dto.getDireccion());
+        if (dto.getActivo() != null) {
+            almacen.setActivo(dto.getActivo());
+        }
+        return almacenRepository.save(almacen);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Almacen> listarAlmacenes() {
+        log.debug("Listando almacenes");
+        return almacenRepository.findAllByOrderByNombreAsc();
+    }
+
+    @Transactional(readOnly = true)
+    public Almacen obtenerAlmacenPorId(Long id) {
+        return almacenRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Almacén no encontrado con ID: " + id));
+    }
+
+    /**
+     * Retorna el ID del almacén a usar: el indicado (que debe existir y estar activo) o el principal.
+     */
+    @Transactional(readOnly = true)
+    public Long resolverAlmacen(Long idAlmacen) {
+        if (idAlmacen == null) {
+            return obtenerIdPrincipal();
+        }
+        return obtenerAlmacenActivo(idAlmacen).getIdAlmacen();
+    }
+
+    /**
+     * Retorna el almacén indicado, que debe existir y estar activo para recibir o entregar stock.
+     */
+    @Transactional(readOnly = true)
+    public Almacen obtenerAlmacenActivo(Long idAlmacen) {
+        Almacen almacen = obtenerAlmacenPorId(idAlmacen);
+        if (!almacen.getActivo()) {
+            throw new IllegalArgumentException("El almacén " + almacen.getNombre() + " está inactivo");
+        }
+        return almacen;
+    }
+
+    public Long obtenerIdPrincipal() {
+        Long id = idPrincipal;
+        if (id == null) {
+            id = almacenRepository.findFirstByPrincipalTrue()
+                    .map(Almacen::getIdAlmacen)
+                    .orElseThrow(() -> new ResourceNotFoundException("No existe un almacén principal"));
+            idPrincipal = id;
+        }
+        return id;
+    }
+}
@@ -0,0 +1,122 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.ProductoBusquedaDTO;
+import com.roxfarma.model.Producto;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.projection.ProductoIndexable;
+import com.roxfarma.util.IndiceBusqueda;
+import com.roxfarma.util.Transacciones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Servicio de búsqueda de productos por nombre, presentación y categoría
+ * Funcionamiento:
+ * - Mantiene en memoria un IndiceBusqueda con todos los productos, cargado al
+ *   iniciar la aplicación; cada búsqueda se resuelve sin consultar la base de datos
+ * - ProductoService y CategoriaService avisan los cambios; el índice se actualiza
+ *   recién después del commit, para no mostrar cambios que podrían revertirse
+ * - El nombre pesa más que la presentación y la categoría en el puntaje
+ * Mientras el índice no termina de cargarse se busca por nombre en la base de datos.
+ * @author grupo2
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BusquedaProductoService {
+
+    private static final int PESO_NOMBRE = 3;
+    private static final int PESO_PRESENTACION = 1;
+    private static final int PESO_CATEGORIA = 1;
+
+    private final ProductoRepository productoRepository;
+    private final MetricasService metricasService;
+
+    private final IndiceBusqueda<ProductoBusquedaDTO> indice = new IndiceBusqueda<>();
+    private volatile boolean cargado;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        long inicio = System.currentTimeMillis();
+        List<ProductoIndexable> productos = productoRepository.listarIndexables();
+        productos.forEach(this::indexar);
+        cargado = true;
+        log.info("Índice de búsqueda de productos cargado: {} productos en {} ms",
+                productos.size(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Productos que coinciden con el texto, del más al menos relevante.
+     */
+    public List<ProductoBusquedaDTO> buscar(String texto, int limite) {
+        metricasService.incrementar("producto.busqueda");
+        if (!cargado) {
+            metricasService.incrementar("producto.busqueda.sin.indice");
+            return productoRepository.buscarPorNombre(texto).stream()
+                    .limit(limite)
+                    .map(p -> new ProductoBusquedaDTO(p.getIdProducto(), p.getNombre(), p.getPresentacion(),
+                            p.getCategoria().getNombre(), p.getPrecio(), null))
+                    .toList();
+        }
+        return indice.buscar(texto, limite).stream()
+                .map(r -> {
+                    ProductoBusquedaDTO datos = r.datos();
+                    return new ProductoBusquedaDTO(datos.getIdProducto(), datos.getNombre(), datos.getPresentacion(),
+                            datos.getCategoria(), datos.getPrecio(), r.puntaje());
+                })
+                .toList();
+    }
+
+    /**
+     * Agrega o actualiza el producto en el índice al confirmarse la transacción.
+     */
+    public void productoGuardado(Producto producto) {
+        Long id = producto.getIdProducto();
+        String nombre = producto.getNombre();
+        String presentacion = producto.getPresentacion();
+        String categoria = producto.getCategoria() != null ? producto.getCategoria().getNombre() : null;
+        BigDecimal precio = producto.getPrecio();
+        Transacciones.despuesDelCommit(() -> indexar(id, nombre, presentacion, categoria, precio));
+    }
+
+    /**
+     * Variante para cargas masivas: un solo aviso de commit para todo el lote.
+     */
+    public void productosGuardados(List<Producto> productos) {
+        List<ProductoBusquedaDTO> datos = productos.stream()
+                .map(p -> new ProductoBusquedaDTO(p.getIdProducto(), p.getNombre(), p.getPresentacion(),
+                        p.getCategoria() != null ? p.getCategoria().getNombre() : null, p.getPrecio(), null))
+                .toList();
+        Transacciones.despuesDelCommit(() -> datos.forEach(d ->
+                indexar(d.getIdProducto(), d.getNombre(), d.getPresentacion(), d.getCategoria(), d.getPrecio())));
+    }
+
+    public void productoEliminado(Long idProducto) {
+        Transacciones.despuesDelCommit(() -> indice.eliminar(idProducto));
+    }
+
+    /**
+     * Vuelve a indexar los productos de una categoría renombrada.
+     */
+    public void categoriaActualizada(Long idCategoria) {
+        Transacciones.despuesDelCommit(() -> productoRepository.listarIndexablesPorCategoria(idCategoria).forEach(this::indexar));
+    }
+
+    private void indexar(ProductoIndexable producto) {
+        indexar(producto.getIdProducto(), producto.getNombre(), producto.getPresentacion(),
+                producto.getCategoria(), producto.getPrecio());
+    }
+
+    private void indexar(Long id, String nombre, String presentacion, String categoria, BigDecimal precio) {
+        indice.indexar(id, new ProductoBusquedaDTO(id, nombre, presentacion, categoria, precio, null), List.of(
+                new IndiceBusqueda.Campo(nombre, PESO_NOMBRE),
+                new IndiceBusqueda.Campo(presentacion, PESO_PRESENTACION),
+                new IndiceBusqueda.Campo(categoria, PESO_CATEGORIA)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.roxfarma.service;
+
+import com.roxfarma.model.Producto;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio de la caché de segundo nivel de Hibernate (entidades de referencia)
+ * - Hibernate invalida solo lo que escribe por sí mismo; las escrituras por JDBC
+ *   (el stock total de los productos) deben invalidar aquí las entradas afectadas
+ * - La entrada se invalida al escribir y otra vez al terminar la transacción: una
+ *   lectura concurrente entre ambos momentos podría haber vuelto a cachear el valor anterior
+ * - Expone las tasas de acierto por región para /api/metricas
+ * @author grupo2
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheEntidadesService {
+
+    private static final List<String> REGIONES = List.of("categoria", "proveedor", "cliente", "producto");
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Invalida los productos cuyo stock se actualizó sin pasar por Hibernate.
+     */
+    public void invalidarProductos(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> copia = List.copyOf(ids);
+        evictar(copia);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    evictar(copia);
+                }
+            });
+        }
+    }
+
+    /**
+     * Aciertos, fallos y tasa de acierto de cada región y de la caché de consultas.
+     */
+    public Map<String, Map<String, Object>> obtenerEstadisticas() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Map<String, Object>> regiones = new LinkedHashMap<>();
+        for (String region : REGIONES) {
+            CacheRegionStatistics estadisticasRegion = estadisticas.getDomainDataRegionStatistics(region);
+            regiones.put(region, resumen(estadisticasRegion.getHitCount(), estadisticasRegion.getMissCount(),
+                    estadisticasRegion.getPutCount()));
+        }
+        regiones.put("consultas", resumen(estadisticas.getQueryCacheHitCount(),
+                estadisticas.getQueryCacheMissCount(), estadisticas.getQueryCachePutCount()));
+        return regiones;
+    }
+
+    private void evictar(List<Long> ids) {
+        jakarta.persistence.Cache cache = entityManagerFactory.getCache();
+        ids.forEach(id -> cache.evict(Producto.class, id));
+    }
+
+    private Map<String, Object> resumen(long aciertos, long fallos, long escrituras) {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("aciertos", aciertos);
+        resumen.put("fallos", fallos);
+        resumen.put("escrituras", escrituras);
+        resumen.put("tasaAcierto", aciertos + fallos > 0 ? (double) aciertos / (aciertos + fallos) : 0.0);
+        return resumen;
+    }
+}
@@ -21,6 +21,7 @@ import java.util.List;
 public class CategoriaService {
     
     private final CategoriaRepository categoriaRepository;
+    private final BusquedaProductoService busquedaProductoService;
     
     @Transactional
     public Categoria crearCategoria(CategoriaDTO dto) {
@@ -44,10 +45,15 @@ public class CategoriaService {
         Categoria categoria = categoriaRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada con ID: " + id));
         
+        boolean renombrada = !categoria.getNombre().equals(dto.getNombre());
         categoria.setNombre(dto.getNombre());
         categoria.setDescripcion(dto.getDescripcion());
         
-        return categoriaRepository.save(categoria);
+        Categoria categoriaActualizada = categoriaRepository.save(categoria);
+        if (renombrada) {
+            busquedaProductoService.categoriaActualizada(id);
+        }
+        return categoriaActualizada;
     }
     
     @Transactional
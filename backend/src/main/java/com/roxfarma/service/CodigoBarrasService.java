@@ -0,0 +1,181 @@
+package com.roxfarma.service;
+
+import com.roxfarma.exception.ResourceNotFoundException;
+import com.roxfarma.model.CodigoBarras;
+import com.roxfarma.model.Producto;
+import com.roxfarma.repository.CodigoBarrasRepository;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.util.Gtin;
+import com.roxfarma.util.Transacciones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio de códigos de barras de productos
+ * Funcionamiento:
+ * - Mantiene en memoria un mapa código → producto, cargado al iniciar la aplicación;
+ *   una lectura del escáner se resuelve sin consultar la base de datos, y el producto
+ *   sale de la caché de segundo nivel
+ * - Si el código no está en el mapa se busca en la base de datos y se agrega
+ * - Un código que no existe se recuerda durante PLAZO_DESCONOCIDO_MS: un escáner
+ *   que repite la lectura de un artículo sin registrar no consulta la base cada vez.
+ *   Al asignarse el código deja de considerarse desconocido
+ * - Las altas y bajas de códigos se aplican al mapa recién después del commit
+ * Los códigos se guardan normalizados (ver Gtin).
+ * @author grupo2
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CodigoBarrasService {
+
+    private static final int MAX_CODIGOS_POR_PRODUCTO = 20;
+    private static final long PLAZO_DESCONOCIDO_MS = 30_000;
+    private static final int MAX_DESCONOCIDOS = 10_000;
+
+    private final CodigoBarrasRepository codigoBarrasRepository;
+    private final ProductoRepository productoRepository;
+    private final MetricasService metricasService;
+
+    private final Map<String, Long> productoPorCodigo = new ConcurrentHashMap<>();
+
+    // Código desconocido → instante (ms) hasta el que se responde 404 sin consultar
+    private final Map<String, Long> codigosDesconocidos = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        long inicio = System.currentTimeMillis();
+        codigoBarrasRepository.findAll().forEach(c -> productoPorCodigo.put(c.getCodigo(), c.getIdProducto()));
+        log.info("Códigos de barras cargados: {} en {} ms",
+                productoPorCodigo.size(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Producto con el código leído por el escáner. Sin transacción: si el código está
+     * en el mapa y el producto en la caché de segundo nivel, no se toma una conexión.
+     */
+    public Producto buscarPorCodigo(String codigo) {
+        String normalizado = Gtin.normalizar(codigo);
+        metricasService.incrementar("producto.codigo.consulta");
+
+        Long idProducto = productoPorCodigo.get(normalizado);
+        if (idProducto == null) {
+            if (esDesconocido(normalizado)) {
+                metricasService.incrementar("producto.codigo.consulta.desconocido");
+                throw new ResourceNotFoundException("No hay un producto con el código de barras: " + codigo.trim());
+            }
+            metricasService.incrementar("producto.codigo.consulta.fallo");
+            idProducto = codigoBarrasRepository.findById(normalizado)
+                    .map(CodigoBarras::getIdProducto)
+                    .orElseThrow(() -> {
+                        recordarDesconocido(normalizado);
+                        return new ResourceNotFoundException(
+                                "No hay un producto con el código de barras: " + codigo.trim());
+                    });
+            productoPorCodigo.put(normalizado, idProducto);
+        }
+
+        Long id = idProducto;
+        return productoRepository.findById(id).orElseThrow(() -> {
+            productoPorCodigo.remove(normalizado, id);
+            return new ResourceNotFoundException("No hay un producto con el código de barras: " + codigo.trim());
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> listarCodigos(Long idProducto) {
+        return codigoBarrasRepository.findByIdProductoOrderByFechaCreacion(idProducto).stream()
+                .map(CodigoBarras::getCodigo)
+                .toList();
+    }
+
+    /**
+     * Reemplaza los códigos del producto por los indicados, dentro de la transacción actual.
+     * @throws IllegalArgumentException si un código es inválido o pertenece a otro producto
+     */
+    @Transactional
+    public void asignar(Long idProducto, List<String> codigos) {
+        Set<String> nuevos = new LinkedHashSet<>();
+        codigos.forEach(c -> nuevos.add(Gtin.normalizar(c)));
+        if (nuevos.size() > MAX_CODIGOS_POR_PRODUCTO) {
+            throw new IllegalArgumentException(
+                    "Un producto no puede tener más de " + MAX_CODIGOS_POR_PRODUCTO + " códigos de barras");
+        }
+
+        for (CodigoBarras existente : codigoBarrasRepository.findByCodigoIn(nuevos)) {
+            if (!existente.getIdProducto().equals(idProducto)) {
+                throw new IllegalArgumentException("El código " + existente.getCodigo()
+                        + " ya está asignado al producto ID: " + existente.getIdProducto());
+            }
+        }
+        Set<String> actuales = new LinkedHashSet<>(listarCodigos(idProducto));
+
+        List<String> quitados = actuales.stream().filter(c -> !nuevos.contains(c)).toList();
+        List<String> agregados = nuevos.stream().filter(c -> !actuales.contains(c)).toList();
+        if (quitados.isEmpty() && agregados.isEmpty()) {
+            return;
+        }
+        if (!quitados.isEmpty()) {
+            codigoBarrasRepository.eliminarCodigos(quitados);
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        List<CodigoBarras> entidades = new ArrayList<>();
+        agregados.forEach(c -> entidades.add(new CodigoBarras(c, idProducto, ahora)));
+        codigoBarrasRepository.saveAll(entidades);
+
+        log.info("Códigos de barras del producto ID: {} - agregados: {}, quitados: {}",
+                idProducto, agregados, quitados);
+        Transacciones.despuesDelCommit(() -> {
+            quitados.forEach(c -> productoPorCodigo.remove(c, idProducto));
+            agregados.forEach(c -> {
+                productoPorCodigo.put(c, idProducto);
+                codigosDesconocidos.remove(c);
+            });
+        });
+    }
+
+    /**
+     * Quita todos los códigos de un producto que se va a eliminar.
+     */
+    @Transactional
+    public void eliminarDeProducto(Long idProducto) {
+        List<String> codigos = listarCodigos(idProducto);
+        if (codigos.isEmpty()) {
+            return;
+        }
+        codigoBarrasRepository.eliminarCodigos(codigos);
+        Transacciones.despuesDelCommit(() -> codigos.forEach(c -> productoPorCodigo.remove(c, idProducto)));
+    }
+
+    private boolean esDesconocido(String codigo) {
+        Long hasta = codigosDesconocidos.get(codigo);
+        if (hasta == null) {
+            return false;
+        }
+        if (hasta > System.currentTimeMillis()) {
+            return true;
+        }
+        codigosDesconocidos.remove(codigo, hasta);
+        return false;
+    }
+
+    private void recordarDesconocido(String codigo) {
+        // Cota simple ante lecturas basura: se vacía en lugar de crecer sin límite
+        if (codigosDesconocidos.size() >= MAX_DESCONOCIDOS) {
+            codigosDesconocidos.clear();
+        }
+        codigosDesconocidos.put(codigo, System.currentTimeMillis() + PLAZO_DESCONOCIDO_MS);
+    }
+}
@@ -0,0 +1,228 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.ConteoFisicoDTO;
+import com.roxfarma.dto.DiscrepanciaConteoDTO;
+import com.roxfarma.dto.ItemConteoDTO;
+import com.roxfarma.dto.ReporteConteoDTO;
+import com.roxfarma.model.Lote;
+import com.roxfarma.model.StockAlmacen;
+import com.roxfarma.model.TipoMovimiento;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.StockAlmacenRepository;
+import com.roxfarma.repository.projection.StockActual;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio que concilia el stock de un almacén con un inventario físico
+ * Funcionamiento por bloque:
+ * 1. Una consulta lee los productos del bloque y otra su stock en el almacén
+ * 2. Se calculan las diferencias; los productos sin diferencia no se tocan
+ * 3. Los ajustes se aplican con UPDATE en lote condicionados a la cantidad leída
+ *    (WHERE cantidad = ?); si otro proceso cambió el stock entretanto, ese producto
+ *    se reporta como conflicto en vez de pisar la venta o recepción concurrente
+ * 4. Los movimientos AJUSTE se registran por almacén; el total de cada producto,
+ *    el kardex y las alertas se actualizan al confirmar (MovimientoInventarioService)
+ * 5. Los lotes del producto en el almacén se concilian con lo contado: un faltante
+ *    se descuenta de los lotes (FEFO) y, si aun así suman más que lo contado, se
+ *    descuenta la diferencia. Los lotes se bloquean antes que las filas de stock,
+ *    como en las ventas, y solo se tocan los de los ajustes que se aplicaron
+ * Sin tamaño de bloque todo el conteo es una transacción; con tamaño, cada bloque
+ * confirma por separado y las transacciones (y sus bloqueos) son cortas.
+ * Si no se indica almacén, se concilia el principal.
+ * @author grupo2
+ */
+@Service
+@Slf4j
+public class ConteoFisicoService {
+
+    private static final String MOTIVO_POR_DEFECTO = "CONTEO_FISICO";
+    private static final int TAMANO_LOTE = 500;
+
+    private static final String INSERT_FILA_VACIA =
+            "INSERT IGNORE INTO stock_almacen (id_almacen, id_producto, cantidad, fecha_actualizacion) " +
+            "VALUES (?, ?, 0, ?)";
+
+    private static final String UPDATE_STOCK_CONDICIONADO =
+            "UPDATE stock_almacen SET cantidad = ?, fecha_actualizacion = ? " +
+            "WHERE id_almacen = ? AND id_producto = ? AND cantidad = ?";
+
+    private final ProductoRepository productoRepository;
+    private final StockAlmacenRepository stockAlmacenRepository;
+    private final AlmacenService almacenService;
+    private final MovimientoInventarioService movimientoInventarioService;
+    private final LoteService loteService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ConteoFisicoService(ProductoRepository productoRepository,
+                               StockAlmacenRepository stockAlmacenRepository,
+                               AlmacenService almacenService,
+                               MovimientoInventarioService movimientoInventarioService,
+                               LoteService loteService,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.stockAlmacenRepository = stockAlmacenRepository;
+        this.almacenService = almacenService;
+        this.movimientoInventarioService = movimientoInventarioService;
+        this.loteService = loteService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ReporteConteoDTO conciliar(ConteoFisicoDTO dto) {
+        List<ItemConteoDTO> items = dto.getItems();
+        validarSinDuplicados(items);
+
+        Long idAlmacen = almacenService.resolverAlmacen(dto.getIdAlmacen());
+        String motivo = dto.getMotivo() != null && !dto.getMotivo().isBlank()
+                ? dto.getMotivo() : MOTIVO_POR_DEFECTO;
+        int tamanoBloque = dto.getTamanoBloque() != null ? dto.getTamanoBloque() : items.size();
+
+        log.info("Conciliando inventario físico del almacén ID: {}: {} productos en bloques de {}",
+                idAlmacen, items.size(), tamanoBloque);
+        long inicio = System.currentTimeMillis();
+
+        ReporteConteoDTO reporte = new ReporteConteoDTO();
+        reporte.setIdAlmacen(idAlmacen);
+        reporte.setProductosContados(items.size());
+        for (int desde = 0; desde < items.size(); desde += tamanoBloque) {
+            List<ItemConteoDTO> bloque = items.subList(desde, Math.min(items.size(), desde + tamanoBloque));
+            transactionTemplate.executeWithoutResult(estado -> conciliarBloque(bloque, idAlmacen, motivo, reporte));
+            reporte.setBloques(reporte.getBloques() + 1);
+        }
+
+        log.info("Conciliación terminada en {} ms: {} ajustados, {} sin diferencia, {} conflictos",
+                System.currentTimeMillis() - inicio, reporte.getProductosAjustados(),
+                reporte.getProductosSinDiferencia(), reporte.getConflictos().size());
+        return reporte;
+    }
+
+    private void conciliarBloque(List<ItemConteoDTO> bloque, Long idAlmacen, String motivo,
+                                 ReporteConteoDTO reporte) {
+        List<Long> ids = bloque.stream().map(ItemConteoDTO::getIdProducto).toList();
+        Map<Long, StockActual> productos = productoRepository.buscarStockActual(ids).stream()
+                .collect(Collectors.toMap(StockActual::getIdProducto, Function.identity()));
+        Map<Long, Integer> enAlmacen = stockAlmacenRepository
+                .findByClaveIdAlmacenAndClaveIdProductoIn(idAlmacen, ids).stream()
+                .collect(Collectors.toMap(fila -> fila.getClave().getIdProducto(), StockAlmacen::getCantidad));
+
+        List<Ajuste> ajustes = new ArrayList<>();
+        for (ItemConteoDTO item : bloque) {
+            StockActual producto = productos.get(item.getIdProducto());
+            if (producto == null) {
+                reporte.getNoEncontrados().add(item.getIdProducto());
+                continue;
+            }
+            Integer cantidad = enAlmacen.get(item.getIdProducto());
+            int sistema = cantidad != null ? cantidad : 0;
+            if (sistema == item.getCantidadContada()) {
+                reporte.setProductosSinDiferencia(reporte.getProductosSinDiferencia() + 1);
+            } else {
+                ajustes.add(new Ajuste(producto, sistema, item.getCantidadContada(), cantidad != null));
+            }
+        }
+
+        if (ajustes.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<Lote>> lotes = loteService.bloquear(idAlmacen, ajustes.stream()
+                .map(ajuste -> ajuste.producto().getIdProducto())
+                .sorted()
+                .toList());
+
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+
+        // Productos sin stock previo en el almacén: se crea la fila en 0 y se ajusta como las demás
+        List<Ajuste> sinFila = ajustes.stream().filter(ajuste -> !ajuste.existeFila()).toList();
+        if (!sinFila.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_FILA_VACIA, sinFila, TAMANO_LOTE, (ps, ajuste) -> {
+                ps.setLong(1, idAlmacen);
+                ps.setLong(2, ajuste.producto().getIdProducto());
+                ps.setTimestamp(3, ahora);
+            });
+        }
+
+        int[][] resultados = jdbcTemplate.batchUpdate(UPDATE_STOCK_CONDICIONADO, ajustes, TAMANO_LOTE, (ps, ajuste) -> {
+            ps.setInt(1, ajuste.contado());
+            ps.setTimestamp(2, ahora);
+            ps.setLong(3, idAlmacen);
+            ps.setLong(4, ajuste.producto().getIdProducto());
+            ps.setInt(5, ajuste.sistema());
+        });
+
+        Map<Long, Integer> descuentosLotes = new HashMap<>();
+        int indice = 0;
+        for (int[] envio : resultados) {
+            for (int filas : envio) {
+                Ajuste ajuste = ajustes.get(indice++);
+                if (filas == 0) {
+                    reporte.getConflictos().add(ajuste.producto().getIdProducto());
+                } else {
+                    aplicarAjuste(ajuste, idAlmacen, motivo, reporte);
+                    int descuento = descuentoLotes(ajuste, lotes.getOrDefault(ajuste.producto().getIdProducto(), List.of()));
+                    if (descuento > 0) {
+                        descuentosLotes.put(ajuste.producto().getIdProducto(), descuento);
+                    }
+                }
+            }
+        }
+        if (!descuentosLotes.isEmpty()) {
+            loteService.descontarFefo(idAlmacen, lotes, descuentosLotes);
+        }
+    }
+
+    /**
+     * Unidades a descontar de los lotes: el faltante, o más si los lotes suman más que lo contado.
+     */
+    private int descuentoLotes(Ajuste ajuste, List<Lote> lotes) {
+        int enLotes = lotes.stream().mapToInt(Lote::getCantidadDisponible).sum();
+        return Math.max(0, Math.max(ajuste.sistema() - ajuste.contado(), enLotes - ajuste.contado()));
+    }
+
+    private void aplicarAjuste(Ajuste ajuste, Long idAlmacen, String motivo, ReporteConteoDTO reporte) {
+        StockActual producto = ajuste.producto();
+        int diferencia = ajuste.contado() - ajuste.sistema();
+
+        movimientoInventarioService.registrarVariacion(producto.getIdProducto(), TipoMovimiento.AJUSTE, motivo,
+                Math.abs(diferencia), diferencia, idAlmacen, null, null);
+
+        reporte.getDiscrepancias().add(new DiscrepanciaConteoDTO(producto.getIdProducto(), producto.getNombre(),
+                ajuste.sistema(), ajuste.contado(), diferencia));
+        reporte.setProductosAjustados(reporte.getProductosAjustados() + 1);
+        if (diferencia > 0) {
+            reporte.setUnidadesSobrantes(reporte.getUnidadesSobrantes() + diferencia);
+        } else {
+            reporte.setUnidadesFaltantes(reporte.getUnidadesFaltantes() - diferencia);
+        }
+    }
+
+    private void validarSinDuplicados(List<ItemConteoDTO> items) {
+        Set<Long> vistos = new HashSet<>();
+        for (ItemConteoDTO item : items) {
+            if (!vistos.add(item.getIdProducto())) {
+                throw new IllegalArgumentException(
+                        "El producto ID " + item.getIdProducto() + " aparece más de una vez en el conteo");
+            }
+        }
+    }
+
+    private record Ajuste(StockActual producto, int sistema, int contado, boolean existeFila) {
+    }
+}
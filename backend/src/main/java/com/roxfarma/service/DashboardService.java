@@ -0,0 +1,200 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.DashboardResumenDTO;
+import com.roxfarma.dto.EventoOutboxDTO;
+import com.roxfarma.dto.ResumenProductoDTO;
+import com.roxfarma.event.AlertaInventarioEvent;
+import com.roxfarma.event.OutboxListener;
+import com.roxfarma.model.TipoEvento;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.projection.TotalesInventario;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Servicio que calcula el snapshot del dashboard y lo mantiene en caché
+ * Funcionamiento:
+ * - El snapshot se reutiliza mientras no supere el TTL configurado
+ * - Si N peticiones llegan con el snapshot vencido, solo una recalcula (single-flight)
+ * - Mientras se recalcula, se sigue sirviendo el snapshot anterior (stale-while-revalidate)
+ * - Si el snapshot es demasiado antiguo (max-stale), las peticiones esperan el nuevo cálculo
+ * - Un cambio de stock (evento STOCK_ACTUALIZADO del outbox) o de alertas avanza la
+ *   generación: el snapshot queda vencido pero se sigue sirviendo mientras se recalcula
+ * - Un cálculo solo se guarda si la generación no cambió desde que empezó; si hubo una
+ *   invalidación a mitad del cálculo, el resultado ya no es vigente y no se guarda
+ * @author grupo2
+ */
+@Service
+@Slf4j
+public class DashboardService implements OutboxListener {
+
+    private final ProductoRepository productoRepository;
+    private final long ttlMs;
+    private final long maxStaleMs;
+
+    private final AtomicReference<Snapshot> snapshotActual = new AtomicReference<>();
+    private final AtomicLong generacion = new AtomicLong();
+    private final AtomicReference<CompletableFuture<DashboardResumenDTO>> calculoEnCurso = new AtomicReference<>();
+
+    // Un único hilo basta: nunca hay más de un cálculo en curso
+    private final ExecutorService refrescoExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "dashboard-refresco");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    public DashboardService(ProductoRepository productoRepository,
+                            @Value("${dashboard.resumen.ttl-ms:5000}") long ttlMs,
+                            @Value("${dashboard.resumen.max-stale-ms:60000}") long maxStaleMs) {
+        this.productoRepository = productoRepository;
+        this.ttlMs = ttlMs;
+        this.maxStaleMs = maxStaleMs;
+    }
+
+    /**
+     * Retorna el snapshot del dashboard.
+     * Solo bloquea al llamador cuando no existe snapshot o es demasiado antiguo.
+     */
+    public DashboardResumenDTO obtenerResumen() {
+        Snapshot snapshot = snapshotActual.get();
+        long ahora = System.currentTimeMillis();
+
+        if (snapshot != null) {
+            long edad = ahora - snapshot.calculadoEnMs();
+            boolean vigente = snapshot.generacion() == generacion.get();
+            if (vigente && edad < ttlMs) {
+                return snapshot.resumen();
+            }
+            if (edad < maxStaleMs) {
+                log.debug("Snapshot del dashboard vencido (edad {} ms, vigente: {}), refrescando en segundo plano",
+                        edad, vigente);
+                refrescar();
+                return snapshot.resumen();
+            }
+        }
+
+        return esperar(refrescar());
+    }
+
+    /**
+     * Marca el snapshot como vencido sin descartarlo; la siguiente petición lo sirve
+     * y recalcula en segundo plano. Un cálculo en curso ya no se guardará.
+     */
+    public void invalidar() {
+        generacion.incrementAndGet();
+    }
+
+    /**
+     * Un cruce de umbral cambia los listados de alertas, el snapshot deja de ser válido.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarAlertas(AlertaInventarioEvent evento) {
+        invalidar();
+    }
+
+    @Override
+    public String getNombre() {
+        return "dashboard";
+    }
+
+    @Override
+    public Set<TipoEvento> getTipos() {
+        return Set.of(TipoEvento.STOCK_ACTUALIZADO);
+    }
+
+    /**
+     * Los totales del snapshot cambiaron; invalidar varias veces es inocuo y no
+     * obliga a recalcular de forma síncrona.
+     */
+    @Override
+    public void procesar(List<EventoOutboxDTO> eventos) {
+        log.debug("Dashboard: {} cambios de stock, el snapshot queda vencido", eventos.size());
+        invalidar();
+    }
+
+    /**
+     * Lanza el recálculo si no hay uno en curso; si lo hay, retorna el mismo future.
+     */
+    private CompletableFuture<DashboardResumenDTO> refrescar() {
+        CompletableFuture<DashboardResumenDTO> nuevo = new CompletableFuture<>();
+        CompletableFuture<DashboardResumenDTO> existente = calculoEnCurso.compareAndExchange(null, nuevo);
+        if (existente != null) {
+            return existente;
+        }
+
+        refrescoExecutor.execute(() -> {
+            try {
+                // La generación se lee antes de consultar: un cambio posterior la avanza
+                long generacionInicial = generacion.get();
+                DashboardResumenDTO resumen = calcularResumen();
+                if (generacion.get() == generacionInicial) {
+                    snapshotActual.set(new Snapshot(resumen, System.currentTimeMillis(), generacionInicial));
+                } else {
+                    log.debug("Snapshot del dashboard invalidado durante el cálculo, no se guarda");
+                }
+                calculoEnCurso.set(null);
+                nuevo.complete(resumen);
+            } catch (Throwable e) {
+                log.error("Error al calcular el snapshot del dashboard: {}", e.getMessage());
+                calculoEnCurso.set(null);
+                nuevo.completeExceptionally(e);
+            }
+        });
+        return nuevo;
+    }
+
+    private DashboardResumenDTO calcularResumen() {
+        long inicio = System.currentTimeMillis();
+
+        TotalesInventario totales = productoRepository.calcularTotalesInventario();
+        List<ResumenProductoDTO> stockBajo =
+                productoRepository.listarResumenConStockMenorA(AlertaInventarioService.UMBRAL_STOCK_BAJO);
+        List<ResumenProductoDTO> proximosVencer = productoRepository.listarResumenQueVencenAntesDe(
+                LocalDate.now().plusDays(AlertaInventarioService.DIAS_ALERTA_VENCIMIENTO));
+
+        DashboardResumenDTO resumen = new DashboardResumenDTO(
+                totales.getTotalProductos(),
+                totales.getStockTotal(),
+                stockBajo,
+                stockBajo.size(),
+                proximosVencer,
+                proximosVencer.size(),
+                LocalDateTime.now());
+
+        log.info("Snapshot del dashboard calculado en {} ms", System.currentTimeMillis() - inicio);
+        return resumen;
+    }
+
+    private DashboardResumenDTO esperar(CompletableFuture<DashboardResumenDTO> calculo) {
+        try {
+            return calculo.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void detener() {
+        refrescoExecutor.shutdownNow();
+    }
+
+    private record Snapshot(DashboardResumenDTO resumen, long calculadoEnMs, long generacion) {
+    }
+}
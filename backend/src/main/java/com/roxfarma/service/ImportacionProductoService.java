@@ -0,0 +1,380 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.ErrorFilaImportacionDTO;
+import com.roxfarma.dto.ProductoDTO;
+import com.roxfarma.dto.ResultadoImportacionDTO;
+import com.roxfarma.model.Categoria;
+import com.roxfarma.model.Producto;
+import com.roxfarma.model.TipoMovimiento;
+import com.roxfarma.repository.CategoriaRepository;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.projection.ProductoIndexable;
+import com.roxfarma.util.LectorCsv;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de importación masiva de productos desde un archivo CSV
+ * Funcionamiento:
+ * - El archivo se lee registro a registro (LectorCsv); en memoria solo quedan el
+ *   tramo en curso y las claves ya vistas, no el archivo
+ * - Las columnas se ubican por nombre en el encabezado: nombre, presentacion,
+ *   descripcion, precio, fecha_vencimiento, stock y categoria (nombre o ID)
+ * - Cada fila se valida con las mismas reglas de ProductoDTO; las categorías y los
+ *   productos existentes se cargan una sola vez en mapas al empezar
+ * - Un producto se identifica por nombre + presentación (sin tildes ni mayúsculas):
+ *   si ya existe se actualizan sus datos de catálogo, si no, se crea con su stock
+ *   inicial en el almacén principal y el movimiento en el kardex. El stock de un
+ *   producto existente no se toca: se corrige con un conteo físico
+ * - Los precios nuevos o distintos del vigente quedan en el historial de precios
+ * - Las filas válidas se guardan en tramos, cada uno en su propia transacción y con
+ *   INSERT/UPDATE en lotes JDBC; si un tramo falla, sus filas se informan como error
+ *   y la importación sigue con el siguiente
+ * La importación no evalúa alertas de stock por producto; las sugerencias de
+ * reabastecimiento llegan por los eventos de stock del outbox.
+ * @author grupo2
+ */
+@Service
+@Slf4j
+public class ImportacionProductoService {
+
+    private static final int TAMANO_TRAMO = 1000;
+    private static final int MAX_ERRORES_INFORMADOS = 1000;
+    private static final String MOTIVO_STOCK_INICIAL = "STOCK_INICIAL";
+
+    private static final List<String> COLUMNAS_OBLIGATORIAS =
+            List.of("nombre", "precio", "fecha_vencimiento", "stock", "categoria");
+    private static final Map<String, String> ALIAS_COLUMNAS = Map.of(
+            "id_categoria", "categoria",
+            "vencimiento", "fecha_vencimiento");
+
+    private static final DateTimeFormatter FECHA_DIA_MES_ANIO =
+            DateTimeFormatter.ofPattern("d/M/uuuu").withResolverStyle(ResolverStyle.STRICT);
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private final ProductoRepository productoRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final InventarioService inventarioService;
+    private final MovimientoInventarioService movimientoInventarioService;
+    private final CacheEntidadesService cacheEntidadesService;
+    private final BusquedaProductoService busquedaProductoService;
+    private final MetricasService metricasService;
+    private final PrecioService precioService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    public ImportacionProductoService(ProductoRepository productoRepository,
+                                      CategoriaRepository categoriaRepository,
+                                      InventarioService inventarioService,
+                                      MovimientoInventarioService movimientoInventarioService,
+                                      CacheEntidadesService cacheEntidadesService,
+                                      BusquedaProductoService busquedaProductoService,
+                                      MetricasService metricasService,
+                                      PrecioService precioService,
+                                      Validator validator,
+                                      PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.inventarioService = inventarioService;
+        this.movimientoInventarioService = movimientoInventarioService;
+        this.cacheEntidadesService = cacheEntidadesService;
+        this.busquedaProductoService = busquedaProductoService;
+        this.metricasService = metricasService;
+        this.precioService = precioService;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Importa los productos del CSV. Solo un encabezado inválido o un archivo mal
+     * formado cortan la importación; los errores de cada fila van en el resultado.
+     */
+    public ResultadoImportacionDTO importar(Reader contenido) throws IOException {
+        long inicio = System.currentTimeMillis();
+        LectorCsv csv = LectorCsv.conSeparadorDetectado(contenido);
+        Map<String, Integer> columnas = leerEncabezado(csv.leerRegistro());
+
+        Map<String, Categoria> categorias = cargarCategorias();
+        Map<String, Long> existentes = new HashMap<>();
+        Map<Long, BigDecimal> preciosExistentes = new HashMap<>();
+        for (ProductoIndexable p : productoRepository.listarIndexables()) {
+            existentes.put(clave(p.getNombre(), p.getPresentacion()), p.getIdProducto());
+            preciosExistentes.put(p.getIdProducto(), p.getPrecio());
+        }
+        log.info("Importando productos: separador '{}', {} categorías y {} productos existentes",
+                csv.getSeparador(), categorias.size(), existentes.size());
+
+        Importacion importacion = new Importacion();
+        Map<String, Long> vistas = new HashMap<>();
+        List<FilaValida> tramo = new ArrayList<>(TAMANO_TRAMO);
+        List<String> registro;
+        while ((registro = csv.leerRegistro()) != null) {
+            importacion.filasLeidas++;
+            long linea = csv.getLineaRegistro();
+            try {
+                Producto producto = convertir(registro, columnas, categorias);
+                String clave = clave(producto.getNombre(), producto.getPresentacion());
+                Long lineaAnterior = vistas.putIfAbsent(clave, linea);
+                if (lineaAnterior != null) {
+                    throw new IllegalArgumentException("Producto repetido en el archivo (línea " + lineaAnterior + ")");
+                }
+                producto.setIdProducto(existentes.get(clave));
+                tramo.add(new FilaValida(linea, producto, preciosExistentes.get(producto.getIdProducto())));
+            } catch (IllegalArgumentException e) {
+                importacion.agregarError(linea, e.getMessage());
+            }
+            if (tramo.size() == TAMANO_TRAMO) {
+                guardarTramo(tramo, importacion);
+                tramo.clear();
+            }
+        }
+        if (!tramo.isEmpty()) {
+            guardarTramo(tramo, importacion);
+        }
+
+        long duracion = System.currentTimeMillis() - inicio;
+        metricasService.sumar("producto.importacion.filas", importacion.filasLeidas);
+        metricasService.sumar("producto.importacion.errores", importacion.filasConError);
+        log.info("Importación terminada en {} ms: {} filas, {} nuevos, {} actualizados, {} con error",
+                duracion, importacion.filasLeidas, importacion.insertados, importacion.actualizados,
+                importacion.filasConError);
+        return new ResultadoImportacionDTO(importacion.filasLeidas, importacion.insertados,
+                importacion.actualizados, importacion.filasConError, importacion.errores, duracion);
+    }
+
+    /**
+     * Posición de cada columna conocida; las desconocidas se ignoran.
+     */
+    Map<String, Integer> leerEncabezado(List<String> encabezado) {
+        if (encabezado == null) {
+            throw new IllegalArgumentException("El archivo está vacío");
+        }
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < encabezado.size(); i++) {
+            String nombre = normalizar(encabezado.get(i)).replace(' ', '_');
+            columnas.putIfAbsent(ALIAS_COLUMNAS.getOrDefault(nombre, nombre), i);
+        }
+        List<String> faltantes = COLUMNAS_OBLIGATORIAS.stream().filter(c -> !columnas.containsKey(c)).toList();
+        if (!faltantes.isEmpty()) {
+            throw new IllegalArgumentException("Faltan columnas en el encabezado: " + String.join(", ", faltantes));
+        }
+        return columnas;
+    }
+
+    /**
+     * Convierte y valida una fila. La categoría del producto es la entidad cargada al inicio.
+     * @throws IllegalArgumentException con todos los problemas de la fila
+     */
+    Producto convertir(List<String> registro, Map<String, Integer> columnas, Map<String, Categoria> categorias) {
+        List<String> problemas = new ArrayList<>();
+        ProductoDTO dto = new ProductoDTO();
+        dto.setNombre(valor(registro, columnas, "nombre"));
+        dto.setPresentacion(valor(registro, columnas, "presentacion"));
+        dto.setDescripcion(valor(registro, columnas, "descripcion"));
+
+        String precio = valor(registro, columnas, "precio");
+        try {
+            dto.setPrecio(precio == null ? null : parsearDecimal(precio));
+        } catch (NumberFormatException e) {
+            problemas.add("Precio inválido: '" + precio + "'");
+        }
+        String fecha = valor(registro, columnas, "fecha_vencimiento");
+        try {
+            dto.setFechaVencimiento(fecha == null ? null : parsearFecha(fecha));
+        } catch (DateTimeParseException e) {
+            problemas.add("Fecha de vencimiento inválida: '" + fecha + "' (use AAAA-MM-DD o DD/MM/AAAA)");
+        }
+        String stock = valor(registro, columnas, "stock");
+        try {
+            dto.setStock(stock == null ? null : Integer.valueOf(stock));
+        } catch (NumberFormatException e) {
+            problemas.add("Stock inválido: '" + stock + "'");
+        }
+        String nombreCategoria = valor(registro, columnas, "categoria");
+        Categoria categoria = nombreCategoria == null ? null : categorias.get(normalizar(nombreCategoria));
+        if (nombreCategoria != null && categoria == null) {
+            problemas.add("Categoría no encontrada: '" + nombreCategoria + "'");
+        }
+        dto.setIdCategoria(categoria != null ? categoria.getIdCategoria() : null);
+
+        for (ConstraintViolation<ProductoDTO> violacion : validator.validate(dto)) {
+            // Sin duplicar el aviso de un campo que ya no se pudo leer
+            String campo = violacion.getPropertyPath().toString();
+            if (violacion.getInvalidValue() != null || !campoConProblema(campo, precio, fecha, stock, nombreCategoria)) {
+                problemas.add(violacion.getMessage());
+            }
+        }
+        if (!problemas.isEmpty()) {
+            throw new IllegalArgumentException(problemas.stream().sorted().collect(Collectors.joining("; ")));
+        }
+
+        Producto producto = new Producto();
+        producto.setNombre(dto.getNombre());
+        producto.setPresentacion(dto.getPresentacion());
+        producto.setDescripcion(dto.getDescripcion());
+        producto.setPrecio(dto.getPrecio());
+        producto.setFechaVencimiento(dto.getFechaVencimiento());
+        producto.setStock(dto.getStock());
+        producto.setCategoria(categoria);
+        return producto;
+    }
+
+    private void guardarTramo(List<FilaValida> tramo, Importacion importacion) {
+        List<Producto> nuevos = new ArrayList<>();
+        List<Producto> actualizados = new ArrayList<>();
+        for (FilaValida fila : tramo) {
+            (fila.producto().getIdProducto() == null ? nuevos : actualizados).add(fila.producto());
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(estado -> {
+                productoRepository.insertarEnLote(nuevos);
+                SortedMap<Long, Integer> stockInicial = new TreeMap<>();
+                for (Producto p : nuevos) {
+                    if (p.getStock() > 0) {
+                        stockInicial.put(p.getIdProducto(), p.getStock());
+                        movimientoInventarioService.registrar(p, TipoMovimiento.ENTRADA, MOTIVO_STOCK_INICIAL,
+                                p.getStock(), 0, null, null);
+                    }
+                }
+                inventarioService.registrarStockInicialEnLote(stockInicial);
+
+                productoRepository.actualizarCatalogoEnLote(actualizados);
+                cacheEntidadesService.invalidarProductos(actualizados.stream().map(Producto::getIdProducto).toList());
+
+                List<Producto> guardados = tramo.stream().map(FilaValida::producto).toList();
+                Map<Long, BigDecimal> preciosAnteriores = new HashMap<>();
+                tramo.stream().filter(f -> f.precioAnterior() != null)
+                        .forEach(f -> preciosAnteriores.put(f.producto().getIdProducto(), f.precioAnterior()));
+                precioService.registrarPrecios(guardados, preciosAnteriores);
+                busquedaProductoService.productosGuardados(guardados);
+            });
+            importacion.insertados += nuevos.size();
+            importacion.actualizados += actualizados.size();
+        } catch (DataAccessException e) {
+            long desde = tramo.get(0).linea();
+            long hasta = tramo.get(tramo.size() - 1).linea();
+            log.error("No se pudo guardar el tramo de las líneas {} a {}", desde, hasta, e);
+            importacion.filasConError += tramo.size() - 1;
+            importacion.agregarError(desde, "No se guardaron las filas de las líneas " + desde + " a " + hasta
+                    + ": " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /**
+     * Categorías por nombre normalizado y por ID.
+     */
+    private Map<String, Categoria> cargarCategorias() {
+        Map<String, Categoria> categorias = new HashMap<>();
+        for (Categoria categoria : categoriaRepository.findAll()) {
+            categorias.put(normalizar(categoria.getNombre()), categoria);
+            categorias.put(String.valueOf(categoria.getIdCategoria()), categoria);
+        }
+        return categorias;
+    }
+
+    private static boolean campoConProblema(String campo, String precio, String fecha, String stock,
+                                            String categoria) {
+        return switch (campo) {
+            case "precio" -> precio != null;
+            case "fechaVencimiento" -> fecha != null;
+            case "stock" -> stock != null;
+            case "idCategoria" -> categoria != null;
+            default -> false;
+        };
+    }
+
+    /**
+     * Valor recortado de la columna, o null si no está o viene vacío.
+     */
+    private static String valor(List<String> registro, Map<String, Integer> columnas, String columna) {
+        Integer posicion = columnas.get(columna);
+        if (posicion == null || posicion >= registro.size()) {
+            return null;
+        }
+        String valor = registro.get(posicion).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    /**
+     * Acepta punto o coma decimal: "12.50", "12,50", "1.234,50" y "1,234.50".
+     */
+    static BigDecimal parsearDecimal(String texto) {
+        String limpio = texto.replace(" ", "");
+        int punto = limpio.lastIndexOf('.');
+        int coma = limpio.lastIndexOf(',');
+        if (punto >= 0 && coma >= 0) {
+            limpio = coma > punto
+                    ? limpio.replace(".", "").replace(',', '.')
+                    : limpio.replace(",", "");
+        } else if (coma >= 0) {
+            limpio = limpio.replace(',', '.');
+        }
+        return new BigDecimal(limpio);
+    }
+
+    static LocalDate parsearFecha(String texto) {
+        return texto.contains("/") ? LocalDate.parse(texto, FECHA_DIA_MES_ANIO) : LocalDate.parse(texto);
+    }
+
+    private static String clave(String nombre, String presentacion) {
+        return normalizar(nombre) + "|" + normalizar(presentacion);
+    }
+
+    /**
+     * Sin tildes, en minúsculas y con los espacios simplificados.
+     */
+    private static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinTildes.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private record FilaValida(long linea, Producto producto, BigDecimal precioAnterior) {
+    }
+
+    /**
+     * Contadores y errores de una importación en curso.
+     */
+    private static class Importacion {
+
+        private int filasLeidas;
+        private int insertados;
+        private int actualizados;
+        private int filasConError;
+        private final List<ErrorFilaImportacionDTO> errores = new ArrayList<>();
+
+        void agregarError(long linea, String mensaje) {
+            filasConError++;
+            if (errores.size() < MAX_ERRORES_INFORMADOS) {
+                errores.add(new ErrorFilaImportacionDTO(linea, mensaje));
+            }
+        }
+    }
+}
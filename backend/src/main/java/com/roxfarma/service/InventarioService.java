@@ -1,25 +1,45 @@
 package com.roxfarma.service;
 
+import com.roxfarma.dto.StockAlmacenDTO;
+import com.roxfarma.dto.TransferenciaDTO;
 import com.roxfarma.exception.ResourceNotFoundException;
 import com.roxfarma.exception.StockInsuficienteException;
-import com.roxfarma.model.Auditoria;
+import com.roxfarma.model.Almacen;
 import com.roxfarma.model.Producto;
-import com.roxfarma.repository.AuditoriaRepository;
+import com.roxfarma.model.StockAlmacen;
+import com.roxfarma.model.TipoMovimiento;
 import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.StockAlmacenRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * Servicio encargado de la gestión de inventario.
  * Funciones:
- * - Control de stock de productos
- * - Registro de movimientos (entrada/salida)
+ * - Control de stock de productos por almacén
+ * - Registro de movimientos (entrada/salida/transferencia)
  * - Validación de stock disponible
  * - Auditoría de cambios
+ * Stock por almacén:
+ * - Cada operación actualiza la fila (almacén, producto) con un UPDATE atómico;
+ *   la salida está condicionada a que el almacén tenga las unidades (cantidad >= ?)
+ * - No se lee ni se escribe la fila de producto: el total (Producto.stock) lo
+ *   actualiza MovimientoInventarioService al confirmar, una vez por producto
+ * - Si no se indica almacén se usa el principal
+ * Cada movimiento se registra en el kardex (movimiento_inventario) con su almacén.
+ * Ingresos en lote (aumentarStockEnLote):
+ * - Todas las líneas de un ingreso se suman con un único envío sobre stock_almacen;
+ *   los movimientos, totales y auditoría ya se escriben en lote al confirmar
+ * - La cantidad de sentencias no depende del número de líneas
  * Uso:
  * - VentaService reduce stock
  * - PedidoService aumenta stock
@@ -29,114 +49,254 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 @Slf4j
 public class InventarioService {
-    
+
+    private static final String MOTIVO_TRANSFERENCIA = "TRANSFERENCIA";
+
     private final ProductoRepository productoRepository;
-    private final AuditoriaRepository auditoriaRepository;
-    
+    private final StockAlmacenRepository stockAlmacenRepository;
+    private final AlmacenService almacenService;
+    private final MovimientoInventarioService movimientoInventarioService;
+    private final LoteService loteService;
+    private final MetricasService metricasService;
+
     /**
  * Reduce el stock de un producto.
  * Usado en:
  * - Registro de ventas
  * - Ajustes de inventario
  * Pasos:
- * 1. Buscar producto
- * 2. Validar stock disponible
- * 3. Actualizar stock
- * 4. Registrar movimiento
+ * 1. Descontar del almacén si tiene stock suficiente
+ * 2. Registrar movimiento (el total se actualiza al confirmar)
      */
     @Transactional
     public void disminuirStock(Long idProducto, Integer cantidad, String motivo) {
-        log.info("Disminuyendo stock del producto ID: {} en {} unidades. Motivo: {}", 
-                idProducto, cantidad, motivo);
-        
-        Producto producto = productoRepository.findById(idProducto)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Producto no encontrado con ID: " + idProducto));
-        
-        if (producto.getStock() < cantidad) {
-            String mensaje = String.format(
-                    "Stock insuficiente para %s. Disponible: %d, Solicitado: %d",
-                    producto.getNombre(), producto.getStock(), cantidad);
-            log.warn(mensaje);
-            throw new StockInsuficienteException(mensaje);
-        }
-        
-        int stockAnterior = producto.getStock();
-        producto.setStock(producto.getStock() - cantidad);
-        
-        productoRepository.save(producto);
-        
-        log.info("Stock actualizado para producto '{}'. Anterior: {}, Nuevo: {}", 
-                producto.getNombre(), stockAnterior, producto.getStock());
-        
-        registrarMovimiento(producto, cantidad, motivo, "SALIDA", stockAnterior);
-    }
-    
+        disminuirStock(idProducto, cantidad, motivo, null, null);
+    }
+
+    /**
+     * Reduce el stock y deja en el kardex la referencia a la venta que lo originó.
+     */
+    @Transactional
+    public void disminuirStock(Long idProducto, Integer cantidad, String motivo, Long idVenta) {
+        disminuirStock(idProducto, cantidad, motivo, idVenta, null);
+    }
+
+    /**
+     * Reduce el stock del almacén indicado (o del principal si es null).
+     */
+    @Transactional
+    public void disminuirStock(Long idProducto, Integer cantidad, String motivo, Long idVenta, Long idAlmacen) {
+        Long almacen = almacenService.resolverAlmacen(idAlmacen);
+        log.info("Disminuyendo stock del producto ID: {} en {} unidades del almacén ID: {}. Motivo: {}",
+                idProducto, cantidad, almacen, motivo);
+
+        descontarDeAlmacen(idProducto, almacen, cantidad);
+
+        movimientoInventarioService.registrarVariacion(idProducto, TipoMovimiento.SALIDA, motivo, cantidad,
+                -cantidad, almacen, idVenta, null);
+    }
+
     /**
  * Aumenta el stock de un producto.
  * Usado en:
  * - Recepción de pedidos de proveedor
  * - Ajustes de inventario
  * Pasos:
- * 1. Buscar producto
- * 2. Incrementar stock
- * 3. Guardar cambios y registrar movimiento
+ * 1. Sumar al almacén (crea la fila si no existía)
+ * 2. Registrar movimiento (el total se actualiza al confirmar)
      */
     @Transactional
     public void aumentarStock(Long idProducto, Integer cantidad, String motivo) {
-        log.info("Aumentando stock del producto ID: {} en {} unidades. Motivo: {}", 
-                idProducto, cantidad, motivo);
-        
-        Producto producto = productoRepository.findById(idProducto)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Producto no encontrado con ID: " + idProducto));
-        
-        int stockAnterior = producto.getStock();
-        producto.setStock(producto.getStock() + cantidad);
-        
-        productoRepository.save(producto);
-        
-        log.info("Stock actualizado para producto '{}'. Anterior: {}, Nuevo: {}", 
-                producto.getNombre(), stockAnterior, producto.getStock());
-        
-        registrarMovimiento(producto, cantidad, motivo, "ENTRADA", stockAnterior);
-    }
-    
+        aumentarStock(idProducto, cantidad, motivo, null, null);
+    }
+
+    /**
+     * Aumenta el stock y deja en el kardex la referencia al pedido que lo originó.
+     */
+    @Transactional
+    public void aumentarStock(Long idProducto, Integer cantidad, String motivo, Long idPedido) {
+        aumentarStock(idProducto, cantidad, motivo, idPedido, null);
+    }
+
+    /**
+     * Aumenta el stock del almacén indicado (o del principal si es null).
+     */
+    @Transactional
+    public void aumentarStock(Long idProducto, Integer cantidad, String motivo, Long idPedido, Long idAlmacen) {
+        Long almacen = almacenService.resolverAlmacen(idAlmacen);
+        log.info("Aumentando stock del producto ID: {} en {} unidades del almacén ID: {}. Motivo: {}",
+                idProducto, cantidad, almacen, motivo);
+
+        validarProductoExiste(idProducto);
+        metricasService.incrementar("inventario.stock.operacion");
+        stockAlmacenRepository.incrementar(almacen, idProducto, cantidad);
+
+        movimientoInventarioService.registrarVariacion(idProducto, TipoMovimiento.ENTRADA, motivo, cantidad,
+                cantidad, almacen, null, idPedido);
+    }
+
+    /**
+     * Aumenta el stock de varios productos en el mismo almacén con un solo envío.
+     * Usado en la recepción de pedidos; los productos deben existir (vienen de los
+     * detalles del pedido). Cada línea queda como un movimiento en el kardex.
+     */
+    @Transactional
+    public void aumentarStockEnLote(List<IngresoStock> ingresos, String motivo, Long idPedido, Long idAlmacen) {
+        if (ingresos.isEmpty()) {
+            return;
+        }
+        Long almacen = almacenService.resolverAlmacen(idAlmacen);
+
+        // Ordenado por producto: las filas se bloquean en el mismo orden que en las ventas
+        SortedMap<Long, Integer> cantidades = new TreeMap<>();
+        ingresos.forEach(ingreso -> cantidades.merge(ingreso.idProducto(), ingreso.cantidad(), Integer::sum));
+
+        log.info("Aumentando stock de {} productos ({} líneas) en el almacén ID: {}. Motivo: {}",
+                cantidades.size(), ingresos.size(), almacen, motivo);
+        metricasService.sumar("inventario.stock.operacion", ingresos.size());
+        stockAlmacenRepository.incrementarEnLote(almacen, cantidades);
+
+        for (IngresoStock ingreso : ingresos) {
+            movimientoInventarioService.registrarVariacion(ingreso.idProducto(), TipoMovimiento.ENTRADA, motivo,
+                    ingreso.cantidad(), ingreso.cantidad(), almacen, null, idPedido);
+        }
+    }
+
+    /**
+     * Mueve unidades de un almacén a otro en una sola transacción.
+     * El total del producto no cambia; en el kardex quedan la salida y la entrada.
+     * Los lotes de las unidades se mueven con ellas (FEFO); se bloquean antes que
+     * las filas de stock, en el mismo orden que en las ventas.
+     */
+    @Transactional
+    public void transferirStock(TransferenciaDTO dto) {
+        if (dto.getIdAlmacenOrigen().equals(dto.getIdAlmacenDestino())) {
+            throw new IllegalArgumentException("El almacén de origen y el de destino deben ser distintos");
+        }
+        // Se permite vaciar un almacén inactivo; el destino debe estar activo
+        Long origen = almacenService.obtenerAlmacenPorId(dto.getIdAlmacenOrigen()).getIdAlmacen();
+        Long destino = almacenService.resolverAlmacen(dto.getIdAlmacenDestino());
+        Long idProducto = dto.getIdProducto();
+        int cantidad = dto.getCantidad();
+
+        log.info("Transfiriendo {} unidades del producto ID: {} del almacén {} al {}",
+                cantidad, idProducto, origen, destino);
+
+        loteService.transferir(idProducto, origen, destino, cantidad);
+
+        // Las filas se actualizan siempre en orden de ID de almacén, así dos
+        // transferencias en sentidos opuestos no se bloquean mutuamente
+        if (origen < destino) {
+            descontarDeAlmacen(idProducto, origen, cantidad);
+            stockAlmacenRepository.incrementar(destino, idProducto, cantidad);
+        } else {
+            validarProductoExiste(idProducto);
+            stockAlmacenRepository.incrementar(destino, idProducto, cantidad);
+            descontarDeAlmacen(idProducto, origen, cantidad);
+        }
+
+        movimientoInventarioService.registrarVariacion(idProducto, TipoMovimiento.SALIDA, MOTIVO_TRANSFERENCIA,
+                cantidad, -cantidad, origen, null, null);
+        movimientoInventarioService.registrarVariacion(idProducto, TipoMovimiento.ENTRADA, MOTIVO_TRANSFERENCIA,
+                cantidad, cantidad, destino, null, null);
+    }
+
+    /**
+     * Asigna el stock inicial de un producto nuevo al almacén principal.
+     * El total ya lo fijó el llamador al crear el producto.
+     */
+    @Transactional
+    public void registrarStockInicial(Long idProducto, int cantidad) {
+        if (cantidad > 0) {
+            stockAlmacenRepository.incrementar(almacenService.obtenerIdPrincipal(), idProducto, cantidad);
+        }
+    }
+
     /**
-     * Registro de un movimiento de inventario en la auditoría
+     * Variante de registrarStockInicial para productos creados en lote.
      */
-    private void registrarMovimiento(Producto producto, Integer cantidad, 
-                                     String motivo, String tipo, int stockAnterior) {
-        try {
-            Auditoria auditoria = new Auditoria();
-            auditoria.setOperacion("MOVIMIENTO_INVENTARIO");
-            auditoria.setEntidad("Producto");
-            auditoria.setIdEntidad(producto.getIdProducto());
-            auditoria.setUsuario(obtenerUsuarioActual());
-            
-            String detalles = String.format(
-                    "Tipo: %s, Motivo: %s, Producto: %s, Cantidad: %d, Stock anterior: %d, Stock nuevo: %d",
-                    tipo, motivo, producto.getNombre(), cantidad, stockAnterior, producto.getStock());
-            auditoria.setDetalles(detalles);
-            
-            auditoriaRepository.save(auditoria);
-            
-            log.debug("Movimiento de inventario registrado en auditoría");
-        } catch (Exception e) {
-            log.error("Error al registrar movimiento en auditoría: {}", e.getMessage());
+    @Transactional
+    public void registrarStockInicialEnLote(SortedMap<Long, Integer> cantidadesPorProducto) {
+        if (!cantidadesPorProducto.isEmpty()) {
+            stockAlmacenRepository.incrementarEnLote(almacenService.obtenerIdPrincipal(), cantidadesPorProducto);
         }
     }
-    
-    // Obtiene el nombre del usuario actual desde el SecurityContext.
-    private String obtenerUsuarioActual() {
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication != null && authentication.isAuthenticated()) {
-                return authentication.getName();
-            }
-        } catch (Exception e) {
-            log.warn("No se pudo obtener usuario actual: {}", e.getMessage());
+
+    /**
+     * Aplica al almacén principal una corrección del total hecha al editar el producto.
+     * El total lo escribe el llamador junto con el resto de la entidad. Una reducción
+     * descuenta también los lotes del almacén (FEFO), antes de la fila de stock como
+     * en las ventas; si el stock no alcanza, el rollback los restituye.
+     */
+    @Transactional
+    public void ajustarStockPrincipal(Producto producto, int diferencia) {
+        Long principal = almacenService.obtenerIdPrincipal();
+        if (diferencia > 0) {
+            stockAlmacenRepository.incrementar(principal, producto.getIdProducto(), diferencia);
+            return;
         }
-        return "SYSTEM";
+        if (diferencia == 0) {
+            return;
+        }
+        loteService.descontarFefo(principal, producto.getIdProducto(), -diferencia);
+        if (stockAlmacenRepository.descontar(principal, producto.getIdProducto(), -diferencia) == 0) {
+            throw new StockInsuficienteException(String.format(
+                    "No se puede reducir el stock de %s en %d unidades: el almacén principal solo tiene %d. " +
+                    "Transfiera stock desde otro almacén o ajuste por conteo físico.",
+                    producto.getNombre(), -diferencia, obtenerCantidad(principal, producto.getIdProducto())));
+        }
+    }
+
+    /**
+     * Stock del producto en cada almacén donde tiene fila.
+     */
+    @Transactional(readOnly = true)
+    public List<StockAlmacenDTO> listarStockPorAlmacen(Long idProducto) {
+        validarProductoExiste(idProducto);
+        Map<Long, Almacen> almacenes = almacenService.listarAlmacenes().stream()
+                .collect(Collectors.toMap(Almacen::getIdAlmacen, Function.identity()));
+
+        return stockAlmacenRepository.findByClaveIdProducto(idProducto).stream()
+                .map(fila -> {
+                    Almacen almacen = almacenes.get(fila.getClave().getIdAlmacen());
+                    return new StockAlmacenDTO(fila.getClave().getIdAlmacen(),
+                            almacen != null ? almacen.getNombre() : null, fila.getCantidad());
+                })
+                .toList();
+    }
+
+    private void descontarDeAlmacen(Long idProducto, Long idAlmacen, int cantidad) {
+        metricasService.incrementar("inventario.stock.operacion");
+        if (stockAlmacenRepository.descontar(idAlmacen, idProducto, cantidad) == 1) {
+            return;
+        }
+
+        Producto producto = productoRepository.findById(idProducto)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Producto no encontrado con ID: " + idProducto));
+        metricasService.incrementar("inventario.stock.insuficiente");
+        String mensaje = String.format(
+                "Stock insuficiente para %s en el almacén ID %d. Disponible: %d, Solicitado: %d",
+                producto.getNombre(), idAlmacen, obtenerCantidad(idAlmacen, idProducto), cantidad);
+        log.warn(mensaje);
+        throw new StockInsuficienteException(mensaje);
+    }
+
+    private int obtenerCantidad(Long idAlmacen, Long idProducto) {
+        return stockAlmacenRepository.findById(new StockAlmacen.Clave(idAlmacen, idProducto))
+                .map(StockAlmacen::getCantidad)
+                .orElse(0);
+    }
+
+    private void validarProductoExiste(Long idProducto) {
+        if (!productoRepository.existsById(idProducto)) {
+            throw new ResourceNotFoundException("Producto no encontrado con ID: " + idProducto);
+        }
+    }
+
+    /**
+     * Unidades de un producto que ingresan en una operación en lote.
+     */
+    public record IngresoStock(Long idProducto, int cantidad) {
     }
 }
@@ -0,0 +1,204 @@
+package com.roxfarma.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roxfarma.exception.ResourceNotFoundException;
+import com.roxfarma.model.Producto;
+import com.roxfarma.repository.MovimientoInventarioRepository;
+import com.roxfarma.repository.ProductoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Servicio que genera el kardex (tarjeta de control de stock) de un producto
+ * Funcionamiento:
+ * - El saldo inicial se toma del último movimiento anterior al periodo
+ *   (cada movimiento guarda su stock resultante), sin sumar desde el origen
+ * - Los movimientos del periodo se leen con un cursor de solo avance
+ *   (fetch size Integer.MIN_VALUE en MySQL) y se escriben al cliente a medida
+ *   que llegan, calculando el saldo acumulado en el mismo recorrido
+ * - La memoria usada es constante aunque el producto tenga cientos de miles
+ *   de movimientos
+ * Ambas lecturas ocurren en la misma transacción de solo lectura, así el saldo
+ * inicial y los movimientos corresponden a la misma foto de la base de datos.
+ * @author grupo2
+ */
+@Service
+@Slf4j
+public class KardexService {
+
+    private static final int LINEAS_POR_FLUSH = 1000;
+
+    private static final String SELECT_MOVIMIENTOS =
+            "SELECT id_movimiento, fecha, tipo, motivo, cantidad, stock_anterior, stock_nuevo, " +
+            "usuario, id_venta, id_pedido FROM movimiento_inventario " +
+            "WHERE id_producto = ? AND fecha >= ? AND fecha < ? " +
+            "ORDER BY fecha, id_movimiento";
+
+    private final ProductoRepository productoRepository;
+    private final MovimientoInventarioRepository movimientoInventarioRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public KardexService(ProductoRepository productoRepository,
+                         MovimientoInventarioRepository movimientoInventarioRepository,
+                         JdbcTemplate jdbcTemplate,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.movimientoInventarioRepository = movimientoInventarioRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Valida los parámetros en el hilo de la petición (para responder 404/400 antes
+     * de empezar a escribir) y retorna el cuerpo que se escribe en streaming.
+     * El periodo incluye los días desde y hasta completos.
+     */
+    public StreamingResponseBody generarKardex(Long idProducto, LocalDate desde, LocalDate hasta) {
+        return generarKardex(idProducto, desde, hasta, objectMapper.getFactory());
+    }
+
+    /**
+     * Igual que el anterior, escrito con el generador del formato indicado (JSON, Smile o CBOR).
+     */
+    public StreamingResponseBody generarKardex(Long idProducto, LocalDate desde, LocalDate hasta,
+                                               JsonFactory formato) {
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha 'hasta' no puede ser anterior a 'desde'");
+        }
+
+        Producto producto = productoRepository.findById(idProducto)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Producto no encontrado con ID: " + idProducto));
+
+        LocalDateTime inicio = desde.atStartOfDay();
+        LocalDateTime fin = hasta.plusDays(1).atStartOfDay();
+        String nombre = producto.getNombre();
+
+        return salida -> transactionTemplate.executeWithoutResult(
+                estado -> escribir(idProducto, nombre, inicio, fin, formato, salida));
+    }
+
+    private void escribir(Long idProducto, String nombre, LocalDateTime inicio, LocalDateTime fin,
+                          JsonFactory formato, OutputStream salida) {
+        long comienzo = System.currentTimeMillis();
+        int saldoInicial = movimientoInventarioRepository.obtenerSaldoAntesDe(idProducto, inicio).orElse(0);
+        Acumulado acumulado = new Acumulado(saldoInicial);
+
+        try (JsonGenerator json = formato.createGenerator(salida)) {
+            json.writeStartObject();
+            json.writeNumberField("idProducto", idProducto);
+            json.writeStringField("producto", nombre);
+            json.writeStringField("desde", inicio.toLocalDate().toString());
+            json.writeStringField("hasta", fin.toLocalDate().minusDays(1).toString());
+            json.writeNumberField("saldoInicial", saldoInicial);
+            json.writeArrayFieldStart("movimientos");
+
+            jdbcTemplate.query(conexion -> {
+                PreparedStatement ps = conexion.prepareStatement(SELECT_MOVIMIENTOS,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                // Con MySQL, Integer.MIN_VALUE hace que el driver entregue fila por fila
+                ps.setFetchSize(Integer.MIN_VALUE);
+                ps.setLong(1, idProducto);
+                ps.setTimestamp(2, Timestamp.valueOf(inicio));
+                ps.setTimestamp(3, Timestamp.valueOf(fin));
+                return ps;
+            }, rs -> {
+                try {
+                    escribirLinea(json, rs, acumulado);
+                    if (acumulado.lineas % LINEAS_POR_FLUSH == 0) {
+                        json.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            json.writeEndArray();
+            json.writeNumberField("totalEntradas", acumulado.entradas);
+            json.writeNumberField("totalSalidas", acumulado.salidas);
+            json.writeNumberField("saldoFinal", acumulado.saldo);
+            json.writeNumberField("cantidadMovimientos", acumulado.lineas);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        log.info("Kardex del producto ID: {} generado: {} movimientos en {} ms",
+                idProducto, acumulado.lineas, System.currentTimeMillis() - comienzo);
+    }
+
+    /**
+     * Escribe una línea del kardex. La variación se toma de stock_nuevo - stock_anterior,
+     * que también cubre los ajustes negativos.
+     */
+    private void escribirLinea(JsonGenerator json, ResultSet rs, Acumulado acumulado)
+            throws IOException, SQLException {
+        int variacion = rs.getInt("stock_nuevo") - rs.getInt("stock_anterior");
+        acumulado.registrar(variacion);
+
+        json.writeStartObject();
+        json.writeNumberField("idMovimiento", rs.getLong("id_movimiento"));
+        json.writeStringField("fecha", rs.getTimestamp("fecha").toLocalDateTime().toString());
+        json.writeStringField("tipo", rs.getString("tipo"));
+        json.writeStringField("motivo", rs.getString("motivo"));
+        json.writeNumberField("entrada", Math.max(variacion, 0));
+        json.writeNumberField("salida", Math.max(-variacion, 0));
+        json.writeNumberField("saldo", acumulado.saldo);
+        json.writeStringField("usuario", rs.getString("usuario"));
+        long idVenta = rs.getLong("id_venta");
+        if (!rs.wasNull()) {
+            json.writeNumberField("idVenta", idVenta);
+        }
+        long idPedido = rs.getLong("id_pedido");
+        if (!rs.wasNull()) {
+            json.writeNumberField("idPedido", idPedido);
+        }
+        json.writeEndObject();
+    }
+
+    /**
+     * Totales que se acumulan durante el recorrido.
+     */
+    private static final class Acumulado {
+
+        private int saldo;
+        private long entradas;
+        private long salidas;
+        private long lineas;
+
+        private Acumulado(int saldoInicial) {
+            this.saldo = saldoInicial;
+        }
+
+        private void registrar(int variacion) {
+            saldo += variacion;
+            if (variacion > 0) {
+                entradas += variacion;
+            } else {
+                salidas -= variacion;
+            }
+            lineas++;
+        }
+    }
+}
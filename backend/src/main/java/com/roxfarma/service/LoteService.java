@@ -0,0 +1,418 @@
+package com.roxfarma.service;
+
+import com.roxfarma.model.Lote;
+import com.roxfarma.model.Producto;
+import com.roxfarma.repository.LoteRepository;
+import com.roxfarma.util.Transacciones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio para la gestión de lotes y su asignación FEFO en las ventas
+ * Funcionamiento:
+ * - Cada lote está en un almacén: ingresa en el que recibe el pedido y pasa a otro
+ *   con las transferencias
+ * - Por cada producto en cada almacén se mantiene en memoria un montículo (heap)
+ *   de sus lotes disponibles ordenado por fecha de vencimiento; asignar cuesta
+ *   O(log lotes) en lugar de una consulta ordenada por cada línea de venta
+ * - El montículo se carga de la base de datos la primera vez que se vende el
+ *   producto en ese almacén
+ * - Cada asignación se confirma con un UPDATE condicionado (cantidad_disponible >= ?);
+ *   si falla, la copia en memoria estaba desactualizada: la venta reintenta con los
+ *   lotes leídos con FOR UPDATE (el snapshot de la transacción puede ser viejo) y el
+ *   montículo compartido se descarta y se vuelve a cargar después del commit
+ * - Si la transacción hace rollback, se descarta el montículo y la siguiente
+ *   venta lo recarga desde la base de datos
+ * - Los lotes vencidos no se asignan
+ * El stock sin lote (anterior a esta funcionalidad o de ajustes manuales) no está
+ * en ningún montículo; el llamador lo asigna al final, sin lote.
+ * Las salidas que no son ventas (ajustes manuales, conteos físicos, transferencias)
+ * descuentan los lotes del almacén, así su suma no supera el stock del almacén.
+ * @author grupo2
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoteService {
+
+    private static final int MAX_INTENTOS = 3;
+
+    private static final Comparator<Lote> ORDEN_FEFO =
+            Comparator.comparing(Lote::getFechaVencimiento).thenComparing(Lote::getIdLote);
+
+    private final LoteRepository loteRepository;
+
+    private final ConcurrentHashMap<ClaveMonticulo, MonticuloLotes> monticulos = new ConcurrentHashMap<>();
+
+    /**
+     * Registra un lote recibido en el almacén indicado. Se agrega al montículo recién
+     * después del commit, para no ofrecer unidades de un ingreso que podría revertirse.
+     */
+    @Transactional
+    public Lote registrarLote(Producto producto, Long idAlmacen, String codigo, LocalDate fechaVencimiento,
+                              int cantidad, Long idPedido) {
+        Lote lote = new Lote();
+        lote.setProducto(producto);
+        lote.setIdAlmacen(idAlmacen);
+        lote.setCodigo(codigo);
+        lote.setFechaVencimiento(fechaVencimiento);
+        lote.setCantidadInicial(cantidad);
+        lote.setCantidadDisponible(cantidad);
+        lote.setIdPedido(idPedido);
+
+        Lote loteGuardado = loteRepository.save(lote);
+        log.info("Lote '{}' registrado para producto ID: {} en el almacén ID: {} ({} unidades, vence {})",
+                codigo, producto.getIdProducto(), idAlmacen, cantidad, fechaVencimiento);
+
+        ClaveMonticulo clave = new ClaveMonticulo(idAlmacen, producto.getIdProducto());
+        LoteEnMemoria enMemoria = new LoteEnMemoria(loteGuardado.getIdLote(), codigo, fechaVencimiento, cantidad);
+        Transacciones.despuesDelCommit(() -> agregarAMonticulo(clave, enMemoria));
+        return loteGuardado;
+    }
+
+    /**
+     * Registra varios lotes recibidos con un solo envío (recepción de pedidos); cada
+     * lote indica su almacén. Como los IDs generados no se recuperan, tras el commit
+     * se descartan los montículos afectados y la siguiente venta los recarga.
+     */
+    @Transactional
+    public void registrarLotes(List<Lote> lotes) {
+        if (lotes.isEmpty()) {
+            return;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        lotes.forEach(lote -> {
+            if (lote.getFechaIngreso() == null) {
+                lote.setFechaIngreso(ahora);
+            }
+        });
+        loteRepository.insertarEnLote(lotes);
+        log.info("{} lotes registrados en lote", lotes.size());
+
+        Set<ClaveMonticulo> afectados = new HashSet<>();
+        lotes.forEach(lote -> afectados.add(new ClaveMonticulo(lote.getIdAlmacen(), lote.getProducto().getIdProducto())));
+        Transacciones.despuesDelCommit(() -> afectados.forEach(monticulos::remove));
+    }
+
+    /**
+     * Asigna hasta 'cantidad' unidades del producto en el almacén tomando primero
+     * los lotes que vencen antes. Puede retornar menos unidades que las pedidas si
+     * los lotes no alcanzan.
+     */
+    @Transactional
+    public List<AsignacionLote> asignarFefo(Long idAlmacen, Long idProducto, int cantidad) {
+        ClaveMonticulo clave = new ClaveMonticulo(idAlmacen, idProducto);
+        List<AsignacionLote> asignaciones = new ArrayList<>();
+        int restante = cantidad;
+        LocalDate hoy = LocalDate.now();
+
+        descartarSiRollback(clave);
+
+        for (int intento = 1; restante > 0 && intento <= MAX_INTENTOS; intento++) {
+            MonticuloLotes monticulo = intento == 1 ? obtenerMonticulo(clave) : cargarBloqueando(clave);
+            List<AsignacionLote> tomadas = monticulo.tomar(restante, hoy);
+            if (tomadas.isEmpty()) {
+                break;
+            }
+
+            boolean desactualizado = false;
+            for (AsignacionLote asignacion : tomadas) {
+                if (loteRepository.descontar(asignacion.idLote(), asignacion.cantidad()) == 1) {
+                    asignaciones.add(asignacion);
+                    restante -= asignacion.cantidad();
+                } else {
+                    desactualizado = true;
+                }
+            }
+
+            if (!desactualizado) {
+                break;
+            }
+            log.debug("Montículo de lotes del producto ID: {} en el almacén ID: {} desactualizado, recargando",
+                    idProducto, idAlmacen);
+            if (intento == 1) {
+                monticulos.remove(clave, monticulo);
+                // Tras el commit se descarta el montículo que otra venta haya cargado mientras
+                // tanto con un snapshot anterior a los descuentos de esta transacción
+                Transacciones.despuesDelCommit(() -> monticulos.remove(clave));
+            }
+        }
+
+        return asignaciones;
+    }
+
+    /**
+     * Mueve a otro almacén los lotes de las unidades transferidas, en orden de
+     * vencimiento e incluidos los vencidos (las unidades salen físicamente del
+     * almacén): en el destino se crea un lote con el mismo código y vencimiento por
+     * cada lote de origen del que salen unidades. Los lotes de origen se leen
+     * bloqueados, como en la recarga de una venta, y ambos montículos se descartan al confirmar.
+     * @return unidades que se movieron con lote; el resto es stock sin lote
+     */
+    @Transactional
+    public int transferir(Long idProducto, Long idAlmacenOrigen, Long idAlmacenDestino, int cantidad) {
+        ClaveMonticulo origen = new ClaveMonticulo(idAlmacenOrigen, idProducto);
+        ClaveMonticulo destino = new ClaveMonticulo(idAlmacenDestino, idProducto);
+        descartarSiRollback(origen);
+        Transacciones.despuesDelCommit(() -> monticulos.remove(origen));
+
+        List<Lote> disponibles = loteRepository.bloquearDisponibles(idAlmacenOrigen, idProducto).stream()
+                .sorted(ORDEN_FEFO)
+                .toList();
+
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Lote> movidos = new ArrayList<>();
+        int restante = cantidad;
+        for (Lote lote : disponibles) {
+            if (restante == 0) {
+                break;
+            }
+            int mover = Math.min(lote.getCantidadDisponible(), restante);
+            if (loteRepository.descontar(lote.getIdLote(), mover) == 1) {
+                movidos.add(copiarEnAlmacen(lote, idAlmacenDestino, mover, ahora));
+                restante -= mover;
+            }
+        }
+        if (movidos.isEmpty()) {
+            return 0;
+        }
+
+        loteRepository.insertarEnLote(movidos);
+        Transacciones.despuesDelCommit(() -> monticulos.remove(destino));
+        log.info("{} unidades del producto ID: {} en {} lotes movidas del almacén {} al {}",
+                cantidad - restante, idProducto, movidos.size(), idAlmacenOrigen, idAlmacenDestino);
+        return cantidad - restante;
+    }
+
+    /**
+     * Descuenta unidades de los lotes del producto en el almacén en orden de
+     * vencimiento, incluidos los vencidos, que son los primeros en darse de baja.
+     * Para las salidas que no son ventas (ajustes): así la suma de los lotes del
+     * almacén nunca supera su stock.
+     * @return unidades descontadas de lotes; el resto sale del stock sin lote
+     */
+    @Transactional
+    public int descontarFefo(Long idAlmacen, Long idProducto, int cantidad) {
+        return descontarFefo(idAlmacen, bloquear(idAlmacen, List.of(idProducto)), Map.of(idProducto, cantidad));
+    }
+
+    /**
+     * Bloquea hasta el commit los lotes disponibles de los productos en el almacén,
+     * con una sola consulta. Quien luego actualiza el stock bloquea primero los
+     * lotes, en el mismo orden que una venta.
+     * @return lotes por producto
+     */
+    @Transactional
+    public Map<Long, List<Lote>> bloquear(Long idAlmacen, Collection<Long> idsProducto) {
+        return loteRepository.bloquearDisponibles(idAlmacen, idsProducto).stream()
+                .collect(Collectors.groupingBy(lote -> lote.getProducto().getIdProducto()));
+    }
+
+    /**
+     * Variante de descontarFefo para varios productos cuyos lotes ya se bloquearon
+     * con bloquear; los descuentos se envían en lote. Las cantidades de los lotes
+     * bloqueados se actualizan, así se pueden usar en otra llamada.
+     * @param cantidades ID del producto → unidades que salen
+     * @return unidades descontadas de lotes
+     */
+    @Transactional
+    public int descontarFefo(Long idAlmacen, Map<Long, List<Lote>> bloqueados, Map<Long, Integer> cantidades) {
+        Map<Long, Integer> descuentos = new LinkedHashMap<>();
+        Set<ClaveMonticulo> afectados = new HashSet<>();
+        int total = 0;
+        for (Map.Entry<Long, Integer> salida : cantidades.entrySet()) {
+            int restante = salida.getValue();
+            List<Lote> lotes = bloqueados.getOrDefault(salida.getKey(), List.of()).stream()
+                    .sorted(ORDEN_FEFO)
+                    .toList();
+            for (Lote lote : lotes) {
+                if (restante == 0) {
+                    break;
+                }
+                int tomar = Math.min(lote.getCantidadDisponible(), restante);
+                if (tomar > 0) {
+                    descuentos.merge(lote.getIdLote(), tomar, Integer::sum);
+                    lote.setCantidadDisponible(lote.getCantidadDisponible() - tomar);
+                    restante -= tomar;
+                }
+            }
+            if (restante < salida.getValue()) {
+                afectados.add(new ClaveMonticulo(idAlmacen, salida.getKey()));
+                total += salida.getValue() - restante;
+            }
+        }
+        if (descuentos.isEmpty()) {
+            return 0;
+        }
+
+        loteRepository.descontarEnLote(descuentos);
+        Transacciones.despuesDelCommit(() -> afectados.forEach(monticulos::remove));
+        log.debug("{} unidades descontadas de {} lotes del almacén ID: {}", total, descuentos.size(), idAlmacen);
+        return total;
+    }
+
+    /**
+     * Referencia al lote sin consultarlo, para asociarlo a un detalle de venta.
+     */
+    public Lote obtenerReferencia(Long idLote) {
+        return loteRepository.getReferenceById(idLote);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Lote> listarLotesPorProducto(Long idProducto) {
+        return loteRepository.findByProductoIdProductoOrderByFechaVencimientoAsc(idProducto);
+    }
+
+    /**
+     * Descarta el montículo del producto en el almacén; se recarga en la siguiente asignación.
+     */
+    public void invalidar(Long idAlmacen, Long idProducto) {
+        monticulos.remove(new ClaveMonticulo(idAlmacen, idProducto));
+    }
+
+    private MonticuloLotes obtenerMonticulo(ClaveMonticulo clave) {
+        MonticuloLotes monticulo = monticulos.get(clave);
+        if (monticulo != null) {
+            return monticulo;
+        }
+        // La consulta se hace fuera del mapa para no bloquear a otros productos
+        MonticuloLotes cargado = new MonticuloLotes();
+        loteRepository.findDisponibles(clave.idAlmacen(), clave.idProducto()).forEach(lote -> cargado.agregar(
+                new LoteEnMemoria(lote.getIdLote(), lote.getCodigo(), lote.getFechaVencimiento(),
+                        lote.getCantidadDisponible())));
+        MonticuloLotes existente = monticulos.putIfAbsent(clave, cargado);
+        return existente != null ? existente : cargado;
+    }
+
+    /**
+     * Montículo solo para esta transacción, con los lotes bloqueados hasta el commit.
+     * No se publica: otra transacción todavía puede estar descontando unidades.
+     */
+    private MonticuloLotes cargarBloqueando(ClaveMonticulo clave) {
+        MonticuloLotes cargado = new MonticuloLotes();
+        loteRepository.bloquearDisponibles(clave.idAlmacen(), clave.idProducto()).forEach(lote -> cargado.agregar(
+                new LoteEnMemoria(lote.getIdLote(), lote.getCodigo(), lote.getFechaVencimiento(),
+                        lote.getCantidadDisponible())));
+        return cargado;
+    }
+
+    private Lote copiarEnAlmacen(Lote original, Long idAlmacen, int cantidad, LocalDateTime fechaIngreso) {
+        Producto producto = new Producto();
+        producto.setIdProducto(original.getProducto().getIdProducto());
+
+        Lote lote = new Lote();
+        lote.setProducto(producto);
+        lote.setIdAlmacen(idAlmacen);
+        lote.setCodigo(original.getCodigo());
+        lote.setFechaVencimiento(original.getFechaVencimiento());
+        lote.setCantidadInicial(cantidad);
+        lote.setCantidadDisponible(cantidad);
+        lote.setIdPedido(original.getIdPedido());
+        lote.setFechaIngreso(fechaIngreso);
+        return lote;
+    }
+
+    private void agregarAMonticulo(ClaveMonticulo clave, LoteEnMemoria lote) {
+        MonticuloLotes monticulo = monticulos.get(clave);
+        if (monticulo != null) {
+            monticulo.agregar(lote);
+        }
+    }
+
+    private void descartarSiRollback(ClaveMonticulo clave) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    monticulos.remove(clave);
+                }
+            }
+        });
+    }
+
+    /**
+     * Unidades tomadas de un lote.
+     */
+    public record AsignacionLote(Long idLote, String codigo, LocalDate fechaVencimiento, int cantidad) {
+    }
+
+    /**
+     * Un montículo por producto en cada almacén.
+     */
+    private record ClaveMonticulo(Long idAlmacen, Long idProducto) {
+    }
+
+    /**
+     * Lote disponible en memoria; la cantidad se descuenta al asignar.
+     */
+    private static final class LoteEnMemoria {
+
+        private final Long idLote;
+        private final String codigo;
+        private final LocalDate fechaVencimiento;
+        private int disponible;
+
+        private LoteEnMemoria(Long idLote, String codigo, LocalDate fechaVencimiento, int disponible) {
+            this.idLote = idLote;
+            this.codigo = codigo;
+            this.fechaVencimiento = fechaVencimiento;
+            this.disponible = disponible;
+        }
+    }
+
+    /**
+     * Montículo de lotes de un producto. Todas las operaciones se sincronizan
+     * sobre la instancia: dos ventas del mismo producto nunca toman las mismas unidades.
+     */
+    private static final class MonticuloLotes {
+
+        private final PriorityQueue<LoteEnMemoria> lotes = new PriorityQueue<>(
+                Comparator.comparing((LoteEnMemoria l) -> l.fechaVencimiento)
+                        .thenComparing(l -> l.idLote));
+
+        synchronized void agregar(LoteEnMemoria lote) {
+            lotes.add(lote);
+        }
+
+        synchronized List<AsignacionLote> tomar(int cantidad, LocalDate hoy) {
+            List<AsignacionLote> tomadas = new ArrayList<>();
+            int restante = cantidad;
+            while (restante > 0 && !lotes.isEmpty()) {
+                LoteEnMemoria primero = lotes.peek();
+                if (primero.fechaVencimiento.isBefore(hoy) || primero.disponible <= 0) {
+                    lotes.poll();
+                    continue;
+                }
+                int tomar = Math.min(primero.disponible, restante);
+                primero.disponible -= tomar;
+                restante -= tomar;
+                tomadas.add(new AsignacionLote(primero.idLote, primero.codigo, primero.fechaVencimiento, tomar));
+                if (primero.disponible == 0) {
+                    lotes.poll();
+                }
+            }
+            return tomadas;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.roxfarma.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Servicio de métricas internas de la aplicación
+ * - Contadores por nombre, seguros para uso concurrente (LongAdder)
+ * - Retención de conexiones del pool por endpoint (ver MedicionConexionesFilter)
+ * - Se consultan desde /api/metricas
+ * Convención de nombres: "area.operacion.resultado", por ejemplo
+ * "inventario.stock.insuficiente" o "producto.actualizacion.conflicto".
+ * @author grupo2
+ */
+@Service
+@Slf4j
+public class MetricasService {
+
+    private final ConcurrentHashMap<String, LongAdder> contadores = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Retencion> retenciones = new ConcurrentHashMap<>();
+
+    public void incrementar(String nombre) {
+        contadores.computeIfAbsent(nombre, clave -> new LongAdder()).increment();
+    }
+
+    public void sumar(String nombre, long valor) {
+        contadores.computeIfAbsent(nombre, clave -> new LongAdder()).add(valor);
+    }
+
+    public long obtener(String nombre) {
+        LongAdder contador = contadores.get(nombre);
+        return contador != null ? contador.sum() : 0;
+    }
+
+    /**
+     * Foto de todos los contadores, ordenada por nombre.
+     */
+    public Map<String, Long> obtenerContadores() {
+        Map<String, Long> foto = new TreeMap<>();
+        contadores.forEach((nombre, contador) -> foto.put(nombre, contador.sum()));
+        return foto;
+    }
+
+    /**
+     * Registra las conexiones que retuvo una petición y el tiempo total que las tuvo tomadas.
+     */
+    public void registrarRetencionConexiones(String endpoint, long conexiones, long nanos) {
+        Retencion retencion = retenciones.computeIfAbsent(endpoint, clave -> new Retencion());
+        retencion.peticiones.increment();
+        retencion.conexiones.add(conexiones);
+        retencion.nanos.add(nanos);
+        retencion.maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Foto de la retención de conexiones por endpoint, ordenada por endpoint.
+     */
+    public Map<String, Map<String, Object>> obtenerRetencionConexiones() {
+        Map<String, Map<String, Object>> foto = new TreeMap<>();
+        retenciones.forEach((endpoint, retencion) -> {
+            long peticiones = retencion.peticiones.sum();
+            double totalMs = (double) retencion.nanos.sum() / TimeUnit.MILLISECONDS.toNanos(1);
+            Map<String, Object> valores = new LinkedHashMap<>();
+            valores.put("peticiones", peticiones);
+            valores.put("conexiones", retencion.conexiones.sum());
+            valores.put("totalMs", totalMs);
+            valores.put("promedioMs", peticiones > 0 ? totalMs / peticiones : 0.0);
+            valores.put("maxMs", (double) retencion.maxNanos.get() / TimeUnit.MILLISECONDS.toNanos(1));
+            foto.put(endpoint, valores);
+        });
+        return foto;
+    }
+
+    private static class Retencion {
+        private final LongAdder peticiones = new LongAdder();
+        private final LongAdder conexiones = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+    }
+}
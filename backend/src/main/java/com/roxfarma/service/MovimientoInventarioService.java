@@ -0,0 +1,310 @@
+package com.roxfarma.service;
+
+import com.roxfarma.model.Auditoria;
+import com.roxfarma.model.MovimientoInventario;
+import com.roxfarma.model.Producto;
+import com.roxfarma.model.TipoEvento;
+import com.roxfarma.model.TipoMovimiento;
+import com.roxfarma.repository.AuditoriaRepository;
+import com.roxfarma.repository.MovimientoInventarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Servicio que registra los movimientos de inventario (kardex)
+ * Funcionamiento:
+ * - Cada movimiento genera una fila en movimiento_inventario y su registro de auditoría
+ * - Dentro de una transacción, los movimientos se acumulan y se insertan en lote
+ *   justo antes del commit: una venta o pedido con N líneas hace un solo envío
+ *   por tabla en lugar de N inserts sueltos
+ * - Si la transacción hace rollback, el lote se descarta junto con ella
+ * - Fuera de una transacción, el movimiento se inserta de inmediato
+ * Movimientos por almacén (registrarVariacion):
+ * - El stock ya se actualizó en la fila del almacén; el total del producto
+ *   (Producto.stock) se actualiza aquí, una sola vez por producto y al confirmar
+ * - Así la fila de producto se bloquea solo un instante al final de la transacción,
+ *   y las operaciones concurrentes compiten por las filas de cada almacén
+ * - Los productos se bloquean en orden de ID (sin interbloqueos entre transacciones)
+ *   y con el total bloqueado se calculan stock_anterior/stock_nuevo del kardex,
+ *   que quedan encadenados en el orden de confirmación
+ * - La fecha del movimiento también se toma con el bloqueo: el kardex, ordenado
+ *   por fecha e ID, sigue el mismo orden que la cadena de saldos
+ * - Las alertas de stock se evalúan sobre el total resultante
+ * Cada cambio del total publica un evento STOCK_ACTUALIZADO en el outbox, en la
+ * misma transacción.
+ * @author grupo2
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MovimientoInventarioService {
+
+    private static final String SELECT_TOTALES_PARA_ACTUALIZAR =
+            "SELECT id_producto, nombre, stock, fecha_vencimiento FROM producto " +
+            "WHERE id_producto IN (:ids) ORDER BY id_producto FOR UPDATE";
+
+    private static final String UPDATE_TOTAL =
+            "UPDATE producto SET stock = ?, version = version + 1, fecha_actualizacion = ?, secuencia_cambio = NULL " +
+            "WHERE id_producto = ?";
+
+    private final MovimientoInventarioRepository movimientoInventarioRepository;
+    private final AuditoriaRepository auditoriaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final AlertaInventarioService alertaInventarioService;
+    private final OutboxService outboxService;
+    private final CacheEntidadesService cacheEntidadesService;
+
+    /**
+     * Registra un movimiento del producto. El stock del producto ya debe estar actualizado.
+     */
+    public void registrar(Producto producto, TipoMovimiento tipo, String motivo, int cantidad,
+                          int stockAnterior, Long idVenta, Long idPedido) {
+        registrar(producto.getIdProducto(), producto.getNombre(), producto.getStock(),
+                tipo, motivo, cantidad, stockAnterior, idVenta, idPedido);
+    }
+
+    /**
+     * Variante para operaciones masivas que actualizan el stock por JDBC sin cargar la entidad.
+     */
+    public void registrar(Long idProducto, String nombre, int stockNuevo, TipoMovimiento tipo, String motivo,
+                          int cantidad, int stockAnterior, Long idVenta, Long idPedido) {
+        MovimientoInventario movimiento = construirMovimiento(idProducto, tipo, motivo, cantidad, stockAnterior,
+                stockNuevo, null, idVenta, idPedido, obtenerUsuarioActual(), LocalDateTime.now());
+        Auditoria auditoria = construirAuditoria(movimiento, nombre);
+        if (stockNuevo != stockAnterior) {
+            outboxService.publicar(TipoEvento.STOCK_ACTUALIZADO, "Producto", idProducto,
+                    datosStockActualizado(nombre, stockAnterior, stockNuevo));
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            obtenerLoteActual().agregar(movimiento, auditoria);
+        } else {
+            movimientoInventarioRepository.insertarEnLote(List.of(movimiento));
+            auditoriaRepository.insertarEnLote(List.of(auditoria));
+        }
+    }
+
+    /**
+     * Registra un movimiento sobre el stock de un almacén, que el llamador ya actualizó.
+     * La variación (con signo) se suma al total del producto al confirmar la transacción.
+     */
+    public void registrarVariacion(Long idProducto, TipoMovimiento tipo, String motivo, int cantidad,
+                                   int variacion, Long idAlmacen, Long idVenta, Long idPedido) {
+        VariacionPendiente pendiente = new VariacionPendiente(idProducto, tipo, motivo, cantidad, variacion,
+                idAlmacen, idVenta, idPedido, obtenerUsuarioActual());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            obtenerLoteActual().agregar(pendiente);
+        } else {
+            List<MovimientoInventario> movimientos = new ArrayList<>();
+            List<Auditoria> auditorias = new ArrayList<>();
+            aplicarVariaciones(List.of(pendiente), movimientos, auditorias);
+            movimientoInventarioRepository.insertarEnLote(movimientos);
+            auditoriaRepository.insertarEnLote(auditorias);
+        }
+    }
+
+    /**
+     * Bloquea los productos afectados, encadena el stock total de cada movimiento y
+     * escribe los totales nuevos. Agrega los movimientos y auditorías resultantes a las listas.
+     */
+    private void aplicarVariaciones(List<VariacionPendiente> variaciones,
+                                    List<MovimientoInventario> movimientos, List<Auditoria> auditorias) {
+        TreeSet<Long> ids = new TreeSet<>();
+        variaciones.forEach(v -> ids.add(v.idProducto()));
+
+        Map<Long, TotalProducto> totales = new LinkedHashMap<>();
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(SELECT_TOTALES_PARA_ACTUALIZAR,
+                new MapSqlParameterSource("ids", ids), rs -> {
+                    long id = rs.getLong("id_producto");
+                    totales.put(id, new TotalProducto(id, rs.getString("nombre"), rs.getInt("stock"),
+                            rs.getObject("fecha_vencimiento", LocalDate.class)));
+                });
+        // Con los productos bloqueados: una transacción que espera el bloqueo tendrá una fecha posterior
+        LocalDateTime fecha = LocalDateTime.now();
+
+        Map<Long, Integer> stockActual = new HashMap<>();
+        totales.forEach((id, total) -> stockActual.put(id, total.stock()));
+
+        for (VariacionPendiente v : variaciones) {
+            TotalProducto total = totales.get(v.idProducto());
+            if (total == null) {
+                log.warn("Producto ID: {} eliminado antes de confirmar su movimiento de inventario", v.idProducto());
+                continue;
+            }
+            int stockAnterior = stockActual.get(v.idProducto());
+            int stockNuevo = stockAnterior + v.variacion();
+            stockActual.put(v.idProducto(), stockNuevo);
+
+            MovimientoInventario movimiento = construirMovimiento(v.idProducto(), v.tipo(), v.motivo(),
+                    v.cantidad(), stockAnterior, stockNuevo, v.idAlmacen(), v.idVenta(), v.idPedido(),
+                    v.usuario(), fecha);
+            movimientos.add(movimiento);
+            auditorias.add(construirAuditoria(movimiento, total.nombre()));
+        }
+
+        List<TotalProducto> cambiados = totales.values().stream()
+                .filter(total -> !stockActual.get(total.idProducto()).equals(total.stock()))
+                .toList();
+        if (cambiados.isEmpty()) {
+            return;
+        }
+
+        Timestamp ahora = Timestamp.valueOf(fecha);
+        jdbcTemplate.batchUpdate(UPDATE_TOTAL, cambiados, cambiados.size(), (ps, total) -> {
+            ps.setInt(1, stockActual.get(total.idProducto()));
+            ps.setTimestamp(2, ahora);
+            ps.setLong(3, total.idProducto());
+        });
+        // El UPDATE no pasa por Hibernate: la copia en caché del producto quedó desactualizada
+        cacheEntidadesService.invalidarProductos(cambiados.stream().map(TotalProducto::idProducto).toList());
+
+        // Ya dentro de beforeCommit: los eventos se insertan en este momento
+        outboxService.publicarAhora(cambiados.stream()
+                .map(total -> new OutboxService.NuevoEvento(TipoEvento.STOCK_ACTUALIZADO, "Producto",
+                        total.idProducto(), datosStockActualizado(total.nombre(), total.stock(),
+                        stockActual.get(total.idProducto()))))
+                .toList());
+
+        for (TotalProducto total : cambiados) {
+            // Instancia no administrada, solo para evaluar los cruces de umbral
+            Producto producto = new Producto();
+            producto.setIdProducto(total.idProducto());
+            producto.setNombre(total.nombre());
+            producto.setStock(stockActual.get(total.idProducto()));
+            producto.setFechaVencimiento(total.fechaVencimiento());
+            alertaInventarioService.evaluarCambio(producto, total.stock(), total.fechaVencimiento());
+        }
+    }
+
+    private Map<String, Object> datosStockActualizado(String nombre, int stockAnterior, int stockNuevo) {
+        return OutboxService.datos("nombre", nombre, "stockAnterior", stockAnterior, "stockNuevo", stockNuevo);
+    }
+
+    private MovimientoInventario construirMovimiento(Long idProducto, TipoMovimiento tipo, String motivo,
+                                                     int cantidad, int stockAnterior, int stockNuevo,
+                                                     Long idAlmacen, Long idVenta, Long idPedido,
+                                                     String usuario, LocalDateTime fecha) {
+        MovimientoInventario movimiento = new MovimientoInventario();
+        movimiento.setIdProducto(idProducto);
+        movimiento.setTipo(tipo);
+        movimiento.setMotivo(motivo);
+        movimiento.setCantidad(cantidad);
+        movimiento.setStockAnterior(stockAnterior);
+        movimiento.setStockNuevo(stockNuevo);
+        movimiento.setIdAlmacen(idAlmacen);
+        movimiento.setUsuario(usuario);
+        movimiento.setIdVenta(idVenta);
+        movimiento.setIdPedido(idPedido);
+        movimiento.setFecha(fecha);
+        return movimiento;
+    }
+
+    private Auditoria construirAuditoria(MovimientoInventario movimiento, String nombre) {
+        Auditoria auditoria = new Auditoria();
+        auditoria.setOperacion("MOVIMIENTO_INVENTARIO");
+        auditoria.setEntidad("Producto");
+        auditoria.setIdEntidad(movimiento.getIdProducto());
+        auditoria.setUsuario(movimiento.getUsuario());
+        auditoria.setFecha(movimiento.getFecha());
+        auditoria.setDetalles(String.format(
+                "Tipo: %s, Motivo: %s, Producto: %s, Cantidad: %d, Stock anterior: %d, Stock nuevo: %d%s",
+                movimiento.getTipo(), movimiento.getMotivo(), nombre, movimiento.getCantidad(),
+                movimiento.getStockAnterior(), movimiento.getStockNuevo(),
+                movimiento.getIdAlmacen() != null ? ", Almacén: " + movimiento.getIdAlmacen() : ""));
+        return auditoria;
+    }
+
+    /**
+     * Retorna el lote de la transacción actual, creándolo la primera vez.
+     */
+    private LoteMovimientos obtenerLoteActual() {
+        LoteMovimientos lote = (LoteMovimientos) TransactionSynchronizationManager.getResource(this);
+        if (lote == null) {
+            lote = new LoteMovimientos();
+            TransactionSynchronizationManager.bindResource(this, lote);
+            TransactionSynchronizationManager.registerSynchronization(lote);
+        }
+        return lote;
+    }
+
+    // Obtiene el nombre del usuario actual desde el SecurityContext.
+    private String obtenerUsuarioActual() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()) {
+                return authentication.getName();
+            }
+        } catch (Exception e) {
+            log.warn("No se pudo obtener usuario actual: {}", e.getMessage());
+        }
+        return "SYSTEM";
+    }
+
+    /**
+     * Movimientos pendientes de una transacción; se insertan en beforeCommit,
+     * dentro de la misma transacción, así el kardex nunca queda desfasado del stock.
+     */
+    private class LoteMovimientos implements TransactionSynchronization {
+
+        private final List<MovimientoInventario> movimientos = new ArrayList<>();
+        private final List<Auditoria> auditorias = new ArrayList<>();
+        private final List<VariacionPendiente> variaciones = new ArrayList<>();
+
+        void agregar(MovimientoInventario movimiento, Auditoria auditoria) {
+            movimientos.add(movimiento);
+            auditorias.add(auditoria);
+        }
+
+        void agregar(VariacionPendiente variacion) {
+            variaciones.add(variacion);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!variaciones.isEmpty()) {
+                aplicarVariaciones(variaciones, movimientos, auditorias);
+                variaciones.clear();
+            }
+            movimientoInventarioRepository.insertarEnLote(movimientos);
+            auditoriaRepository.insertarEnLote(auditorias);
+            log.debug("Kardex: {} movimientos insertados en lote", movimientos.size());
+            movimientos.clear();
+            auditorias.clear();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(MovimientoInventarioService.this);
+        }
+    }
+
+    /**
+     * Movimiento de un almacén cuyo stock total se resuelve al confirmar.
+     */
+    private record VariacionPendiente(Long idProducto, TipoMovimiento tipo, String motivo, int cantidad,
+                                      int variacion, Long idAlmacen, Long idVenta, Long idPedido,
+                                      String usuario) {
+    }
+
+    private record TotalProducto(Long idProducto, String nombre, int stock, LocalDate fechaVencimiento) {
+    }
+}
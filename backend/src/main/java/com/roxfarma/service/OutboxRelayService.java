@@ -0,0 +1,188 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.EventoOutboxDTO;
+import com.roxfarma.event.OutboxListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio que distribuye los eventos del outbox
+ * Secuencia de entrega:
+ * - En cada ciclo numera los eventos confirmados que aún no tienen secuencia; como
+ *   es el único que numera, la secuencia sigue el orden de confirmación sin huecos
+ * - Un evento con ID menor que confirma tarde recibe una secuencia mayor que la de
+ *   los ya entregados, así ningún cursor lo deja atrás y no hay nada que releer
+ * Consumidores en proceso (OutboxListener):
+ * - En cada ciclo se leen los eventos posteriores a la posición de cada consumidor,
+ *   en lotes ordenados por secuencia
+ * - La posición se guarda después de procesar cada lote (entrega al menos una vez)
+ * - Si un consumidor falla, su posición no avanza y el lote se reintenta en el
+ *   siguiente ciclo, sin frenar a los demás consumidores
+ * Consumidores externos (long-poll):
+ * - Piden los eventos posteriores a su cursor (la misma secuencia); si no hay, la
+ *   petición queda en espera sin ocupar un hilo y se responde en el ciclo en que
+ *   aparecen eventos o, al vencer el plazo, con una lista vacía
+ * El relay asume una sola instancia de la aplicación: numera los eventos desde la
+ * última secuencia que lee al iniciar y mantiene las posiciones también en memoria.
+ * @author grupo2
+ */
+@Service
+@Slf4j
+public class OutboxRelayService {
+
+    private final OutboxService outboxService;
+    private final List<OutboxListener> listeners;
+    private final MetricasService metricasService;
+    private final int tamanoLote;
+    private final int maxLotesPorCiclo;
+
+    private final Map<String, Long> posiciones = new ConcurrentHashMap<>();
+    private final Set<Espera> esperas = ConcurrentHashMap.newKeySet();
+
+    // -1 hasta que el primer ciclo lee la última secuencia asignada
+    private volatile long ultimaSecuencia = -1;
+
+    public OutboxRelayService(OutboxService outboxService,
+                              List<OutboxListener> listeners,
+                              MetricasService metricasService,
+                              @Value("${outbox.relay.lote:200}") int tamanoLote,
+                              @Value("${outbox.relay.max-lotes-por-ciclo:10}") int maxLotesPorCiclo) {
+        this.outboxService = outboxService;
+        this.listeners = listeners;
+        this.metricasService = metricasService;
+        this.tamanoLote = tamanoLote;
+        this.maxLotesPorCiclo = maxLotesPorCiclo;
+    }
+
+    /**
+     * Ciclo del relay: numera los eventos confirmados, entrega a los consumidores
+     * en proceso y responde las esperas.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.intervalo-ms:500}")
+    public void despachar() {
+        long ultima = numerar();
+
+        for (OutboxListener listener : listeners) {
+            entregar(listener, ultima);
+        }
+        atenderEsperas(ultima);
+    }
+
+    /**
+     * Eventos posteriores al cursor. Si no hay ninguno, espera hasta 'esperaMs'
+     * a que aparezcan; con 'esperaMs' 0 responde de inmediato.
+     */
+    public DeferredResult<List<EventoOutboxDTO>> obtenerEventos(long despues, int limite, long esperaMs) {
+        if (despues < ultimaSecuencia || esperaMs <= 0) {
+            DeferredResult<List<EventoOutboxDTO>> resultado = new DeferredResult<>();
+            resultado.setResult(outboxService.leer(despues, limite));
+            return resultado;
+        }
+
+        DeferredResult<List<EventoOutboxDTO>> resultado = new DeferredResult<>(esperaMs, List.of());
+        Espera espera = new Espera(despues, limite, resultado);
+        resultado.onCompletion(() -> esperas.remove(espera));
+        esperas.add(espera);
+        return resultado;
+    }
+
+    /**
+     * Asigna secuencia a los eventos confirmados desde el ciclo anterior.
+     * @return la última secuencia asignada
+     */
+    private long numerar() {
+        long inicial = ultimaSecuencia < 0 ? outboxService.obtenerUltimaSecuencia() : ultimaSecuencia;
+        int limite = tamanoLote * maxLotesPorCiclo;
+        long ultima = inicial;
+        long anterior;
+        do {
+            anterior = ultima;
+            ultima = outboxService.asignarSecuencias(anterior, limite);
+        } while (ultima - anterior == limite);
+        if (ultima > inicial) {
+            metricasService.sumar("outbox.numerados", ultima - inicial);
+        }
+        ultimaSecuencia = ultima;
+        return ultima;
+    }
+
+    private void entregar(OutboxListener listener, long ultima) {
+        String nombre = listener.getNombre();
+        long posicion = posiciones.computeIfAbsent(nombre, n -> outboxService.obtenerOffset(n)
+                .orElseGet(() -> {
+                    log.info("Outbox: consumidor '{}' nuevo, inicia en la secuencia {}", n, ultima);
+                    outboxService.guardarOffset(n, ultima);
+                    return ultima;
+                }));
+
+        for (int lote = 0; lote < maxLotesPorCiclo && posicion < ultima; lote++) {
+            List<EventoOutboxDTO> eventos = outboxService.leer(posicion, tamanoLote);
+            if (eventos.isEmpty()) {
+                return;
+            }
+
+            if (!procesar(listener, eventos)) {
+                return;
+            }
+
+            posicion = eventos.get(eventos.size() - 1).getSecuencia();
+            outboxService.guardarOffset(nombre, posicion);
+            posiciones.put(nombre, posicion);
+
+            if (eventos.size() < tamanoLote) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Entrega al consumidor los eventos de los tipos que le interesan.
+     * @return false si el consumidor falló
+     */
+    private boolean procesar(OutboxListener listener, List<EventoOutboxDTO> eventos) {
+        List<EventoOutboxDTO> interesantes = listener.getTipos().isEmpty()
+                ? eventos
+                : eventos.stream().filter(e -> listener.getTipos().contains(e.getTipo())).toList();
+        if (interesantes.isEmpty()) {
+            return true;
+        }
+        try {
+            listener.procesar(interesantes);
+        } catch (RuntimeException e) {
+            metricasService.incrementar("outbox.entrega.fallo");
+            log.warn("Outbox: el consumidor '{}' falló en las secuencias {}-{}, se reintentará: {}",
+                    listener.getNombre(), eventos.get(0).getSecuencia(),
+                    eventos.get(eventos.size() - 1).getSecuencia(), e.getMessage());
+            return false;
+        }
+        metricasService.sumar("outbox.entregados", interesantes.size());
+        return true;
+    }
+
+    private void atenderEsperas(long ultimo) {
+        for (Espera espera : esperas) {
+            if (espera.despues() >= ultimo || espera.resultado().isSetOrExpired()) {
+                continue;
+            }
+            try {
+                espera.resultado().setResult(outboxService.leer(espera.despues(), espera.limite()));
+            } catch (RuntimeException e) {
+                espera.resultado().setErrorResult(e);
+            }
+        }
+    }
+
+    /**
+     * Petición long-poll a la espera de eventos posteriores a su cursor.
+     */
+    private record Espera(long despues, int limite, DeferredResult<List<EventoOutboxDTO>> resultado) {
+    }
+}
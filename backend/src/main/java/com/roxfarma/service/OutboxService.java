@@ -0,0 +1,255 @@
+package com.roxfarma.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roxfarma.dto.EventoOutboxDTO;
+import com.roxfarma.model.TipoEvento;
+import com.roxfarma.repository.OutboxOffsetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Servicio que escribe y lee el outbox de eventos de dominio
+ * Escritura:
+ * - Los eventos se acumulan durante la transacción y se insertan en lote justo
+ *   antes del commit, en la misma transacción que la operación que los origina
+ * - Insertarlos al final acorta el tiempo que la transacción retiene el AUTO_INCREMENT
+ * - Fuera de una transacción, el evento se inserta de inmediato
+ * Secuencia de entrega:
+ * - El ID no sigue el orden de confirmación: una transacción que tarda en confirmar
+ *   hace visible un ID menor después de uno mayor
+ * - El relay, único escritor, numera los eventos a medida que se vuelven visibles
+ *   (ya confirmados); la secuencia crece sin huecos en orden de confirmación
+ * Lectura:
+ * - Los eventos se leen en orden de secuencia a partir de un cursor; solo se leen
+ *   eventos numerados, así un cursor nunca pasa por encima de un evento sin confirmar
+ * Las posiciones de los consumidores (secuencia del último evento) se guardan en outbox_offset.
+ * @author grupo2
+ */
+@Service
+@Slf4j
+public class OutboxService {
+
+    private static final String INSERT_EVENTO =
+            "INSERT INTO outbox_evento (tipo, agregado, id_agregado, payload, fecha) VALUES (?, ?, ?, ?, NOW(3))";
+
+    private static final String SELECT_EVENTOS =
+            "SELECT id_evento, secuencia, tipo, agregado, id_agregado, payload, fecha FROM outbox_evento " +
+            "WHERE secuencia > ? ORDER BY secuencia LIMIT ?";
+
+    // Los eventos sin numerar están en el índice de secuencia (NULL) ordenados por ID
+    private static final String SELECT_SIN_SECUENCIA =
+            "SELECT id_evento FROM outbox_evento WHERE secuencia IS NULL ORDER BY id_evento LIMIT ?";
+
+    private static final String UPDATE_SECUENCIA =
+            "UPDATE outbox_evento SET secuencia = ? WHERE id_evento = ? AND secuencia IS NULL";
+
+    private static final String SELECT_ULTIMA_SECUENCIA =
+            "SELECT COALESCE(MAX(secuencia), 0) FROM outbox_evento";
+
+    private static final String DELETE_EVENTOS_ANTIGUOS =
+            "DELETE FROM outbox_evento WHERE fecha < ? LIMIT ?";
+
+    private static final int TAMANO_PURGA = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxOffsetRepository outboxOffsetRepository;
+    private final int retencionDias;
+
+    public OutboxService(JdbcTemplate jdbcTemplate,
+                         ObjectMapper objectMapper,
+                         OutboxOffsetRepository outboxOffsetRepository,
+                         @Value("${outbox.retencion-dias:7}") int retencionDias) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.outboxOffsetRepository = outboxOffsetRepository;
+        this.retencionDias = retencionDias;
+    }
+
+    /**
+     * Publica un evento; se escribe al confirmar la transacción actual.
+     */
+    public void publicar(TipoEvento tipo, String agregado, Long idAgregado, Map<String, Object> datos) {
+        NuevoEvento evento = new NuevoEvento(tipo, agregado, idAgregado, datos);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            obtenerLoteActual().eventos.add(evento);
+        } else {
+            insertar(List.of(evento));
+        }
+    }
+
+    /**
+     * Inserta los eventos de inmediato. Para quien ya está dentro de beforeCommit
+     * (por ejemplo, al resolver los totales de stock), donde una sincronización
+     * nueva ya no se ejecutaría.
+     */
+    public void publicarAhora(List<NuevoEvento> eventos) {
+        if (!eventos.isEmpty()) {
+            insertar(eventos);
+        }
+    }
+
+    /**
+     * Eventos con secuencia mayor al cursor, en orden de secuencia.
+     */
+    public List<EventoOutboxDTO> leer(long despues, int limite) {
+        return jdbcTemplate.query(SELECT_EVENTOS, this::mapearEvento, despues, limite);
+    }
+
+    /**
+     * Numera, en orden de ID, los eventos ya confirmados que aún no tienen secuencia.
+     * Solo la llama el relay: con un único escritor la secuencia no tiene huecos ni
+     * se repite (el índice único lo asegura si hubiera otro).
+     * @param ultima última secuencia asignada
+     * @return la nueva última secuencia; 'ultima' si no había eventos por numerar
+     */
+    public long asignarSecuencias(long ultima, int limite) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_SIN_SECUENCIA, Long.class, limite);
+        if (ids.isEmpty()) {
+            return ultima;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SECUENCIA, ids, ids.size(), new ParameterizedPreparedStatementSetter<>() {
+            private long secuencia = ultima;
+
+            @Override
+            public void setValues(PreparedStatement ps, Long idEvento) throws SQLException {
+                ps.setLong(1, ++secuencia);
+                ps.setLong(2, idEvento);
+            }
+        });
+        return ultima + ids.size();
+    }
+
+    /**
+     * Última secuencia asignada; 0 si todavía no hay eventos numerados.
+     */
+    public long obtenerUltimaSecuencia() {
+        Long ultima = jdbcTemplate.queryForObject(SELECT_ULTIMA_SECUENCIA, Long.class);
+        return ultima != null ? ultima : 0L;
+    }
+
+    private EventoOutboxDTO mapearEvento(ResultSet rs, int fila) throws SQLException {
+        return new EventoOutboxDTO(
+                rs.getLong("id_evento"),
+                rs.getLong("secuencia"),
+                TipoEvento.valueOf(rs.getString("tipo")),
+                rs.getString("agregado"),
+                rs.getLong("id_agregado"),
+                rs.getString("payload"),
+                rs.getTimestamp("fecha").toLocalDateTime());
+    }
+
+    public Optional<Long> obtenerOffset(String consumidor) {
+        return outboxOffsetRepository.findById(consumidor).map(offset -> offset.getUltimoEvento());
+    }
+
+    /**
+     * Registra que el consumidor procesó hasta la secuencia indicada (solo avanza).
+     */
+    public void guardarOffset(String consumidor, long ultimoEvento) {
+        outboxOffsetRepository.avanzar(consumidor, ultimoEvento);
+    }
+
+    /**
+     * Elimina los eventos más antiguos que la retención, en tandas para no
+     * mantener bloqueos largos sobre la tabla.
+     */
+    @Scheduled(cron = "${outbox.purga.cron:0 30 0 * * *}")
+    public void purgarEventosAntiguos() {
+        Timestamp limite = Timestamp.valueOf(LocalDateTime.now().minusDays(retencionDias));
+        int total = 0;
+        int eliminados;
+        do {
+            eliminados = jdbcTemplate.update(DELETE_EVENTOS_ANTIGUOS, limite, TAMANO_PURGA);
+            total += eliminados;
+        } while (eliminados == TAMANO_PURGA);
+        log.info("Outbox: {} eventos anteriores a {} eliminados", total, limite);
+    }
+
+    /**
+     * Arma el payload de un evento conservando el orden de las claves; admite valores null.
+     */
+    public static Map<String, Object> datos(Object... claveValor) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        for (int i = 0; i < claveValor.length; i += 2) {
+            datos.put((String) claveValor[i], claveValor[i + 1]);
+        }
+        return datos;
+    }
+
+    private void insertar(List<NuevoEvento> eventos) {
+        jdbcTemplate.batchUpdate(INSERT_EVENTO, eventos, eventos.size(), (ps, evento) -> {
+            ps.setString(1, evento.tipo().name());
+            ps.setString(2, evento.agregado());
+            ps.setLong(3, evento.idAgregado());
+            ps.setString(4, serializar(evento.datos()));
+        });
+        log.debug("Outbox: {} eventos insertados", eventos.size());
+    }
+
+    private String serializar(Map<String, Object> datos) {
+        try {
+            return objectMapper.writeValueAsString(datos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento del outbox", e);
+        }
+    }
+
+    /**
+     * Retorna el lote de la transacción actual, creándolo la primera vez.
+     */
+    private LoteEventos obtenerLoteActual() {
+        LoteEventos lote = (LoteEventos) TransactionSynchronizationManager.getResource(this);
+        if (lote == null) {
+            lote = new LoteEventos();
+            TransactionSynchronizationManager.bindResource(this, lote);
+            TransactionSynchronizationManager.registerSynchronization(lote);
+        }
+        return lote;
+    }
+
+    /**
+     * Evento por escribir en el outbox.
+     */
+    public record NuevoEvento(TipoEvento tipo, String agregado, Long idAgregado, Map<String, Object> datos) {
+    }
+
+    /**
+     * Eventos pendientes de una transacción; se insertan en beforeCommit, dentro de ella.
+     */
+    private class LoteEventos implements TransactionSynchronization {
+
+        private final List<NuevoEvento> eventos = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!eventos.isEmpty()) {
+                insertar(eventos);
+                eventos.clear();
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OutboxService.this);
+        }
+    }
+}
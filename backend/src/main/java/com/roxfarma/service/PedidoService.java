@@ -2,36 +2,78 @@ package com.roxfarma.service;
 
 import com.roxfarma.dto.DetallePedidoDTO;
 import com.roxfarma.dto.PedidoDTO;
+import com.roxfarma.dto.ResultadoCambioEstadoDTO;
+import com.roxfarma.dto.ResumenPedidoDTO;
+import com.roxfarma.exception.ConflictoConcurrenciaException;
 import com.roxfarma.exception.EstadoPedidoInvalidoException;
 import com.roxfarma.exception.ResourceNotFoundException;
 import com.roxfarma.model.*;
 import com.roxfarma.repository.PedidoRepository;
 import com.roxfarma.repository.ProductoRepository;
 import com.roxfarma.repository.ProveedorRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Servicio de lógica de negocio para gestión de Pedidos
  * - Un pedido en estado RECIBIDO no puede modificarse
- * - Al cambiar a RECIBIDO, se actualiza el stock automáticamente
+ * - Los cambios de estado son compare-and-set (UPDATE ... WHERE estado = ?): de dos
+ *   peticiones simultáneas sobre el mismo pedido solo una aplica el cambio
+ * - Las entregas (totales o parciales) las registra RecepcionPedidoService; cambiar a
+ *   RECIBIDO recibe todo lo pendiente y registra un lote por detalle
+ * - El stock ingresa al almacén elegido al crear el pedido, o al principal si no se eligió
+ * - Los pedidos BORRADOR los genera el reabastecimiento; se aprueban pasándolos a
+ *   PENDIENTE o se descartan
  * @author grupo2
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class PedidoService {
     
     private final PedidoRepository pedidoRepository;
     private final ProveedorRepository proveedorRepository;
     private final ProductoRepository productoRepository;
-    private final InventarioService inventarioService;
+    private final AlmacenService almacenService;
+    private final RecepcionPedidoService recepcionPedidoService;
+    private final TransactionTemplate transactionTemplate;
+    
+    private static final int MAX_PEDIDOS_POR_LOTE = 200;
+    private static final int MAX_TAMANO_PAGINA = 100;
+
+    public PedidoService(PedidoRepository pedidoRepository,
+                         ProveedorRepository proveedorRepository,
+                         ProductoRepository productoRepository,
+                         AlmacenService almacenService,
+                         RecepcionPedidoService recepcionPedidoService,
+                         PlatformTransactionManager transactionManager) {
+        this.pedidoRepository = pedidoRepository;
+        this.proveedorRepository = proveedorRepository;
+        this.productoRepository = productoRepository;
+        this.almacenService = almacenService;
+        this.recepcionPedidoService = recepcionPedidoService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Estado desde el que se llega a cada estado con un cambio manual.
+     * RECIBIDO no figura: lo asigna la recepción (desde ENVIADO o RECIBIDO_PARCIAL).
+     */
+    private static final Map<EstadoPedido, EstadoPedido> ESTADO_PREVIO = Map.of(
+            EstadoPedido.PENDIENTE, EstadoPedido.BORRADOR,
+            EstadoPedido.ENVIADO, EstadoPedido.PENDIENTE);
     
     @Transactional
     public Pedido crearPedido(PedidoDTO dto) {
@@ -47,6 +89,9 @@ public class PedidoService {
         pedido.setProveedor(proveedor);
         pedido.setFecha(LocalDateTime.now());
         pedido.setEstado(EstadoPedido.PENDIENTE);
+        if (dto.getIdAlmacen() != null) {
+            pedido.setAlmacen(almacenService.obtenerAlmacenActivo(dto.getIdAlmacen()));
+        }
         
         List<DetallePedido> detalles = new ArrayList<>();
         
@@ -57,6 +102,9 @@ public class PedidoService {
             detalle.setPedido(pedido);
             detalle.setProducto(producto);
             detalle.setCantidad(detalleDTO.getCantidad());
+            detalle.setCantidadPendiente(detalleDTO.getCantidad());
+            detalle.setCodigoLote(detalleDTO.getCodigoLote());
+            detalle.setFechaVencimientoLote(detalleDTO.getFechaVencimientoLote());
             
             detalles.add(detalle);
         }
@@ -70,10 +118,19 @@ public class PedidoService {
         return pedidoGuardado;
     }
 
+    /**
+     * Cambia el estado del pedido. Pasar a RECIBIDO recibe todo lo pendiente
+     * en una sola entrega (ver RecepcionPedidoService).
+     */
     @Transactional
     public Pedido actualizarEstadoPedido(Long id, EstadoPedido nuevoEstado) {
         log.info("Actualizando estado del pedido ID: {} a {}", id, nuevoEstado);
         
+        // La recepción bloquea y lee el pedido por su cuenta y valida su estado
+        if (nuevoEstado == EstadoPedido.RECIBIDO) {
+            return recepcionPedidoService.recibirPendiente(id);
+        }
+        
         Pedido pedido = pedidoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido no encontrado con ID: " + id));
         
@@ -81,16 +138,71 @@ public class PedidoService {
         
         validarTransicionEstado(estadoActual, nuevoEstado);
         
-        pedido.setEstado(nuevoEstado);
-        Pedido pedidoActualizado = pedidoRepository.save(pedido);
+        // Compare-and-set: si otra petición cambió el estado después de leerlo, no se pisa
+        if (pedidoRepository.cambiarEstado(id, estadoActual, nuevoEstado) == 0) {
+            throw new ConflictoConcurrenciaException(
+                    "El pedido " + id + " cambió de estado mientras se actualizaba, vuelva a consultarlo");
+        }
         
         log.info("Estado del pedido actualizado de {} a {}", estadoActual, nuevoEstado);
         
+        return obtenerPedidoPorId(id);
+    }
+
+    /**
+     * Cambia de estado varios pedidos a la vez
+     * - Los pedidos en el estado previo se bloquean y actualizan con una sentencia
+     *   cada paso, sin leerlos uno por uno, en una sola transacción
+     * - Los que no existen o están en otro estado se devuelven como rechazados,
+     *   sin anular el cambio de los demás
+     * - A RECIBIDO se pasan los ENVIADO y RECIBIDO_PARCIAL, recibiendo lo pendiente
+     *   de cada uno en su propia transacción: si una recepción falla, ese pedido
+     *   queda rechazado y las demás se conservan
+     */
+    public ResultadoCambioEstadoDTO cambiarEstadoEnLote(List<Long> ids, EstadoPedido nuevoEstado) {
+        List<Long> solicitados = ids.stream().distinct().sorted().toList();
+        if (solicitados.size() > MAX_PEDIDOS_POR_LOTE) {
+            throw new IllegalArgumentException(
+                    "Se pueden cambiar hasta " + MAX_PEDIDOS_POR_LOTE + " pedidos por operación");
+        }
+        log.info("Cambiando a {} el estado de {} pedidos", nuevoEstado, solicitados.size());
+
+        List<Long> actualizados;
         if (nuevoEstado == EstadoPedido.RECIBIDO) {
-            actualizarStockPorPedidoRecibido(pedido);
+            actualizados = recibirEnLote(solicitados);
+        } else {
+            EstadoPedido esperado = obtenerEstadoPrevio(nuevoEstado);
+            actualizados = transactionTemplate.execute(estado -> {
+                List<Long> bloqueados = pedidoRepository.bloquearPorEstado(solicitados, List.of(esperado.name()));
+                if (!bloqueados.isEmpty()) {
+                    pedidoRepository.cambiarEstadoEnLote(bloqueados, esperado, nuevoEstado);
+                }
+                return bloqueados;
+            });
         }
-        
-        return pedidoActualizado;
+
+        Set<Long> conCambio = new HashSet<>(actualizados);
+        List<Long> rechazados = solicitados.stream().filter(id -> !conCambio.contains(id)).toList();
+        log.info("{} pedidos pasaron a {}, {} rechazados", actualizados.size(), nuevoEstado, rechazados.size());
+        return new ResultadoCambioEstadoDTO(nuevoEstado, actualizados, rechazados);
+    }
+
+    /**
+     * Recibe cada pedido en una transacción independiente. La recepción bloquea el
+     * pedido y valida su estado, así que los inexistentes, los que no están ENVIADO o
+     * RECIBIDO_PARCIAL y los que fallan al recibirse solo revierten su propia entrega.
+     */
+    private List<Long> recibirEnLote(List<Long> solicitados) {
+        List<Long> recibidos = new ArrayList<>();
+        for (Long id : solicitados) {
+            try {
+                transactionTemplate.executeWithoutResult(estado -> recepcionPedidoService.recibirPendiente(id));
+                recibidos.add(id);
+            } catch (RuntimeException e) {
+                log.warn("No se pudo recibir el pedido ID: {} en el cambio en lote: {}", id, e.getMessage());
+            }
+        }
+        return recibidos;
     }
 
     private void validarTransicionEstado(EstadoPedido estadoActual, EstadoPedido nuevoEstado) {
@@ -99,37 +211,41 @@ public class PedidoService {
                     "No se puede modificar un pedido en estado RECIBIDO");
         }
         
-        boolean transicionValida = false;
-        
-        if (estadoActual == EstadoPedido.PENDIENTE && nuevoEstado == EstadoPedido.ENVIADO) {
-            transicionValida = true;
-        } else if (estadoActual == EstadoPedido.ENVIADO && nuevoEstado == EstadoPedido.RECIBIDO) {
-            transicionValida = true;
+        if (estadoActual != obtenerEstadoPrevio(nuevoEstado)) {
+            throw new EstadoPedidoInvalidoException(mensajeTransicionInvalida(estadoActual, nuevoEstado));
         }
-        
-        if (!transicionValida) {
-            String mensaje = String.format(
-                    "Transición de estado inválida: %s → %s. " +
-                    "Las transiciones válidas son: PENDIENTE → ENVIADO → RECIBIDO",
-                    estadoActual, nuevoEstado);
-            throw new EstadoPedidoInvalidoException(mensaje);
+    }
+
+    private EstadoPedido obtenerEstadoPrevio(EstadoPedido nuevoEstado) {
+        EstadoPedido previo = ESTADO_PREVIO.get(nuevoEstado);
+        if (previo == null) {
+            throw new EstadoPedidoInvalidoException(mensajeTransicionInvalida(null, nuevoEstado));
         }
+        return previo;
     }
-    
-    private void actualizarStockPorPedidoRecibido(Pedido pedido) {
-        log.info("Actualizando stock por pedido recibido ID: {}", pedido.getIdPedido());
-        
-        for (DetallePedido detalle : pedido.getDetalles()) {
-            inventarioService.aumentarStock(
-                    detalle.getProducto().getIdProducto(),
-                    detalle.getCantidad(),
-                    "PEDIDO_RECIBIDO"
-            );
+
+    private String mensajeTransicionInvalida(EstadoPedido estadoActual, EstadoPedido nuevoEstado) {
+        return String.format(
+                "Transición de estado inválida: %s → %s. " +
+                "Las transiciones válidas son: BORRADOR → PENDIENTE → ENVIADO → RECIBIDO " +
+                "(RECIBIDO_PARCIAL se asigna al registrar entregas parciales)",
+                estadoActual != null ? estadoActual : "*", nuevoEstado);
+    }
+
+    /**
+     * Elimina un pedido sugerido por el reabastecimiento que no se va a aprobar.
+     */
+    @Transactional
+    public void descartarBorrador(Long id) {
+        Pedido pedido = pedidoRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Pedido no encontrado con ID: " + id));
+        if (pedido.getEstado() != EstadoPedido.BORRADOR) {
+            throw new EstadoPedidoInvalidoException(
+                    "Solo se pueden descartar pedidos en estado BORRADOR; el pedido " + id + " está " + pedido.getEstado());
         }
-        
-        log.info("Stock actualizado para {} productos del pedido", pedido.getDetalles().size());
+        pedidoRepository.delete(pedido);
+        log.info("Pedido borrador ID: {} descartado", id);
     }
-    
 
     private void validarProductos(List<DetallePedidoDTO> detalles) {
         for (DetallePedidoDTO detalleDTO : detalles) {
@@ -139,16 +255,28 @@ public class PedidoService {
         }
     }
 
+    /**
+     * Página del listado de pedidos, del más reciente al más antiguo, sin cargar sus líneas.
+     * Filtros opcionales; 'hasta' incluye el día completo.
+     */
     @Transactional(readOnly = true)
-    public List<Pedido> listarPedidos() {
-        log.debug("Listando todos los pedidos");
-        return pedidoRepository.findAll();
+    public Page<ResumenPedidoDTO> listarPedidos(EstadoPedido estado, Long idProveedor,
+                                                LocalDate desde, LocalDate hasta, int pagina, int tamano) {
+        log.debug("Listando pedidos - Estado: {}, proveedor: {}, desde: {}, hasta: {}, página: {}",
+                estado, idProveedor, desde, hasta, pagina);
+        return pedidoRepository.buscarResumen(estado, idProveedor,
+                desde != null ? desde.atStartOfDay() : null,
+                hasta != null ? hasta.plusDays(1).atStartOfDay() : null,
+                PageRequest.of(Math.max(0, pagina), Math.max(1, Math.min(tamano, MAX_TAMANO_PAGINA))));
     }
 
+    /**
+     * Pedido con sus líneas, cargado en una sola consulta.
+     */
     @Transactional(readOnly = true)
     public Pedido obtenerPedidoPorId(Long id) {
         log.debug("Buscando pedido ID: {}", id);
-        return pedidoRepository.findById(id)
+        return pedidoRepository.findConDetallesById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido no encontrado con ID: " + id));
     }
 
@@ -0,0 +1,283 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.PrecioProgramadoDTO;
+import com.roxfarma.dto.VigenciaPrecioDTO;
+import com.roxfarma.exception.ResourceNotFoundException;
+import com.roxfarma.model.PrecioProducto;
+import com.roxfarma.model.Producto;
+import com.roxfarma.repository.PrecioProductoRepository;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.util.Transacciones;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Servicio del historial de precios de los productos
+ * Funcionamiento:
+ * - Cada cambio de precio queda en precio_producto con su inicio de vigencia; los
+ *   cambios con fecha futura quedan programados
+ * - En memoria se mantiene la línea de tiempo de cada producto (inicio de vigencia →
+ *   precio) en un mapa ordenado: el precio en un momento es la entrada anterior más
+ *   cercana, en O(log n) y sin consultar la base de datos. Las ventas lo usan así
+ * - Cada línea es inmutable y se reemplaza entera después del commit, así las
+ *   lecturas no se bloquean
+ * - Producto.precio es una copia del precio vigente para el catálogo: un proceso
+ *   programado la actualiza en lotes cortos cuando un precio programado entra en
+ *   vigencia. Las ventas no dependen de ese proceso
+ * @author grupo2
+ */
+@Service
+@Slf4j
+public class PrecioService {
+
+    private static final int TAMANO_LOTE = 500;
+
+    private final PrecioProductoRepository precioProductoRepository;
+    private final ProductoRepository productoRepository;
+    private final CacheEntidadesService cacheEntidadesService;
+    private final BusquedaProductoService busquedaProductoService;
+    private final MetricasService metricasService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, NavigableMap<LocalDateTime, BigDecimal>> lineasDeTiempo = new ConcurrentHashMap<>();
+
+    public PrecioService(PrecioProductoRepository precioProductoRepository,
+                         ProductoRepository productoRepository,
+                         CacheEntidadesService cacheEntidadesService,
+                         BusquedaProductoService busquedaProductoService,
+                         MetricasService metricasService,
+                         PlatformTransactionManager transactionManager) {
+        this.precioProductoRepository = precioProductoRepository;
+        this.productoRepository = productoRepository;
+        this.cacheEntidadesService = cacheEntidadesService;
+        this.busquedaProductoService = busquedaProductoService;
+        this.metricasService = metricasService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        long inicio = System.currentTimeMillis();
+        Map<Long, TreeMap<LocalDateTime, BigDecimal>> lineas = new HashMap<>();
+        int precios = 0;
+        // Con el mismo inicio de vigencia, el precio registrado después reemplaza al anterior
+        for (PrecioProducto p : precioProductoRepository.findAllByOrderByIdProductoAscVigenteDesdeAscIdPrecioAsc()) {
+            lineas.computeIfAbsent(p.getIdProducto(), id -> new TreeMap<>()).put(p.getVigenteDesde(), p.getPrecio());
+            precios++;
+        }
+        lineas.forEach((id, linea) -> lineasDeTiempo.put(id, Collections.unmodifiableNavigableMap(linea)));
+        log.info("Historial de precios cargado: {} precios de {} productos en {} ms",
+                precios, lineas.size(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Precio del producto en el momento indicado. Si no tiene precios registrados hasta
+     * ese momento (productos anteriores al historial), rige Producto.precio.
+     */
+    public BigDecimal precioVigente(Producto producto, LocalDateTime momento) {
+        BigDecimal registrado = precioRegistrado(producto.getIdProducto(), momento);
+        return registrado != null ? registrado : producto.getPrecio();
+    }
+
+    /**
+     * Registra el precio del producto si cambió respecto del que tenía antes de editarlo.
+     * @param precioAnterior precio cargado antes de la edición; null si el producto es nuevo
+     */
+    @Transactional
+    public void registrarPrecio(Producto producto, BigDecimal precioAnterior) {
+        Map<Long, BigDecimal> anteriores = new HashMap<>();
+        if (precioAnterior != null) {
+            anteriores.put(producto.getIdProducto(), precioAnterior);
+        }
+        registrarPrecios(List.of(producto), anteriores);
+    }
+
+    /**
+     * Registra en lote, con vigencia desde ahora, el precio de los productos nuevos y
+     * de los que cambiaron de precio en la edición.
+     * Se compara con el precio anterior a la edición y no con la línea de tiempo: entre
+     * que un precio programado entra en vigencia y activarProgramados lo copia al
+     * catálogo, Producto.precio todavía tiene el precio viejo, y una edición que no
+     * toca el precio no debe registrarlo de nuevo (revertiría el programado).
+     * @param preciosAnteriores precio antes de la edición por ID; sin entrada si es nuevo
+     */
+    @Transactional
+    public void registrarPrecios(List<Producto> productos, Map<Long, BigDecimal> preciosAnteriores) {
+        LocalDateTime ahora = ahora();
+        List<PrecioProducto> cambios = new ArrayList<>();
+        for (Producto producto : productos) {
+            BigDecimal anterior = preciosAnteriores.get(producto.getIdProducto());
+            if (anterior == null || anterior.compareTo(producto.getPrecio()) != 0) {
+                cambios.add(new PrecioProducto(null, producto.getIdProducto(), normalizar(producto.getPrecio()), ahora,
+                        true, LocalDateTime.now()));
+            }
+        }
+        if (cambios.isEmpty()) {
+            return;
+        }
+        precioProductoRepository.insertarEnLote(cambios);
+        Transacciones.despuesDelCommit(() -> cambios.forEach(c ->
+                actualizarLinea(c.getIdProducto(), linea -> linea.put(c.getVigenteDesde(), c.getPrecio()))));
+    }
+
+    /**
+     * Programa un precio a partir de una fecha futura. Si ya hay uno programado para
+     * esa misma fecha, se reemplaza.
+     */
+    @Transactional
+    public List<VigenciaPrecioDTO> programar(Long idProducto, PrecioProgramadoDTO dto) {
+        validarProducto(idProducto);
+        LocalDateTime desde = dto.getVigenteDesde().truncatedTo(ChronoUnit.SECONDS);
+        if (!desde.isAfter(ahora())) {
+            throw new IllegalArgumentException("La fecha de vigencia debe ser futura");
+        }
+
+        PrecioProducto precio = precioProductoRepository
+                .findByIdProductoAndVigenteDesdeAndAplicadoFalse(idProducto, desde)
+                .orElseGet(() -> new PrecioProducto(null, idProducto, null, desde, false, LocalDateTime.now()));
+        BigDecimal nuevo = normalizar(dto.getPrecio());
+        precio.setPrecio(nuevo);
+        precioProductoRepository.save(precio);
+
+        log.info("Precio programado para el producto ID: {} - {} desde {}", idProducto, nuevo, desde);
+        metricasService.incrementar("producto.precio.programado");
+        Transacciones.despuesDelCommit(() -> actualizarLinea(idProducto, linea -> linea.put(desde, nuevo)));
+        return listarHistorial(idProducto);
+    }
+
+    /**
+     * Cancela un precio programado que aún no entra en vigencia.
+     */
+    @Transactional
+    public void cancelar(Long idProducto, Long idPrecio) {
+        PrecioProducto precio = precioProductoRepository.findById(idPrecio)
+                .filter(p -> p.getIdProducto().equals(idProducto))
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Precio no encontrado con ID: " + idPrecio + " para el producto ID: " + idProducto));
+        if (!precio.getVigenteDesde().isAfter(ahora())) {
+            throw new IllegalArgumentException("Solo se puede cancelar un precio que aún no entra en vigencia");
+        }
+        precioProductoRepository.delete(precio);
+
+        log.info("Precio programado cancelado: ID {} del producto ID: {}", idPrecio, idProducto);
+        // Por fecha: un precio programado es el único con ese inicio de vigencia
+        Transacciones.despuesDelCommit(() -> actualizarLinea(idProducto, linea -> linea.remove(precio.getVigenteDesde())));
+    }
+
+    /**
+     * Precios del producto en orden cronológico; cada uno rige hasta el inicio del siguiente.
+     */
+    @Transactional(readOnly = true)
+    public List<VigenciaPrecioDTO> listarHistorial(Long idProducto) {
+        validarProducto(idProducto);
+        List<PrecioProducto> precios = precioProductoRepository.findByIdProductoOrderByVigenteDesdeAscIdPrecioAsc(idProducto);
+        LocalDateTime ahora = LocalDateTime.now();
+        List<VigenciaPrecioDTO> historial = new ArrayList<>(precios.size());
+        for (int i = 0; i < precios.size(); i++) {
+            PrecioProducto p = precios.get(i);
+            LocalDateTime hasta = i + 1 < precios.size() ? precios.get(i + 1).getVigenteDesde() : null;
+            historial.add(new VigenciaPrecioDTO(p.getIdPrecio(), p.getPrecio(), p.getVigenteDesde(), hasta,
+                    p.getVigenteDesde().isAfter(ahora)));
+        }
+        return historial;
+    }
+
+    /**
+     * Quita el historial de un producto que se va a eliminar.
+     */
+    @Transactional
+    public void eliminarDeProducto(Long idProducto) {
+        precioProductoRepository.eliminarDeProducto(idProducto);
+        Transacciones.despuesDelCommit(() -> lineasDeTiempo.remove(idProducto));
+    }
+
+    /**
+     * Copia a Producto.precio los precios programados que entraron en vigencia. Cada
+     * lote es una transacción corta, así un cambio de precio masivo a medianoche no
+     * bloquea por mucho tiempo las filas de producto que también escriben las ventas.
+     */
+    @Scheduled(fixedDelayString = "${precios.activacion.intervalo-ms:60000}")
+    public void activarProgramados() {
+        LocalDateTime hasta = LocalDateTime.now();
+        int activados = 0;
+        int lote;
+        do {
+            lote = transactionTemplate.execute(estado -> activarLote(hasta));
+            activados += lote;
+        } while (lote == TAMANO_LOTE);
+
+        if (activados > 0) {
+            metricasService.sumar("producto.precio.activado", activados);
+            log.info("Precios programados aplicados al catálogo: {}", activados);
+        }
+    }
+
+    private int activarLote(LocalDateTime hasta) {
+        List<PrecioProducto> pendientes = precioProductoRepository.buscarPendientes(hasta, PageRequest.of(0, TAMANO_LOTE));
+        if (pendientes.isEmpty()) {
+            return 0;
+        }
+        productoRepository.actualizarPreciosEnLote(pendientes);
+        precioProductoRepository.marcarAplicados(pendientes.stream().map(PrecioProducto::getIdPrecio).toList());
+
+        List<Long> ids = pendientes.stream().map(PrecioProducto::getIdProducto).distinct().toList();
+        cacheEntidadesService.invalidarProductos(ids);
+        busquedaProductoService.productosGuardados(productoRepository.findAllById(ids));
+        return pendientes.size();
+    }
+
+    private BigDecimal precioRegistrado(Long idProducto, LocalDateTime momento) {
+        NavigableMap<LocalDateTime, BigDecimal> linea = lineasDeTiempo.get(idProducto);
+        Map.Entry<LocalDateTime, BigDecimal> vigente = linea != null ? linea.floorEntry(momento) : null;
+        return vigente != null ? vigente.getValue() : null;
+    }
+
+    private void actualizarLinea(Long idProducto, Consumer<NavigableMap<LocalDateTime, BigDecimal>> cambio) {
+        lineasDeTiempo.compute(idProducto, (id, actual) -> {
+            TreeMap<LocalDateTime, BigDecimal> copia = actual != null ? new TreeMap<>(actual) : new TreeMap<>();
+            cambio.accept(copia);
+            return copia.isEmpty() ? null : Collections.unmodifiableNavigableMap(copia);
+        });
+    }
+
+    private void validarProducto(Long idProducto) {
+        if (!productoRepository.existsById(idProducto)) {
+            throw new ResourceNotFoundException("Producto no encontrado con ID: " + idProducto);
+        }
+    }
+
+    /**
+     * La columna DECIMAL(10,2) guarda dos decimales: la línea de tiempo usa la misma escala.
+     */
+    private static BigDecimal normalizar(BigDecimal precio) {
+        return precio.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * La columna DATETIME guarda segundos: la línea de tiempo usa la misma precisión.
+     */
+    private static LocalDateTime ahora() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+}
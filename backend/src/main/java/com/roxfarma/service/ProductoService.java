@@ -1,21 +1,41 @@
 package com.roxfarma.service;
 
+import com.roxfarma.dto.FiltroCatalogoDTO;
+import com.roxfarma.dto.ProductoBusquedaDTO;
 import com.roxfarma.dto.ProductoDTO;
+import com.roxfarma.dto.ResumenProductoDTO;
+import com.roxfarma.exception.PrecondicionFallidaException;
 import com.roxfarma.exception.ResourceNotFoundException;
 import com.roxfarma.model.Categoria;
 import com.roxfarma.model.Producto;
+import com.roxfarma.model.ProductoEliminado;
+import com.roxfarma.model.TipoMovimiento;
 import com.roxfarma.repository.CategoriaRepository;
+import com.roxfarma.repository.ProductoEliminadoRepository;
 import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.projection.TotalesInventario;
+import com.roxfarma.repository.projection.VersionCatalogo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Servicio de lógica de negocio para gestión de Productos
+ * La actualización usa concurrencia optimista: si se indica la versión editada y el
+ * producto cambió desde entonces (por ejemplo, por una venta), se rechaza con 412
+ * en lugar de sobrescribir el stock con un valor antiguo.
  * @author grupo2
  */
 @Service
@@ -23,8 +43,28 @@ import java.util.List;
 @Slf4j
 public class ProductoService {
     
+    private static final int MAX_TAMANO_PAGINA = 100;
+    
+    /**
+     * Campos por los que se puede ordenar el listado paginado.
+     */
+    private static final Map<String, String> ORDEN_CATALOGO = Map.of(
+            "nombre", "nombre",
+            "precio", "precio",
+            "stock", "stock",
+            "vencimiento", "fechaVencimiento",
+            "categoria", "categoria.nombre");
+    
     private final ProductoRepository productoRepository;
     private final CategoriaRepository categoriaRepository;
+    private final AlertaInventarioService alertaInventarioService;
+    private final MovimientoInventarioService movimientoInventarioService;
+    private final MetricasService metricasService;
+    private final InventarioService inventarioService;
+    private final BusquedaProductoService busquedaProductoService;
+    private final ProductoEliminadoRepository productoEliminadoRepository;
+    private final CodigoBarrasService codigoBarrasService;
+    private final PrecioService precioService;
     
     @Transactional
     public Producto crearProducto(ProductoDTO dto) {
@@ -47,9 +87,26 @@ public class ProductoService {
         
         log.info("Producto creado con ID: {}", productoGuardado.getIdProducto());
         
+        if (dto.getCodigosBarras() != null) {
+            codigoBarrasService.asignar(productoGuardado.getIdProducto(), dto.getCodigosBarras());
+        }
+        precioService.registrarPrecio(productoGuardado, null);
+        
+        if (productoGuardado.getStock() != null && productoGuardado.getStock() > 0) {
+            inventarioService.registrarStockInicial(productoGuardado.getIdProducto(), productoGuardado.getStock());
+            movimientoInventarioService.registrar(productoGuardado, TipoMovimiento.ENTRADA,
+                    "STOCK_INICIAL", productoGuardado.getStock(), 0, null, null);
+        }
+        
+        alertaInventarioService.evaluarCambio(productoGuardado, null, null);
+        busquedaProductoService.productoGuardado(productoGuardado);
+        
         return productoGuardado;
     }
 
+    /**
+     * Actualiza el producto. Si dto.version no es null, debe coincidir con la versión actual.
+     */
     @Transactional
     public Producto actualizarProducto(Long id, ProductoDTO dto) {
         log.info("Actualizando producto ID: {}", id);
@@ -57,6 +114,17 @@ public class ProductoService {
         Producto producto = productoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + id));
         
+        metricasService.incrementar("producto.actualizacion");
+        if (dto.getVersion() != null && !dto.getVersion().equals(producto.getVersion())) {
+            metricasService.incrementar("producto.actualizacion.conflicto");
+            log.warn("Versión desactualizada al editar producto ID: {}. Editada: {}, Actual: {}",
+                    id, dto.getVersion(), producto.getVersion());
+            throw new PrecondicionFallidaException(String.format(
+                    "El producto %s fue modificado después de cargarlo (versión %d, actual %d). " +
+                    "Recargue los datos e intente nuevamente.",
+                    producto.getNombre(), dto.getVersion(), producto.getVersion()));
+        }
+        
         if (!producto.getCategoria().getIdCategoria().equals(dto.getIdCategoria())) {
             Categoria categoria = categoriaRepository.findById(dto.getIdCategoria())
                     .orElseThrow(() -> new ResourceNotFoundException(
@@ -64,6 +132,15 @@ public class ProductoService {
             producto.setCategoria(categoria);
         }
         
+        Integer stockAnterior = producto.getStock();
+        LocalDate vencimientoAnterior = producto.getFechaVencimiento();
+        BigDecimal precioAnterior = producto.getPrecio();
+        
+        // El total editado se corrige en el almacén principal para que siga siendo la suma de los almacenes
+        if (!stockAnterior.equals(dto.getStock())) {
+            inventarioService.ajustarStockPrincipal(producto, dto.getStock() - stockAnterior);
+        }
+        
         producto.setNombre(dto.getNombre());
         producto.setPresentacion(dto.getPresentacion());
         producto.setDescripcion(dto.getDescripcion());
@@ -71,7 +148,27 @@ public class ProductoService {
         producto.setStock(dto.getStock());
         producto.setFechaVencimiento(dto.getFechaVencimiento());
         
-        return productoRepository.save(producto);
+        Producto productoActualizado = productoRepository.save(producto);
+        if (dto.getCodigosBarras() != null) {
+            codigoBarrasService.asignar(id, dto.getCodigosBarras());
+        }
+        // Solo queda en el historial si el precio cambió
+        precioService.registrarPrecio(productoActualizado, precioAnterior);
+        // La versión se incrementa al sincronizar y el controlador la devuelve como ETag;
+        // si otra transacción escribió entretanto, falla aquí con ObjectOptimisticLockingFailureException (409)
+        productoRepository.flush();
+        
+        // Un cambio directo de stock queda en el kardex como ajuste
+        if (!stockAnterior.equals(productoActualizado.getStock())) {
+            movimientoInventarioService.registrar(productoActualizado, TipoMovimiento.AJUSTE,
+                    "AJUSTE_MANUAL", Math.abs(productoActualizado.getStock() - stockAnterior),
+                    stockAnterior, null, null);
+        }
+        
+        alertaInventarioService.evaluarCambio(productoActualizado, stockAnterior, vencimientoAnterior);
+        busquedaProductoService.productoGuardado(productoActualizado);
+        
+        return productoActualizado;
     }
     
 
@@ -82,15 +179,67 @@ public class ProductoService {
         Producto producto = productoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + id));
         
+        codigoBarrasService.eliminarDeProducto(id);
+        precioService.eliminarDeProducto(id);
         productoRepository.delete(producto);
+        // Para que los terminales que sincronizan por cambios también lo quiten
+        productoEliminadoRepository.save(new ProductoEliminado(null, id, LocalDateTime.now(), null));
         
         log.info("Producto eliminado: {}", producto.getNombre());
+        
+        alertaInventarioService.notificarEliminacion(producto);
+        busquedaProductoService.productoEliminado(id);
+    }
+
+    /**
+     * Búsqueda tolerante a errores de tipeo sobre el índice en memoria (ver BusquedaProductoService).
+     */
+    public List<ProductoBusquedaDTO> buscarProductos(String texto, int limite) {
+        log.debug("Buscando productos: '{}'", texto);
+        return busquedaProductoService.buscar(texto, limite);
     }
 
+    /**
+     * Página del catálogo filtrada y ordenada. El ID desempata el orden para que
+     * las páginas no se solapen entre productos con el mismo valor.
+     */
+    @Transactional(readOnly = true)
+    public Page<ResumenProductoDTO> listarCatalogo(FiltroCatalogoDTO filtro, int pagina, int tamano,
+                                                   String orden, Sort.Direction direccion) {
+        String propiedad = ORDEN_CATALOGO.get(orden);
+        if (propiedad == null) {
+            throw new IllegalArgumentException("No se puede ordenar por '" + orden + "'. Opciones: "
+                    + String.join(", ", ORDEN_CATALOGO.keySet().stream().sorted().toList()));
+        }
+        Sort sort = Sort.by(direccion, propiedad).and(Sort.by("idProducto"));
+        return productoRepository.buscarCatalogo(patronTexto(filtro), filtro.getIdCategoria(),
+                filtro.getStockMin(), filtro.getStockMax(), filtro.getVencimientoDesde(),
+                filtro.getVencimientoHasta(),
+                PageRequest.of(Math.max(0, pagina), Math.max(1, Math.min(tamano, MAX_TAMANO_PAGINA)), sort));
+    }
+    
+    /**
+     * ETag débil de los productos que cumplen el filtro, calculado con una consulta de
+     * agregados: cambia con cualquier alta, baja o modificación de esos productos o
+     * de sus categorías (el nombre de la categoría es parte de cada fila).
+     * La página y el orden no intervienen: el ETag se compara siempre para la misma URL.
+     */
+    @Transactional(readOnly = true)
+    public String calcularEtagCatalogo(FiltroCatalogoDTO filtro) {
+        VersionCatalogo version = productoRepository.calcularVersionCatalogo(patronTexto(filtro),
+                filtro.getIdCategoria(), filtro.getStockMin(), filtro.getStockMax(),
+                filtro.getVencimientoDesde(), filtro.getVencimientoHasta());
+        long ultimaActualizacion = version.getUltimaActualizacion() != null
+                ? version.getUltimaActualizacion().toInstant(ZoneOffset.UTC).toEpochMilli()
+                : 0;
+        return "W/\"" + version.getTotal() + "-" + Long.toString(ultimaActualizacion, 36) + "-"
+                + version.getSumaVersiones() + "-" + version.getSumaVersionesCategorias() + "\"";
+    }
+    
     @Transactional(readOnly = true)
-    public List<Producto> listarTodosLosProductos() {
+    public List<ResumenProductoDTO> listarTodosLosProductos() {
         log.debug("Listando todos los productos");
-        return productoRepository.findAll();
+        return productoRepository.listarResumen();
     }
     
 
@@ -103,19 +252,35 @@ public class ProductoService {
     
 
     @Transactional(readOnly = true)
-    public List<Producto> obtenerProductosConStockBajo(Integer umbral) {
+    public TotalesInventario obtenerTotalesInventario() {
+        log.debug("Calculando totales de inventario");
+        return productoRepository.calcularTotalesInventario();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ResumenProductoDTO> obtenerProductosConStockBajo(Integer umbral) {
         log.info("Buscando productos con stock menor a: {}", umbral);
-        List<Producto> productos = productoRepository.findByStockLessThan(umbral);
+        List<ResumenProductoDTO> productos = productoRepository.listarResumenConStockMenorA(umbral);
         log.info("Se encontraron {} productos con stock bajo", productos.size());
         return productos;
     }
     
     @Transactional(readOnly = true)
-    public List<Producto> obtenerProductosProximosAVencer(Integer dias) {
+    public List<ResumenProductoDTO> obtenerProductosProximosAVencer(Integer dias) {
         log.info("Buscando productos que vencen en los próximos {} días", dias);
         LocalDate fechaLimite = LocalDate.now().plusDays(dias);
-        List<Producto> productos = productoRepository.findByFechaVencimientoBefore(fechaLimite);
+        List<ResumenProductoDTO> productos = productoRepository.listarResumenQueVencenAntesDe(fechaLimite);
         log.info("Se encontraron {} productos próximos a vencer", productos.size());
         return productos;
     }
+
+    private static String patronTexto(FiltroCatalogoDTO filtro) {
+        String texto = filtro.getTexto();
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        String escapado = texto.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escapado + "%";
+    }
 }
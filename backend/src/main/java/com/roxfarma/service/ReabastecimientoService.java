@@ -0,0 +1,303 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.EventoOutboxDTO;
+import com.roxfarma.dto.ResultadoReabastecimientoDTO;
+import com.roxfarma.event.OutboxListener;
+import com.roxfarma.exception.ConflictoConcurrenciaException;
+import com.roxfarma.model.DetallePedido;
+import com.roxfarma.model.EstadoPedido;
+import com.roxfarma.model.Pedido;
+import com.roxfarma.model.TipoEvento;
+import com.roxfarma.repository.DetallePedidoRepository;
+import com.roxfarma.repository.DetalleVentaRepository;
+import com.roxfarma.repository.PedidoRepository;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.ProveedorRepository;
+import com.roxfarma.repository.projection.CantidadPorProducto;
+import com.roxfarma.repository.projection.ProveedorPorProducto;
+import com.roxfarma.repository.projection.StockActual;
+import com.roxfarma.util.ConsultasParalelas;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de reabastecimiento que genera pedidos en borrador
+ * Funcionamiento:
+ * - Solo revisa los productos cuyo stock cambió desde la última ejecución: cada
+ *   evento STOCK_ACTUALIZADO del outbox marca el producto en reabastecimiento_pendiente
+ * - Los productos marcados se reparten en tramos que se calculan en paralelo;
+ *   por tramo se leen en una consulta cada uno: stock, ventas del periodo,
+ *   unidades por recibir y último proveedor
+ * - Cantidad a pedir:
+ *   velocidad = vendidas en el periodo / días del periodo
+ *   punto de reorden = velocidad × (días de entrega + días de seguridad)
+ *   si stock + por recibir <= punto de reorden, se pide hasta cubrir además
+ *   los días de cobertura
+ * - Las sugerencias se agrupan por proveedor en un pedido BORRADOR cada uno
+ * - Las unidades de los borradores cuentan como por recibir: una nueva ejecución
+ *   no vuelve a sugerir lo mismo mientras el borrador exista
+ * Un producto que nunca se pidió no tiene proveedor conocido y no se sugiere.
+ * @author grupo2
+ */
+@Service
+@Slf4j
+public class ReabastecimientoService implements OutboxListener {
+
+    private static final String MARCAR =
+            "INSERT INTO reabastecimiento_pendiente (id_producto, fecha_marca) VALUES (?, NOW(3)) " +
+            "ON DUPLICATE KEY UPDATE fecha_marca = VALUES(fecha_marca)";
+
+    private static final String MARCAR_TODOS =
+            "INSERT INTO reabastecimiento_pendiente (id_producto, fecha_marca) " +
+            "SELECT id_producto, NOW(3) FROM producto " +
+            "ON DUPLICATE KEY UPDATE fecha_marca = VALUES(fecha_marca)";
+
+    private static final String SELECT_MARCADOS =
+            "SELECT id_producto FROM reabastecimiento_pendiente WHERE fecha_marca <= ? ORDER BY id_producto";
+
+    // Las marcas renovadas durante la ejecución se conservan para la siguiente
+    private static final String DESMARCAR =
+            "DELETE FROM reabastecimiento_pendiente WHERE id_producto IN (:ids) AND fecha_marca <= :inicio";
+
+    private final ProductoRepository productoRepository;
+    private final DetalleVentaRepository detalleVentaRepository;
+    private final DetallePedidoRepository detallePedidoRepository;
+    private final PedidoRepository pedidoRepository;
+    private final ProveedorRepository proveedorRepository;
+    private final ConsultasParalelas consultasParalelas;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MetricasService metricasService;
+
+    private final int diasVenta;
+    private final int diasEntrega;
+    private final int diasSeguridad;
+    private final int diasCobertura;
+    private final int tamanoTramo;
+    private final long plazoMs;
+
+    private final AtomicBoolean enEjecucion = new AtomicBoolean(false);
+
+    public ReabastecimientoService(ProductoRepository productoRepository,
+                                   DetalleVentaRepository detalleVentaRepository,
+                                   DetallePedidoRepository detallePedidoRepository,
+                                   PedidoRepository pedidoRepository,
+                                   ProveedorRepository proveedorRepository,
+                                   ConsultasParalelas consultasParalelas,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MetricasService metricasService,
+                                   @Value("${reabastecimiento.dias-venta:30}") int diasVenta,
+                                   @Value("${reabastecimiento.dias-entrega:7}") int diasEntrega,
+                                   @Value("${reabastecimiento.dias-seguridad:3}") int diasSeguridad,
+                                   @Value("${reabastecimiento.dias-cobertura:14}") int diasCobertura,
+                                   @Value("${reabastecimiento.tamano-tramo:500}") int tamanoTramo,
+                                   @Value("${reabastecimiento.plazo-ms:60000}") long plazoMs) {
+        this.productoRepository = productoRepository;
+        this.detalleVentaRepository = detalleVentaRepository;
+        this.detallePedidoRepository = detallePedidoRepository;
+        this.pedidoRepository = pedidoRepository;
+        this.proveedorRepository = proveedorRepository;
+        this.consultasParalelas = consultasParalelas;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.metricasService = metricasService;
+        this.diasVenta = diasVenta;
+        this.diasEntrega = diasEntrega;
+        this.diasSeguridad = diasSeguridad;
+        this.diasCobertura = diasCobertura;
+        this.tamanoTramo = tamanoTramo;
+        this.plazoMs = plazoMs;
+    }
+
+    @Override
+    public String getNombre() {
+        return "reabastecimiento";
+    }
+
+    @Override
+    public Set<TipoEvento> getTipos() {
+        return Set.of(TipoEvento.STOCK_ACTUALIZADO);
+    }
+
+    /**
+     * Marca los productos cuyo stock cambió. Marcar dos veces es inocuo.
+     */
+    @Override
+    public void procesar(List<EventoOutboxDTO> eventos) {
+        List<Long> ids = eventos.stream().map(EventoOutboxDTO::getIdAgregado).distinct().toList();
+        jdbcTemplate.batchUpdate(MARCAR, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+    }
+
+    @Scheduled(cron = "${reabastecimiento.cron:0 0 6 * * *}")
+    public void ejecutarProgramado() {
+        ejecutar(false);
+    }
+
+    /**
+     * Revisa los productos marcados y crea los pedidos en borrador.
+     * Con 'completo' marca antes todo el catálogo (primera ejecución o tras cambiar parámetros).
+     */
+    public ResultadoReabastecimientoDTO ejecutar(boolean completo) {
+        if (!enEjecucion.compareAndSet(false, true)) {
+            throw new ConflictoConcurrenciaException("Ya hay una ejecución del reabastecimiento en curso");
+        }
+        try {
+            return ejecutarRevision(completo);
+        } finally {
+            enEjecucion.set(false);
+        }
+    }
+
+    private ResultadoReabastecimientoDTO ejecutarRevision(boolean completo) {
+        long inicioMs = System.currentTimeMillis();
+        if (completo) {
+            jdbcTemplate.update(MARCAR_TODOS);
+        }
+
+        // Reloj de la base de datos, el mismo con el que se marcan los productos
+        Timestamp inicio = jdbcTemplate.queryForObject("SELECT NOW(3)", Timestamp.class);
+        List<Long> marcados = jdbcTemplate.queryForList(SELECT_MARCADOS, Long.class, inicio);
+        if (marcados.isEmpty()) {
+            log.info("Reabastecimiento: no hay productos con cambios de stock desde la última ejecución");
+            return new ResultadoReabastecimientoDTO(0, 0, 0, List.of(), LocalDateTime.now());
+        }
+
+        List<List<Long>> tramos = new ArrayList<>();
+        for (int i = 0; i < marcados.size(); i += tamanoTramo) {
+            tramos.add(marcados.subList(i, Math.min(i + tamanoTramo, marcados.size())));
+        }
+
+        ConsultasParalelas.Grupo grupo = consultasParalelas.nuevoGrupo(plazoMs);
+        List<ConsultasParalelas.Tarea<ResultadoTramo>> tareas = tramos.stream()
+                .map(tramo -> grupo.enviar(() -> calcularTramo(tramo)))
+                .toList();
+        grupo.esperarTodas();
+
+        // Agrupadas por proveedor y, dentro de cada uno, por producto (orden estable)
+        Map<Long, Map<Long, Integer>> porProveedor = new TreeMap<>();
+        int sinProveedor = 0;
+        for (ConsultasParalelas.Tarea<ResultadoTramo> tarea : tareas) {
+            ResultadoTramo resultado = tarea.obtener();
+            sinProveedor += resultado.sinProveedor();
+            for (Sugerencia sugerencia : resultado.sugerencias()) {
+                porProveedor.computeIfAbsent(sugerencia.idProveedor(), id -> new TreeMap<>())
+                        .put(sugerencia.idProducto(), sugerencia.cantidad());
+            }
+        }
+
+        List<Long> pedidosCreados = transactionTemplate.execute(status -> {
+            List<Long> ids = crearBorradores(porProveedor);
+            for (List<Long> tramo : tramos) {
+                new NamedParameterJdbcTemplate(jdbcTemplate).update(DESMARCAR,
+                        new MapSqlParameterSource("ids", tramo).addValue("inicio", inicio));
+            }
+            return ids;
+        });
+
+        int sugerencias = porProveedor.values().stream().mapToInt(Map::size).sum();
+        metricasService.sumar("reabastecimiento.sugerencias", sugerencias);
+        log.info("Reabastecimiento: {} productos revisados, {} sugerencias en {} pedidos borrador, " +
+                        "{} sin proveedor conocido, en {} ms",
+                marcados.size(), sugerencias, pedidosCreados.size(), sinProveedor,
+                System.currentTimeMillis() - inicioMs);
+        return new ResultadoReabastecimientoDTO(marcados.size(), sugerencias, sinProveedor, pedidosCreados,
+                LocalDateTime.now());
+    }
+
+    /**
+     * Calcula las sugerencias de un tramo de productos con cuatro consultas agregadas.
+     */
+    private ResultadoTramo calcularTramo(List<Long> ids) {
+        LocalDateTime desde = LocalDateTime.now().minusDays(diasVenta);
+        Map<Long, StockActual> stock = productoRepository.buscarStockActual(ids).stream()
+                .collect(Collectors.toMap(StockActual::getIdProducto, Function.identity()));
+        Map<Long, Long> vendidas = aMapa(detalleVentaRepository.sumarVendidoPorProducto(ids, desde));
+        Map<Long, Long> porRecibir = aMapa(detallePedidoRepository.sumarPendientePorProducto(ids));
+        Map<Long, Long> proveedores = detallePedidoRepository.buscarUltimoProveedor(ids).stream()
+                .collect(Collectors.toMap(ProveedorPorProducto::getIdProducto, ProveedorPorProducto::getIdProveedor));
+
+        List<Sugerencia> sugerencias = new ArrayList<>();
+        int sinProveedor = 0;
+        for (StockActual producto : stock.values()) {
+            Long idProducto = producto.getIdProducto();
+            int cantidad = calcularCantidadReorden(vendidas.getOrDefault(idProducto, 0L), producto.getStock(),
+                    porRecibir.getOrDefault(idProducto, 0L));
+            if (cantidad <= 0) {
+                continue;
+            }
+            Long idProveedor = proveedores.get(idProducto);
+            if (idProveedor == null) {
+                sinProveedor++;
+                continue;
+            }
+            sugerencias.add(new Sugerencia(idProducto, idProveedor, cantidad));
+        }
+        return new ResultadoTramo(sugerencias, sinProveedor);
+    }
+
+    /**
+     * Unidades a pedir de un producto; 0 si todavía no llega al punto de reorden.
+     */
+    int calcularCantidadReorden(long vendidas, int stock, long porRecibir) {
+        if (vendidas <= 0) {
+            return 0;
+        }
+        double velocidad = (double) vendidas / diasVenta;
+        long disponible = stock + porRecibir;
+        double puntoReorden = velocidad * (diasEntrega + diasSeguridad);
+        if (disponible > puntoReorden) {
+            return 0;
+        }
+        double objetivo = velocidad * (diasEntrega + diasSeguridad + diasCobertura);
+        return (int) Math.max(1, Math.ceil(objetivo - disponible));
+    }
+
+    private List<Long> crearBorradores(Map<Long, Map<Long, Integer>> porProveedor) {
+        List<Long> ids = new ArrayList<>();
+        porProveedor.forEach((idProveedor, cantidades) -> {
+            Pedido pedido = new Pedido();
+            pedido.setProveedor(proveedorRepository.getReferenceById(idProveedor));
+            pedido.setFecha(LocalDateTime.now());
+            pedido.setEstado(EstadoPedido.BORRADOR);
+            cantidades.forEach((idProducto, cantidad) -> {
+                DetallePedido detalle = new DetallePedido();
+                detalle.setProducto(productoRepository.getReferenceById(idProducto));
+                detalle.setCantidad(cantidad);
+                detalle.setCantidadPendiente(cantidad);
+                pedido.agregarDetalle(detalle);
+            });
+            ids.add(pedidoRepository.save(pedido).getIdPedido());
+        });
+        return ids;
+    }
+
+    private Map<Long, Long> aMapa(List<CantidadPorProducto> cantidades) {
+        return cantidades.stream()
+                .collect(Collectors.toMap(CantidadPorProducto::getIdProducto, CantidadPorProducto::getCantidad));
+    }
+
+    private record Sugerencia(Long idProducto, Long idProveedor, int cantidad) {
+    }
+
+    private record ResultadoTramo(List<Sugerencia> sugerencias, int sinProveedor) {
+    }
+}
@@ -0,0 +1,231 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.ItemRecepcionDTO;
+import com.roxfarma.dto.PendientePedidoDTO;
+import com.roxfarma.dto.RecepcionPedidoDTO;
+import com.roxfarma.exception.EstadoPedidoInvalidoException;
+import com.roxfarma.exception.ResourceNotFoundException;
+import com.roxfarma.model.*;
+import com.roxfarma.repository.DetallePedidoRepository;
+import com.roxfarma.repository.PedidoRepository;
+import com.roxfarma.repository.RecepcionPedidoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio para registrar las entregas (recepciones) de los pedidos de proveedor
+ * Funcionamiento:
+ * - El pedido y sus detalles se bloquean al inicio: dos entregas del mismo
+ *   pedido se aplican en serie y nunca reciben más de lo pendiente
+ * - Cada entrega actualiza cantidad_recibida/cantidad_pendiente de sus líneas,
+ *   ingresa el stock y crea los lotes, todo en lote: el número de sentencias
+ *   no depende de las líneas recibidas
+ * - Si no queda nada pendiente el pedido pasa a RECIBIDO; si no, a RECIBIDO_PARCIAL
+ * Solo se reciben pedidos en estado ENVIADO o RECIBIDO_PARCIAL.
+ * @author grupo2
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecepcionPedidoService {
+
+    private static final String MOTIVO = "PEDIDO_RECIBIDO";
+
+    private final PedidoRepository pedidoRepository;
+    private final DetallePedidoRepository detallePedidoRepository;
+    private final RecepcionPedidoRepository recepcionPedidoRepository;
+    private final InventarioService inventarioService;
+    private final AlmacenService almacenService;
+    private final LoteService loteService;
+    private final OutboxService outboxService;
+
+    /**
+     * Registra una entrega con las cantidades indicadas por línea.
+     */
+    @Transactional
+    public RecepcionPedido registrarRecepcion(Long idPedido, RecepcionPedidoDTO dto) {
+        log.info("Registrando recepción del pedido ID: {} con {} líneas", idPedido, dto.getItems().size());
+
+        Pedido pedido = obtenerPedidoParaRecibir(idPedido);
+        Map<Long, DetallePedido> detallesPorId = pedido.getDetalles().stream()
+                .collect(Collectors.toMap(DetallePedido::getIdDetallePedido, Function.identity()));
+
+        // Una línea puede venir repartida en varios ítems (por ejemplo, dos lotes)
+        Map<Long, Integer> recibidoPorDetalle = new HashMap<>();
+        List<DetalleRecepcion> detalles = new ArrayList<>();
+        for (ItemRecepcionDTO item : dto.getItems()) {
+            DetallePedido detalle = detallesPorId.get(item.getIdDetallePedido());
+            if (detalle == null) {
+                throw new ResourceNotFoundException(String.format(
+                        "La línea ID %d no pertenece al pedido ID %d", item.getIdDetallePedido(), idPedido));
+            }
+            int recibido = recibidoPorDetalle.merge(detalle.getIdDetallePedido(), item.getCantidad(), Integer::sum);
+            if (recibido > detalle.getCantidadPendiente()) {
+                throw new IllegalArgumentException(String.format(
+                        "Se reciben %d unidades de %s pero solo quedan %d pendientes",
+                        recibido, detalle.getProducto().getNombre(), detalle.getCantidadPendiente()));
+            }
+            detalles.add(construirDetalle(pedido, detalle, item.getCantidad(), item.getCodigoLote(),
+                    item.getFechaVencimientoLote()));
+        }
+
+        return aplicarRecepcion(pedido, detalles, dto.getObservacion());
+    }
+
+    /**
+     * Recibe todo lo que queda pendiente del pedido, con los lotes indicados al crearlo.
+     */
+    @Transactional
+    public Pedido recibirPendiente(Long idPedido) {
+        Pedido pedido = obtenerPedidoParaRecibir(idPedido);
+
+        List<DetalleRecepcion> detalles = new ArrayList<>();
+        for (DetallePedido detalle : pedido.getDetalles()) {
+            if (detalle.getCantidadPendiente() > 0) {
+                detalles.add(construirDetalle(pedido, detalle, detalle.getCantidadPendiente(), null, null));
+            }
+        }
+
+        aplicarRecepcion(pedido, detalles, null);
+        return pedido;
+    }
+
+    @Transactional(readOnly = true)
+    public List<RecepcionPedido> listarRecepciones(Long idPedido) {
+        if (!pedidoRepository.existsById(idPedido)) {
+            throw new ResourceNotFoundException("Pedido no encontrado con ID: " + idPedido);
+        }
+        return recepcionPedidoRepository.findByIdPedidoOrderByFechaAsc(idPedido);
+    }
+
+    /**
+     * Líneas con unidades por recibir; si se indica producto, solo las de ese producto.
+     */
+    @Transactional(readOnly = true)
+    public List<PendientePedidoDTO> listarPendientes(Long idProducto) {
+        return idProducto != null
+                ? detallePedidoRepository.listarPendientesPorProducto(idProducto)
+                : detallePedidoRepository.listarPendientes();
+    }
+
+    private Pedido obtenerPedidoParaRecibir(Long idPedido) {
+        Pedido pedido = pedidoRepository.findConDetallesParaRecibir(idPedido)
+                .orElseThrow(() -> new ResourceNotFoundException("Pedido no encontrado con ID: " + idPedido));
+
+        if (pedido.getEstado() != EstadoPedido.ENVIADO && pedido.getEstado() != EstadoPedido.RECIBIDO_PARCIAL) {
+            throw new EstadoPedidoInvalidoException(String.format(
+                    "No se puede recibir un pedido en estado %s. Solo se reciben pedidos ENVIADO o RECIBIDO_PARCIAL",
+                    pedido.getEstado()));
+        }
+        return pedido;
+    }
+
+    private RecepcionPedido aplicarRecepcion(Pedido pedido, List<DetalleRecepcion> detalles, String observacion) {
+        RecepcionPedido recepcion = new RecepcionPedido();
+        recepcion.setIdPedido(pedido.getIdPedido());
+        recepcion.setFecha(LocalDateTime.now());
+        recepcion.setUsuario(obtenerUsuarioActual());
+        recepcion.setObservacion(observacion);
+        RecepcionPedido recepcionGuardada = recepcionPedidoRepository.save(recepcion);
+
+        if (detallePedidoRepository.registrarRecibidoEnLote(detalles) > 0) {
+            throw new IllegalStateException(
+                    "Las cantidades pendientes del pedido cambiaron durante la recepción, intente nuevamente");
+        }
+        recepcionPedidoRepository.insertarDetallesEnLote(recepcionGuardada.getIdRecepcion(), detalles);
+
+        // Copia en memoria de lo que ya escribió el UPDATE (columnas no actualizables por Hibernate)
+        Map<Long, DetallePedido> detallesPorId = pedido.getDetalles().stream()
+                .collect(Collectors.toMap(DetallePedido::getIdDetallePedido, Function.identity()));
+        // Stock y lotes ingresan al almacén del pedido (el principal si no indica uno)
+        Long idAlmacen = almacenService.resolverAlmacen(
+                pedido.getAlmacen() != null ? pedido.getAlmacen().getIdAlmacen() : null);
+        List<InventarioService.IngresoStock> ingresos = new ArrayList<>();
+        List<Lote> lotes = new ArrayList<>();
+        for (DetalleRecepcion detalle : detalles) {
+            DetallePedido detallePedido = detallesPorId.get(detalle.getIdDetallePedido());
+            detallePedido.setCantidadRecibida(detallePedido.getCantidadRecibida() + detalle.getCantidad());
+            detallePedido.setCantidadPendiente(detallePedido.getCantidadPendiente() - detalle.getCantidad());
+
+            ingresos.add(new InventarioService.IngresoStock(detalle.getIdProducto(), detalle.getCantidad()));
+            lotes.add(construirLote(pedido, detallePedido, detalle, idAlmacen));
+        }
+
+        inventarioService.aumentarStockEnLote(ingresos, MOTIVO, pedido.getIdPedido(), idAlmacen);
+        loteService.registrarLotes(lotes);
+
+        boolean completo = pedido.getDetalles().stream().allMatch(d -> d.getCantidadPendiente() == 0);
+        pedido.setEstado(completo ? EstadoPedido.RECIBIDO : EstadoPedido.RECIBIDO_PARCIAL);
+        pedidoRepository.save(pedido);
+
+        if (completo) {
+            outboxService.publicar(TipoEvento.PEDIDO_RECIBIDO, "Pedido", pedido.getIdPedido(),
+                    OutboxService.datos(
+                            "idProveedor", pedido.getProveedor().getIdProveedor(),
+                            "idAlmacen", idAlmacen,
+                            "lineas", pedido.getDetalles().size(),
+                            "recepciones", recepcionPedidoRepository.countByIdPedido(pedido.getIdPedido())));
+        }
+
+        log.info("Recepción ID: {} del pedido ID: {} registrada ({} líneas). Estado: {}",
+                recepcionGuardada.getIdRecepcion(), pedido.getIdPedido(), detalles.size(), pedido.getEstado());
+        // Respuesta sin administrar: los detalles se insertaron por JDBC
+        return new RecepcionPedido(recepcionGuardada.getIdRecepcion(), recepcionGuardada.getIdPedido(),
+                recepcionGuardada.getFecha(), recepcionGuardada.getUsuario(), recepcionGuardada.getObservacion(),
+                detalles);
+    }
+
+    /**
+     * Si la entrega no indica lote, se usan los datos del detalle del pedido y,
+     * en su defecto, el número de pedido y el vencimiento del producto.
+     */
+    private DetalleRecepcion construirDetalle(Pedido pedido, DetallePedido detalle, int cantidad,
+                                              String codigoLote, LocalDate fechaVencimientoLote) {
+        String codigo = codigoLote != null && !codigoLote.isBlank() ? codigoLote
+                : detalle.getCodigoLote() != null && !detalle.getCodigoLote().isBlank() ? detalle.getCodigoLote()
+                : "PED-" + pedido.getIdPedido();
+        LocalDate vencimiento = fechaVencimientoLote != null ? fechaVencimientoLote
+                : detalle.getFechaVencimientoLote() != null ? detalle.getFechaVencimientoLote()
+                : detalle.getProducto().getFechaVencimiento();
+
+        DetalleRecepcion detalleRecepcion = new DetalleRecepcion();
+        detalleRecepcion.setIdDetallePedido(detalle.getIdDetallePedido());
+        detalleRecepcion.setIdProducto(detalle.getProducto().getIdProducto());
+        detalleRecepcion.setCantidad(cantidad);
+        detalleRecepcion.setCodigoLote(codigo);
+        detalleRecepcion.setFechaVencimientoLote(vencimiento);
+        return detalleRecepcion;
+    }
+
+    private Lote construirLote(Pedido pedido, DetallePedido detallePedido, DetalleRecepcion detalle,
+                               Long idAlmacen) {
+        Lote lote = new Lote();
+        lote.setProducto(detallePedido.getProducto());
+        lote.setIdAlmacen(idAlmacen);
+        lote.setCodigo(detalle.getCodigoLote());
+        lote.setFechaVencimiento(detalle.getFechaVencimientoLote());
+        lote.setCantidadInicial(detalle.getCantidad());
+        lote.setCantidadDisponible(detalle.getCantidad());
+        lote.setIdPedido(pedido.getIdPedido());
+        return lote;
+    }
+
+    // Obtiene el nombre del usuario actual desde el SecurityContext.
+    private String obtenerUsuarioActual() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : "SYSTEM";
+    }
+}
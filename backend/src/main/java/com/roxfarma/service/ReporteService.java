@@ -1,8 +1,9 @@
 package com.roxfarma.service;
 
-import com.roxfarma.model.Producto;
+import com.roxfarma.dto.ResumenProductoDTO;
 import com.roxfarma.repository.ProductoRepository;
 import com.roxfarma.repository.VentaRepository;
+import com.roxfarma.util.ConsultasParalelas;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -26,6 +27,7 @@ public class ReporteService {
     
     private final VentaRepository ventaRepository;
     private final ProductoRepository productoRepository;
+    private final ConsultasParalelas consultasParalelas;
 
     @Transactional(readOnly = true)
     public Map<String, Object> generarReporteVentas(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
@@ -51,21 +53,33 @@ public class ReporteService {
         return reporte;
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Las tres consultas son independientes y se ejecutan en paralelo.
+     * No es transaccional: cada consulta abre su propia transacción de lectura
+     * en su hilo, así no se retiene una conexión ociosa mientras se espera.
+     */
     public Map<String, Object> generarReporteInventario() {
         log.info("Generando reporte de inventario");
         
         Map<String, Object> reporte = new HashMap<>();
         
-        long totalProductos = productoRepository.count();
+        ConsultasParalelas.Grupo grupo = consultasParalelas.nuevoGrupo();
+        ConsultasParalelas.Tarea<Long> totalTarea = grupo.enviar(productoRepository::count);
+        ConsultasParalelas.Tarea<List<ResumenProductoDTO>> stockBajoTarea =
+                grupo.enviar(() -> productoRepository.listarResumenConStockMenorA(10));
+        ConsultasParalelas.Tarea<List<ResumenProductoDTO>> proximosVencerTarea =
+                grupo.enviar(() -> productoRepository.listarResumenQueVencenAntesDe(
+                        java.time.LocalDate.now().plusDays(30)));
+        grupo.esperarTodas();
+        
+        long totalProductos = totalTarea.obtener();
         reporte.put("totalProductos", totalProductos);
         
-        List<Producto> stockBajo = productoRepository.findByStockLessThan(10);
+        List<ResumenProductoDTO> stockBajo = stockBajoTarea.obtener();
         reporte.put("productosStockBajo", stockBajo.size());
         reporte.put("listaStockBajo", stockBajo);
         
-        List<Producto> proximosVencer = productoRepository.findByFechaVencimientoBefore(
-                java.time.LocalDate.now().plusDays(30));
+        List<ResumenProductoDTO> proximosVencer = proximosVencerTarea.obtener();
         reporte.put("productosProximosVencer", proximosVencer.size());
         reporte.put("listaProximosVencer", proximosVencer);
         
@@ -0,0 +1,191 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.CambioProductoDTO;
+import com.roxfarma.dto.CambiosCatalogoDTO;
+import com.roxfarma.model.ProductoEliminado;
+import com.roxfarma.repository.ProductoEliminadoRepository;
+import com.roxfarma.repository.ProductoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Servicio de sincronización incremental del catálogo para los terminales de venta
+ * Funcionamiento:
+ * - Cada escritura de un producto (por JPA o por JDBC) deja secuencia_cambio en NULL,
+ *   y cada baja se registra en producto_eliminado con secuencia NULL
+ * - En cada ciclo este servicio numera los cambios ya confirmados; como es el único
+ *   que numera, la secuencia sigue el orden de confirmación: un cambio que confirma
+ *   tarde recibe una secuencia mayor que la de los ya entregados y ningún cursor lo
+ *   deja atrás (igual que la secuencia del outbox)
+ * - Un producto que vuelve a cambiar pierde su secuencia y se entrega de nuevo con
+ *   la siguiente
+ * - El cursor que recibe el cliente codifica la última posición de ambas secuencias;
+ *   sin cursor se entrega el catálogo completo, por páginas
+ * @author grupo2
+ */
+@Service
+@Slf4j
+public class SincronizacionCatalogoService {
+
+    private static final int MAX_CAMBIOS = 1000;
+    private static final int TAMANO_LOTE = 500;
+
+    private static final String SELECT_PRODUCTOS_SIN_SECUENCIA =
+            "SELECT id_producto FROM producto WHERE secuencia_cambio IS NULL ORDER BY id_producto LIMIT ?";
+    // fecha_actualizacion se asigna a sí misma para que ON UPDATE no la cambie
+    private static final String UPDATE_SECUENCIA_PRODUCTO =
+            "UPDATE producto SET secuencia_cambio = ?, fecha_actualizacion = fecha_actualizacion " +
+            "WHERE id_producto = ?";
+    private static final String SELECT_ULTIMA_SECUENCIA_PRODUCTO =
+            "SELECT MAX(secuencia_cambio) FROM producto";
+
+    private static final String SELECT_BAJAS_SIN_SECUENCIA =
+            "SELECT id_eliminacion FROM producto_eliminado WHERE secuencia IS NULL ORDER BY id_eliminacion LIMIT ?";
+    private static final String UPDATE_SECUENCIA_BAJA =
+            "UPDATE producto_eliminado SET secuencia = ? WHERE id_eliminacion = ?";
+
+    private final ProductoRepository productoRepository;
+    private final ProductoEliminadoRepository productoEliminadoRepository;
+    private final MetricasService metricasService;
+    private final JdbcTemplate jdbcTemplate;
+
+    // -1 hasta que el primer ciclo lee la última secuencia asignada
+    private long ultimaSecuenciaProducto = -1;
+    private long ultimaSecuenciaBaja = -1;
+
+    public SincronizacionCatalogoService(ProductoRepository productoRepository,
+                                         ProductoEliminadoRepository productoEliminadoRepository,
+                                         MetricasService metricasService,
+                                         JdbcTemplate jdbcTemplate) {
+        this.productoRepository = productoRepository;
+        this.productoEliminadoRepository = productoEliminadoRepository;
+        this.metricasService = metricasService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Hasta 'limite' productos modificados y 'limite' bajas posteriores al cursor.
+     * @param cursor el devuelto por la consulta anterior, o null para la carga inicial
+     */
+    @Transactional(readOnly = true)
+    public CambiosCatalogoDTO obtenerCambios(String cursor, int limite) {
+        int limiteValido = Math.max(1, Math.min(limite, MAX_CAMBIOS));
+
+        // En la carga inicial no hay bajas que informar: se parte de la última numerada
+        Cursor desde = cursor != null
+                ? Cursor.decodificar(cursor)
+                : new Cursor(0L, productoEliminadoRepository.obtenerUltimaSecuencia());
+
+        List<CambioProductoDTO> productos = productoRepository.buscarCambiosDesde(
+                desde.secuenciaProducto(), PageRequest.of(0, limiteValido));
+        List<ProductoEliminado> eliminados = productoEliminadoRepository.buscarDesde(
+                desde.secuenciaBaja(), PageRequest.of(0, limiteValido));
+
+        Cursor siguiente = new Cursor(
+                productos.isEmpty() ? desde.secuenciaProducto()
+                        : productos.get(productos.size() - 1).getSecuenciaCambio(),
+                eliminados.isEmpty() ? desde.secuenciaBaja()
+                        : eliminados.get(eliminados.size() - 1).getSecuencia());
+        boolean completo = productos.size() < limiteValido && eliminados.size() < limiteValido;
+
+        metricasService.incrementar(cursor == null ? "catalogo.sincronizacion.inicial" : "catalogo.sincronizacion");
+        metricasService.sumar("catalogo.sincronizacion.cambios", productos.size() + eliminados.size());
+        log.debug("Sincronización del catálogo: {} productos y {} bajas desde {}",
+                productos.size(), eliminados.size(), cursor);
+        return new CambiosCatalogoDTO(productos, eliminados.stream().map(ProductoEliminado::getIdProducto).toList(),
+                siguiente.codificar(), completo);
+    }
+
+    /**
+     * Numera los cambios de productos y las bajas confirmados desde el ciclo anterior.
+     * Cada UPDATE se confirma por separado: un producto bloqueado por una transacción
+     * en curso se numera cuando esta confirma, con su estado final.
+     */
+    @Scheduled(fixedDelayString = "${catalogo.sincronizacion.numeracion-ms:1000}")
+    public void numerar() {
+        if (ultimaSecuenciaProducto < 0) {
+            ultimaSecuenciaProducto = obtenerUltima(SELECT_ULTIMA_SECUENCIA_PRODUCTO);
+            ultimaSecuenciaBaja = productoEliminadoRepository.obtenerUltimaSecuencia();
+        }
+        long productos = ultimaSecuenciaProducto;
+        long bajas = ultimaSecuenciaBaja;
+        ultimaSecuenciaProducto = asignarSecuencias(
+                SELECT_PRODUCTOS_SIN_SECUENCIA, UPDATE_SECUENCIA_PRODUCTO, ultimaSecuenciaProducto);
+        ultimaSecuenciaBaja = asignarSecuencias(
+                SELECT_BAJAS_SIN_SECUENCIA, UPDATE_SECUENCIA_BAJA, ultimaSecuenciaBaja);
+
+        long numerados = ultimaSecuenciaProducto - productos + ultimaSecuenciaBaja - bajas;
+        if (numerados > 0) {
+            metricasService.sumar("catalogo.sincronizacion.numerados", numerados);
+        }
+    }
+
+    /**
+     * Asigna secuencias consecutivas a las filas confirmadas sin numerar, en orden de ID.
+     * @return la última secuencia asignada
+     */
+    private long asignarSecuencias(String seleccion, String actualizacion, long ultima) {
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(seleccion, Long.class, TAMANO_LOTE);
+            if (ids.isEmpty()) {
+                break;
+            }
+            long inicial = ultima;
+            jdbcTemplate.batchUpdate(actualizacion, ids, ids.size(), new ParameterizedPreparedStatementSetter<>() {
+                private long secuencia = inicial;
+
+                @Override
+                public void setValues(PreparedStatement ps, Long id) throws SQLException {
+                    ps.setLong(1, ++secuencia);
+                    ps.setLong(2, id);
+                }
+            });
+            ultima += ids.size();
+        } while (ids.size() == TAMANO_LOTE);
+        return ultima;
+    }
+
+    private long obtenerUltima(String consulta) {
+        Long ultima = jdbcTemplate.queryForObject(consulta, Long.class);
+        return ultima != null ? ultima : 0L;
+    }
+
+    /**
+     * Posición en las dos secuencias de cambios. Se codifica como
+     * "secuenciaProducto.secuenciaBaja"; para el cliente es un texto opaco.
+     * Un cursor anterior ("milisegundos.idProducto.idEliminacion") se acepta: los
+     * productos se vuelven a entregar desde el inicio y la baja sigue siendo su
+     * secuencia (la migración numeró las bajas existentes con su ID).
+     */
+    record Cursor(Long secuenciaProducto, Long secuenciaBaja) {
+
+        String codificar() {
+            return secuenciaProducto + "." + secuenciaBaja;
+        }
+
+        static Cursor decodificar(String texto) {
+            String[] partes = texto.split("\\.");
+            try {
+                if (partes.length == 3) {
+                    return new Cursor(0L, Long.parseLong(partes[2]));
+                }
+                if (partes.length != 2) {
+                    throw new NumberFormatException();
+                }
+                return new Cursor(Long.parseLong(partes[0]), Long.parseLong(partes[1]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor de sincronización inválido: " + texto);
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.StockHistoricoDTO;
+import com.roxfarma.exception.ResourceNotFoundException;
+import com.roxfarma.model.Producto;
+import com.roxfarma.model.StockCheckpoint;
+import com.roxfarma.repository.MovimientoInventarioRepository;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.StockCheckpointRepository;
+import com.roxfarma.util.ConsultasParalelas;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Servicio que reconstruye el stock de los productos en cualquier momento pasado
+ * Funcionamiento:
+ * - Un proceso programado guarda cada día el stock de todo el catálogo en
+ *   stock_checkpoint, con la medianoche como fecha de corte
+ * - Stock a una fecha = stock del corte más cercano anterior + variación de los
+ *   movimientos del kardex entre el corte y la fecha
+ * - Si no hay corte anterior, se parte del corte posterior (o del stock actual)
+ *   y se reproducen los movimientos hacia atrás
+ * - El catálogo completo se reconstruye en paralelo dividiendo los productos en
+ *   rangos de ID; cada rango son dos consultas agrupadas, sin recorrer producto por producto
+ * @author grupo2
+ */
+@Service
+@Slf4j
+public class StockHistoricoService {
+
+    private static final String SELECT_STOCK_AL_CORTE =
+            "SELECT p.id_producto, p.stock - COALESCE(SUM(m.stock_nuevo - m.stock_anterior), 0) " +
+            "FROM producto p LEFT JOIN movimiento_inventario m " +
+            "ON m.id_producto = p.id_producto AND m.fecha >= ? " +
+            "GROUP BY p.id_producto, p.stock";
+
+    private static final String INSERT_CHECKPOINT =
+            "INSERT IGNORE INTO stock_checkpoint (fecha_corte, id_producto, stock) VALUES (?, ?, ?)";
+
+    private static final String SELECT_BASE_CORTE =
+            "SELECT s.id_producto, p.nombre, s.stock FROM stock_checkpoint s " +
+            "LEFT JOIN producto p ON p.id_producto = s.id_producto " +
+            "WHERE s.fecha_corte = ? AND s.id_producto BETWEEN ? AND ?";
+
+    private static final String SELECT_BASE_ACTUAL =
+            "SELECT p.id_producto, p.nombre, p.stock FROM producto p WHERE p.id_producto BETWEEN ? AND ?";
+
+    private static final String SELECT_VARIACIONES =
+            "SELECT m.id_producto, SUM(m.stock_nuevo - m.stock_anterior) FROM movimiento_inventario m " +
+            "WHERE m.fecha >= ? AND m.fecha < ? AND m.id_producto BETWEEN ? AND ? GROUP BY m.id_producto";
+
+    private static final int TAMANO_LOTE = 500;
+
+    private final ProductoRepository productoRepository;
+    private final MovimientoInventarioRepository movimientoInventarioRepository;
+    private final StockCheckpointRepository stockCheckpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ConsultasParalelas consultasParalelas;
+    private final TransactionTemplate transactionTemplate;
+    private final int rangos;
+    private final long plazoMs;
+
+    public StockHistoricoService(ProductoRepository productoRepository,
+                                 MovimientoInventarioRepository movimientoInventarioRepository,
+                                 StockCheckpointRepository stockCheckpointRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 ConsultasParalelas consultasParalelas,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${stock.historico.rangos:4}") int rangos,
+                                 @Value("${stock.historico.plazo-ms:30000}") long plazoMs) {
+        this.productoRepository = productoRepository;
+        this.movimientoInventarioRepository = movimientoInventarioRepository;
+        this.stockCheckpointRepository = stockCheckpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.consultasParalelas = consultasParalelas;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rangos = rangos;
+        this.plazoMs = plazoMs;
+    }
+
+    /**
+     * Guarda el corte de la medianoche de hoy. Se ejecuta unos minutos después
+     * para que las transacciones iniciadas antes de medianoche ya hayan confirmado.
+     */
+    @Scheduled(cron = "${stock.checkpoint.cron:0 15 0 * * *}")
+    public void generarCheckpointDiario() {
+        generarCheckpoint(LocalDate.now().atStartOfDay());
+    }
+
+    /**
+     * Calcula el stock de todo el catálogo en la fecha de corte y lo guarda en lote.
+     * El stock al corte es el stock actual menos la variación posterior al corte;
+     * producto y kardex se leen en la misma transacción (misma foto), sin bloquear
+     * las filas de producto. Es idempotente: un corte ya guardado no se duplica.
+     * La transacción se abre aquí y no con @Transactional, porque el proceso
+     * programado llama a este método desde la misma clase (sin pasar por el proxy):
+     * sin ella, un corte que falla a medias quedaría guardado en parte y no se
+     * volvería a generar.
+     */
+    public int generarCheckpoint(LocalDateTime fechaCorte) {
+        return transactionTemplate.execute(estado -> guardarCorte(fechaCorte));
+    }
+
+    private int guardarCorte(LocalDateTime fechaCorte) {
+        if (stockCheckpointRepository.existsByClaveFechaCorte(fechaCorte)) {
+            log.info("El corte de stock {} ya existe, se omite", fechaCorte);
+            return 0;
+        }
+
+        long inicio = System.currentTimeMillis();
+        List<Object[]> filas = jdbcTemplate.query(SELECT_STOCK_AL_CORTE,
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getInt(2)},
+                Timestamp.valueOf(fechaCorte));
+
+        Timestamp corte = Timestamp.valueOf(fechaCorte);
+        jdbcTemplate.batchUpdate(INSERT_CHECKPOINT, filas, TAMANO_LOTE, (ps, fila) -> {
+            ps.setTimestamp(1, corte);
+            ps.setLong(2, (Long) fila[0]);
+            ps.setInt(3, (Integer) fila[1]);
+        });
+
+        log.info("Corte de stock {} generado para {} productos en {} ms",
+                fechaCorte, filas.size(), System.currentTimeMillis() - inicio);
+        return filas.size();
+    }
+
+    /**
+     * Stock de un producto en un momento pasado.
+     */
+    @Transactional(readOnly = true)
+    public StockHistoricoDTO obtenerStockAl(Long idProducto, LocalDateTime fecha) {
+        Optional<Producto> producto = productoRepository.findById(idProducto);
+        String nombre = producto.map(Producto::getNombre).orElse(null);
+
+        Optional<StockCheckpoint> anterior = stockCheckpointRepository
+                .findFirstByClaveIdProductoAndClaveFechaCorteLessThanEqualOrderByClaveFechaCorteDesc(idProducto, fecha);
+        if (anterior.isPresent()) {
+            LocalDateTime corte = anterior.get().getClave().getFechaCorte();
+            long variacion = movimientoInventarioRepository.sumarVariacion(idProducto, corte, fecha);
+            return new StockHistoricoDTO(idProducto, nombre, fecha,
+                    (int) (anterior.get().getStock() + variacion), corte);
+        }
+
+        Optional<StockCheckpoint> posterior = stockCheckpointRepository
+                .findFirstByClaveIdProductoAndClaveFechaCorteGreaterThanOrderByClaveFechaCorteAsc(idProducto, fecha);
+        if (posterior.isPresent()) {
+            LocalDateTime corte = posterior.get().getClave().getFechaCorte();
+            long variacion = movimientoInventarioRepository.sumarVariacion(idProducto, fecha, corte);
+            return new StockHistoricoDTO(idProducto, nombre, fecha,
+                    (int) (posterior.get().getStock() - variacion), corte);
+        }
+
+        // Sin cortes: se parte del stock actual y se deshacen los movimientos posteriores
+        Producto actual = producto.orElseThrow(() -> new ResourceNotFoundException(
+                "Producto no encontrado con ID: " + idProducto));
+        long variacion = movimientoInventarioRepository.sumarVariacion(idProducto, fecha, LocalDateTime.now());
+        return new StockHistoricoDTO(idProducto, nombre, fecha, (int) (actual.getStock() - variacion), null);
+    }
+
+    /**
+     * Stock de todo el catálogo en un momento pasado, calculado en paralelo por rangos de ID.
+     */
+    public List<StockHistoricoDTO> obtenerCatalogoAl(LocalDateTime fecha) {
+        long inicio = System.currentTimeMillis();
+        LocalDateTime corte = stockCheckpointRepository.obtenerUltimoCorteHasta(fecha);
+
+        // Con corte: productos del corte más los creados después (solo aparecen en el kardex)
+        long[] limites = corte != null
+                ? combinar(consultarLimites(
+                        "SELECT MIN(id_producto), MAX(id_producto) FROM stock_checkpoint WHERE fecha_corte = ?",
+                        Timestamp.valueOf(corte)),
+                  consultarLimites(
+                        "SELECT MIN(id_producto), MAX(id_producto) FROM movimiento_inventario " +
+                        "WHERE fecha >= ? AND fecha < ?",
+                        Timestamp.valueOf(corte), Timestamp.valueOf(fecha)))
+                : consultarLimites("SELECT MIN(id_producto), MAX(id_producto) FROM producto");
+        if (limites == null) {
+            return List.of();
+        }
+        long minimo = limites[0];
+        long maximo = limites[1];
+
+        long tamanoRango = Math.max(1, (maximo - minimo + rangos) / rangos);
+        ConsultasParalelas.Grupo grupo = consultasParalelas.nuevoGrupo(plazoMs);
+        List<ConsultasParalelas.Tarea<List<StockHistoricoDTO>>> tareas = new ArrayList<>();
+        for (long desde = minimo; desde <= maximo; desde += tamanoRango) {
+            long hasta = Math.min(maximo, desde + tamanoRango - 1);
+            long desdeRango = desde;
+            tareas.add(grupo.enviar(() -> reconstruirRango(fecha, corte, desdeRango, hasta)));
+        }
+        grupo.esperarTodas();
+
+        List<StockHistoricoDTO> catalogo = new ArrayList<>();
+        tareas.forEach(tarea -> catalogo.addAll(tarea.obtener()));
+        catalogo.sort(Comparator.comparing(StockHistoricoDTO::getIdProducto));
+
+        log.info("Catálogo reconstruido al {} ({} productos, {} rangos) en {} ms",
+                fecha, catalogo.size(), tareas.size(), System.currentTimeMillis() - inicio);
+        return catalogo;
+    }
+
+    /**
+     * Retorna {mínimo, máximo} de la consulta, o null si no hay filas.
+     */
+    private long[] consultarLimites(String sql, Object... argumentos) {
+        return jdbcTemplate.queryForObject(sql, (rs, i) -> {
+            long minimo = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{minimo, rs.getLong(2)};
+        }, argumentos);
+    }
+
+    private long[] combinar(long[] a, long[] b) {
+        if (a == null || b == null) {
+            return a != null ? a : b;
+        }
+        return new long[]{Math.min(a[0], b[0]), Math.max(a[1], b[1])};
+    }
+
+    /**
+     * Reconstruye un rango de productos: stock base (corte o actual) más la variación agrupada.
+     */
+    private List<StockHistoricoDTO> reconstruirRango(LocalDateTime fecha, LocalDateTime corte,
+                                                     long desde, long hasta) {
+        Map<Long, StockHistoricoDTO> resultado = new HashMap<>();
+        if (corte != null) {
+            jdbcTemplate.query(SELECT_BASE_CORTE, rs -> {
+                resultado.put(rs.getLong(1),
+                        new StockHistoricoDTO(rs.getLong(1), rs.getString(2), fecha, rs.getInt(3), corte));
+            }, Timestamp.valueOf(corte), desde, hasta);
+            jdbcTemplate.query(SELECT_VARIACIONES, rs -> {
+                StockHistoricoDTO dto = resultado.computeIfAbsent(rs.getLong(1),
+                        id -> new StockHistoricoDTO(id, null, fecha, 0, corte));
+                dto.setStock(dto.getStock() + rs.getInt(2));
+            }, Timestamp.valueOf(corte), Timestamp.valueOf(fecha), desde, hasta);
+        } else {
+            jdbcTemplate.query(SELECT_BASE_ACTUAL, rs -> {
+                resultado.put(rs.getLong(1),
+                        new StockHistoricoDTO(rs.getLong(1), rs.getString(2), fecha, rs.getInt(3), null));
+            }, desde, hasta);
+            jdbcTemplate.query(SELECT_VARIACIONES, rs -> {
+                StockHistoricoDTO dto = resultado.get(rs.getLong(1));
+                if (dto != null) {
+                    dto.setStock(dto.getStock() - rs.getInt(2));
+                }
+            }, Timestamp.valueOf(fecha), Timestamp.valueOf(LocalDateTime.now()), desde, hasta);
+        }
+        return new ArrayList<>(resultado.values());
+    }
+}
@@ -1,6 +1,7 @@
 package com.roxfarma.service;
 
 import com.roxfarma.dto.DetalleVentaDTO;
+import com.roxfarma.dto.ResumenVentaDTO;
 import com.roxfarma.dto.VentaDTO;
 import com.roxfarma.exception.ResourceNotFoundException;
 import com.roxfarma.exception.StockInsuficienteException;
@@ -19,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -31,7 +33,11 @@ import java.util.List;
  * 1. Validar cliente y productos
  * 2. Verificar stock disponible
  * 3. Registrar venta y detalles
- * 4. Descontar stock usando InventarioService
+ * 4. Asignar lotes en orden FEFO (un detalle por lote), al precio vigente a la fecha
+ *    de la venta según el historial de precios (ver PrecioService)
+ * 5. Descontar stock del almacén elegido (o del principal) usando InventarioService
+ * La disponibilidad previa se valida contra el total mantenido en Producto.stock;
+ * el descuento en el almacén vuelve a validarla de forma atómica.
  * @author grupo2
  */
 @Service
@@ -44,6 +50,10 @@ public class VentaService {
     private final ClienteRepository clienteRepository;
     private final UsuarioRepository usuarioRepository;
     private final InventarioService inventarioService;
+    private final LoteService loteService;
+    private final AlmacenService almacenService;
+    private final OutboxService outboxService;
+    private final PrecioService precioService;
     
     private static final BigDecimal IGV_RATE = new BigDecimal("0.18"); // 18%
     
@@ -67,22 +77,32 @@ public class VentaService {
         venta.setCliente(cliente);
         venta.setUsuario(usuario);
         venta.setFecha(LocalDateTime.now());
+        if (dto.getIdAlmacen() != null) {
+            venta.setAlmacen(almacenService.obtenerAlmacenActivo(dto.getIdAlmacen()));
+        }
+        // Los lotes se toman del almacén del que sale la mercadería
+        Long idAlmacen = almacenService.resolverAlmacen(dto.getIdAlmacen());
         
         List<DetalleVenta> detalles = new ArrayList<>();
         BigDecimal subtotal = BigDecimal.ZERO;
         
         for (DetalleVentaDTO detalleDTO : dto.getDetalles()) {
             Producto producto = productoRepository.findById(detalleDTO.getIdProducto()).get();
+            BigDecimal precio = precioService.precioVigente(producto, venta.getFecha());
             
-            DetalleVenta detalle = new DetalleVenta();
-            detalle.setVenta(venta);
-            detalle.setProducto(producto);
-            detalle.setCantidad(detalleDTO.getCantidad());
-            detalle.setPrecio(producto.getPrecio()); // Guardar precio actual
-            
-            detalles.add(detalle);
+            // Asignación FEFO: un detalle por cada lote del que salen unidades
+            int sinLote = detalleDTO.getCantidad();
+            for (LoteService.AsignacionLote asignacion :
+                    loteService.asignarFefo(idAlmacen, producto.getIdProducto(), detalleDTO.getCantidad())) {
+                detalles.add(crearDetalle(venta, producto, precio, asignacion.cantidad(),
+                        loteService.obtenerReferencia(asignacion.idLote())));
+                sinLote -= asignacion.cantidad();
+            }
+            if (sinLote > 0) {
+                detalles.add(crearDetalle(venta, producto, precio, sinLote, null));
+            }
             
-            BigDecimal precioDetalle = producto.getPrecio()
+            BigDecimal precioDetalle = precio
                     .multiply(BigDecimal.valueOf(detalleDTO.getCantidad()));
             subtotal = subtotal.add(precioDetalle);
         }
@@ -97,20 +117,43 @@ public class VentaService {
         
         log.info("Venta guardada con ID: {}", ventaGuardada.getIdVenta());
         
-        for (DetalleVenta detalle : detalles) {
+        // En orden de producto: dos ventas concurrentes bloquean las filas de stock en el mismo orden
+        List<DetalleVentaDTO> porProducto = dto.getDetalles().stream()
+                .sorted(Comparator.comparing(DetalleVentaDTO::getIdProducto))
+                .toList();
+        for (DetalleVentaDTO detalleDTO : porProducto) {
             inventarioService.disminuirStock(
-                    detalle.getProducto().getIdProducto(),
-                    detalle.getCantidad(),
-                    "VENTA"
+                    detalleDTO.getIdProducto(),
+                    detalleDTO.getCantidad(),
+                    "VENTA",
+                    ventaGuardada.getIdVenta(),
+                    dto.getIdAlmacen()
             );
         }
         
+        outboxService.publicar(TipoEvento.VENTA_REGISTRADA, "Venta", ventaGuardada.getIdVenta(),
+                OutboxService.datos(
+                        "idCliente", cliente.getIdCliente(),
+                        "idAlmacen", dto.getIdAlmacen(),
+                        "total", total,
+                        "lineas", dto.getDetalles().size()));
+        
         log.info("Venta registrada exitosamente. ID: {}, Total: {}", 
                 ventaGuardada.getIdVenta(), ventaGuardada.getTotal());
         
         return ventaGuardada;
     }
 
+    private DetalleVenta crearDetalle(Venta venta, Producto producto, BigDecimal precio, int cantidad, Lote lote) {
+        DetalleVenta detalle = new DetalleVenta();
+        detalle.setVenta(venta);
+        detalle.setProducto(producto);
+        detalle.setCantidad(cantidad);
+        detalle.setPrecio(precio); // Precio vigente al momento de la venta
+        detalle.setLote(lote);
+        return detalle;
+    }
+
     private void validarProductosYStock(List<DetalleVentaDTO> detalles) {
         for (DetalleVentaDTO detalleDTO : detalles) {
             Producto producto = productoRepository.findById(detalleDTO.getIdProducto())
@@ -139,9 +182,9 @@ public class VentaService {
     }
     
     @Transactional(readOnly = true)
-    public List<Venta> listarVentas() {
+    public List<ResumenVentaDTO> listarVentas() {
         log.debug("Listando todas las ventas");
-        return ventaRepository.findAll();
+        return ventaRepository.listarResumen();
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,163 @@
+package com.roxfarma.util;
+
+import com.roxfarma.exception.TiempoEsperaAgotadoException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ejecuta en paralelo consultas independientes de un endpoint compuesto
+ * Uso:
+ * <pre>
+ * ConsultasParalelas.Grupo grupo = consultasParalelas.nuevoGrupo();
+ * ConsultasParalelas.Tarea&lt;List&lt;Producto&gt;&gt; stockBajo = grupo.enviar(() -&gt; ...);
+ * ConsultasParalelas.Tarea&lt;Long&gt; total = grupo.enviar(() -&gt; ...);
+ * grupo.esperarTodas();
+ * stockBajo.obtener();
+ * </pre>
+ * Reglas:
+ * - Las tareas corren en el executor acotado "consultasExecutor"
+ * - Si una tarea falla, se cancelan (interrumpen) las demás y se propaga el error
+ * - Todo el grupo comparte un mismo plazo; al vencer se cancelan las pendientes
+ * - Si el executor está saturado, se cancelan las ya enviadas y se responde 503
+ *   sin esperar
+ * La latencia del endpoint pasa a ser la de la consulta más lenta, no la suma.
+ * @author grupo2
+ */
+@Component
+@Slf4j
+public class ConsultasParalelas {
+
+    private final AsyncTaskExecutor executor;
+    private final long plazoMs;
+
+    public ConsultasParalelas(@Qualifier("consultasExecutor") AsyncTaskExecutor executor,
+                              @Value("${consultas.paralelas.plazo-ms:5000}") long plazoMs) {
+        this.executor = executor;
+        this.plazoMs = plazoMs;
+    }
+
+    public Grupo nuevoGrupo() {
+        return new Grupo(plazoMs);
+    }
+
+    public Grupo nuevoGrupo(long plazoMs) {
+        return new Grupo(plazoMs);
+    }
+
+    /**
+     * Conjunto de tareas que se esperan y cancelan juntas.
+     */
+    public class Grupo {
+
+        private final long plazoMs;
+        private final List<Tarea<?>> tareas = new ArrayList<>();
+        private final LinkedBlockingQueue<Tarea<?>> terminadas = new LinkedBlockingQueue<>();
+
+        private Grupo(long plazoMs) {
+            this.plazoMs = plazoMs;
+        }
+
+        public <T> Tarea<T> enviar(Callable<T> consulta) {
+            Tarea<T> tarea = new Tarea<>(consulta, terminadas);
+            tareas.add(tarea);
+            try {
+                executor.execute(tarea);
+            } catch (RejectedExecutionException e) {
+                cancelarTodas();
+                throw new TiempoEsperaAgotadoException("El executor de consultas paralelas está saturado", e);
+            }
+            return tarea;
+        }
+
+        /**
+         * Espera a que terminen todas las tareas, en el orden en que terminan,
+         * para detectar un fallo apenas ocurre.
+         */
+        public void esperarTodas() {
+            long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(plazoMs);
+            try {
+                for (int pendientes = tareas.size(); pendientes > 0; pendientes--) {
+                    long restante = limite - System.nanoTime();
+                    Tarea<?> tarea = terminadas.poll(Math.max(restante, 0), TimeUnit.NANOSECONDS);
+                    if (tarea == null) {
+                        cancelarTodas();
+                        throw new TiempoEsperaAgotadoException(
+                                "Las consultas no terminaron dentro del plazo de " + plazoMs + " ms");
+                    }
+                    tarea.get();
+                }
+            } catch (ExecutionException e) {
+                cancelarTodas();
+                Throwable causa = e.getCause();
+                if (causa instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException("Error en consulta paralela: " + causa.getMessage(), causa);
+            } catch (InterruptedException e) {
+                cancelarTodas();
+                Thread.currentThread().interrupt();
+                throw new TiempoEsperaAgotadoException("Consulta paralela interrumpida", e);
+            }
+        }
+
+        private void cancelarTodas() {
+            int canceladas = 0;
+            for (Tarea<?> tarea : tareas) {
+                if (tarea.cancel(true)) {
+                    canceladas++;
+                }
+            }
+            if (canceladas > 0) {
+                log.warn("Se cancelaron {} consultas paralelas pendientes", canceladas);
+            }
+        }
+    }
+
+    /**
+     * Tarea que se anuncia en la cola del grupo al terminar (bien, con error o cancelada).
+     */
+    public static class Tarea<T> extends FutureTask<T> {
+
+        private final LinkedBlockingQueue<Tarea<?>> terminadas;
+
+        private Tarea(Callable<T> consulta, LinkedBlockingQueue<Tarea<?>> terminadas) {
+            super(consulta);
+            this.terminadas = terminadas;
+        }
+
+        @Override
+        protected void done() {
+            terminadas.add(this);
+        }
+
+        /**
+         * Resultado de la tarea; solo debe llamarse después de esperarTodas().
+         */
+        public T obtener() {
+            if (!isDone()) {
+                throw new IllegalStateException("La consulta todavía no ha terminado");
+            }
+            try {
+                return get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
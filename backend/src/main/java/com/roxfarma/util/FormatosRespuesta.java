@@ -0,0 +1,66 @@
+package com.roxfarma.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roxfarma.config.JacksonConfig;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Elección del formato (JSON, Smile o CBOR) para las respuestas que se escriben
+ * a mano en streaming, donde Spring no negocia el formato con los convertidores.
+ * Usa los mismos ObjectMapper que los convertidores (ver JacksonConfig).
+ * @author grupo2
+ */
+@Component
+public class FormatosRespuesta {
+
+    public record Formato(MediaType tipo, ObjectMapper mapper) {
+    }
+
+    private final List<Formato> formatos;
+
+    public FormatosRespuesta(ObjectMapper objectMapper,
+                             MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter,
+                             MappingJackson2CborHttpMessageConverter cborHttpMessageConverter) {
+        // JSON primero: es el que se usa si el cliente acepta cualquiera
+        this.formatos = List.of(
+                new Formato(MediaType.APPLICATION_JSON, objectMapper),
+                new Formato(JacksonConfig.APPLICATION_SMILE, smileHttpMessageConverter.getObjectMapper()),
+                new Formato(MediaType.APPLICATION_CBOR, cborHttpMessageConverter.getObjectMapper()));
+    }
+
+    /**
+     * Formato preferido según el header Accept (calidad y especificidad); JSON si
+     * no hay header, es inválido o no acepta ninguno de los formatos.
+     */
+    public Formato elegir(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return formatos.get(0);
+        }
+        List<MediaType> aceptados;
+        try {
+            aceptados = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return formatos.get(0);
+        }
+        MimeTypeUtils.sortBySpecificity(aceptados);
+        for (MediaType aceptado : aceptados) {
+            if (aceptado.getQualityValue() == 0) {
+                continue;
+            }
+            for (Formato formato : formatos) {
+                if (aceptado.includes(formato.tipo())) {
+                    return formato;
+                }
+            }
+        }
+        return formatos.get(0);
+    }
+}
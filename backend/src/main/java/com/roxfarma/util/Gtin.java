@@ -0,0 +1,67 @@
+package com.roxfarma.util;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de códigos de barras
+ * - Los GTIN numéricos (EAN-8, UPC-A, EAN-13 y GTIN-14) se validan con su dígito de
+ *   control y se guardan completados con ceros a 14 dígitos: un mismo producto se
+ *   encuentra aunque el lector entregue el UPC-A de 12 dígitos o el EAN-13 con un 0
+ * - Los códigos internos (alfanuméricos, por ejemplo Code 128) se guardan en mayúsculas
+ * @author grupo2
+ */
+public final class Gtin {
+
+    public static final int LONGITUD_MAXIMA = 50;
+
+    private static final Pattern NUMERICO = Pattern.compile("\\d+");
+    private static final Pattern INTERNO = Pattern.compile("[A-Z0-9\\-._]+");
+
+    private Gtin() {
+    }
+
+    /**
+     * Forma canónica del código leído o ingresado.
+     * @throws IllegalArgumentException si el código está vacío, tiene caracteres no
+     *         permitidos o es un GTIN con el dígito de control incorrecto
+     */
+    public static String normalizar(String codigo) {
+        if (codigo == null || codigo.isBlank()) {
+            throw new IllegalArgumentException("El código de barras está vacío");
+        }
+        String limpio = codigo.trim().toUpperCase(Locale.ROOT);
+        if (limpio.length() > LONGITUD_MAXIMA) {
+            throw new IllegalArgumentException("El código de barras no puede exceder " + LONGITUD_MAXIMA + " caracteres");
+        }
+        if (NUMERICO.matcher(limpio).matches() && esLongitudGtin(limpio.length())) {
+            if (!digitoControlValido(limpio)) {
+                throw new IllegalArgumentException("Dígito de control inválido en el código " + codigo.trim());
+            }
+            return "0".repeat(14 - limpio.length()) + limpio;
+        }
+        if (!INTERNO.matcher(limpio).matches()) {
+            throw new IllegalArgumentException("El código de barras tiene caracteres no permitidos: " + codigo.trim());
+        }
+        return limpio;
+    }
+
+    /**
+     * Dígito de control GS1 (módulo 10): desde la derecha, sin contar el último dígito,
+     * las posiciones alternan peso 3 y 1.
+     */
+    static boolean digitoControlValido(String digitos) {
+        int suma = 0;
+        int peso = 3;
+        for (int i = digitos.length() - 2; i >= 0; i--) {
+            suma += (digitos.charAt(i) - '0') * peso;
+            peso = 4 - peso;
+        }
+        int esperado = (10 - suma % 10) % 10;
+        return esperado == digitos.charAt(digitos.length() - 1) - '0';
+    }
+
+    private static boolean esLongitudGtin(int longitud) {
+        return longitud == 8 || longitud == 12 || longitud == 13 || longitud == 14;
+    }
+}
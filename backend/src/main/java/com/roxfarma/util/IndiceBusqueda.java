@@ -0,0 +1,311 @@
+package com.roxfarma.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de búsqueda en memoria tolerante a errores de tipeo
+ * Funcionamiento:
+ * - Los textos se normalizan sin tildes ni mayúsculas ("Metamizól" → "metamizol")
+ *   y se dividen en términos; cada término apunta a los documentos que lo contienen
+ *   con el peso del campo en que aparece
+ * - Los términos se indexan además por trigramas: para una palabra con errores solo
+ *   se calcula la distancia de edición contra los términos que comparten suficientes
+ *   trigramas con ella, no contra todo el vocabulario
+ * - Cada palabra de la consulta coincide con un término si es igual, si es su
+ *   prefijo (búsqueda mientras se escribe) o si está a una distancia de edición
+ *   acotada del término o de su prefijo; palabras más largas toleran más errores
+ * - Un documento debe coincidir con todas las palabras; su puntaje es la suma de la
+ *   mejor coincidencia de cada palabra por el peso del campo
+ * - Solo se ordenan los K mejores (montículo de tamaño K)
+ * Seguro para uso concurrente: muchas lecturas a la vez, escrituras exclusivas.
+ * @param <T> datos del documento que se devuelven en los resultados
+ * @author grupo2
+ */
+public class IndiceBusqueda<T> {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    private static final double PUNTAJE_EXACTO = 1.0;
+    private static final double PUNTAJE_PREFIJO = 0.85;
+    private static final double PENALIZACION_POR_ERROR = 0.25;
+
+    private final Map<Long, Documento<T>> documentos = new HashMap<>();
+    // Término → (documento → peso del campo); ordenado para recorrer prefijos
+    private final TreeMap<String, Map<Long, Integer>> terminos = new TreeMap<>();
+    private final Map<String, Set<String>> trigramas = new HashMap<>();
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+
+    /**
+     * Agrega o reemplaza un documento.
+     */
+    public void indexar(Long id, T datos, List<Campo> campos) {
+        Map<String, Integer> pesos = new HashMap<>();
+        for (Campo campo : campos) {
+            for (String termino : tokenizar(campo.texto())) {
+                pesos.merge(termino, campo.peso(), Math::max);
+            }
+        }
+        int longitud = campos.isEmpty() || campos.get(0).texto() == null ? 0 : campos.get(0).texto().length();
+
+        candado.writeLock().lock();
+        try {
+            quitar(id);
+            documentos.put(id, new Documento<>(datos, pesos, longitud));
+            pesos.forEach((termino, peso) -> {
+                Map<Long, Integer> enDocumentos = terminos.get(termino);
+                if (enDocumentos == null) {
+                    enDocumentos = new HashMap<>();
+                    terminos.put(termino, enDocumentos);
+                    for (String trigrama : trigramasDeTermino(termino)) {
+                        trigramas.computeIfAbsent(trigrama, t -> new HashSet<>()).add(termino);
+                    }
+                }
+                enDocumentos.put(id, peso);
+            });
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    public void eliminar(Long id) {
+        candado.writeLock().lock();
+        try {
+            quitar(id);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    public int tamano() {
+        candado.readLock().lock();
+        try {
+            return documentos.size();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Los 'limite' documentos con mejor puntaje para la consulta, del mejor al peor.
+     */
+    public List<Resultado<T>> buscar(String consulta, int limite) {
+        Set<String> palabras = new LinkedHashSet<>(tokenizar(consulta));
+        if (palabras.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        candado.readLock().lock();
+        try {
+            Map<Long, Double> acumulado = null;
+            for (String palabra : palabras) {
+                Map<Long, Double> puntajes = puntuarPalabra(palabra);
+                if (acumulado == null) {
+                    acumulado = puntajes;
+                } else {
+                    acumulado.keySet().retainAll(puntajes.keySet());
+                    acumulado.replaceAll((id, puntaje) -> puntaje + puntajes.get(id));
+                }
+                if (acumulado.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return mejores(acumulado, limite);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Texto en minúsculas, sin tildes, dividido en términos alfanuméricos.
+     */
+    static List<String> tokenizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        String normalizado = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARADORES.split(normalizado)).filter(t -> !t.isEmpty()).toList();
+    }
+
+    /**
+     * Distancia de Levenshtein entre 'a' y 'b', o maximo + 1 si la supera
+     * (el cálculo se corta en cuanto ninguna alineación puede quedar dentro del máximo).
+     */
+    static int distanciaAcotada(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) {
+            return maximo + 1;
+        }
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimoFila = actual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + costo);
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+            if (minimoFila > maximo) {
+                return maximo + 1;
+            }
+            int[] temporal = anterior;
+            anterior = actual;
+            actual = temporal;
+        }
+        return Math.min(anterior[b.length()], maximo + 1);
+    }
+
+    private Map<Long, Double> puntuarPalabra(String palabra) {
+        Map<String, Double> similares = new HashMap<>();
+
+        // Igual o prefijo
+        for (String termino : terminos.subMap(palabra, true, palabra + Character.MAX_VALUE, false).keySet()) {
+            similares.put(termino, termino.length() == palabra.length() ? PUNTAJE_EXACTO : PUNTAJE_PREFIJO);
+        }
+
+        // Con errores: solo términos que comparten suficientes trigramas
+        int maximoErrores = erroresPermitidos(palabra);
+        if (maximoErrores > 0) {
+            List<String> trigramasPalabra = trigramasDeConsulta(palabra);
+            Map<String, Integer> comunes = new HashMap<>();
+            for (String trigrama : trigramasPalabra) {
+                for (String termino : trigramas.getOrDefault(trigrama, Set.of())) {
+                    comunes.merge(termino, 1, Integer::sum);
+                }
+            }
+            // Cada error altera como máximo tres trigramas
+            int minimoComunes = Math.max(1, trigramasPalabra.size() - 3 * maximoErrores);
+            comunes.forEach((termino, cantidad) -> {
+                if (cantidad < minimoComunes || similares.containsKey(termino)) {
+                    return;
+                }
+                double puntaje = puntuarConErrores(palabra, termino, maximoErrores);
+                if (puntaje > 0) {
+                    similares.put(termino, puntaje);
+                }
+            });
+        }
+
+        Map<Long, Double> puntajes = new HashMap<>();
+        similares.forEach((termino, similitud) ->
+                terminos.get(termino).forEach((id, peso) -> puntajes.merge(id, similitud * peso, Math::max)));
+        return puntajes;
+    }
+
+    private double puntuarConErrores(String palabra, String termino, int maximoErrores) {
+        int completa = distanciaAcotada(palabra, termino, maximoErrores);
+        if (completa <= maximoErrores) {
+            return PUNTAJE_EXACTO - PENALIZACION_POR_ERROR * completa;
+        }
+        // La palabra puede estar a medio escribir: se compara con el inicio del término
+        if (termino.length() > palabra.length()) {
+            int prefijo = distanciaAcotada(palabra, termino.substring(0, palabra.length()), maximoErrores);
+            if (prefijo <= maximoErrores) {
+                return PUNTAJE_PREFIJO - PENALIZACION_POR_ERROR * prefijo;
+            }
+        }
+        return 0;
+    }
+
+    private static int erroresPermitidos(String palabra) {
+        if (palabra.length() <= 3) {
+            return 0;
+        }
+        return palabra.length() <= 6 ? 1 : 2;
+    }
+
+    private List<Resultado<T>> mejores(Map<Long, Double> puntajes, int limite) {
+        // Peor resultado en la cabeza: a igual puntaje, gana el texto principal más corto
+        Comparator<Resultado<T>> orden = Comparator.<Resultado<T>>comparingDouble(Resultado::puntaje)
+                .thenComparing(r -> documentos.get(r.id()).longitud(), Comparator.reverseOrder())
+                .thenComparing(Resultado::id, Comparator.reverseOrder());
+        PriorityQueue<Resultado<T>> monticulo = new PriorityQueue<>(limite + 1, orden);
+        puntajes.forEach((id, puntaje) -> {
+            monticulo.add(new Resultado<>(id, documentos.get(id).datos(), puntaje));
+            if (monticulo.size() > limite) {
+                monticulo.poll();
+            }
+        });
+
+        List<Resultado<T>> resultado = new ArrayList<>(monticulo);
+        resultado.sort(orden.reversed());
+        return resultado;
+    }
+
+    private void quitar(Long id) {
+        Documento<T> documento = documentos.remove(id);
+        if (documento == null) {
+            return;
+        }
+        for (String termino : documento.pesos().keySet()) {
+            Map<Long, Integer> enDocumentos = terminos.get(termino);
+            enDocumentos.remove(id);
+            if (enDocumentos.isEmpty()) {
+                terminos.remove(termino);
+                for (String trigrama : trigramasDeTermino(termino)) {
+                    Set<String> conTrigrama = trigramas.get(trigrama);
+                    conTrigrama.remove(termino);
+                    if (conTrigrama.isEmpty()) {
+                        trigramas.remove(trigrama);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Trigramas de un término, marcando inicio y fin con '$'.
+     */
+    private static Set<String> trigramasDeTermino(String termino) {
+        return new HashSet<>(trigramas("$" + termino + "$"));
+    }
+
+    /**
+     * Trigramas de una palabra de la consulta, marcando solo el inicio: así una palabra
+     * a medio escribir comparte todos sus trigramas con el término completo.
+     */
+    private static List<String> trigramasDeConsulta(String palabra) {
+        return trigramas("$" + palabra).stream().distinct().toList();
+    }
+
+    private static List<String> trigramas(String texto) {
+        if (texto.length() < 3) {
+            return List.of(texto);
+        }
+        List<String> resultado = new ArrayList<>(texto.length() - 2);
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            resultado.add(texto.substring(i, i + 3));
+        }
+        return resultado;
+    }
+
+    /**
+     * Texto de un campo del documento y su peso en el puntaje.
+     */
+    public record Campo(String texto, int peso) {
+    }
+
+    public record Resultado<T>(Long id, T datos, double puntaje) {
+    }
+
+    private record Documento<T>(T datos, Map<String, Integer> pesos, int longitud) {
+    }
+}
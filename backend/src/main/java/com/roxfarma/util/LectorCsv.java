@@ -0,0 +1,173 @@
+package com.roxfarma.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector de CSV por registros, sin cargar el archivo en memoria
+ * Funcionamiento:
+ * - Lee del Reader en bloques y arma un registro a la vez (RFC 4180): campos entre
+ *   comillas con separadores, saltos de línea y comillas dobladas ("") adentro
+ * - Acepta fin de línea \n o \r\n e ignora la marca BOM al inicio
+ * - El separador se indica o se detecta en el encabezado: Excel en español guarda
+ *   con ';' porque la coma es el separador decimal
+ * No es seguro para uso concurrente.
+ * @author grupo2
+ */
+public class LectorCsv {
+
+    private static final char BOM = '\uFEFF';
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final Reader lector;
+    private final char[] buffer = new char[TAMANO_BUFFER];
+    private final StringBuilder campo = new StringBuilder();
+    private int posicion;
+    private int limite;
+    private char separador;
+    private boolean detectarSeparador;
+    private boolean inicio = true;
+    private long linea = 1;
+    private long lineaRegistro;
+
+    public LectorCsv(Reader lector, char separador) {
+        this.lector = lector;
+        this.separador = separador;
+    }
+
+    /**
+     * Lector que elige ',' o ';' según cuál aparece más en la primera línea.
+     */
+    public static LectorCsv conSeparadorDetectado(Reader lector) {
+        LectorCsv csv = new LectorCsv(lector, ',');
+        csv.detectarSeparador = true;
+        return csv;
+    }
+
+    /**
+     * Campos del siguiente registro, o null al llegar al final. Las líneas vacías se saltan.
+     * @throws IllegalArgumentException si el archivo termina dentro de un campo entre comillas
+     */
+    public List<String> leerRegistro() throws IOException {
+        if (inicio) {
+            iniciar();
+        }
+        List<String> campos = new ArrayList<>();
+        campo.setLength(0);
+        boolean entreComillas = false;
+        boolean huboComillas = false;
+        lineaRegistro = linea;
+
+        while (true) {
+            int c = siguiente();
+            if (c < 0) {
+                if (entreComillas) {
+                    throw new IllegalArgumentException(
+                            "Comillas sin cerrar en el registro que empieza en la línea " + lineaRegistro);
+                }
+                if (campos.isEmpty() && campo.length() == 0 && !huboComillas) {
+                    return null;
+                }
+                campos.add(campo.toString());
+                return campos;
+            }
+            char caracter = (char) c;
+            if (entreComillas) {
+                if (caracter == '"') {
+                    if (verSiguiente() == '"') {
+                        siguiente();
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    if (caracter == '\n') {
+                        linea++;
+                    }
+                    campo.append(caracter);
+                }
+            } else if (caracter == '"' && campo.length() == 0) {
+                entreComillas = true;
+                huboComillas = true;
+            } else if (caracter == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+                huboComillas = false;
+            } else if (caracter == '\n' || caracter == '\r') {
+                if (caracter == '\r' && verSiguiente() == '\n') {
+                    siguiente();
+                }
+                linea++;
+                if (campos.isEmpty() && campo.length() == 0 && !huboComillas) {
+                    lineaRegistro = linea;
+                    continue;
+                }
+                campos.add(campo.toString());
+                return campos;
+            } else {
+                campo.append(caracter);
+            }
+        }
+    }
+
+    /**
+     * Línea del archivo (desde 1) en la que empieza el último registro leído.
+     */
+    public long getLineaRegistro() {
+        return lineaRegistro;
+    }
+
+    public char getSeparador() {
+        return separador;
+    }
+
+    private void iniciar() throws IOException {
+        inicio = false;
+        llenar();
+        if (limite > 0 && buffer[0] == BOM) {
+            posicion = 1;
+        }
+        if (detectarSeparador) {
+            int comas = 0;
+            int puntosYComa = 0;
+            boolean entreComillas = false;
+            for (int i = posicion; i < limite && (entreComillas || (buffer[i] != '\n' && buffer[i] != '\r')); i++) {
+                char caracter = buffer[i];
+                if (caracter == '"') {
+                    entreComillas = !entreComillas;
+                } else if (!entreComillas && caracter == ',') {
+                    comas++;
+                } else if (!entreComillas && caracter == ';') {
+                    puntosYComa++;
+                }
+            }
+            separador = puntosYComa > comas ? ';' : ',';
+        }
+    }
+
+    private int siguiente() throws IOException {
+        if (posicion >= limite && !llenar()) {
+            return -1;
+        }
+        return buffer[posicion++];
+    }
+
+    private int verSiguiente() throws IOException {
+        if (posicion >= limite && !llenar()) {
+            return -1;
+        }
+        return buffer[posicion];
+    }
+
+    private boolean llenar() throws IOException {
+        int leidos;
+        do {
+            leidos = lector.read(buffer, 0, buffer.length);
+        } while (leidos == 0);
+        posicion = 0;
+        limite = Math.max(leidos, 0);
+        return leidos > 0;
+    }
+}
@@ -0,0 +1,82 @@
+package com.roxfarma.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Medición de las conexiones del pool que retiene una petición
+ * Funcionamiento:
+ * - El filtro de medición la inicia al entrar la petición y la termina al salir
+ * - El DataSource medido suma cada conexión cuando se devuelve al pool, en el hilo
+ *   que la cierra
+ * - Las consultas en paralelo suman a la medición de la petición que las envió
+ *   (ver propagar, usado como TaskDecorator de "consultasExecutor")
+ * El tiempo es la suma de lo que estuvo tomada cada conexión: con consultas en
+ * paralelo puede superar la duración de la petición.
+ * @author grupo2
+ */
+public final class MedicionConexiones {
+
+    private static final ThreadLocal<MedicionConexiones> ACTUAL = new ThreadLocal<>();
+
+    private final LongAdder conexiones = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    private MedicionConexiones() {
+    }
+
+    public static MedicionConexiones iniciar() {
+        MedicionConexiones medicion = new MedicionConexiones();
+        ACTUAL.set(medicion);
+        return medicion;
+    }
+
+    public static void terminar() {
+        ACTUAL.remove();
+    }
+
+    /**
+     * Suma una conexión devuelta al pool a la medición del hilo actual.
+     * @return false si el hilo no atiende una petición medida
+     */
+    public static boolean registrar(long nanosRetenida) {
+        MedicionConexiones medicion = ACTUAL.get();
+        if (medicion == null) {
+            return false;
+        }
+        medicion.conexiones.increment();
+        medicion.nanos.add(nanosRetenida);
+        return true;
+    }
+
+    /**
+     * Envuelve una tarea para que, en otro hilo, sume a la medición del hilo que la envía.
+     */
+    public static Runnable propagar(Runnable tarea) {
+        MedicionConexiones medicion = ACTUAL.get();
+        if (medicion == null) {
+            return tarea;
+        }
+        return () -> {
+            // Con CallerRunsPolicy la tarea corre en el mismo hilo: se restaura la anterior
+            MedicionConexiones anterior = ACTUAL.get();
+            ACTUAL.set(medicion);
+            try {
+                tarea.run();
+            } finally {
+                if (anterior != null) {
+                    ACTUAL.set(anterior);
+                } else {
+                    ACTUAL.remove();
+                }
+            }
+        };
+    }
+
+    public long getConexiones() {
+        return conexiones.sum();
+    }
+
+    public long getNanos() {
+        return nanos.sum();
+    }
+}
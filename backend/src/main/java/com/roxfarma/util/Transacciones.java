@@ -0,0 +1,32 @@
+package com.roxfarma.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Coordinación de las estructuras en memoria (mapas, índices, montículos) con la
+ * transacción actual: los cambios se aplican solo si la transacción se confirma.
+ * @author grupo2
+ */
+public final class Transacciones {
+
+    private Transacciones() {
+    }
+
+    /**
+     * Ejecuta la acción después del commit de la transacción actual, o de inmediato
+     * si no hay una transacción activa. Con rollback, la acción no se ejecuta.
+     */
+    public static void despuesDelCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
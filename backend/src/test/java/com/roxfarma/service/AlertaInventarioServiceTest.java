@@ -0,0 +1,132 @@
+package com.roxfarma.service;
+
+import com.roxfarma.event.AlertaInventarioEvent;
+import com.roxfarma.model.Producto;
+import com.roxfarma.repository.ProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para AlertaInventarioService.
+ * Valida que solo se publiquen los cruces de umbral de stock y vencimiento.
+ */
+@ExtendWith(MockitoExtension.class)
+class AlertaInventarioServiceTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @InjectMocks
+    private AlertaInventarioService alertaInventarioService;
+
+    private Producto producto(Long id, Integer stock, LocalDate vencimiento) {
+        Producto producto = new Producto();
+        producto.setIdProducto(id);
+        producto.setNombre("Producto " + id);
+        producto.setStock(stock);
+        producto.setFechaVencimiento(vencimiento);
+        return producto;
+    }
+
+    private List<AlertaInventarioEvent> publicados(int cantidad) {
+        ArgumentCaptor<AlertaInventarioEvent> captor = ArgumentCaptor.forClass(AlertaInventarioEvent.class);
+        verify(eventPublisher, times(cantidad)).publishEvent(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    void deberiaPublicarStockBajoAlCruzarElUmbral() {
+        // Arrange
+        Producto producto = producto(1L, 4, LocalDate.now().plusYears(1));
+
+        // Act
+        alertaInventarioService.evaluarCambio(producto, 15, producto.getFechaVencimiento());
+
+        // Assert
+        AlertaInventarioEvent evento = publicados(1).get(0);
+        assertEquals(AlertaInventarioEvent.Tipo.STOCK_BAJO, evento.getTipo());
+        assertEquals(1L, evento.getIdProducto());
+        assertEquals(4, evento.getStock());
+    }
+
+    @Test
+    void noDeberiaPublicarSiElProductoSigueEnLaMismaAlerta() {
+        // Arrange
+        Producto producto = producto(1L, 3, LocalDate.now().plusDays(5));
+
+        // Act
+        alertaInventarioService.evaluarCambio(producto, 6, LocalDate.now().plusDays(5));
+
+        // Assert
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deberiaPublicarLaNormalizacionDeStockYVencimiento() {
+        // Arrange: repuesto con un lote de vencimiento lejano
+        Producto producto = producto(1L, 40, LocalDate.now().plusYears(1));
+
+        // Act
+        alertaInventarioService.evaluarCambio(producto, 2, LocalDate.now().plusDays(3));
+
+        // Assert
+        List<AlertaInventarioEvent> eventos = publicados(2);
+        assertEquals(AlertaInventarioEvent.Tipo.STOCK_NORMALIZADO, eventos.get(0).getTipo());
+        assertEquals(AlertaInventarioEvent.Tipo.VENCIMIENTO_NORMALIZADO, eventos.get(1).getTipo());
+    }
+
+    @Test
+    void deberiaPublicarLasAlertasDeUnProductoNuevo() {
+        // Arrange
+        Producto producto = producto(1L, 5, LocalDate.now().plusDays(10));
+
+        // Act
+        alertaInventarioService.evaluarCambio(producto, null, null);
+
+        // Assert
+        List<AlertaInventarioEvent> eventos = publicados(2);
+        assertEquals(AlertaInventarioEvent.Tipo.STOCK_BAJO, eventos.get(0).getTipo());
+        assertEquals(AlertaInventarioEvent.Tipo.PROXIMO_VENCER, eventos.get(1).getTipo());
+    }
+
+    @Test
+    void deberiaNotificarLaEliminacionSoloDeProductosEnAlerta() {
+        // Act
+        alertaInventarioService.notificarEliminacion(producto(1L, 50, LocalDate.now().plusYears(1)));
+        alertaInventarioService.notificarEliminacion(producto(2L, 2, LocalDate.now().plusYears(1)));
+
+        // Assert
+        AlertaInventarioEvent evento = publicados(1).get(0);
+        assertEquals(AlertaInventarioEvent.Tipo.PRODUCTO_ELIMINADO, evento.getTipo());
+        assertEquals(2L, evento.getIdProducto());
+    }
+
+    @Test
+    void deberiaPublicarLosProductosQueEntranHoyEnLaVentanaDeVencimiento() {
+        // Arrange
+        LocalDate fechaEntrada = LocalDate.now().plusDays(AlertaInventarioService.DIAS_ALERTA_VENCIMIENTO - 1);
+        when(productoRepository.findByFechaVencimiento(fechaEntrada)).thenReturn(List.of(
+                producto(1L, 50, fechaEntrada), producto(2L, 80, fechaEntrada)));
+
+        // Act
+        alertaInventarioService.detectarNuevosVencimientos();
+
+        // Assert
+        List<AlertaInventarioEvent> eventos = publicados(2);
+        assertTrue(eventos.stream().allMatch(e -> e.getTipo() == AlertaInventarioEvent.Tipo.PROXIMO_VENCER));
+    }
+}
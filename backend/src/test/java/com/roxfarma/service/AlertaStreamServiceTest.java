@@ -0,0 +1,195 @@
+package com.roxfarma.service;
+
+import com.roxfarma.config.JacksonConfig;
+import com.roxfarma.event.AlertaInventarioEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para AlertaStreamService.
+ * Valida el token de reanudación, el reenvío de eventos perdidos y el cierre de
+ * clientes lentos sin frenar a los demás.
+ */
+class AlertaStreamServiceTest {
+
+    private AlertaStreamService alertaStreamService;
+
+    @BeforeEach
+    void setUp() {
+        alertaStreamService = new AlertaStreamService(new JacksonConfig().objectMapper(), 60_000, 5, 2, 2, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        alertaStreamService.detener();
+    }
+
+    private void publicar(long idProducto) {
+        alertaStreamService.alPublicarAlerta(new AlertaInventarioEvent(AlertaInventarioEvent.Tipo.STOCK_BAJO,
+                idProducto, "Producto " + idProducto, 3, LocalDate.now().plusYears(1), LocalDateTime.now()));
+    }
+
+    @Test
+    void deberiaInterpretarElTokenDeReanudacion() {
+        // Act & Assert
+        assertEquals(7, alertaStreamService.parsearSecuencia(alertaStreamService.token(7)));
+        assertEquals(-1, alertaStreamService.parsearSecuencia("1-7"));
+        assertEquals(-1, alertaStreamService.parsearSecuencia("7"));
+        assertEquals(-1, alertaStreamService.parsearSecuencia("abc-7"));
+    }
+
+    @Test
+    void deberiaReenviarSoloLosEventosPerdidosAlReconectar() throws Exception {
+        // Arrange
+        publicar(1L);
+        publicar(2L);
+        publicar(3L);
+        EmisorDePrueba emisor = new EmisorDePrueba();
+
+        // Act
+        alertaStreamService.registrar(emisor, alertaStreamService.token(1));
+
+        // Assert
+        assertTrue(emisor.siguiente().contains("id:" + alertaStreamService.token(2)));
+        assertTrue(emisor.siguiente().contains("id:" + alertaStreamService.token(3)));
+        assertNull(emisor.recibidos.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void deberiaPedirResyncSiElTokenEsDeOtroArranque() throws Exception {
+        // Arrange
+        publicar(1L);
+        EmisorDePrueba emisor = new EmisorDePrueba();
+
+        // Act
+        alertaStreamService.registrar(emisor, "1-1");
+
+        // Assert
+        assertTrue(emisor.siguiente().contains("event:resync"));
+    }
+
+    @Test
+    void deberiaPedirResyncSiLosEventosPerdidosNoEntranEnLaCola() throws Exception {
+        // Arrange: la cola del cliente admite 2 eventos
+        publicar(1L);
+        publicar(2L);
+        publicar(3L);
+        publicar(4L);
+        EmisorDePrueba emisor = new EmisorDePrueba();
+
+        // Act
+        alertaStreamService.registrar(emisor, alertaStreamService.token(1));
+
+        // Assert
+        assertTrue(emisor.siguiente().contains("event:resync"));
+    }
+
+    @Test
+    void deberiaCerrarAlClienteLentoSinFrenarALosDemas() throws Exception {
+        // Arrange: el cliente lento queda bloqueado en su primer envío
+        CountDownLatch liberar = new CountDownLatch(1);
+        EmisorDePrueba lento = new EmisorDePrueba(liberar);
+        EmisorDePrueba rapido = new EmisorDePrueba();
+        alertaStreamService.registrar(lento, null);
+        alertaStreamService.registrar(rapido, null);
+
+        // Act
+        for (long id = 1; id <= 5; id++) {
+            publicar(id);
+        }
+
+        // Assert
+        for (long id = 1; id <= 5; id++) {
+            assertTrue(rapido.siguiente().contains("id:" + alertaStreamService.token(id)));
+        }
+        assertEquals(1, alertaStreamService.getClientesConectados());
+        liberar.countDown();
+        assertTrue(lento.completado.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void deberiaDesconectarAlClienteCuyoEnvioSuperaElPlazo() throws Exception {
+        // Arrange: el envío queda bloqueado y la cola no llega a llenarse
+        EmisorDePrueba bloqueado = new EmisorDePrueba(new CountDownLatch(1));
+        alertaStreamService.registrar(bloqueado, null);
+        publicar(1);
+        Thread.sleep(200);
+
+        // Act
+        alertaStreamService.revisarEnvios();
+
+        // Assert: se interrumpe el envío y se completa la conexión
+        assertEquals(0, alertaStreamService.getClientesConectados());
+        assertTrue(bloqueado.completado.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void deberiaMantenerAlClienteSinEnviosPendientes() throws Exception {
+        // Arrange
+        EmisorDePrueba emisor = new EmisorDePrueba();
+        alertaStreamService.registrar(emisor, null);
+        publicar(1);
+        emisor.siguiente();
+        Thread.sleep(200);
+
+        // Act
+        alertaStreamService.revisarEnvios();
+
+        // Assert
+        assertEquals(1, alertaStreamService.getClientesConectados());
+    }
+
+    /**
+     * Emisor que guarda el texto de cada mensaje; opcionalmente se bloquea en el
+     * primer envío hasta que se libera, como un cliente que no lee.
+     */
+    private static final class EmisorDePrueba extends SseEmitter {
+
+        private final BlockingQueue<String> recibidos = new LinkedBlockingQueue<>();
+        private final CountDownLatch completado = new CountDownLatch(1);
+        private final CountDownLatch liberar;
+
+        private EmisorDePrueba() {
+            this(new CountDownLatch(0));
+        }
+
+        private EmisorDePrueba(CountDownLatch liberar) {
+            this.liberar = liberar;
+        }
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> mensaje) {
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            recibidos.add(mensaje.stream().map(d -> String.valueOf(d.getData())).collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completado.countDown();
+        }
+
+        private String siguiente() throws InterruptedException {
+            String mensaje = recibidos.poll(1, TimeUnit.SECONDS);
+            assertNotNull(mensaje, "no llegó el mensaje esperado");
+            return mensaje;
+        }
+    }
+}
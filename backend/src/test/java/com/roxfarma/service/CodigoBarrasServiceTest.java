@@ -0,0 +1,151 @@
+package com.roxfarma.service;
+
+import com.roxfarma.exception.ResourceNotFoundException;
+import com.roxfarma.model.CodigoBarras;
+import com.roxfarma.model.Producto;
+import com.roxfarma.repository.CodigoBarrasRepository;
+import com.roxfarma.repository.ProductoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para CodigoBarrasService.
+ * Valida la resolución desde el mapa en memoria, el camino a la base de datos, el
+ * recuerdo de los códigos desconocidos y la asignación.
+ */
+@ExtendWith(MockitoExtension.class)
+class CodigoBarrasServiceTest {
+
+    private static final String GTIN = "00036000291452";
+
+    @Mock
+    private CodigoBarrasRepository codigoBarrasRepository;
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private MetricasService metricasService;
+
+    @InjectMocks
+    private CodigoBarrasService codigoBarrasService;
+
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        producto = new Producto();
+        producto.setIdProducto(5L);
+        producto.setNombre("Paracetamol");
+    }
+
+    @Test
+    void deberiaResolverDesdeElMapaSinConsultarLosCodigos() {
+        // Arrange
+        when(codigoBarrasRepository.findAll()).thenReturn(List.of(new CodigoBarras(GTIN, 5L, LocalDateTime.now())));
+        when(productoRepository.findById(5L)).thenReturn(Optional.of(producto));
+        codigoBarrasService.cargar();
+
+        // Act: el lector entrega el UPC-A de 12 dígitos
+        Producto encontrado = codigoBarrasService.buscarPorCodigo("036000291452");
+
+        // Assert
+        assertSame(producto, encontrado);
+        verify(codigoBarrasRepository, never()).findById(any());
+    }
+
+    @Test
+    void deberiaBuscarEnLaBaseDeDatosSiNoEstaEnElMapaYRecordarlo() {
+        // Arrange
+        when(codigoBarrasRepository.findById(GTIN)).thenReturn(Optional.of(new CodigoBarras(GTIN, 5L, LocalDateTime.now())));
+        when(productoRepository.findById(5L)).thenReturn(Optional.of(producto));
+
+        // Act
+        codigoBarrasService.buscarPorCodigo("0036000291452");
+        codigoBarrasService.buscarPorCodigo("0036000291452");
+
+        // Assert
+        verify(codigoBarrasRepository, times(1)).findById(GTIN);
+        verify(metricasService, times(1)).incrementar("producto.codigo.consulta.fallo");
+    }
+
+    @Test
+    void deberiaResponderNoEncontradoParaUnCodigoDesconocido() {
+        // Arrange
+        when(codigoBarrasRepository.findById(GTIN)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> codigoBarrasService.buscarPorCodigo("036000291452"));
+    }
+
+    @Test
+    void deberiaRecordarUnCodigoDesconocidoSinVolverAConsultarlo() {
+        // Arrange
+        when(codigoBarrasRepository.findById(GTIN)).thenReturn(Optional.empty());
+
+        // Act: el escáner repite la lectura
+        assertThrows(ResourceNotFoundException.class, () -> codigoBarrasService.buscarPorCodigo("036000291452"));
+        assertThrows(ResourceNotFoundException.class, () -> codigoBarrasService.buscarPorCodigo("036000291452"));
+
+        // Assert
+        verify(codigoBarrasRepository, times(1)).findById(GTIN);
+        verify(metricasService).incrementar("producto.codigo.consulta.desconocido");
+    }
+
+    @Test
+    void deberiaResolverUnCodigoDesconocidoDespuesDeAsignarlo() {
+        // Arrange
+        when(codigoBarrasRepository.findById(GTIN)).thenReturn(Optional.empty());
+        when(codigoBarrasRepository.findByCodigoIn(any())).thenReturn(List.of());
+        when(codigoBarrasRepository.findByIdProductoOrderByFechaCreacion(5L)).thenReturn(List.of());
+        when(productoRepository.findById(5L)).thenReturn(Optional.of(producto));
+        assertThrows(ResourceNotFoundException.class, () -> codigoBarrasService.buscarPorCodigo(GTIN));
+
+        // Act
+        codigoBarrasService.asignar(5L, List.of(GTIN));
+
+        // Assert
+        assertSame(producto, codigoBarrasService.buscarPorCodigo(GTIN));
+    }
+
+    @Test
+    void deberiaRechazarUnCodigoAsignadoAOtroProducto() {
+        // Arrange
+        when(codigoBarrasRepository.findByCodigoIn(any()))
+                .thenReturn(List.of(new CodigoBarras(GTIN, 9L, LocalDateTime.now())));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> codigoBarrasService.asignar(5L, List.of("036000291452")));
+        verify(codigoBarrasRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void deberiaAgregarYQuitarSoloLaDiferencia() {
+        // Arrange: tiene RX-1 y GTIN; queda con GTIN y RX-2
+        when(codigoBarrasRepository.findByCodigoIn(any())).thenReturn(List.of());
+        when(codigoBarrasRepository.findByIdProductoOrderByFechaCreacion(5L)).thenReturn(List.of(
+                new CodigoBarras("RX-1", 5L, LocalDateTime.now()),
+                new CodigoBarras(GTIN, 5L, LocalDateTime.now())));
+
+        // Act
+        codigoBarrasService.asignar(5L, List.of("036000291452", "rx-2"));
+
+        // Assert
+        verify(codigoBarrasRepository).eliminarCodigos(List.of("RX-1"));
+        verify(codigoBarrasRepository).saveAll(argThat((List<CodigoBarras> nuevos) ->
+                nuevos.size() == 1 && nuevos.get(0).getCodigo().equals("RX-2")));
+    }
+}
@@ -0,0 +1,222 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.ConteoFisicoDTO;
+import com.roxfarma.dto.ItemConteoDTO;
+import com.roxfarma.dto.ReporteConteoDTO;
+import com.roxfarma.model.Lote;
+import com.roxfarma.model.Producto;
+import com.roxfarma.model.StockAlmacen;
+import com.roxfarma.model.TipoMovimiento;
+import com.roxfarma.repository.LoteRepository;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.StockAlmacenRepository;
+import com.roxfarma.repository.projection.StockActual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ConteoFisicoService.
+ * Valida el cálculo de diferencias por almacén, los conflictos, la división en
+ * bloques y que los lotes no queden con más unidades que el stock contado.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ConteoFisicoServiceTest {
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private StockAlmacenRepository stockAlmacenRepository;
+
+    @Mock
+    private AlmacenService almacenService;
+
+    @Mock
+    private MovimientoInventarioService movimientoInventarioService;
+
+    @Mock
+    private LoteRepository loteRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ConteoFisicoService conteoFisicoService;
+
+    @BeforeEach
+    void setUp() {
+        conteoFisicoService = new ConteoFisicoService(productoRepository, stockAlmacenRepository, almacenService,
+                movimientoInventarioService, new LoteService(loteRepository), jdbcTemplate, transactionManager);
+        when(almacenService.resolverAlmacen(any())).thenReturn(1L);
+    }
+
+    private StockAlmacen enAlmacen(Long idProducto, int cantidad) {
+        return new StockAlmacen(new StockAlmacen.Clave(1L, idProducto), cantidad, null);
+    }
+
+    private StockActual stock(Long id, String nombre, int stock) {
+        StockActual actual = mock(StockActual.class);
+        when(actual.getIdProducto()).thenReturn(id);
+        when(actual.getNombre()).thenReturn(nombre);
+        when(actual.getStock()).thenReturn(stock);
+        when(actual.getFechaVencimiento()).thenReturn(LocalDate.now().plusYears(1));
+        return actual;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deberiaAjustarSoloProductosConDiferenciaYReportarConflictos() {
+        // Arrange
+        List<StockActual> actuales = List.of(
+                stock(1L, "Paracetamol", 100),
+                stock(2L, "Ibuprofeno", 40),
+                stock(3L, "Amoxicilina", 25));
+        when(productoRepository.buscarStockActual(anyCollection())).thenReturn(actuales);
+        when(stockAlmacenRepository.findByClaveIdAlmacenAndClaveIdProductoIn(eq(1L), anyCollection()))
+                .thenReturn(List.of(enAlmacen(1L, 100), enAlmacen(2L, 40), enAlmacen(3L, 25)));
+        // Producto 2 se ajusta; producto 3 cambió durante la conciliación
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][]{{1, 0}});
+
+        ConteoFisicoDTO dto = new ConteoFisicoDTO(List.of(
+                new ItemConteoDTO(1L, 100),
+                new ItemConteoDTO(2L, 35),
+                new ItemConteoDTO(3L, 30),
+                new ItemConteoDTO(9L, 5)), null, null, null);
+
+        // Act
+        ReporteConteoDTO reporte = conteoFisicoService.conciliar(dto);
+
+        // Assert
+        assertEquals(4, reporte.getProductosContados());
+        assertEquals(1, reporte.getProductosSinDiferencia());
+        assertEquals(1, reporte.getProductosAjustados());
+        assertEquals(5, reporte.getUnidadesFaltantes());
+        assertEquals(List.of(3L), reporte.getConflictos());
+        assertEquals(List.of(9L), reporte.getNoEncontrados());
+        assertEquals(-5, reporte.getDiscrepancias().get(0).getDiferencia());
+        verify(movimientoInventarioService, times(1)).registrarVariacion(2L, TipoMovimiento.AJUSTE,
+                "CONTEO_FISICO", 5, -5, 1L, null, null);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deberiaDejarLosLotesSinSuperarElStockContado() {
+        // Arrange: el producto 1 tiene 40 en lotes y 40 en el almacén; el 2 tiene 50 en
+        // lotes pero solo 40 en el almacén (datos anteriores) y el conteo encuentra 45
+        when(productoRepository.buscarStockActual(anyCollection()))
+                .thenReturn(List.of(stock(1L, "Paracetamol", 40), stock(2L, "Ibuprofeno", 40)));
+        when(stockAlmacenRepository.findByClaveIdAlmacenAndClaveIdProductoIn(eq(1L), anyCollection()))
+                .thenReturn(List.of(enAlmacen(1L, 40), enAlmacen(2L, 40)));
+        LocalDate hoy = LocalDate.now();
+        when(loteRepository.bloquearDisponibles(eq(1L), anyCollection())).thenReturn(List.of(
+                lote(10L, 1L, hoy.plusMonths(6), 10),
+                lote(11L, 1L, hoy.minusDays(3), 30),
+                lote(20L, 2L, hoy.plusMonths(2), 50)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][]{{1, 1}});
+
+        ConteoFisicoDTO dto = new ConteoFisicoDTO(List.of(
+                new ItemConteoDTO(1L, 35),
+                new ItemConteoDTO(2L, 45)), null, null, null);
+
+        // Act
+        conteoFisicoService.conciliar(dto);
+
+        // Assert: el faltante sale primero del lote vencido y el exceso del producto 2 se corrige
+        ArgumentCaptor<Map<Long, Integer>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(loteRepository).descontarEnLote(captor.capture());
+        Map<Long, Integer> descuentos = captor.getValue();
+        assertEquals(Map.of(11L, 5, 20L, 5), descuentos);
+        assertTrue(10 + 30 - descuentos.get(11L) <= 35);
+        assertTrue(50 - descuentos.get(20L) <= 45);
+    }
+
+    @Test
+    void deberiaProcesarEnBloquesConTransaccionesSeparadas() {
+        // Arrange
+        when(productoRepository.buscarStockActual(anyCollection())).thenReturn(List.of());
+        ConteoFisicoDTO dto = new ConteoFisicoDTO(List.of(
+                new ItemConteoDTO(1L, 1),
+                new ItemConteoDTO(2L, 2),
+                new ItemConteoDTO(3L, 3)), 2, null, null);
+
+        // Act
+        ReporteConteoDTO reporte = conteoFisicoService.conciliar(dto);
+
+        // Assert
+        assertEquals(2, reporte.getBloques());
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(productoRepository, times(2)).buscarStockActual(anyCollection());
+    }
+
+    @Test
+    void deberiaRechazarProductosDuplicados() {
+        // Arrange
+        ConteoFisicoDTO dto = new ConteoFisicoDTO(List.of(
+                new ItemConteoDTO(1L, 1),
+                new ItemConteoDTO(1L, 2)), null, null, null);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> conteoFisicoService.conciliar(dto));
+        verifyNoInteractions(productoRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deberiaCrearLaFilaDelAlmacenCuandoElProductoNoTeniaStockAhi() {
+        // Arrange: el producto existe pero no tiene fila en el almacén contado
+        when(productoRepository.buscarStockActual(anyCollection())).thenReturn(List.of(stock(4L, "Loratadina", 30)));
+        when(stockAlmacenRepository.findByClaveIdAlmacenAndClaveIdProductoIn(eq(1L), anyCollection()))
+                .thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][]{{1}});
+
+        ConteoFisicoDTO dto = new ConteoFisicoDTO(List.of(new ItemConteoDTO(4L, 12)), null, null, null);
+
+        // Act
+        ReporteConteoDTO reporte = conteoFisicoService.conciliar(dto);
+
+        // Assert
+        assertEquals(1, reporte.getProductosAjustados());
+        assertEquals(12, reporte.getUnidadesSobrantes());
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT IGNORE"), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(movimientoInventarioService).registrarVariacion(4L, TipoMovimiento.AJUSTE,
+                "CONTEO_FISICO", 12, 12, 1L, null, null);
+    }
+
+    private Lote lote(Long id, Long idProducto, LocalDate vencimiento, int disponible) {
+        Producto producto = new Producto();
+        producto.setIdProducto(idProducto);
+
+        Lote lote = new Lote();
+        lote.setIdLote(id);
+        lote.setProducto(producto);
+        lote.setIdAlmacen(1L);
+        lote.setCodigo("L-" + id);
+        lote.setFechaVencimiento(vencimiento);
+        lote.setCantidadDisponible(disponible);
+        return lote;
+    }
+}
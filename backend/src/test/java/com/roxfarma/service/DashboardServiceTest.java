@@ -0,0 +1,165 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.DashboardResumenDTO;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.projection.TotalesInventario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para DashboardService.
+ * Valida la caché del snapshot, la coalescencia de peticiones concurrentes y la
+ * invalidación por generación antes y durante un recálculo.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DashboardServiceTest {
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private TotalesInventario totales;
+
+    @BeforeEach
+    void setUp() {
+        when(totales.getTotalProductos()).thenReturn(45L);
+        when(totales.getStockTotal()).thenReturn(3200L);
+        when(productoRepository.listarResumenConStockMenorA(anyInt())).thenReturn(Collections.emptyList());
+        when(productoRepository.listarResumenQueVencenAntesDe(any(LocalDate.class)))
+                .thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    void deberiaReutilizarSnapshotDentroDelTtl() {
+        // Arrange
+        when(productoRepository.calcularTotalesInventario()).thenReturn(totales);
+        DashboardService dashboardService = new DashboardService(productoRepository, 60_000, 120_000);
+
+        // Act
+        DashboardResumenDTO primero = dashboardService.obtenerResumen();
+        DashboardResumenDTO segundo = dashboardService.obtenerResumen();
+
+        // Assert
+        assertSame(primero, segundo);
+        assertEquals(45L, primero.getTotalProductos());
+        assertEquals(3200L, primero.getStockTotal());
+        verify(productoRepository, times(1)).calcularTotalesInventario();
+    }
+
+    @Test
+    void deberiaCalcularUnaSolaVezConPeticionesConcurrentes() throws Exception {
+        // Arrange
+        CountDownLatch liberarCalculo = new CountDownLatch(1);
+        when(productoRepository.calcularTotalesInventario()).thenAnswer(invocacion -> {
+            liberarCalculo.await();
+            return totales;
+        });
+        DashboardService dashboardService = new DashboardService(productoRepository, 60_000, 120_000);
+        ExecutorService clientes = Executors.newFixedThreadPool(8);
+
+        // Act
+        List<Future<DashboardResumenDTO>> respuestas = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            respuestas.add(clientes.submit(dashboardService::obtenerResumen));
+        }
+        Thread.sleep(100);
+        liberarCalculo.countDown();
+
+        // Assert
+        DashboardResumenDTO esperado = respuestas.get(0).get();
+        for (Future<DashboardResumenDTO> respuesta : respuestas) {
+            assertSame(esperado, respuesta.get());
+        }
+        verify(productoRepository, times(1)).calcularTotalesInventario();
+        clientes.shutdownNow();
+    }
+
+    @Test
+    void deberiaServirSnapshotVencidoMientrasRecalcula() throws Exception {
+        // Arrange
+        when(productoRepository.calcularTotalesInventario()).thenReturn(totales);
+        DashboardService dashboardService = new DashboardService(productoRepository, 0, 60_000);
+        DashboardResumenDTO inicial = dashboardService.obtenerResumen();
+
+        // Act
+        DashboardResumenDTO vencido = dashboardService.obtenerResumen();
+
+        // Assert
+        assertSame(inicial, vencido);
+        verify(productoRepository, timeout(1000).times(2)).calcularTotalesInventario();
+    }
+
+    @Test
+    void deberiaServirElSnapshotInvalidadoMientrasRecalculaEnSegundoPlano() throws Exception {
+        // Arrange: la invalidación llega antes de que empiece el recálculo
+        when(productoRepository.calcularTotalesInventario()).thenReturn(totales);
+        DashboardService dashboardService = new DashboardService(productoRepository, 60_000, 120_000);
+        DashboardResumenDTO inicial = dashboardService.obtenerResumen();
+        dashboardService.invalidar();
+
+        // Act
+        DashboardResumenDTO servido = dashboardService.obtenerResumen();
+
+        // Assert: no se espera el recálculo, y al terminar se guarda el nuevo snapshot
+        assertSame(inicial, servido);
+        verify(productoRepository, timeout(1000).times(2)).calcularTotalesInventario();
+        DashboardResumenDTO recalculado = null;
+        for (int intento = 0; intento < 100 && (recalculado == null || recalculado == inicial); intento++) {
+            Thread.sleep(10);
+            recalculado = dashboardService.obtenerResumen();
+        }
+        assertNotSame(inicial, recalculado);
+        verify(productoRepository, times(2)).calcularTotalesInventario();
+    }
+
+    @Test
+    void deberiaDescartarElCalculoSiSeInvalidaMientrasEstaEnCurso() throws Exception {
+        // Arrange: el primer cálculo queda detenido hasta después de la invalidación
+        CountDownLatch calculoIniciado = new CountDownLatch(1);
+        CountDownLatch liberarCalculo = new CountDownLatch(1);
+        when(productoRepository.calcularTotalesInventario())
+                .thenAnswer(invocacion -> {
+                    calculoIniciado.countDown();
+                    liberarCalculo.await();
+                    return totales;
+                })
+                .thenReturn(totales);
+        DashboardService dashboardService = new DashboardService(productoRepository, 60_000, 120_000);
+        ExecutorService cliente = Executors.newSingleThreadExecutor();
+
+        // Act
+        Future<DashboardResumenDTO> enCurso = cliente.submit(dashboardService::obtenerResumen);
+        assertTrue(calculoIniciado.await(1, TimeUnit.SECONDS));
+        dashboardService.invalidar();
+        liberarCalculo.countDown();
+        DashboardResumenDTO descartado = enCurso.get();
+        DashboardResumenDTO siguiente = dashboardService.obtenerResumen();
+
+        // Assert: quien esperaba recibe el cálculo, pero no se guardó como snapshot
+        assertNotNull(descartado);
+        assertNotSame(descartado, siguiente);
+        verify(productoRepository, times(2)).calcularTotalesInventario();
+        cliente.shutdownNow();
+    }
+}
@@ -0,0 +1,163 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.ResultadoImportacionDTO;
+import com.roxfarma.model.Categoria;
+import com.roxfarma.model.Producto;
+import com.roxfarma.model.TipoMovimiento;
+import com.roxfarma.repository.CategoriaRepository;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.projection.ProductoIndexable;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ImportacionProductoService.
+ * Valida la lectura del CSV, el reporte de errores por fila y la separación entre altas y actualizaciones.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ImportacionProductoServiceTest {
+
+    private static final String VENCIMIENTO = LocalDate.now().plusYears(1).toString();
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    @Mock
+    private InventarioService inventarioService;
+
+    @Mock
+    private MovimientoInventarioService movimientoInventarioService;
+
+    @Mock
+    private CacheEntidadesService cacheEntidadesService;
+
+    @Mock
+    private BusquedaProductoService busquedaProductoService;
+
+    @Mock
+    private MetricasService metricasService;
+
+    @Mock
+    private PrecioService precioService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ProductoIndexable existente;
+
+    private ImportacionProductoService importacionProductoService;
+
+    @BeforeEach
+    void setUp() {
+        importacionProductoService = new ImportacionProductoService(productoRepository, categoriaRepository,
+                inventarioService, movimientoInventarioService, cacheEntidadesService, busquedaProductoService,
+                metricasService, precioService, Validation.buildDefaultValidatorFactory().getValidator(), transactionManager);
+
+        Categoria analgesicos = new Categoria();
+        analgesicos.setIdCategoria(1L);
+        analgesicos.setNombre("Analgésicos");
+        when(categoriaRepository.findAll()).thenReturn(List.of(analgesicos));
+
+        when(existente.getIdProducto()).thenReturn(7L);
+        when(existente.getNombre()).thenReturn("Paracetamol");
+        when(existente.getPresentacion()).thenReturn("Tableta 500 mg");
+        when(existente.getPrecio()).thenReturn(new BigDecimal("2.20"));
+        when(productoRepository.listarIndexables()).thenReturn(List.of(existente));
+
+        doAnswer(invocacion -> {
+            List<Producto> productos = invocacion.getArgument(0);
+            long id = 100;
+            for (Producto p : productos) {
+                p.setIdProducto(id++);
+            }
+            return null;
+        }).when(productoRepository).insertarEnLote(anyList());
+    }
+
+    @Test
+    void deberiaCrearLosNuevosYActualizarLosExistentes() throws Exception {
+        // Arrange: separador ';' y coma decimal, como guarda Excel en español
+        String csv = "Nombre;Presentación;Precio;Fecha_Vencimiento;Stock;Categoria\n" +
+                "PARACETAMOL;Tableta 500 mg;2,50;" + VENCIMIENTO + ";0;analgesicos\n" +
+                "Ibuprofeno;Tableta 400 mg;3,10;" + VENCIMIENTO + ";40;1\n";
+
+        // Act
+        ResultadoImportacionDTO resultado = importacionProductoService.importar(new StringReader(csv));
+
+        // Assert
+        assertEquals(2, resultado.getFilasLeidas());
+        assertEquals(1, resultado.getInsertados());
+        assertEquals(1, resultado.getActualizados());
+        assertEquals(0, resultado.getFilasConError());
+
+        ArgumentCaptor<List<Producto>> actualizados = ArgumentCaptor.forClass(List.class);
+        verify(productoRepository).actualizarCatalogoEnLote(actualizados.capture());
+        assertEquals(7L, actualizados.getValue().get(0).getIdProducto());
+        assertEquals(new BigDecimal("2.50"), actualizados.getValue().get(0).getPrecio());
+        verify(cacheEntidadesService).invalidarProductos(List.of(7L));
+        verify(precioService).registrarPrecios(argThat((List<Producto> guardados) -> guardados.size() == 2),
+                eq(Map.of(7L, new BigDecimal("2.20"))));
+
+        ArgumentCaptor<SortedMap<Long, Integer>> stockInicial = ArgumentCaptor.forClass(SortedMap.class);
+        verify(inventarioService).registrarStockInicialEnLote(stockInicial.capture());
+        assertEquals(40, stockInicial.getValue().get(100L));
+        verify(movimientoInventarioService).registrar(argThat((Producto p) -> p.getIdProducto() == 100L),
+                eq(TipoMovimiento.ENTRADA), eq("STOCK_INICIAL"), eq(40), eq(0), isNull(), isNull());
+    }
+
+    @Test
+    void deberiaInformarLosErroresPorFilaYSeguirConLasDemas() throws Exception {
+        // Arrange
+        String csv = "nombre,precio,fecha_vencimiento,stock,categoria\n" +
+                "Amoxicilina,abc," + VENCIMIENTO + ",10,Analgésicos\n" +
+                "Naproxeno,4.20," + VENCIMIENTO + ",-1,Antibióticos\n" +
+                "\"Ketorolaco, gotas\",5.00,31/12/2099,5,Analgésicos\n" +
+                "\"Ketorolaco, gotas\",5.00,31/12/2099,5,Analgésicos\n";
+
+        // Act
+        ResultadoImportacionDTO resultado = importacionProductoService.importar(new StringReader(csv));
+
+        // Assert
+        assertEquals(4, resultado.getFilasLeidas());
+        assertEquals(1, resultado.getInsertados());
+        assertEquals(3, resultado.getFilasConError());
+        assertEquals(List.of(2L, 3L, 5L), resultado.getErrores().stream().map(e -> e.getLinea()).toList());
+        assertTrue(resultado.getErrores().get(0).getMensaje().contains("Precio inválido"));
+        assertTrue(resultado.getErrores().get(1).getMensaje().contains("Categoría no encontrada"));
+        assertTrue(resultado.getErrores().get(1).getMensaje().contains("El stock no puede ser negativo"));
+        assertTrue(resultado.getErrores().get(2).getMensaje().contains("repetido"));
+    }
+
+    @Test
+    void deberiaRechazarUnEncabezadoSinLasColumnasObligatorias() {
+        // Act & Assert
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> importacionProductoService.importar(new StringReader("nombre,precio\nA,1\n")));
+        assertTrue(error.getMessage().contains("fecha_vencimiento"));
+        verifyNoInteractions(productoRepository);
+    }
+}
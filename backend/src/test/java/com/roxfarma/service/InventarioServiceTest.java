@@ -0,0 +1,179 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.TransferenciaDTO;
+import com.roxfarma.exception.StockInsuficienteException;
+import com.roxfarma.model.Almacen;
+import com.roxfarma.model.Producto;
+import com.roxfarma.model.StockAlmacen;
+import com.roxfarma.model.TipoMovimiento;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.StockAlmacenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para InventarioService.
+ * Valida los descuentos condicionados por almacén y las transferencias.
+ */
+@ExtendWith(MockitoExtension.class)
+class InventarioServiceTest {
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private StockAlmacenRepository stockAlmacenRepository;
+
+    @Mock
+    private AlmacenService almacenService;
+
+    @Mock
+    private MovimientoInventarioService movimientoInventarioService;
+
+    @Mock
+    private LoteService loteService;
+
+    @Mock
+    private MetricasService metricasService;
+
+    @InjectMocks
+    private InventarioService inventarioService;
+
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        producto = new Producto();
+        producto.setIdProducto(1L);
+        producto.setNombre("Paracetamol");
+        producto.setStock(20);
+    }
+
+    @Test
+    void deberiaDescontarDelAlmacenPrincipalSinTocarElTotal() {
+        // Arrange
+        when(almacenService.resolverAlmacen(null)).thenReturn(1L);
+        when(stockAlmacenRepository.descontar(1L, 1L, 5)).thenReturn(1);
+
+        // Act
+        inventarioService.disminuirStock(1L, 5, "VENTA", 7L);
+
+        // Assert: el total se actualiza al confirmar, no aquí
+        verify(movimientoInventarioService).registrarVariacion(1L, TipoMovimiento.SALIDA, "VENTA", 5, -5,
+                1L, 7L, null);
+        verify(productoRepository, never()).save(any());
+    }
+
+    @Test
+    void deberiaRechazarSalidaSiElAlmacenNoTieneStock() {
+        // Arrange
+        when(almacenService.resolverAlmacen(2L)).thenReturn(2L);
+        when(stockAlmacenRepository.descontar(2L, 1L, 5)).thenReturn(0);
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+        when(stockAlmacenRepository.findById(new StockAlmacen.Clave(2L, 1L)))
+                .thenReturn(Optional.of(new StockAlmacen(new StockAlmacen.Clave(2L, 1L), 3, null)));
+
+        // Act & Assert
+        StockInsuficienteException error = assertThrows(StockInsuficienteException.class,
+                () -> inventarioService.disminuirStock(1L, 5, "VENTA", 7L, 2L));
+        assertTrue(error.getMessage().contains("Disponible: 3"));
+        verify(metricasService).incrementar("inventario.stock.insuficiente");
+        verifyNoInteractions(movimientoInventarioService);
+    }
+
+    @Test
+    void deberiaIngresarTodasLasLineasConUnSoloIncremento() {
+        // Arrange: dos líneas del mismo producto y una de otro
+        when(almacenService.resolverAlmacen(null)).thenReturn(1L);
+        List<InventarioService.IngresoStock> ingresos = List.of(
+                new InventarioService.IngresoStock(5L, 10),
+                new InventarioService.IngresoStock(2L, 3),
+                new InventarioService.IngresoStock(5L, 4));
+
+        // Act
+        inventarioService.aumentarStockEnLote(ingresos, "PEDIDO_RECIBIDO", 9L, null);
+
+        // Assert: un envío agregado por producto y un movimiento por línea
+        TreeMap<Long, Integer> esperado = new TreeMap<>();
+        esperado.put(2L, 3);
+        esperado.put(5L, 14);
+        verify(stockAlmacenRepository).incrementarEnLote(1L, esperado);
+        verify(stockAlmacenRepository, never()).incrementar(anyLong(), anyLong(), anyInt());
+        verify(movimientoInventarioService, times(3)).registrarVariacion(anyLong(), eq(TipoMovimiento.ENTRADA),
+                eq("PEDIDO_RECIBIDO"), anyInt(), anyInt(), eq(1L), isNull(), eq(9L));
+        verify(productoRepository, never()).existsById(any());
+    }
+
+    @Test
+    void deberiaTransferirEnOrdenDeAlmacenYRegistrarSalidaYEntrada() {
+        // Arrange: de almacén 3 a almacén 2; se bloquea primero la fila del 2
+        Almacen origen = new Almacen();
+        origen.setIdAlmacen(3L);
+        when(almacenService.obtenerAlmacenPorId(3L)).thenReturn(origen);
+        when(almacenService.resolverAlmacen(2L)).thenReturn(2L);
+        when(productoRepository.existsById(1L)).thenReturn(true);
+        when(stockAlmacenRepository.descontar(3L, 1L, 4)).thenReturn(1);
+
+        // Act
+        inventarioService.transferirStock(new TransferenciaDTO(1L, 3L, 2L, 4));
+
+        // Assert: los lotes se mueven antes de bloquear las filas de stock, como en las ventas
+        InOrder orden = inOrder(loteService, stockAlmacenRepository);
+        orden.verify(loteService).transferir(1L, 3L, 2L, 4);
+        orden.verify(stockAlmacenRepository).incrementar(2L, 1L, 4);
+        orden.verify(stockAlmacenRepository).descontar(3L, 1L, 4);
+        verify(movimientoInventarioService).registrarVariacion(1L, TipoMovimiento.SALIDA, "TRANSFERENCIA", 4, -4,
+                3L, null, null);
+        verify(movimientoInventarioService).registrarVariacion(1L, TipoMovimiento.ENTRADA, "TRANSFERENCIA", 4, 4,
+                2L, null, null);
+    }
+
+    @Test
+    void deberiaDescontarLosLotesAlReducirElStockDesdeLaEdicionDelProducto() {
+        // Arrange
+        when(almacenService.obtenerIdPrincipal()).thenReturn(1L);
+        when(stockAlmacenRepository.descontar(1L, 1L, 5)).thenReturn(1);
+
+        // Act
+        inventarioService.ajustarStockPrincipal(producto, -5);
+
+        // Assert: los lotes se bloquean y descuentan antes que la fila de stock
+        InOrder orden = inOrder(loteService, stockAlmacenRepository);
+        orden.verify(loteService).descontarFefo(1L, 1L, 5);
+        orden.verify(stockAlmacenRepository).descontar(1L, 1L, 5);
+    }
+
+    @Test
+    void noDeberiaTocarLosLotesAlAumentarElStockDesdeLaEdicionDelProducto() {
+        // Arrange
+        when(almacenService.obtenerIdPrincipal()).thenReturn(1L);
+
+        // Act
+        inventarioService.ajustarStockPrincipal(producto, 5);
+
+        // Assert
+        verify(stockAlmacenRepository).incrementar(1L, 1L, 5);
+        verifyNoInteractions(loteService);
+    }
+
+    @Test
+    void deberiaRechazarTransferenciaAlMismoAlmacen() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> inventarioService.transferirStock(new TransferenciaDTO(1L, 2L, 2L, 4)));
+        verifyNoInteractions(stockAlmacenRepository);
+    }
+}
@@ -0,0 +1,126 @@
+package com.roxfarma.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roxfarma.exception.ResourceNotFoundException;
+import com.roxfarma.model.Producto;
+import com.roxfarma.repository.MovimientoInventarioRepository;
+import com.roxfarma.repository.ProductoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para KardexService.
+ * Valida que los errores de parámetros se detectan antes de empezar el streaming
+ * y el saldo acumulado desde el saldo inicial del periodo.
+ */
+@ExtendWith(MockitoExtension.class)
+class KardexServiceTest {
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private MovimientoInventarioRepository movimientoInventarioRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private KardexService kardexService;
+
+    @BeforeEach
+    void setUp() {
+        kardexService = new KardexService(productoRepository, movimientoInventarioRepository,
+                jdbcTemplate, new ObjectMapper(), transactionManager);
+    }
+
+    @Test
+    void deberiaLanzarExcepcionCuandoProductoNoExiste() {
+        // Arrange
+        when(productoRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () ->
+                kardexService.generarKardex(99L, LocalDate.now().minusDays(30), LocalDate.now()));
+        verifyNoInteractions(movimientoInventarioRepository, jdbcTemplate);
+    }
+
+    @Test
+    void deberiaAcumularElSaldoDesdeElSaldoInicialDelPeriodo() throws Exception {
+        // Arrange: saldo 50 antes del periodo, entrada de 10 y salida de 4
+        LocalDate desde = LocalDate.of(2026, 10, 1);
+        Producto producto = new Producto();
+        producto.setIdProducto(1L);
+        producto.setNombre("Paracetamol");
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+        when(movimientoInventarioRepository.obtenerSaldoAntesDe(1L, desde.atStartOfDay()))
+                .thenReturn(Optional.of(50));
+
+        ResultSet filas = mock(ResultSet.class);
+        when(filas.getLong("id_movimiento")).thenReturn(7L, 9L);
+        when(filas.getTimestamp("fecha")).thenReturn(Timestamp.valueOf(desde.atTime(9, 0)),
+                Timestamp.valueOf(desde.atTime(11, 30)));
+        when(filas.getString("tipo")).thenReturn("ENTRADA", "SALIDA");
+        when(filas.getInt("stock_anterior")).thenReturn(50, 60);
+        when(filas.getInt("stock_nuevo")).thenReturn(60, 56);
+        when(filas.getLong("id_pedido")).thenReturn(3L, 0L);
+        when(filas.getLong("id_venta")).thenReturn(0L, 5L);
+        // Por fila se consulta id_venta y luego id_pedido
+        when(filas.wasNull()).thenReturn(true, false, false, true);
+        doAnswer(invocacion -> {
+            RowCallbackHandler manejador = invocacion.getArgument(1, RowCallbackHandler.class);
+            manejador.processRow(filas);
+            manejador.processRow(filas);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // Act
+        kardexService.generarKardex(1L, desde, desde.plusDays(6)).writeTo(salida);
+
+        // Assert
+        JsonNode kardex = new ObjectMapper().readTree(salida.toByteArray());
+        assertEquals(50, kardex.get("saldoInicial").asInt());
+        JsonNode entrada = kardex.get("movimientos").get(0);
+        assertEquals(10, entrada.get("entrada").asInt());
+        assertEquals(60, entrada.get("saldo").asInt());
+        assertEquals(3L, entrada.get("idPedido").asLong());
+        assertFalse(entrada.has("idVenta"));
+        JsonNode salidaVenta = kardex.get("movimientos").get(1);
+        assertEquals(4, salidaVenta.get("salida").asInt());
+        assertEquals(56, salidaVenta.get("saldo").asInt());
+        assertEquals(5L, salidaVenta.get("idVenta").asLong());
+        assertEquals(10, kardex.get("totalEntradas").asInt());
+        assertEquals(4, kardex.get("totalSalidas").asInt());
+        assertEquals(56, kardex.get("saldoFinal").asInt());
+        assertEquals(2, kardex.get("cantidadMovimientos").asInt());
+    }
+
+    @Test
+    void deberiaRechazarPeriodoInvertido() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                kardexService.generarKardex(1L, LocalDate.now(), LocalDate.now().minusDays(1)));
+        verifyNoInteractions(productoRepository);
+    }
+}
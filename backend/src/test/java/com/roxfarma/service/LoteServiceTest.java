@@ -0,0 +1,213 @@
+package com.roxfarma.service;
+
+import com.roxfarma.model.Lote;
+import com.roxfarma.model.Producto;
+import com.roxfarma.repository.LoteRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para LoteService.
+ * Valida la asignación FEFO desde el montículo en memoria de cada almacén y el
+ * movimiento de lotes en las transferencias.
+ */
+@ExtendWith(MockitoExtension.class)
+class LoteServiceTest {
+
+    @Mock
+    private LoteRepository loteRepository;
+
+    @InjectMocks
+    private LoteService loteService;
+
+    private Lote lote(Long id, String codigo, LocalDate vencimiento, int disponible) {
+        Producto producto = new Producto();
+        producto.setIdProducto(1L);
+
+        Lote lote = new Lote();
+        lote.setIdLote(id);
+        lote.setProducto(producto);
+        lote.setIdAlmacen(1L);
+        lote.setCodigo(codigo);
+        lote.setFechaVencimiento(vencimiento);
+        lote.setCantidadInicial(disponible);
+        lote.setCantidadDisponible(disponible);
+        return lote;
+    }
+
+    @Test
+    void deberiaAsignarPrimeroElLoteQueVenceAntes() {
+        // Arrange
+        LocalDate hoy = LocalDate.now();
+        when(loteRepository.findDisponibles(1L, 1L)).thenReturn(List.of(
+                lote(10L, "L-TARDE", hoy.plusMonths(6), 50),
+                lote(11L, "L-PRONTO", hoy.plusMonths(1), 8)));
+        when(loteRepository.descontar(anyLong(), anyInt())).thenReturn(1);
+
+        // Act
+        List<LoteService.AsignacionLote> asignaciones = loteService.asignarFefo(1L, 1L, 20);
+
+        // Assert
+        assertEquals(2, asignaciones.size());
+        assertEquals("L-PRONTO", asignaciones.get(0).codigo());
+        assertEquals(8, asignaciones.get(0).cantidad());
+        assertEquals("L-TARDE", asignaciones.get(1).codigo());
+        assertEquals(12, asignaciones.get(1).cantidad());
+    }
+
+    @Test
+    void deberiaOmitirLotesVencidos() {
+        // Arrange
+        LocalDate hoy = LocalDate.now();
+        when(loteRepository.findDisponibles(1L, 1L)).thenReturn(List.of(
+                lote(10L, "L-VENCIDO", hoy.minusDays(1), 30),
+                lote(11L, "L-VIGENTE", hoy.plusMonths(3), 30)));
+        when(loteRepository.descontar(anyLong(), anyInt())).thenReturn(1);
+
+        // Act
+        List<LoteService.AsignacionLote> asignaciones = loteService.asignarFefo(1L, 1L, 5);
+
+        // Assert
+        assertEquals(1, asignaciones.size());
+        assertEquals(11L, asignaciones.get(0).idLote());
+    }
+
+    @Test
+    void deberiaRecargarElMonticuloCuandoEstaDesactualizado() {
+        // Arrange: en memoria el lote tiene 10, pero otro proceso ya vendió 6
+        LocalDate vencimiento = LocalDate.now().plusMonths(2);
+        when(loteRepository.findDisponibles(1L, 1L))
+                .thenReturn(List.of(lote(10L, "L-1", vencimiento, 10)));
+        when(loteRepository.bloquearDisponibles(1L, 1L)).thenReturn(List.of(lote(10L, "L-1", vencimiento, 4)));
+        when(loteRepository.descontar(10L, 10)).thenReturn(0);
+        when(loteRepository.descontar(10L, 4)).thenReturn(1);
+
+        // Act
+        List<LoteService.AsignacionLote> asignaciones = loteService.asignarFefo(1L, 1L, 10);
+
+        // Assert: solo se asignan las 4 unidades reales; el resto queda sin lote
+        assertEquals(1, asignaciones.size());
+        assertEquals(4, asignaciones.get(0).cantidad());
+        verify(loteRepository).findDisponibles(1L, 1L);
+        verify(loteRepository).bloquearDisponibles(1L, 1L);
+    }
+
+    @Test
+    void noDeberiaPublicarElMonticuloRecargadoDuranteLaTransaccion() {
+        // Arrange: la recarga bloqueante deja el lote en 0 dentro de la venta
+        LocalDate vencimiento = LocalDate.now().plusMonths(2);
+        when(loteRepository.findDisponibles(1L, 1L))
+                .thenReturn(List.of(lote(10L, "L-1", vencimiento, 10)))
+                .thenReturn(List.of(lote(10L, "L-1", vencimiento, 2)));
+        when(loteRepository.bloquearDisponibles(1L, 1L)).thenReturn(List.of(lote(10L, "L-1", vencimiento, 4)));
+        when(loteRepository.descontar(10L, 10)).thenReturn(0);
+        when(loteRepository.descontar(10L, 4)).thenReturn(1);
+        when(loteRepository.descontar(10L, 2)).thenReturn(1);
+        loteService.asignarFefo(1L, 1L, 10);
+
+        // Act: la siguiente venta carga el montículo compartido desde la base
+        List<LoteService.AsignacionLote> asignaciones = loteService.asignarFefo(1L, 1L, 2);
+
+        // Assert
+        assertEquals(1, asignaciones.size());
+        assertEquals(2, asignaciones.get(0).cantidad());
+        verify(loteRepository, times(2)).findDisponibles(1L, 1L);
+        verify(loteRepository).bloquearDisponibles(1L, 1L);
+    }
+
+    @Test
+    void deberiaAsignarSoloLotesDelAlmacenDeLaVenta() {
+        // Arrange: el almacén 2 no tiene lotes del producto, el 1 sí
+        LocalDate vencimiento = LocalDate.now().plusMonths(2);
+        when(loteRepository.findDisponibles(1L, 1L)).thenReturn(List.of(lote(10L, "L-1", vencimiento, 10)));
+        when(loteRepository.findDisponibles(2L, 1L)).thenReturn(List.of());
+        when(loteRepository.descontar(10L, 3)).thenReturn(1);
+        loteService.asignarFefo(1L, 1L, 3);
+
+        // Act
+        List<LoteService.AsignacionLote> asignaciones = loteService.asignarFefo(2L, 1L, 3);
+
+        // Assert
+        assertTrue(asignaciones.isEmpty());
+        verify(loteRepository).findDisponibles(2L, 1L);
+        verify(loteRepository, times(1)).descontar(anyLong(), anyInt());
+    }
+
+    @Test
+    void deberiaMoverLosLotesAlAlmacenDestinoEnOrdenDeVencimiento() {
+        // Arrange
+        LocalDate hoy = LocalDate.now();
+        Lote pronto = lote(11L, "L-PRONTO", hoy.plusMonths(1), 4);
+        pronto.setIdPedido(9L);
+        when(loteRepository.bloquearDisponibles(1L, 1L)).thenReturn(List.of(
+                lote(10L, "L-TARDE", hoy.plusMonths(6), 50),
+                pronto,
+                lote(12L, "L-VENCIDO", hoy.minusDays(1), 30)));
+        when(loteRepository.descontar(anyLong(), anyInt())).thenReturn(1);
+
+        // Act
+        int movidas = loteService.transferir(1L, 1L, 2L, 40);
+
+        // Assert: las unidades salen físicamente, incluidas las vencidas, que van primero
+        assertEquals(40, movidas);
+        verify(loteRepository).descontar(12L, 30);
+        verify(loteRepository).descontar(11L, 4);
+        verify(loteRepository).descontar(10L, 6);
+        verify(loteRepository).insertarEnLote(argThat((List<Lote> lotes) -> lotes.size() == 3
+                && lotes.stream().allMatch(l -> l.getIdAlmacen() == 2L)
+                && lotes.get(0).getCodigo().equals("L-VENCIDO") && lotes.get(0).getCantidadDisponible() == 30
+                && lotes.get(1).getCodigo().equals("L-PRONTO") && lotes.get(1).getIdPedido() == 9L
+                && lotes.get(1).getCantidadDisponible() == 4
+                && lotes.get(2).getCodigo().equals("L-TARDE") && lotes.get(2).getCantidadDisponible() == 6));
+    }
+
+    @Test
+    void deberiaTransferirSinLoteLoQueNoTieneLote() {
+        // Arrange
+        when(loteRepository.bloquearDisponibles(1L, 1L)).thenReturn(List.of());
+
+        // Act
+        int movidas = loteService.transferir(1L, 1L, 2L, 10);
+
+        // Assert
+        assertEquals(0, movidas);
+        verify(loteRepository, never()).insertarEnLote(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deberiaDescontarUnAjusteDeLosLotesEmpezandoPorLosVencidos() {
+        // Arrange
+        LocalDate hoy = LocalDate.now();
+        when(loteRepository.bloquearDisponibles(eq(1L), anyCollection())).thenReturn(List.of(
+                lote(10L, "L-VIGENTE", hoy.plusMonths(3), 20),
+                lote(11L, "L-VENCIDO", hoy.minusDays(5), 6)));
+
+        // Act: se dan de baja 30 unidades, más de las que hay en lotes
+        int descontadas = loteService.descontarFefo(1L, 1L, 30);
+
+        // Assert: los lotes quedan en 0; las 4 restantes salen del stock sin lote
+        assertEquals(26, descontadas);
+        ArgumentCaptor<Map<Long, Integer>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(loteRepository).descontarEnLote(captor.capture());
+        assertEquals(List.of(11L, 10L), List.copyOf(captor.getValue().keySet()));
+        assertEquals(Map.of(11L, 6, 10L, 20), captor.getValue());
+    }
+}
@@ -0,0 +1,166 @@
+package com.roxfarma.service;
+
+import com.roxfarma.model.Auditoria;
+import com.roxfarma.model.MovimientoInventario;
+import com.roxfarma.model.Producto;
+import com.roxfarma.model.TipoMovimiento;
+import com.roxfarma.repository.AuditoriaRepository;
+import com.roxfarma.repository.MovimientoInventarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para MovimientoInventarioService.
+ * Valida que los movimientos de una transacción se insertan en un solo lote
+ * y que el total de los movimientos por almacén se resuelve al confirmar.
+ */
+@ExtendWith(MockitoExtension.class)
+class MovimientoInventarioServiceTest {
+
+    @Mock
+    private MovimientoInventarioRepository movimientoInventarioRepository;
+
+    @Mock
+    private AuditoriaRepository auditoriaRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AlertaInventarioService alertaInventarioService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private CacheEntidadesService cacheEntidadesService;
+
+    @InjectMocks
+    private MovimientoInventarioService movimientoInventarioService;
+
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        producto = new Producto();
+        producto.setIdProducto(1L);
+        producto.setNombre("Paracetamol");
+        producto.setStock(90);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deberiaInsertarEnUnSoloLoteAlConfirmarLaTransaccion() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        movimientoInventarioService.registrar(producto, TipoMovimiento.SALIDA, "VENTA", 10, 100, 5L, null);
+        movimientoInventarioService.registrar(producto, TipoMovimiento.SALIDA, "VENTA", 5, 95, 5L, null);
+        verify(movimientoInventarioRepository, never()).insertarEnLote(anyList());
+
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            sincronizacion.beforeCommit(false);
+            sincronizacion.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        // Assert
+        ArgumentCaptor<List<MovimientoInventario>> movimientos = ArgumentCaptor.forClass(List.class);
+        verify(movimientoInventarioRepository, times(1)).insertarEnLote(movimientos.capture());
+        verify(auditoriaRepository, times(1)).insertarEnLote(anyList());
+        assertEquals(2, movimientos.getValue().size());
+        MovimientoInventario primero = movimientos.getValue().get(0);
+        assertEquals(TipoMovimiento.SALIDA, primero.getTipo());
+        assertEquals(100, primero.getStockAnterior());
+        assertEquals(90, primero.getStockNuevo());
+        assertEquals(5L, primero.getIdVenta());
+        assertEquals("SYSTEM", primero.getUsuario());
+        assertFalse(TransactionSynchronizationManager.hasResource(movimientoInventarioService));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deberiaInsertarDeInmediatoSinTransaccion() {
+        // Act
+        movimientoInventarioService.registrar(producto, TipoMovimiento.ENTRADA, "PEDIDO_RECIBIDO", 50, 40, null, 3L);
+
+        // Assert
+        ArgumentCaptor<List<Auditoria>> auditorias = ArgumentCaptor.forClass(List.class);
+        verify(movimientoInventarioRepository, times(1)).insertarEnLote(anyList());
+        verify(auditoriaRepository, times(1)).insertarEnLote(auditorias.capture());
+        assertEquals("MOVIMIENTO_INVENTARIO", auditorias.getValue().get(0).getOperacion());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deberiaEncadenarElTotalDeLasVariacionesAlConfirmar() throws Exception {
+        // Arrange: al bloquear, el total del producto es 90
+        TransactionSynchronizationManager.initSynchronization();
+        ResultSet fila = mock(ResultSet.class);
+        when(fila.getLong("id_producto")).thenReturn(1L);
+        when(fila.getString("nombre")).thenReturn("Paracetamol");
+        when(fila.getInt("stock")).thenReturn(90);
+        when(fila.getObject("fecha_vencimiento", LocalDate.class)).thenReturn(LocalDate.now().plusYears(1));
+        doAnswer(invocacion -> {
+            invocacion.getArgument(1, RowCallbackHandler.class).processRow(fila);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        // Act: salida de 10 en el almacén 1 y entrada de 4 en el almacén 2
+        movimientoInventarioService.registrarVariacion(1L, TipoMovimiento.SALIDA, "VENTA", 10, -10, 1L, 5L, null);
+        movimientoInventarioService.registrarVariacion(1L, TipoMovimiento.ENTRADA, "PEDIDO_RECIBIDO", 4, 4, 2L, null, 3L);
+        verifyNoInteractions(jdbcTemplate);
+        LocalDateTime antesDeConfirmar = LocalDateTime.now();
+
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            sincronizacion.beforeCommit(false);
+            sincronizacion.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        // Assert
+        ArgumentCaptor<List<MovimientoInventario>> movimientos = ArgumentCaptor.forClass(List.class);
+        verify(movimientoInventarioRepository).insertarEnLote(movimientos.capture());
+        MovimientoInventario salida = movimientos.getValue().get(0);
+        MovimientoInventario entrada = movimientos.getValue().get(1);
+        assertEquals(90, salida.getStockAnterior());
+        assertEquals(80, salida.getStockNuevo());
+        assertEquals(1L, salida.getIdAlmacen());
+        assertEquals(80, entrada.getStockAnterior());
+        assertEquals(84, entrada.getStockNuevo());
+        // La fecha se toma al bloquear el total, no al registrar la variación
+        assertFalse(salida.getFecha().isBefore(antesDeConfirmar));
+        assertEquals(salida.getFecha(), entrada.getFecha());
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("UPDATE producto"), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(alertaInventarioService).evaluarCambio(any(Producto.class), eq(90), any());
+        verify(cacheEntidadesService).invalidarProductos(List.of(1L));
+    }
+}
@@ -0,0 +1,152 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.EventoOutboxDTO;
+import com.roxfarma.event.OutboxListener;
+import com.roxfarma.model.TipoEvento;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para OutboxRelayService.
+ * Valida la numeración en orden de confirmación, la entrega con posición guardada y el long-poll.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OutboxRelayServiceTest {
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private MetricasService metricasService;
+
+    @Mock
+    private OutboxListener listener;
+
+    private OutboxRelayService relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelayService(outboxService, List.of(listener), metricasService, 2, 10);
+        when(listener.getNombre()).thenReturn("prueba");
+        when(listener.getTipos()).thenReturn(Set.of());
+    }
+
+    @Test
+    void deberiaEntregarEnLotesYGuardarLaPosicionDespuesDeCadaLote() {
+        // Arrange: consumidor en la secuencia 10, hay eventos numerados hasta la 13
+        when(outboxService.obtenerUltimaSecuencia()).thenReturn(13L);
+        when(outboxService.asignarSecuencias(13L, 20)).thenReturn(13L);
+        when(outboxService.obtenerOffset("prueba")).thenReturn(Optional.of(10L));
+        when(outboxService.leer(10L, 2)).thenReturn(List.of(evento(11L, 11L), evento(12L, 12L)));
+        when(outboxService.leer(12L, 2)).thenReturn(List.of(evento(13L, 13L)));
+
+        // Act
+        relay.despachar();
+
+        // Assert
+        verify(listener, times(2)).procesar(anyList());
+        verify(outboxService).guardarOffset("prueba", 12L);
+        verify(outboxService).guardarOffset("prueba", 13L);
+    }
+
+    @Test
+    void deberiaNoAvanzarLaPosicionSiElConsumidorFalla() {
+        // Arrange
+        when(outboxService.obtenerUltimaSecuencia()).thenReturn(10L);
+        when(outboxService.asignarSecuencias(10L, 20)).thenReturn(11L);
+        when(outboxService.obtenerOffset("prueba")).thenReturn(Optional.of(10L));
+        when(outboxService.leer(10L, 2)).thenReturn(List.of(evento(11L, 11L)));
+        doThrow(new IllegalStateException("caído")).when(listener).procesar(anyList());
+
+        // Act
+        relay.despachar();
+
+        // Assert: el lote se reintenta en el siguiente ciclo
+        verify(outboxService, never()).guardarOffset(anyString(), anyLong());
+        verify(metricasService).incrementar("outbox.entrega.fallo");
+    }
+
+    @Test
+    void deberiaEntregarUnIdMenorQueSeConfirmaDespuesDeQueElCursorLoPaso() {
+        // Arrange: el evento 12 todavía no confirmó; el 13 se numera como secuencia 1
+        when(outboxService.obtenerUltimaSecuencia()).thenReturn(0L);
+        when(outboxService.obtenerOffset("prueba")).thenReturn(Optional.of(0L));
+        when(outboxService.asignarSecuencias(0L, 20)).thenReturn(1L);
+        when(outboxService.leer(0L, 2)).thenReturn(List.of(evento(13L, 1L)));
+        relay.despachar();
+        verify(outboxService).guardarOffset("prueba", 1L);
+
+        // El 12 confirma después y recibe la secuencia 2, posterior al cursor
+        when(outboxService.asignarSecuencias(1L, 20)).thenReturn(2L);
+        when(outboxService.leer(1L, 2)).thenReturn(List.of(evento(12L, 2L)));
+        when(outboxService.leer(1L, 100)).thenReturn(List.of(evento(12L, 2L)));
+
+        // Act
+        relay.despachar();
+        DeferredResult<List<EventoOutboxDTO>> externo = relay.obtenerEventos(1L, 100, 30000);
+
+        // Assert: lo reciben el consumidor en proceso y el externo cuyo cursor ya pasó el ID 13
+        verify(listener).procesar(argThat((List<EventoOutboxDTO> l) -> l.size() == 1 && l.get(0).getIdEvento() == 12L));
+        verify(outboxService).guardarOffset("prueba", 2L);
+        assertTrue(externo.hasResult());
+        assertEquals(12L, ((List<EventoOutboxDTO>) externo.getResult()).get(0).getIdEvento());
+    }
+
+    @Test
+    void deberiaNumerarEnVariasTandasSiHayMasEventosQueElLimite() {
+        // Arrange
+        when(outboxService.obtenerUltimaSecuencia()).thenReturn(0L);
+        when(outboxService.asignarSecuencias(0L, 20)).thenReturn(20L);
+        when(outboxService.asignarSecuencias(20L, 20)).thenReturn(25L);
+        when(outboxService.asignarSecuencias(25L, 20)).thenReturn(25L);
+        when(outboxService.obtenerOffset("prueba")).thenReturn(Optional.of(25L));
+
+        // Act
+        relay.despachar();
+
+        // Assert: la lectura de la última secuencia solo se hace al iniciar
+        verify(metricasService).sumar("outbox.numerados", 25L);
+        relay.despachar();
+        verify(outboxService).asignarSecuencias(25L, 20);
+        verify(outboxService, times(1)).obtenerUltimaSecuencia();
+    }
+
+    @Test
+    void deberiaResponderElLongPollCuandoAparecenEventos() {
+        // Arrange: sin eventos, la petición queda en espera
+        when(outboxService.obtenerUltimaSecuencia()).thenReturn(0L);
+        when(outboxService.asignarSecuencias(0L, 20)).thenReturn(0L, 5L);
+        when(outboxService.obtenerOffset("prueba")).thenReturn(Optional.of(5L));
+        relay.despachar();
+        DeferredResult<List<EventoOutboxDTO>> resultado = relay.obtenerEventos(0L, 100, 30000);
+        assertFalse(resultado.hasResult());
+        when(outboxService.leer(0L, 100)).thenReturn(List.of(evento(5L, 5L)));
+
+        // Act
+        relay.despachar();
+
+        // Assert
+        assertTrue(resultado.hasResult());
+        assertEquals(1, ((List<?>) resultado.getResult()).size());
+    }
+
+    private EventoOutboxDTO evento(Long id, Long secuencia) {
+        return new EventoOutboxDTO(id, secuencia, TipoEvento.STOCK_ACTUALIZADO, "Producto", 1L, "{}", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,157 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.ResultadoCambioEstadoDTO;
+import com.roxfarma.exception.ConflictoConcurrenciaException;
+import com.roxfarma.exception.EstadoPedidoInvalidoException;
+import com.roxfarma.exception.ResourceNotFoundException;
+import com.roxfarma.model.EstadoPedido;
+import com.roxfarma.model.Pedido;
+import com.roxfarma.repository.PedidoRepository;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.ProveedorRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para PedidoService.
+ * Valida los cambios de estado compare-and-set y el cambio de estado en lote,
+ * incluida la recepción en lote con una transacción por pedido.
+ */
+@ExtendWith(MockitoExtension.class)
+class PedidoServiceTest {
+
+    @Mock
+    private PedidoRepository pedidoRepository;
+
+    @Mock
+    private ProveedorRepository proveedorRepository;
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private AlmacenService almacenService;
+
+    @Mock
+    private RecepcionPedidoService recepcionPedidoService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private PedidoService pedidoService;
+
+    private Pedido pedidoEnEstado(Long id, EstadoPedido estado) {
+        Pedido pedido = new Pedido();
+        pedido.setIdPedido(id);
+        pedido.setEstado(estado);
+        return pedido;
+    }
+
+    @Test
+    void deberiaRechazarElCambioSiOtraPeticionLoAplicoAntes() {
+        // Arrange: se leyó PENDIENTE, pero al actualizar el estado ya no coincide
+        when(pedidoRepository.findById(1L)).thenReturn(Optional.of(pedidoEnEstado(1L, EstadoPedido.PENDIENTE)));
+        when(pedidoRepository.cambiarEstado(1L, EstadoPedido.PENDIENTE, EstadoPedido.ENVIADO)).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(ConflictoConcurrenciaException.class,
+                () -> pedidoService.actualizarEstadoPedido(1L, EstadoPedido.ENVIADO));
+    }
+
+    @Test
+    void deberiaAprobarUnBorradorPasandoloAPendiente() {
+        // Arrange
+        when(pedidoRepository.findById(2L)).thenReturn(Optional.of(pedidoEnEstado(2L, EstadoPedido.BORRADOR)));
+        when(pedidoRepository.findConDetallesById(2L))
+                .thenReturn(Optional.of(pedidoEnEstado(2L, EstadoPedido.PENDIENTE)));
+        when(pedidoRepository.cambiarEstado(2L, EstadoPedido.BORRADOR, EstadoPedido.PENDIENTE)).thenReturn(1);
+
+        // Act
+        Pedido pedido = pedidoService.actualizarEstadoPedido(2L, EstadoPedido.PENDIENTE);
+
+        // Assert
+        assertEquals(EstadoPedido.PENDIENTE, pedido.getEstado());
+        verify(pedidoRepository, never()).save(any());
+    }
+
+    @Test
+    void deberiaCambiarEnLoteSoloLosPedidosEnElEstadoPrevio() {
+        // Arrange: el 3 no está PENDIENTE y el 4 no existe
+        when(pedidoRepository.bloquearPorEstado(List.of(1L, 2L, 3L, 4L), List.of("PENDIENTE")))
+                .thenReturn(List.of(1L, 2L));
+
+        // Act
+        ResultadoCambioEstadoDTO resultado = pedidoService.cambiarEstadoEnLote(
+                List.of(4L, 2L, 1L, 3L, 2L), EstadoPedido.ENVIADO);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), resultado.getActualizados());
+        assertEquals(List.of(3L, 4L), resultado.getRechazados());
+        verify(pedidoRepository).cambiarEstadoEnLote(List.of(1L, 2L), EstadoPedido.PENDIENTE, EstadoPedido.ENVIADO);
+        verifyNoInteractions(recepcionPedidoService);
+    }
+
+    @Test
+    void deberiaRechazarEnLoteUnEstadoSinTransicionManual() {
+        // Act & Assert
+        assertThrows(EstadoPedidoInvalidoException.class,
+                () -> pedidoService.cambiarEstadoEnLote(List.of(1L), EstadoPedido.RECIBIDO_PARCIAL));
+        verify(pedidoRepository, never()).cambiarEstadoEnLote(anyCollection(), any(), any());
+    }
+
+    @Test
+    void deberiaRecibirEnLoteConservandoLosPedidosQueNoFallan() {
+        // Arrange: el 2 falla al recibirse y el 3 no existe
+        TransactionStatus estado1 = mock(TransactionStatus.class);
+        TransactionStatus estado2 = mock(TransactionStatus.class);
+        TransactionStatus estado3 = mock(TransactionStatus.class);
+        TransactionStatus estado4 = mock(TransactionStatus.class);
+        when(transactionManager.getTransaction(any())).thenReturn(estado1, estado2, estado3, estado4);
+        when(recepcionPedidoService.recibirPendiente(1L)).thenReturn(pedidoEnEstado(1L, EstadoPedido.RECIBIDO));
+        when(recepcionPedidoService.recibirPendiente(2L))
+                .thenThrow(new IllegalStateException("Las cantidades pendientes del pedido cambiaron"));
+        when(recepcionPedidoService.recibirPendiente(3L))
+                .thenThrow(new ResourceNotFoundException("Pedido no encontrado con ID: 3"));
+        when(recepcionPedidoService.recibirPendiente(4L)).thenReturn(pedidoEnEstado(4L, EstadoPedido.RECIBIDO));
+
+        // Act
+        ResultadoCambioEstadoDTO resultado = pedidoService.cambiarEstadoEnLote(
+                List.of(3L, 1L, 4L, 2L), EstadoPedido.RECIBIDO);
+
+        // Assert: cada pedido tiene su transacción; solo se revierten las que fallaron
+        assertEquals(List.of(1L, 4L), resultado.getActualizados());
+        assertEquals(List.of(2L, 3L), resultado.getRechazados());
+        verify(transactionManager).commit(estado1);
+        verify(transactionManager).rollback(estado2);
+        verify(transactionManager).rollback(estado3);
+        verify(transactionManager).commit(estado4);
+        verify(pedidoRepository, never()).bloquearPorEstado(anyCollection(), anyCollection());
+    }
+
+    @Test
+    void deberiaCambiarEnLoteLosEstadosManualesEnUnaSolaTransaccion() {
+        // Arrange
+        when(pedidoRepository.bloquearPorEstado(List.of(1L, 2L), List.of("BORRADOR"))).thenReturn(List.of(1L, 2L));
+
+        // Act
+        pedidoService.cambiarEstadoEnLote(List.of(1L, 2L), EstadoPedido.PENDIENTE);
+
+        // Assert
+        verify(transactionManager).getTransaction(any());
+        verify(transactionManager).commit(any());
+        verify(pedidoRepository).cambiarEstadoEnLote(List.of(1L, 2L), EstadoPedido.BORRADOR, EstadoPedido.PENDIENTE);
+    }
+}
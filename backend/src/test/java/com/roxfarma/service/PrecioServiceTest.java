@@ -0,0 +1,204 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.PrecioProgramadoDTO;
+import com.roxfarma.model.PrecioProducto;
+import com.roxfarma.model.Producto;
+import com.roxfarma.repository.PrecioProductoRepository;
+import com.roxfarma.repository.ProductoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para PrecioService.
+ * Valida la consulta del precio vigente en la línea de tiempo, el registro de cambios y la activación de programados.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PrecioServiceTest {
+
+    private static final LocalDateTime AHORA = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Mock
+    private PrecioProductoRepository precioProductoRepository;
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private CacheEntidadesService cacheEntidadesService;
+
+    @Mock
+    private BusquedaProductoService busquedaProductoService;
+
+    @Mock
+    private MetricasService metricasService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PrecioService precioService;
+
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        precioService = new PrecioService(precioProductoRepository, productoRepository, cacheEntidadesService,
+                busquedaProductoService, metricasService, transactionManager);
+
+        producto = new Producto();
+        producto.setIdProducto(1L);
+        producto.setNombre("Paracetamol");
+        producto.setPrecio(new BigDecimal("5.50"));
+        when(productoRepository.existsById(1L)).thenReturn(true);
+    }
+
+    @Test
+    void deberiaResponderElPrecioVigenteSegunLaLineaDeTiempo() {
+        // Arrange
+        when(precioProductoRepository.findAllByOrderByIdProductoAscVigenteDesdeAscIdPrecioAsc()).thenReturn(List.of(
+                precio(1L, 1L, "4.80", AHORA.minusDays(30), true),
+                precio(2L, 1L, "5.50", AHORA.minusDays(2), true),
+                precio(3L, 1L, "6.00", AHORA.plusDays(1), false)));
+        precioService.cargar();
+
+        Producto sinHistorial = new Producto();
+        sinHistorial.setIdProducto(2L);
+        sinHistorial.setPrecio(new BigDecimal("3.20"));
+
+        // Act & Assert
+        assertEquals(new BigDecimal("4.80"), precioService.precioVigente(producto, AHORA.minusDays(10)));
+        assertEquals(new BigDecimal("5.50"), precioService.precioVigente(producto, AHORA));
+        assertEquals(new BigDecimal("6.00"), precioService.precioVigente(producto, AHORA.plusDays(1)));
+        // Antes del primer precio registrado rige el del producto
+        assertEquals(new BigDecimal("5.50"), precioService.precioVigente(producto, AHORA.minusDays(60)));
+        assertEquals(new BigDecimal("3.20"), precioService.precioVigente(sinHistorial, AHORA));
+    }
+
+    @Test
+    void deberiaRegistrarSoloLosPreciosQueCambiaron() {
+        // Arrange
+        when(precioProductoRepository.findAllByOrderByIdProductoAscVigenteDesdeAscIdPrecioAsc())
+                .thenReturn(List.of(precio(1L, 1L, "5.50", AHORA.minusDays(2), true)));
+        precioService.cargar();
+
+        Producto nuevo = new Producto();
+        nuevo.setIdProducto(2L);
+        nuevo.setPrecio(new BigDecimal("3.00"));
+
+        // Act
+        precioService.registrarPrecios(List.of(producto, nuevo), Map.of(1L, new BigDecimal("5.5")));
+
+        // Assert
+        ArgumentCaptor<List<PrecioProducto>> insertados = ArgumentCaptor.forClass(List.class);
+        verify(precioProductoRepository).insertarEnLote(insertados.capture());
+        assertEquals(1, insertados.getValue().size());
+        assertEquals(2L, insertados.getValue().get(0).getIdProducto());
+        assertTrue(insertados.getValue().get(0).getAplicado());
+
+        nuevo.setPrecio(new BigDecimal("9.99"));
+        assertEquals(new BigDecimal("3.00"), precioService.precioVigente(nuevo, LocalDateTime.now()));
+    }
+
+    @Test
+    void noDeberiaRevertirUnProgramadoVigenteAunNoCopiadoAlCatalogo() {
+        // Arrange: el programado ya rige pero Producto.precio todavía tiene el precio viejo
+        when(precioProductoRepository.findAllByOrderByIdProductoAscVigenteDesdeAscIdPrecioAsc()).thenReturn(List.of(
+                precio(1L, 1L, "5.50", AHORA.minusDays(2), true),
+                precio(2L, 1L, "6.00", AHORA.minusSeconds(30), false)));
+        precioService.cargar();
+
+        // Act: edición que no toca el precio
+        precioService.registrarPrecio(producto, new BigDecimal("5.50"));
+
+        // Assert
+        verify(precioProductoRepository, never()).insertarEnLote(any());
+        assertEquals(new BigDecimal("6.00"), precioService.precioVigente(producto, LocalDateTime.now()));
+    }
+
+    @Test
+    void deberiaProgramarUnPrecioFuturoSinCambiarElVigente() {
+        // Arrange
+        LocalDateTime desde = AHORA.plusDays(7);
+        when(precioProductoRepository.findByIdProductoAndVigenteDesdeAndAplicadoFalse(1L, desde))
+                .thenReturn(Optional.empty());
+
+        // Act
+        precioService.programar(1L, new PrecioProgramadoDTO(new BigDecimal("6.20"), desde));
+
+        // Assert
+        verify(precioProductoRepository).save(argThat((PrecioProducto p) -> !p.getAplicado()
+                && p.getPrecio().equals(new BigDecimal("6.20")) && p.getVigenteDesde().equals(desde)));
+        assertEquals(new BigDecimal("5.50"), precioService.precioVigente(producto, AHORA));
+        assertEquals(new BigDecimal("6.20"), precioService.precioVigente(producto, desde));
+    }
+
+    @Test
+    void deberiaQuitarDeLaLineaDeTiempoElPrecioCancelado() {
+        // Arrange: el cliente envía 12.5 y la columna DECIMAL(10,2) devuelve 12.50
+        LocalDateTime desde = AHORA.plusDays(7);
+        when(precioProductoRepository.findByIdProductoAndVigenteDesdeAndAplicadoFalse(1L, desde))
+                .thenReturn(Optional.empty());
+        precioService.programar(1L, new PrecioProgramadoDTO(new BigDecimal("12.5"), desde));
+        assertEquals(new BigDecimal("12.50"), precioService.precioVigente(producto, desde));
+        when(precioProductoRepository.findById(20L))
+                .thenReturn(Optional.of(precio(20L, 1L, "12.50", desde, false)));
+
+        // Act
+        precioService.cancelar(1L, 20L);
+
+        // Assert
+        verify(precioProductoRepository).delete(argThat((PrecioProducto p) -> p.getIdPrecio().equals(20L)));
+        assertEquals(new BigDecimal("5.50"), precioService.precioVigente(producto, desde));
+    }
+
+    @Test
+    void deberiaRechazarProgramarUnPrecioEnElPasado() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> precioService.programar(1L,
+                new PrecioProgramadoDTO(new BigDecimal("6.20"), AHORA.minusHours(1))));
+        verify(precioProductoRepository, never()).save(any());
+    }
+
+    @Test
+    void deberiaCopiarAlCatalogoLosProgramadosQueEntraronEnVigencia() {
+        // Arrange: dos precios del mismo producto y uno de otro
+        List<PrecioProducto> pendientes = List.of(
+                precio(10L, 1L, "6.00", AHORA.minusMinutes(5), false),
+                precio(11L, 2L, "2.10", AHORA.minusMinutes(3), false),
+                precio(12L, 1L, "6.10", AHORA.minusMinutes(1), false));
+        when(precioProductoRepository.buscarPendientes(any(), any())).thenReturn(pendientes);
+        when(productoRepository.findAllById(any())).thenReturn(List.of(producto));
+
+        // Act
+        precioService.activarProgramados();
+
+        // Assert
+        verify(productoRepository).actualizarPreciosEnLote(pendientes);
+        verify(precioProductoRepository).marcarAplicados(List.of(10L, 11L, 12L));
+        verify(cacheEntidadesService).invalidarProductos(List.of(1L, 2L));
+        verify(busquedaProductoService).productosGuardados(List.of(producto));
+        verify(metricasService).sumar("producto.precio.activado", 3);
+    }
+
+    private PrecioProducto precio(Long id, Long idProducto, String precio, LocalDateTime desde, boolean aplicado) {
+        return new PrecioProducto(id, idProducto, new BigDecimal(precio), desde, aplicado, AHORA);
+    }
+}
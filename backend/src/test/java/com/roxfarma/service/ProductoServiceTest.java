@@ -1,26 +1,37 @@
 package com.roxfarma.service;
 
+import com.roxfarma.dto.FiltroCatalogoDTO;
 import com.roxfarma.dto.ProductoDTO;
+import com.roxfarma.dto.ResumenProductoDTO;
+import com.roxfarma.exception.PrecondicionFallidaException;
 import com.roxfarma.exception.ResourceNotFoundException;
 import com.roxfarma.model.Categoria;
 import com.roxfarma.model.Producto;
 import com.roxfarma.repository.CategoriaRepository;
+import com.roxfarma.repository.ProductoEliminadoRepository;
 import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.projection.VersionCatalogo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -37,6 +48,30 @@ class ProductoServiceTest {
     @Mock
     private CategoriaRepository categoriaRepository;
 
+    @Mock
+    private AlertaInventarioService alertaInventarioService;
+
+    @Mock
+    private MovimientoInventarioService movimientoInventarioService;
+
+    @Mock
+    private MetricasService metricasService;
+
+    @Mock
+    private InventarioService inventarioService;
+
+    @Mock
+    private BusquedaProductoService busquedaProductoService;
+
+    @Mock
+    private ProductoEliminadoRepository productoEliminadoRepository;
+
+    @Mock
+    private CodigoBarrasService codigoBarrasService;
+
+    @Mock
+    private PrecioService precioService;
+
     @InjectMocks
     private ProductoService productoService;
 
@@ -81,6 +116,7 @@ class ProductoServiceTest {
         assertEquals(new BigDecimal("5.50"), resultado.getPrecio());
         verify(categoriaRepository, times(1)).findById(1L);
         verify(productoRepository, times(1)).save(any(Producto.class));
+        verify(inventarioService).registrarStockInicial(1L, 100);
     }
 
     @Test
@@ -97,29 +133,31 @@ class ProductoServiceTest {
 
     @Test
     void debeListarTodosLosProductos() {
-        List<Producto> productos = Arrays.asList(producto);
-        when(productoRepository.findAll()).thenReturn(productos);
+        List<ResumenProductoDTO> productos = Arrays.asList(resumen(producto));
+        when(productoRepository.listarResumen()).thenReturn(productos);
 
-        List<Producto> resultado = productoService.listarTodosLosProductos();
+        List<ResumenProductoDTO> resultado = productoService.listarTodosLosProductos();
 
         assertNotNull(resultado);
         assertEquals(1, resultado.size());
         assertEquals("Paracetamol", resultado.get(0).getNombre());
-        verify(productoRepository, times(1)).findAll();
+        assertEquals("Analgésicos", resultado.get(0).getNombreCategoria());
+        verify(productoRepository, times(1)).listarResumen();
+        verify(productoRepository, never()).findAll();
     }
 
     @Test
     void debeObtenerProductosConStockBajo() {
         producto.setStock(5);
-        List<Producto> productos = Arrays.asList(producto);
-        when(productoRepository.findByStockLessThan(10)).thenReturn(productos);
+        List<ResumenProductoDTO> productos = Arrays.asList(resumen(producto));
+        when(productoRepository.listarResumenConStockMenorA(10)).thenReturn(productos);
 
-        List<Producto> resultado = productoService.obtenerProductosConStockBajo(10);
+        List<ResumenProductoDTO> resultado = productoService.obtenerProductosConStockBajo(10);
 
         assertNotNull(resultado);
         assertEquals(1, resultado.size());
         assertTrue(resultado.get(0).getStock() < 10);
-        verify(productoRepository, times(1)).findByStockLessThan(10);
+        verify(productoRepository, times(1)).listarResumenConStockMenorA(10);
     }
 
     @Test
@@ -159,4 +197,105 @@ class ProductoServiceTest {
         verify(productoRepository, times(1)).findById(1L);
         verify(productoRepository, times(1)).save(any(Producto.class));
     }
+
+    @Test
+    void deberiaRechazarActualizacionConVersionDesactualizada() {
+        // Arrange: el producto cambió (versión 3) después de que el formulario cargó la versión 2
+        producto.setVersion(3L);
+        productoDTO.setVersion(2L);
+        productoDTO.setStock(50);
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+
+        // Act & Assert
+        assertThrows(PrecondicionFallidaException.class,
+                () -> productoService.actualizarProducto(1L, productoDTO));
+        assertEquals(100, producto.getStock());
+        verify(productoRepository, never()).save(any(Producto.class));
+        verify(metricasService).incrementar("producto.actualizacion.conflicto");
+    }
+
+    @Test
+    void deberiaListarElCatalogoConElTextoEscapadoYElOrdenDesempatado() {
+        // Arrange
+        FiltroCatalogoDTO filtro = new FiltroCatalogoDTO();
+        filtro.setTexto(" Gel 5% ");
+        filtro.setIdCategoria(1L);
+        when(productoRepository.buscarCatalogo(any(), any(), any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(resumen(producto))));
+
+        // Act
+        productoService.listarCatalogo(filtro, 2, 500, "precio", Sort.Direction.DESC);
+
+        // Assert: tamaño acotado y el ID como segundo criterio
+        ArgumentCaptor<Pageable> pagina = ArgumentCaptor.forClass(Pageable.class);
+        verify(productoRepository).buscarCatalogo(eq("%gel 5\\%%"), eq(1L), isNull(), isNull(), isNull(), isNull(),
+                pagina.capture());
+        assertEquals(2, pagina.getValue().getPageNumber());
+        assertEquals(100, pagina.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Direction.DESC, "precio").and(Sort.by("idProducto")), pagina.getValue().getSort());
+    }
+
+    @Test
+    void deberiaRechazarOrdenarPorUnCampoNoPermitido() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productoService.listarCatalogo(
+                new FiltroCatalogoDTO(), 0, 20, "descripcion", Sort.Direction.ASC));
+        verifyNoInteractions(productoRepository);
+    }
+
+    @Test
+    void deberiaCambiarElEtagDelCatalogoSiCambiaUnaVersion() {
+        // Arrange: mismo total y misma fecha (resolución de segundos), pero una edición más
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 10, 9, 30);
+        VersionCatalogo antes = versionCatalogo(120L, fecha, 480L);
+        VersionCatalogo despues = versionCatalogo(120L, fecha, 481L);
+        when(productoRepository.calcularVersionCatalogo(any(), any(), any(), any(), any(), any()))
+                .thenReturn(antes, antes, despues);
+
+        // Act
+        String primero = productoService.calcularEtagCatalogo(new FiltroCatalogoDTO());
+        String repetido = productoService.calcularEtagCatalogo(new FiltroCatalogoDTO());
+        String cambiado = productoService.calcularEtagCatalogo(new FiltroCatalogoDTO());
+
+        // Assert
+        assertTrue(primero.startsWith("W/\""));
+        assertEquals(primero, repetido);
+        assertNotEquals(primero, cambiado);
+    }
+
+    @Test
+    void deberiaCambiarElEtagDelCatalogoSiSeRenombraUnaCategoria() {
+        // Arrange: los productos no cambiaron, pero su categoría sí
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 10, 9, 30);
+        VersionCatalogo antes = versionCatalogo(120L, fecha, 480L);
+        VersionCatalogo despues = versionCatalogo(120L, fecha, 480L, 15L);
+        when(productoRepository.calcularVersionCatalogo(any(), any(), any(), any(), any(), any()))
+                .thenReturn(antes, despues);
+
+        // Act
+        String primero = productoService.calcularEtagCatalogo(new FiltroCatalogoDTO());
+        String renombrada = productoService.calcularEtagCatalogo(new FiltroCatalogoDTO());
+
+        // Assert
+        assertNotEquals(primero, renombrada);
+    }
+
+    private VersionCatalogo versionCatalogo(Long total, LocalDateTime ultimaActualizacion, Long sumaVersiones) {
+        return versionCatalogo(total, ultimaActualizacion, sumaVersiones, 0L);
+    }
+
+    private VersionCatalogo versionCatalogo(Long total, LocalDateTime ultimaActualizacion, Long sumaVersiones,
+                                            Long sumaVersionesCategorias) {
+        VersionCatalogo version = mock(VersionCatalogo.class);
+        when(version.getTotal()).thenReturn(total);
+        when(version.getUltimaActualizacion()).thenReturn(ultimaActualizacion);
+        when(version.getSumaVersiones()).thenReturn(sumaVersiones);
+        when(version.getSumaVersionesCategorias()).thenReturn(sumaVersionesCategorias);
+        return version;
+    }
+
+    private ResumenProductoDTO resumen(Producto p) {
+        return new ResumenProductoDTO(p.getIdProducto(), p.getNombre(), p.getPresentacion(), p.getPrecio(),
+                p.getStock(), p.getFechaVencimiento(), p.getCategoria().getIdCategoria(), p.getCategoria().getNombre());
+    }
 }
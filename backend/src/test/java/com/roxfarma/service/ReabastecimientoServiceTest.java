@@ -0,0 +1,114 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.EventoOutboxDTO;
+import com.roxfarma.model.TipoEvento;
+import com.roxfarma.repository.DetallePedidoRepository;
+import com.roxfarma.repository.DetalleVentaRepository;
+import com.roxfarma.repository.PedidoRepository;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.ProveedorRepository;
+import com.roxfarma.util.ConsultasParalelas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ReabastecimientoService.
+ * Valida el punto de reorden, la cantidad sugerida y el marcado de productos.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReabastecimientoServiceTest {
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private DetalleVentaRepository detalleVentaRepository;
+
+    @Mock
+    private DetallePedidoRepository detallePedidoRepository;
+
+    @Mock
+    private PedidoRepository pedidoRepository;
+
+    @Mock
+    private ProveedorRepository proveedorRepository;
+
+    @Mock
+    private ConsultasParalelas consultasParalelas;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private MetricasService metricasService;
+
+    private ReabastecimientoService reabastecimientoService;
+
+    @BeforeEach
+    void setUp() {
+        // 30 días de ventas, 7 de entrega, 3 de seguridad y 14 de cobertura
+        reabastecimientoService = new ReabastecimientoService(productoRepository, detalleVentaRepository,
+                detallePedidoRepository, pedidoRepository, proveedorRepository, consultasParalelas,
+                jdbcTemplate, transactionManager, metricasService, 30, 7, 3, 14, 500, 60000);
+    }
+
+    @Test
+    void deberiaSugerirHastaCubrirLaCoberturaAlLlegarAlPuntoDeReorden() {
+        // Arrange: 300 vendidas en 30 días = 10 por día; punto de reorden 100, objetivo 240
+
+        // Act
+        int cantidad = reabastecimientoService.calcularCantidadReorden(300, 60, 20);
+
+        // Assert: 240 - (60 + 20)
+        assertEquals(160, cantidad);
+    }
+
+    @Test
+    void deberiaNoSugerirSiElStockYLoPorRecibirSuperanElPuntoDeReorden() {
+        // Act & Assert: sin lo pendiente habría que pedir; con él no
+        assertTrue(reabastecimientoService.calcularCantidadReorden(300, 60, 0) > 0);
+        assertEquals(0, reabastecimientoService.calcularCantidadReorden(300, 60, 50));
+        assertEquals(0, reabastecimientoService.calcularCantidadReorden(0, 0, 0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deberiaMarcarCadaProductoUnaSolaVezPorLote() {
+        // Arrange: dos eventos del mismo producto
+        EventoOutboxDTO primero = new EventoOutboxDTO();
+        primero.setTipo(TipoEvento.STOCK_ACTUALIZADO);
+        primero.setIdAgregado(5L);
+        EventoOutboxDTO segundo = new EventoOutboxDTO();
+        segundo.setTipo(TipoEvento.STOCK_ACTUALIZADO);
+        segundo.setIdAgregado(5L);
+        EventoOutboxDTO otro = new EventoOutboxDTO();
+        otro.setTipo(TipoEvento.STOCK_ACTUALIZADO);
+        otro.setIdAgregado(8L);
+
+        // Act
+        reabastecimientoService.procesar(List.of(primero, segundo, otro));
+
+        // Assert
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), ids.capture(), eq(2),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(5L, 8L), List.copyOf(ids.getValue()));
+    }
+}
@@ -0,0 +1,172 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.ItemRecepcionDTO;
+import com.roxfarma.dto.RecepcionPedidoDTO;
+import com.roxfarma.exception.EstadoPedidoInvalidoException;
+import com.roxfarma.model.*;
+import com.roxfarma.repository.DetallePedidoRepository;
+import com.roxfarma.repository.PedidoRepository;
+import com.roxfarma.repository.RecepcionPedidoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para RecepcionPedidoService.
+ * Valida las entregas parciales, el cierre automático y el control de lo pendiente.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RecepcionPedidoServiceTest {
+
+    @Mock
+    private PedidoRepository pedidoRepository;
+
+    @Mock
+    private DetallePedidoRepository detallePedidoRepository;
+
+    @Mock
+    private RecepcionPedidoRepository recepcionPedidoRepository;
+
+    @Mock
+    private InventarioService inventarioService;
+
+    @Mock
+    private AlmacenService almacenService;
+
+    @Mock
+    private LoteService loteService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @InjectMocks
+    private RecepcionPedidoService recepcionPedidoService;
+
+    private Pedido pedido;
+    private DetallePedido detalle;
+
+    @BeforeEach
+    void setUp() {
+        Producto producto = new Producto();
+        producto.setIdProducto(3L);
+        producto.setNombre("Amoxicilina");
+        producto.setFechaVencimiento(LocalDate.now().plusYears(1));
+
+        Proveedor proveedor = new Proveedor();
+        proveedor.setIdProveedor(1L);
+
+        pedido = new Pedido();
+        pedido.setIdPedido(10L);
+        pedido.setEstado(EstadoPedido.ENVIADO);
+        pedido.setProveedor(proveedor);
+
+        detalle = new DetallePedido();
+        detalle.setIdDetallePedido(100L);
+        detalle.setProducto(producto);
+        detalle.setCantidad(50);
+        detalle.setCantidadRecibida(0);
+        detalle.setCantidadPendiente(50);
+        pedido.agregarDetalle(detalle);
+
+        when(pedidoRepository.findConDetallesParaRecibir(10L)).thenReturn(Optional.of(pedido));
+        when(almacenService.resolverAlmacen(null)).thenReturn(1L);
+        when(recepcionPedidoRepository.save(any(RecepcionPedido.class))).thenAnswer(invocacion -> {
+            RecepcionPedido recepcion = invocacion.getArgument(0);
+            recepcion.setIdRecepcion(7L);
+            return recepcion;
+        });
+    }
+
+    @Test
+    void deberiaDejarElPedidoRecibidoParcialSiQuedaPendiente() {
+        // Arrange
+        RecepcionPedidoDTO dto = new RecepcionPedidoDTO(
+                List.of(new ItemRecepcionDTO(100L, 20, "L-001", null)), null);
+
+        // Act
+        RecepcionPedido recepcion = recepcionPedidoService.registrarRecepcion(10L, dto);
+
+        // Assert
+        assertEquals(EstadoPedido.RECIBIDO_PARCIAL, pedido.getEstado());
+        assertEquals(20, detalle.getCantidadRecibida());
+        assertEquals(30, detalle.getCantidadPendiente());
+        assertEquals("L-001", recepcion.getDetalles().get(0).getCodigoLote());
+        verify(inventarioService).aumentarStockEnLote(
+                eq(List.of(new InventarioService.IngresoStock(3L, 20))), eq("PEDIDO_RECIBIDO"), eq(10L), eq(1L));
+        verify(recepcionPedidoRepository).insertarDetallesEnLote(eq(7L), anyList());
+        verify(outboxService, never()).publicar(any(), any(), any(), any());
+    }
+
+    @Test
+    void deberiaCerrarElPedidoAlRecibirTodoLoPendiente() {
+        // Arrange: ya se recibió una parte
+        pedido.setEstado(EstadoPedido.RECIBIDO_PARCIAL);
+        detalle.setCantidadRecibida(20);
+        detalle.setCantidadPendiente(30);
+
+        // Act
+        recepcionPedidoService.recibirPendiente(10L);
+
+        // Assert
+        assertEquals(EstadoPedido.RECIBIDO, pedido.getEstado());
+        assertEquals(0, detalle.getCantidadPendiente());
+        verify(inventarioService).aumentarStockEnLote(
+                eq(List.of(new InventarioService.IngresoStock(3L, 30))), anyString(), eq(10L), eq(1L));
+        verify(outboxService).publicar(eq(TipoEvento.PEDIDO_RECIBIDO), eq("Pedido"), eq(10L), any());
+    }
+
+    @Test
+    void deberiaCrearLosLotesEnElAlmacenDelPedido() {
+        // Arrange
+        Almacen almacen = new Almacen();
+        almacen.setIdAlmacen(2L);
+        pedido.setAlmacen(almacen);
+        when(almacenService.resolverAlmacen(2L)).thenReturn(2L);
+
+        // Act
+        recepcionPedidoService.recibirPendiente(10L);
+
+        // Assert
+        verify(inventarioService).aumentarStockEnLote(anyList(), anyString(), eq(10L), eq(2L));
+        verify(loteService).registrarLotes(argThat((List<Lote> lotes) ->
+                lotes.size() == 1 && lotes.get(0).getIdAlmacen() == 2L));
+    }
+
+    @Test
+    void deberiaRechazarRecibirMasDeLoPendiente() {
+        // Arrange: dos ítems de la misma línea que juntos superan lo pendiente
+        RecepcionPedidoDTO dto = new RecepcionPedidoDTO(List.of(
+                new ItemRecepcionDTO(100L, 30, "L-001", null),
+                new ItemRecepcionDTO(100L, 25, "L-002", null)), null);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> recepcionPedidoService.registrarRecepcion(10L, dto));
+        verifyNoInteractions(inventarioService);
+        verify(detallePedidoRepository, never()).registrarRecibidoEnLote(anyList());
+    }
+
+    @Test
+    void deberiaRechazarRecepcionDePedidoNoEnviado() {
+        // Arrange
+        pedido.setEstado(EstadoPedido.PENDIENTE);
+        RecepcionPedidoDTO dto = new RecepcionPedidoDTO(List.of(new ItemRecepcionDTO(100L, 5, null, null)), null);
+
+        // Act & Assert
+        assertThrows(EstadoPedidoInvalidoException.class,
+                () -> recepcionPedidoService.registrarRecepcion(10L, dto));
+    }
+}
@@ -0,0 +1,151 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.CambioProductoDTO;
+import com.roxfarma.dto.CambiosCatalogoDTO;
+import com.roxfarma.model.ProductoEliminado;
+import com.roxfarma.repository.ProductoEliminadoRepository;
+import com.roxfarma.repository.ProductoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para SincronizacionCatalogoService.
+ * Valida la carga inicial, el avance del cursor, la entrega de las bajas y la
+ * numeración de los cambios confirmados.
+ */
+@ExtendWith(MockitoExtension.class)
+class SincronizacionCatalogoServiceTest {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2026, 3, 2, 8, 15, 30);
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private ProductoEliminadoRepository productoEliminadoRepository;
+
+    @Mock
+    private MetricasService metricasService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SincronizacionCatalogoService sincronizacionCatalogoService;
+
+    @BeforeEach
+    void setUp() {
+        sincronizacionCatalogoService = new SincronizacionCatalogoService(productoRepository,
+                productoEliminadoRepository, metricasService, jdbcTemplate);
+    }
+
+    private CambioProductoDTO cambio(Long id, Long secuencia) {
+        return new CambioProductoDTO(id, "Producto " + id, null, new BigDecimal("4.50"), 10,
+                LocalDate.now().plusYears(1), 1L, 2L, FECHA, secuencia);
+    }
+
+    @Test
+    void deberiaEntregarElCatalogoSinBajasEnLaCargaInicial() {
+        // Arrange: ya hay 40 bajas numeradas, que el terminal nuevo no necesita
+        when(productoEliminadoRepository.obtenerUltimaSecuencia()).thenReturn(40L);
+        when(productoRepository.buscarCambiosDesde(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(cambio(3L, 1L), cambio(8L, 2L)));
+        when(productoEliminadoRepository.buscarDesde(eq(40L), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        CambiosCatalogoDTO cambios = sincronizacionCatalogoService.obtenerCambios(null, 2);
+
+        // Assert: página llena, hay que seguir pidiendo
+        assertEquals(2, cambios.getProductos().size());
+        assertTrue(cambios.getEliminados().isEmpty());
+        assertFalse(cambios.isCompleto());
+        SincronizacionCatalogoService.Cursor cursor = SincronizacionCatalogoService.Cursor.decodificar(cambios.getCursor());
+        assertEquals(2L, cursor.secuenciaProducto());
+        assertEquals(40L, cursor.secuenciaBaja());
+    }
+
+    @Test
+    void deberiaContinuarDesdeElCursorYEntregarLasBajas() {
+        // Arrange: la baja con ID 41 confirmó después que la 42 y recibió la secuencia mayor
+        String cursor = new SincronizacionCatalogoService.Cursor(2L, 40L).codificar();
+        when(productoRepository.buscarCambiosDesde(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(productoEliminadoRepository.buscarDesde(eq(40L), any(Pageable.class)))
+                .thenReturn(List.of(new ProductoEliminado(42L, 6L, FECHA, 41L),
+                        new ProductoEliminado(41L, 5L, FECHA.plusMinutes(1), 42L)));
+
+        // Act
+        CambiosCatalogoDTO cambios = sincronizacionCatalogoService.obtenerCambios(cursor, 500);
+
+        // Assert: la posición de los productos no se mueve
+        assertEquals(List.of(6L, 5L), cambios.getEliminados());
+        assertTrue(cambios.isCompleto());
+        assertEquals(new SincronizacionCatalogoService.Cursor(2L, 42L).codificar(), cambios.getCursor());
+        verify(productoEliminadoRepository, never()).obtenerUltimaSecuencia();
+    }
+
+    @Test
+    void deberiaAceptarUnCursorAnteriorReenviandoLosProductos() {
+        // Arrange: formato "milisegundos.idProducto.idEliminacion"
+        when(productoRepository.buscarCambiosDesde(eq(0L), any(Pageable.class))).thenReturn(List.of());
+        when(productoEliminadoRepository.buscarDesde(eq(40L), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        CambiosCatalogoDTO cambios = sincronizacionCatalogoService.obtenerCambios("1772439330000.8.40", 100);
+
+        // Assert
+        assertEquals(new SincronizacionCatalogoService.Cursor(0L, 40L).codificar(), cambios.getCursor());
+    }
+
+    @Test
+    void deberiaRechazarUnCursorInvalido() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> sincronizacionCatalogoService.obtenerCambios("abc.1", 100));
+        verifyNoInteractions(productoRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deberiaNumerarLosCambiosConfirmadosDespuesDeLaUltimaSecuencia() throws Exception {
+        // Arrange: la última secuencia de productos es 7 y hay dos cambios sin numerar
+        when(jdbcTemplate.queryForObject(startsWith("SELECT MAX(secuencia_cambio)"), eq(Long.class))).thenReturn(7L);
+        when(productoEliminadoRepository.obtenerUltimaSecuencia()).thenReturn(40L);
+        when(jdbcTemplate.queryForList(startsWith("SELECT id_producto"), eq(Long.class), eq(500)))
+                .thenReturn(List.of(3L, 9L), List.of());
+        when(jdbcTemplate.queryForList(startsWith("SELECT id_eliminacion"), eq(Long.class), eq(500)))
+                .thenReturn(List.of());
+
+        // Act: el segundo ciclo parte de la secuencia en memoria
+        sincronizacionCatalogoService.numerar();
+        sincronizacionCatalogoService.numerar();
+
+        // Assert
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Long>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE producto SET secuencia_cambio"),
+                eq(List.of(3L, 9L)), eq(2), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, 3L);
+        setter.getValue().setValues(ps, 9L);
+        verify(ps).setLong(1, 8L);
+        verify(ps).setLong(1, 9L);
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Long.class));
+        verify(metricasService).sumar("catalogo.sincronizacion.numerados", 2L);
+    }
+}
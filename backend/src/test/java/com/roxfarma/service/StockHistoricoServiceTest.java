@@ -0,0 +1,161 @@
+package com.roxfarma.service;
+
+import com.roxfarma.dto.StockHistoricoDTO;
+import com.roxfarma.model.Producto;
+import com.roxfarma.model.StockCheckpoint;
+import com.roxfarma.repository.MovimientoInventarioRepository;
+import com.roxfarma.repository.ProductoRepository;
+import com.roxfarma.repository.StockCheckpointRepository;
+import com.roxfarma.util.ConsultasParalelas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para StockHistoricoService.
+ * Valida la reconstrucción del stock a partir del corte más cercano y la
+ * generación del corte diario en una transacción.
+ */
+@ExtendWith(MockitoExtension.class)
+class StockHistoricoServiceTest {
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private MovimientoInventarioRepository movimientoInventarioRepository;
+
+    @Mock
+    private StockCheckpointRepository stockCheckpointRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ConsultasParalelas consultasParalelas;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StockHistoricoService stockHistoricoService;
+
+    private Producto producto;
+    private final LocalDateTime corte = LocalDateTime.of(2024, 5, 1, 0, 0);
+    private final LocalDateTime fecha = LocalDateTime.of(2024, 5, 1, 15, 30);
+
+    @BeforeEach
+    void setUp() {
+        stockHistoricoService = new StockHistoricoService(productoRepository, movimientoInventarioRepository,
+                stockCheckpointRepository, jdbcTemplate, consultasParalelas, transactionManager, 4, 30_000);
+
+        producto = new Producto();
+        producto.setIdProducto(1L);
+        producto.setNombre("Paracetamol");
+        producto.setStock(70);
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+    }
+
+    @Test
+    void deberiaSumarMovimientosPosterioresAlCorteAnterior() {
+        // Arrange
+        StockCheckpoint checkpoint = new StockCheckpoint(new StockCheckpoint.Clave(corte, 1L), 100);
+        when(stockCheckpointRepository
+                .findFirstByClaveIdProductoAndClaveFechaCorteLessThanEqualOrderByClaveFechaCorteDesc(1L, fecha))
+                .thenReturn(Optional.of(checkpoint));
+        when(movimientoInventarioRepository.sumarVariacion(1L, corte, fecha)).thenReturn(-12L);
+
+        // Act
+        StockHistoricoDTO resultado = stockHistoricoService.obtenerStockAl(1L, fecha);
+
+        // Assert
+        assertEquals(88, resultado.getStock());
+        assertEquals(corte, resultado.getFechaCorte());
+        verify(stockCheckpointRepository, never())
+                .findFirstByClaveIdProductoAndClaveFechaCorteGreaterThanOrderByClaveFechaCorteAsc(any(), any());
+    }
+
+    @Test
+    void deberiaDeshacerMovimientosDesdeElCortePosterior() {
+        // Arrange
+        LocalDateTime siguienteCorte = corte.plusDays(1);
+        StockCheckpoint checkpoint = new StockCheckpoint(new StockCheckpoint.Clave(siguienteCorte, 1L), 80);
+        when(stockCheckpointRepository
+                .findFirstByClaveIdProductoAndClaveFechaCorteLessThanEqualOrderByClaveFechaCorteDesc(1L, fecha))
+                .thenReturn(Optional.empty());
+        when(stockCheckpointRepository
+                .findFirstByClaveIdProductoAndClaveFechaCorteGreaterThanOrderByClaveFechaCorteAsc(1L, fecha))
+                .thenReturn(Optional.of(checkpoint));
+        when(movimientoInventarioRepository.sumarVariacion(1L, fecha, siguienteCorte)).thenReturn(30L);
+
+        // Act
+        StockHistoricoDTO resultado = stockHistoricoService.obtenerStockAl(1L, fecha);
+
+        // Assert
+        assertEquals(50, resultado.getStock());
+        assertEquals(siguienteCorte, resultado.getFechaCorte());
+    }
+
+    @Test
+    void deberiaPartirDelStockActualSinCortes() {
+        // Arrange
+        when(stockCheckpointRepository
+                .findFirstByClaveIdProductoAndClaveFechaCorteLessThanEqualOrderByClaveFechaCorteDesc(1L, fecha))
+                .thenReturn(Optional.empty());
+        when(stockCheckpointRepository
+                .findFirstByClaveIdProductoAndClaveFechaCorteGreaterThanOrderByClaveFechaCorteAsc(1L, fecha))
+                .thenReturn(Optional.empty());
+        when(movimientoInventarioRepository.sumarVariacion(eq(1L), eq(fecha), any(LocalDateTime.class)))
+                .thenReturn(-5L);
+
+        // Act
+        StockHistoricoDTO resultado = stockHistoricoService.obtenerStockAl(1L, fecha);
+
+        // Assert
+        assertEquals(75, resultado.getStock());
+        assertNull(resultado.getFechaCorte());
+    }
+
+    @Test
+    void deberiaGenerarElCorteDiarioDentroDeUnaTransaccion() {
+        // Arrange
+        LocalDateTime medianoche = LocalDate.now().atStartOfDay();
+        when(stockCheckpointRepository.existsByClaveFechaCorte(medianoche)).thenReturn(false);
+
+        // Act
+        stockHistoricoService.generarCheckpointDiario();
+
+        // Assert
+        verify(transactionManager).getTransaction(any());
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void deberiaRevertirElCorteDiarioSiFallaAMedias() {
+        // Arrange: el lote falla después de que se insertaron algunas filas
+        when(stockCheckpointRepository.existsByClaveFechaCorte(any())).thenReturn(false);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("conexión perdida"));
+
+        // Act
+        assertThrows(DataAccessResourceFailureException.class, () -> stockHistoricoService.generarCheckpointDiario());
+
+        // Assert: no queda un corte parcial que el siguiente intento omitiría
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+}
@@ -49,6 +49,18 @@ class VentaServiceTest {
     @Mock
     private InventarioService inventarioService;
 
+    @Mock
+    private LoteService loteService;
+
+    @Mock
+    private AlmacenService almacenService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private PrecioService precioService;
+
     @Mock
     private com.roxfarma.repository.UsuarioRepository usuarioRepository;
 
@@ -95,6 +107,8 @@ class VentaServiceTest {
         when(authentication.getName()).thenReturn("admin");
         SecurityContextHolder.setContext(securityContext);
         when(usuarioRepository.findByUsuario("admin")).thenReturn(Optional.of(usuario));
+        when(precioService.precioVigente(any(Producto.class), any()))
+                .thenAnswer(invocacion -> invocacion.<Producto>getArgument(0).getPrecio());
 
         // Configurar DTO de venta
         DetalleVentaDTO detalleDTO = new DetalleVentaDTO();
@@ -111,7 +125,7 @@ class VentaServiceTest {
         // Arrange
         when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
         when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
-        doNothing().when(inventarioService).disminuirStock(anyLong(), anyInt(), anyString());
+        doNothing().when(inventarioService).disminuirStock(anyLong(), anyInt(), anyString(), anyLong(), any());
 
         Venta ventaGuardada = new Venta();
         ventaGuardada.setIdVenta(1L);
@@ -127,7 +141,7 @@ class VentaServiceTest {
         assertNotNull(resultado);
         assertEquals(1L, resultado.getIdVenta());
         assertTrue(resultado.getTotal().compareTo(BigDecimal.ZERO) > 0);
-        verify(inventarioService, times(1)).disminuirStock(anyLong(), anyInt(), anyString());
+        verify(inventarioService, times(1)).disminuirStock(eq(1L), eq(10), eq("VENTA"), eq(1L), isNull());
         verify(ventaRepository, times(1)).save(any(Venta.class));
     }
 
@@ -161,7 +175,7 @@ class VentaServiceTest {
         // Arrange
         when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
         when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
-        doNothing().when(inventarioService).disminuirStock(anyLong(), anyInt(), anyString());
+        doNothing().when(inventarioService).disminuirStock(anyLong(), anyInt(), anyString(), anyLong(), any());
 
         Venta ventaGuardada = new Venta();
         ventaGuardada.setIdVenta(1L);
@@ -180,6 +194,23 @@ class VentaServiceTest {
         assertEquals(0, totalEsperado.compareTo(resultado.getTotal()));
     }
 
+    @Test
+    void deberiaCobrarElPrecioVigenteAlMomentoDeLaVenta() {
+        // Arrange: un precio programado ya entró en vigencia aunque Producto.precio aún no se actualizó
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+        when(precioService.precioVigente(eq(producto), any())).thenReturn(new BigDecimal("6.00"));
+        when(ventaRepository.save(any(Venta.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+
+        // Act
+        Venta resultado = ventaService.registrarVenta(ventaDTO);
+
+        // Assert: (6.00 * 10) * 1.18
+        assertEquals(0, new BigDecimal("70.80").compareTo(resultado.getTotal()));
+        assertTrue(resultado.getDetalles().stream()
+                .allMatch(d -> d.getPrecio().compareTo(new BigDecimal("6.00")) == 0));
+    }
+
     @Test
     void deberiaObtenerVentaPorId() {
         // Arrange
@@ -0,0 +1,131 @@
+package com.roxfarma.util;
+
+import com.roxfarma.exception.TiempoEsperaAgotadoException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para ConsultasParalelas.
+ * Valida la ejecución concurrente, la cancelación ante fallos, el plazo compartido
+ * y el rechazo inmediato con el executor saturado.
+ */
+class ConsultasParalelasTest {
+
+    private ThreadPoolTaskExecutor executor;
+    private ConsultasParalelas consultasParalelas;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.initialize();
+        consultasParalelas = new ConsultasParalelas(executor, 2000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void deberiaEjecutarLasConsultasEnParalelo() {
+        // Arrange
+        CountDownLatch ambasIniciadas = new CountDownLatch(2);
+        ConsultasParalelas.Grupo grupo = consultasParalelas.nuevoGrupo();
+
+        // Act: cada consulta espera a la otra; en serie nunca terminarían
+        ConsultasParalelas.Tarea<String> primera = grupo.enviar(() -> {
+            ambasIniciadas.countDown();
+            ambasIniciadas.await();
+            return "primera";
+        });
+        ConsultasParalelas.Tarea<Integer> segunda = grupo.enviar(() -> {
+            ambasIniciadas.countDown();
+            ambasIniciadas.await();
+            return 2;
+        });
+        grupo.esperarTodas();
+
+        // Assert
+        assertEquals("primera", primera.obtener());
+        assertEquals(2, segunda.obtener());
+    }
+
+    @Test
+    void deberiaCancelarLasDemasCuandoUnaFalla() throws Exception {
+        // Arrange
+        CountDownLatch lentaInterrumpida = new CountDownLatch(1);
+        ConsultasParalelas.Grupo grupo = consultasParalelas.nuevoGrupo();
+        ConsultasParalelas.Tarea<String> lenta = grupo.enviar(() -> {
+            try {
+                Thread.sleep(10_000);
+                return "lenta";
+            } catch (InterruptedException e) {
+                lentaInterrumpida.countDown();
+                throw e;
+            }
+        });
+        grupo.enviar(() -> {
+            throw new IllegalArgumentException("Consulta inválida");
+        });
+
+        // Act & Assert
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, grupo::esperarTodas);
+        assertEquals("Consulta inválida", ex.getMessage());
+        assertTrue(lenta.isCancelled());
+        assertTrue(lentaInterrumpida.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void deberiaLanzarExcepcionAlVencerElPlazo() {
+        // Arrange
+        ConsultasParalelas.Grupo grupo = consultasParalelas.nuevoGrupo(100);
+        ConsultasParalelas.Tarea<String> lenta = grupo.enviar(() -> {
+            Thread.sleep(10_000);
+            return "lenta";
+        });
+
+        // Act & Assert
+        assertThrows(TiempoEsperaAgotadoException.class, grupo::esperarTodas);
+        assertTrue(lenta.isCancelled());
+    }
+
+    @Test
+    void deberiaRechazarSinEsperarConElExecutorSaturado() {
+        // Arrange: un hilo ocupado y la cola llena
+        ThreadPoolTaskExecutor saturado = new ThreadPoolTaskExecutor();
+        saturado.setCorePoolSize(1);
+        saturado.setMaxPoolSize(1);
+        saturado.setQueueCapacity(1);
+        saturado.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        saturado.initialize();
+        CountDownLatch liberar = new CountDownLatch(1);
+        ConsultasParalelas.Grupo grupo = new ConsultasParalelas(saturado, 10_000).nuevoGrupo();
+        try {
+            ConsultasParalelas.Tarea<String> ocupada = grupo.enviar(() -> {
+                liberar.await();
+                return "ocupada";
+            });
+            ConsultasParalelas.Tarea<String> encolada = grupo.enviar(() -> "encolada");
+
+            // Act & Assert: responde de inmediato, sin consumir el plazo de 10 s
+            long inicio = System.nanoTime();
+            assertThrows(TiempoEsperaAgotadoException.class, () -> grupo.enviar(() -> "rechazada"));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 1000);
+            assertTrue(ocupada.isCancelled());
+            assertTrue(encolada.isCancelled());
+        } finally {
+            liberar.countDown();
+            saturado.shutdown();
+        }
+    }
+}
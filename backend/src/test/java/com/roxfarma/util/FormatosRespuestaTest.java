@@ -0,0 +1,148 @@
+package com.roxfarma.util;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roxfarma.config.JacksonConfig;
+import com.roxfarma.dto.ResumenProductoDTO;
+import com.roxfarma.dto.ResumenVentaDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para FormatosRespuesta.
+ * Valida la elección del formato según Accept y el tamaño de Smile y CBOR
+ * frente a JSON con los resúmenes de los listados. La comparación de tiempos de
+ * serialización solo corre a pedido: mvn test -Dbenchmark=true
+ */
+class FormatosRespuestaTest {
+
+    private static final int REGISTROS = 1000;
+    private static final int CALENTAMIENTO = 50;
+    private static final int REPETICIONES = 200;
+
+    private FormatosRespuesta formatosRespuesta;
+
+    @BeforeEach
+    void setUp() {
+        JacksonConfig config = new JacksonConfig();
+        formatosRespuesta = new FormatosRespuesta(config.objectMapper(),
+                config.smileHttpMessageConverter(), config.cborHttpMessageConverter());
+    }
+
+    @Test
+    void deberiaElegirElFormatoSegunAccept() {
+        // Act & Assert
+        assertEquals(MediaType.APPLICATION_JSON, formatosRespuesta.elegir(null).tipo());
+        assertEquals(MediaType.APPLICATION_JSON, formatosRespuesta.elegir("*/*").tipo());
+        assertEquals(MediaType.APPLICATION_JSON,
+                formatosRespuesta.elegir("application/json, text/plain, */*").tipo());
+        assertEquals(JacksonConfig.APPLICATION_SMILE,
+                formatosRespuesta.elegir("application/x-jackson-smile, application/json;q=0.5").tipo());
+        assertEquals(MediaType.APPLICATION_CBOR,
+                formatosRespuesta.elegir("application/json;q=0.2, application/cbor").tipo());
+        assertEquals(MediaType.APPLICATION_JSON, formatosRespuesta.elegir("no es un tipo").tipo());
+    }
+
+    @Test
+    void deberiaCodificarLosResumenesEnMenosBytesQueJson() throws Exception {
+        // Arrange
+        List<ResumenProductoDTO> productos = productos();
+        List<ResumenVentaDTO> ventas = ventas();
+
+        // Act
+        int[] bytesProductos = tamanos(productos, ResumenProductoDTO.class);
+        int[] bytesVentas = tamanos(ventas, ResumenVentaDTO.class);
+
+        // Assert: Smile no repite los nombres de campo; CBOR solo ahorra la sintaxis de JSON
+        assertTrue(bytesProductos[1] < bytesProductos[0] * 0.7, "Smile: " + bytesProductos[1] + " de " + bytesProductos[0]);
+        assertTrue(bytesProductos[2] < bytesProductos[0], "CBOR: " + bytesProductos[2] + " de " + bytesProductos[0]);
+        assertTrue(bytesVentas[1] < bytesVentas[0] * 0.7, "Smile: " + bytesVentas[1] + " de " + bytesVentas[0]);
+        assertTrue(bytesVentas[2] < bytesVentas[0], "CBOR: " + bytesVentas[2] + " de " + bytesVentas[0]);
+    }
+
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void deberiaMedirElTiempoDeSerializacionDeCadaFormato() throws Exception {
+        // Act & Assert
+        comparar("ResumenProductoDTO", productos(), ResumenProductoDTO.class);
+        comparar("ResumenVentaDTO", ventas(), ResumenVentaDTO.class);
+    }
+
+    private List<ResumenProductoDTO> productos() {
+        List<ResumenProductoDTO> productos = new ArrayList<>();
+        List<ResumenVentaDTO> ventas = new ArrayList<>();
+        for (long i = 1; i <= REGISTROS; i++) {
+            productos.add(new ResumenProductoDTO(i, "Producto " + i, "Caja x " + (i % 50), new BigDecimal("12.50"),
+                    (int) (i % 300), LocalDate.of(2027, 1, 1).plusDays(i % 365), i % 20, "Categoría " + (i % 20)));
+        }
+        return productos;
+    }
+
+    private List<ResumenVentaDTO> ventas() {
+        List<ResumenVentaDTO> ventas = new ArrayList<>();
+        for (long i = 1; i <= REGISTROS; i++) {
+            ventas.add(new ResumenVentaDTO(i, LocalDateTime.of(2026, 10, 1, 9, 0).plusMinutes(i), i % 400,
+                    "Cliente " + (i % 400), i % 5, "Usuario " + (i % 5), i % 3 == 0 ? null : i % 3,
+                    i % 3 == 0 ? null : "Almacén " + (i % 3), new BigDecimal("48.90")));
+        }
+        return ventas;
+    }
+
+    /**
+     * Bytes de la lista en JSON, Smile y CBOR, verificando que cada formato devuelve los mismos datos.
+     */
+    private <T> int[] tamanos(List<T> lista, Class<T> tipo) throws Exception {
+        List<String> tipos = List.of("application/json", "application/x-jackson-smile", "application/cbor");
+        int[] tamanos = new int[tipos.size()];
+        for (int i = 0; i < tipos.size(); i++) {
+            ObjectMapper mapper = formatosRespuesta.elegir(tipos.get(i)).mapper();
+            byte[] bytes = mapper.writeValueAsBytes(lista);
+            assertEquals(lista, mapper.readValue(bytes,
+                    mapper.getTypeFactory().constructCollectionType(List.class, tipo)));
+            tamanos[i] = bytes.length;
+        }
+        return tamanos;
+    }
+
+    private <T> void comparar(String nombre, List<T> lista, Class<T> tipo) throws Exception {
+        int bytesJson = 0;
+        for (String accept : List.of("application/json", "application/x-jackson-smile", "application/cbor")) {
+            FormatosRespuesta.Formato formato = formatosRespuesta.elegir(accept);
+            ObjectMapper mapper = formato.mapper();
+            JavaType tipoLista = mapper.getTypeFactory().constructCollectionType(List.class, tipo);
+
+            for (int i = 0; i < CALENTAMIENTO; i++) {
+                mapper.writeValueAsBytes(lista);
+            }
+            long inicio = System.nanoTime();
+            byte[] bytes = null;
+            for (int i = 0; i < REPETICIONES; i++) {
+                bytes = mapper.writeValueAsBytes(lista);
+            }
+            long microsPorLista = (System.nanoTime() - inicio) / REPETICIONES / 1000;
+
+            // Cada formato debe devolver los mismos datos
+            assertEquals(lista, mapper.readValue(bytes, tipoLista));
+            if (formato.tipo().equals(MediaType.APPLICATION_JSON)) {
+                bytesJson = bytes.length;
+            } else {
+                assertTrue(bytes.length < bytesJson, nombre + " en " + formato.tipo() + " no es más chico que JSON");
+            }
+            System.out.printf("%-20s %-28s %8d bytes (%5.1f%% de JSON) %6d µs por %d registros%n",
+                    nombre, formato.tipo(), bytes.length, 100.0 * bytes.length / bytesJson,
+                    microsPorLista, lista.size());
+        }
+    }
+}
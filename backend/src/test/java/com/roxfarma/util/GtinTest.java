@@ -0,0 +1,36 @@
+package com.roxfarma.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para Gtin.
+ * Valida el dígito de control y la forma canónica de cada longitud de GTIN.
+ */
+class GtinTest {
+
+    @Test
+    void deberiaLlevarUpcYEan13AlMismoGtin14() {
+        // Act & Assert: el mismo producto leído como UPC-A y como EAN-13; EAN-8 también se completa
+        assertEquals("00036000291452", Gtin.normalizar("036000291452"));
+        assertEquals("00036000291452", Gtin.normalizar(" 0036000291452 "));
+        assertEquals("07750182000284", Gtin.normalizar("7750182000284"));
+        assertEquals("00000096385074", Gtin.normalizar("96385074"));
+    }
+
+    @Test
+    void deberiaRechazarUnGtinConDigitoDeControlIncorrecto() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> Gtin.normalizar("7750182000285"));
+    }
+
+    @Test
+    void deberiaAceptarCodigosInternosEnMayusculas() {
+        // Act & Assert: alfanumérico o numérico de longitud que no es GTIN
+        assertEquals("RX-00123", Gtin.normalizar("rx-00123"));
+        assertEquals("12345", Gtin.normalizar("12345"));
+        assertThrows(IllegalArgumentException.class, () -> Gtin.normalizar("AB 12"));
+        assertThrows(IllegalArgumentException.class, () -> Gtin.normalizar("  "));
+    }
+}
@@ -0,0 +1,85 @@
+package com.roxfarma.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para IndiceBusqueda.
+ * Valida la normalización, la tolerancia a errores, el orden y la actualización incremental.
+ */
+class IndiceBusquedaTest {
+
+    private IndiceBusqueda<String> indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceBusqueda<>();
+        agregar(1L, "Metamizól Sódico", "Ampolla 2 ml", "Analgésicos");
+        agregar(2L, "Paracetamol", "Tableta 500 mg", "Analgésicos");
+        agregar(3L, "Paracetamol Forte", "Tableta 1 g", "Analgésicos");
+        agregar(4L, "Amoxicilina", "Cápsula 500 mg", "Antibióticos");
+    }
+
+    private void agregar(Long id, String nombre, String presentacion, String categoria) {
+        indice.indexar(id, nombre, List.of(
+                new IndiceBusqueda.Campo(nombre, 3),
+                new IndiceBusqueda.Campo(presentacion, 1),
+                new IndiceBusqueda.Campo(categoria, 1)));
+    }
+
+    private List<Long> ids(String consulta) {
+        return indice.buscar(consulta, 10).stream().map(IndiceBusqueda.Resultado::id).toList();
+    }
+
+    @Test
+    void deberiaIgnorarTildesYMayusculas() {
+        // Act & Assert
+        assertEquals(List.of(1L), ids("metamizol"));
+        assertEquals(List.of(1L), ids("SODICO"));
+    }
+
+    @Test
+    void deberiaTolerarErroresDeTipeoYPalabrasAMedioEscribir() {
+        // Act & Assert
+        assertEquals(List.of(4L), ids("amoxicilna"));
+        assertEquals(List.of(1L), ids("metamis"));
+        assertEquals(List.of(2L, 3L), ids("parac"));
+    }
+
+    @Test
+    void deberiaExigirTodasLasPalabrasYPriorizarElNombre() {
+        // Act
+        List<Long> conDosPalabras = ids("paracetamol 500");
+        List<Long> porCategoria = ids("analgesicos");
+
+        // Assert: "500" solo está en la presentación del 2; la categoría pesa menos que el nombre
+        assertEquals(List.of(2L), conDosPalabras);
+        assertEquals(3, porCategoria.size());
+        assertTrue(indice.buscar("paracetamol", 10).get(0).puntaje()
+                > indice.buscar("analgesicos", 10).get(0).puntaje());
+    }
+
+    @Test
+    void deberiaActualizarElIndiceAlReemplazarYEliminarDocumentos() {
+        // Act
+        agregar(4L, "Azitromicina", "Tableta 500 mg", "Antibióticos");
+        indice.eliminar(3L);
+
+        // Assert
+        assertTrue(ids("amoxicilina").isEmpty());
+        assertEquals(List.of(4L), ids("azitromicina"));
+        assertEquals(List.of(2L), ids("paracetamol"));
+        assertEquals(3, indice.tamano());
+    }
+
+    @Test
+    void deberiaCortarLaDistanciaAlSuperarElMaximo() {
+        // Act & Assert
+        assertEquals(1, IndiceBusqueda.distanciaAcotada("metamisol", "metamizol", 2));
+        assertEquals(3, IndiceBusqueda.distanciaAcotada("abc", "xyz", 2));
+    }
+}
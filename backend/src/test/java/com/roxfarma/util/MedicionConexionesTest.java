@@ -0,0 +1,50 @@
+package com.roxfarma.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para MedicionConexiones.
+ * Valida la suma por hilo y la propagación a las tareas de otro hilo.
+ */
+class MedicionConexionesTest {
+
+    @AfterEach
+    void tearDown() {
+        MedicionConexiones.terminar();
+    }
+
+    @Test
+    void deberiaIgnorarConexionesFueraDeUnaPeticion() {
+        // Act & Assert
+        assertFalse(MedicionConexiones.registrar(1_000));
+    }
+
+    @Test
+    void deberiaSumarLasConexionesDeOtroHiloALaPeticionQueEnvioLaTarea() throws Exception {
+        // Arrange
+        MedicionConexiones medicion = MedicionConexiones.iniciar();
+        MedicionConexiones.registrar(2_000);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // Act
+        try {
+            executor.submit(MedicionConexiones.propagar(() -> MedicionConexiones.registrar(3_000))).get();
+            boolean registradaDespues = executor.submit(() -> MedicionConexiones.registrar(5_000)).get();
+
+            // Assert: el hilo del executor no queda con la medición de la petición
+            assertFalse(registradaDespues);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        assertEquals(2, medicion.getConexiones());
+        assertEquals(5_000, medicion.getNanos());
+    }
+}
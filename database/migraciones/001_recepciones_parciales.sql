@@ -0,0 +1,20 @@
+-- ================================================================================
+-- MIGRACIÓN: RECEPCIONES PARCIALES DE PEDIDOS
+-- Solo para bases creadas antes de esta funcionalidad; schema.sql ya incluye estos
+-- cambios. Se ejecuta después de iniciar una vez el backend nuevo (ddl-auto=update
+-- crea las columnas cantidad_recibida y cantidad_pendiente, pero no modifica las
+-- columnas existentes) y antes de registrar recepciones. Se puede repetir.
+-- ================================================================================
+
+USE roxfarma_db;
+
+-- Estados actuales de EstadoPedido
+ALTER TABLE pedido
+    MODIFY estado ENUM('BORRADOR', 'PENDIENTE', 'ENVIADO', 'RECIBIDO_PARCIAL', 'RECIBIDO') NOT NULL DEFAULT 'PENDIENTE';
+
+-- Una línea con cantidad >= 1 sin nada recibido ni pendiente es anterior a esta funcionalidad
+UPDATE detalle_pedido d
+JOIN pedido p ON p.id_pedido = d.id_pedido
+SET d.cantidad_recibida = IF(p.estado = 'RECIBIDO', d.cantidad, 0),
+    d.cantidad_pendiente = IF(p.estado = 'RECIBIDO', 0, d.cantidad)
+WHERE d.cantidad_recibida = 0 AND d.cantidad_pendiente = 0;
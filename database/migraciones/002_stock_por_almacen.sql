@@ -0,0 +1,40 @@
+-- ================================================================================
+-- MIGRACIÓN: STOCK POR ALMACÉN
+-- Solo para bases creadas antes de esta funcionalidad; schema.sql ya incluye estos
+-- cambios. Se ejecuta antes de iniciar la versión nueva del backend, que al
+-- arrancar solo busca el almacén principal y no inicia sin él. Se puede repetir.
+-- ================================================================================
+
+USE roxfarma_db;
+
+CREATE TABLE IF NOT EXISTS almacen (
+    id_almacen BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(100) NOT NULL UNIQUE,
+    direccion VARCHAR(200),
+    principal BOOLEAN NOT NULL DEFAULT FALSE,
+    activo BOOLEAN NOT NULL DEFAULT TRUE,
+    fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS stock_almacen (
+    id_almacen BIGINT NOT NULL,
+    id_producto BIGINT NOT NULL,
+    cantidad INT NOT NULL DEFAULT 0,
+    fecha_actualizacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id_almacen, id_producto),
+    FOREIGN KEY (id_almacen) REFERENCES almacen(id_almacen),
+    FOREIGN KEY (id_producto) REFERENCES producto(id_producto),
+    INDEX idx_stock_almacen_producto (id_producto)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Almacén principal, si todavía no hay uno
+INSERT INTO almacen (nombre, direccion, principal, activo)
+SELECT 'Principal', NULL, TRUE, TRUE FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM almacen WHERE principal = TRUE);
+
+-- El stock de los productos sin filas por almacén queda en el principal
+INSERT INTO stock_almacen (id_almacen, id_producto, cantidad, fecha_actualizacion)
+SELECT a.id_almacen, p.id_producto, p.stock, NOW()
+FROM producto p
+JOIN (SELECT MIN(id_almacen) AS id_almacen FROM almacen WHERE principal = TRUE) a
+WHERE NOT EXISTS (SELECT 1 FROM stock_almacen s WHERE s.id_producto = p.id_producto);
@@ -0,0 +1,17 @@
+-- ================================================================================
+-- MIGRACIÓN: SECUENCIA DE ENTREGA DEL OUTBOX
+-- Solo para bases creadas antes de esta funcionalidad; schema.sql ya incluye estos
+-- cambios. Se ejecuta una sola vez, con el backend detenido y antes de iniciar la
+-- versión nueva: si el relay arrancara antes, numeraría los eventos existentes
+-- desde 1 y las posiciones guardadas (IDs de evento) saltarían eventos.
+-- ================================================================================
+
+USE roxfarma_db;
+
+ALTER TABLE outbox_evento
+    ADD COLUMN secuencia BIGINT NULL AFTER id_evento,
+    ADD UNIQUE INDEX uk_outbox_secuencia (secuencia);
+
+-- Con el backend detenido todos los eventos están confirmados: su secuencia es su
+-- ID, así las posiciones de outbox_offset y los cursores externos siguen valiendo
+UPDATE outbox_evento SET secuencia = id_evento WHERE secuencia IS NULL;
@@ -0,0 +1,15 @@
+-- ================================================================================
+-- MIGRACIÓN: LOTES POR ALMACÉN
+-- Solo para bases creadas antes de esta funcionalidad; schema.sql ya incluye estos
+-- cambios. Se ejecuta después de 002_stock_por_almacen.sql y de iniciar una vez el
+-- backend nuevo (ddl-auto=update crea la columna lote.id_almacen con 0 en los lotes
+-- existentes, que mientras tanto no se asignan en las ventas). Se puede repetir.
+-- ================================================================================
+
+USE roxfarma_db;
+
+-- Un lote ingresó con su pedido, en el almacén del pedido (el principal si no indica uno)
+UPDATE lote l
+LEFT JOIN pedido p ON p.id_pedido = l.id_pedido
+SET l.id_almacen = COALESCE(p.id_almacen, (SELECT MIN(id_almacen) FROM almacen WHERE principal = TRUE))
+WHERE l.id_almacen = 0 OR l.id_almacen IS NULL;
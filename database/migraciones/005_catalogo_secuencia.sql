@@ -0,0 +1,29 @@
+-- ================================================================================
+-- MIGRACIÓN: SECUENCIA DE CAMBIOS DEL CATÁLOGO
+-- Solo para bases creadas antes de esta funcionalidad; schema.sql ya incluye estos
+-- cambios. Se ejecuta una sola vez, con el backend detenido y antes de iniciar la
+-- versión nueva: si el backend arrancara antes, numeraría las bajas existentes
+-- desde 1 y los cursores guardados por los terminales saltarían bajas.
+-- ================================================================================
+
+USE roxfarma_db;
+
+ALTER TABLE producto
+    ADD COLUMN secuencia_cambio BIGINT NULL AFTER version,
+    ADD UNIQUE INDEX uk_producto_secuencia_cambio (secuencia_cambio);
+
+ALTER TABLE producto_eliminado
+    ADD COLUMN secuencia BIGINT NULL,
+    ADD UNIQUE INDEX uk_producto_eliminado_secuencia (secuencia);
+
+-- Los productos existentes se numeran en el orden en que se entregaban; la fecha
+-- se asigna a sí misma para que ON UPDATE no la cambie
+UPDATE producto p
+JOIN (SELECT id_producto, ROW_NUMBER() OVER (ORDER BY fecha_actualizacion, id_producto) AS secuencia
+      FROM producto) orden ON orden.id_producto = p.id_producto
+SET p.secuencia_cambio = orden.secuencia,
+    p.fecha_actualizacion = p.fecha_actualizacion;
+
+-- La secuencia de una baja existente es su ID: los cursores anteriores de los
+-- terminales (que guardan el ID de la última baja) siguen valiendo
+UPDATE producto_eliminado SET secuencia = id_eliminacion WHERE secuencia IS NULL;
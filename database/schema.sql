@@ -19,6 +19,7 @@ CREATE TABLE categoria (
     nombre VARCHAR(100) NOT NULL,
     descripcion TEXT,
     fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0 COMMENT 'Control de concurrencia optimista',
     INDEX idx_nombre (nombre)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
@@ -37,10 +38,92 @@ CREATE TABLE producto (
     id_categoria BIGINT NOT NULL,
     fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     fecha_actualizacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0 COMMENT 'Control de concurrencia optimista',
+    secuencia_cambio BIGINT NULL COMMENT 'Posición del último cambio en la sincronización del catálogo',
     FOREIGN KEY (id_categoria) REFERENCES categoria(id_categoria),
     INDEX idx_stock (stock),
     INDEX idx_fecha_vencimiento (fecha_vencimiento),
-    INDEX idx_nombre (nombre)
+    INDEX idx_nombre (nombre),
+    INDEX idx_producto_actualizacion (fecha_actualizacion, id_producto),
+    UNIQUE INDEX uk_producto_secuencia_cambio (secuencia_cambio)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ================================================================================
+-- TABLA: CODIGO_BARRAS
+-- Códigos de barras de cada producto (varios por producto, únicos en el sistema);
+-- los GTIN se guardan completados a 14 dígitos
+-- ================================================================================
+CREATE TABLE codigo_barras (
+    codigo VARCHAR(50) PRIMARY KEY,
+    id_producto BIGINT NOT NULL,
+    fecha_creacion DATETIME NOT NULL,
+    FOREIGN KEY (id_producto) REFERENCES producto(id_producto),
+    INDEX idx_codigo_barras_producto (id_producto)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ================================================================================
+-- TABLA: PRECIO_PRODUCTO
+-- Historial de precios de cada producto; cada precio rige desde vigente_desde hasta
+-- el inicio del siguiente. Los de fecha futura son cambios programados
+-- ================================================================================
+CREATE TABLE precio_producto (
+    id_precio BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id_producto BIGINT NOT NULL,
+    precio DECIMAL(10, 2) NOT NULL,
+    vigente_desde DATETIME NOT NULL,
+    aplicado BOOLEAN NOT NULL COMMENT 'Ya copiado a producto.precio',
+    fecha_creacion DATETIME NOT NULL,
+    FOREIGN KEY (id_producto) REFERENCES producto(id_producto),
+    INDEX idx_precio_producto_vigencia (id_producto, vigente_desde),
+    INDEX idx_precio_pendiente (aplicado, vigente_desde)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ================================================================================
+-- TABLA: LOTE
+-- Lotes de cada producto en cada almacén con su vencimiento; las ventas los
+-- consumen en orden FEFO
+-- ================================================================================
+CREATE TABLE lote (
+    id_lote BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id_producto BIGINT NOT NULL,
+    id_almacen BIGINT NOT NULL COMMENT 'Almacén donde están las unidades del lote',
+    codigo VARCHAR(50) NOT NULL,
+    fecha_vencimiento DATE NOT NULL,
+    cantidad_inicial INT NOT NULL,
+    cantidad_disponible INT NOT NULL,
+    id_pedido BIGINT COMMENT 'Pedido con el que ingresó el lote',
+    fecha_ingreso TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (id_producto) REFERENCES producto(id_producto),
+    INDEX idx_lote_producto_vencimiento (id_producto, fecha_vencimiento),
+    INDEX idx_lote_almacen_producto (id_almacen, id_producto)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ================================================================================
+-- TABLA: ALMACEN
+-- Ubicaciones físicas del stock; el principal recibe las operaciones sin almacén
+-- ================================================================================
+CREATE TABLE almacen (
+    id_almacen BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(100) NOT NULL UNIQUE,
+    direccion VARCHAR(200),
+    principal BOOLEAN NOT NULL DEFAULT FALSE,
+    activo BOOLEAN NOT NULL DEFAULT TRUE,
+    fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ================================================================================
+-- TABLA: STOCK_ALMACEN
+-- Stock de cada producto por almacén; producto.stock es la suma mantenida
+-- ================================================================================
+CREATE TABLE stock_almacen (
+    id_almacen BIGINT NOT NULL,
+    id_producto BIGINT NOT NULL,
+    cantidad INT NOT NULL DEFAULT 0,
+    fecha_actualizacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id_almacen, id_producto),
+    FOREIGN KEY (id_almacen) REFERENCES almacen(id_almacen),
+    FOREIGN KEY (id_producto) REFERENCES producto(id_producto),
+    INDEX idx_stock_almacen_producto (id_producto)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- ================================================================================
@@ -92,11 +175,14 @@ CREATE TABLE usuario (
 CREATE TABLE pedido (
     id_pedido BIGINT AUTO_INCREMENT PRIMARY KEY,
     fecha TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    estado ENUM('PENDIENTE', 'ENVIADO', 'RECIBIDO') NOT NULL DEFAULT 'PENDIENTE',
+    estado ENUM('BORRADOR', 'PENDIENTE', 'ENVIADO', 'RECIBIDO_PARCIAL', 'RECIBIDO') NOT NULL DEFAULT 'PENDIENTE',
     id_proveedor BIGINT NOT NULL,
+    id_almacen BIGINT COMMENT 'Almacén que recibe; NULL = principal',
     FOREIGN KEY (id_proveedor) REFERENCES proveedor(id_proveedor),
+    FOREIGN KEY (id_almacen) REFERENCES almacen(id_almacen),
     INDEX idx_estado (estado),
-    INDEX idx_fecha (fecha)
+    INDEX idx_fecha (fecha),
+    INDEX idx_pedido_estado_fecha (estado, fecha)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- ================================================================================
@@ -108,10 +194,46 @@ CREATE TABLE detalle_pedido (
     id_pedido BIGINT NOT NULL,
     id_producto BIGINT NOT NULL,
     cantidad INT NOT NULL,
+    cantidad_recibida INT NOT NULL DEFAULT 0 COMMENT 'Suma de las entregas registradas',
+    cantidad_pendiente INT NOT NULL DEFAULT 0 COMMENT 'cantidad - cantidad_recibida, mantenida por cada entrega',
+    codigo_lote VARCHAR(50) COMMENT 'Lote que se creará al recibir el pedido',
+    fecha_vencimiento_lote DATE,
     FOREIGN KEY (id_pedido) REFERENCES pedido(id_pedido) ON DELETE CASCADE,
     FOREIGN KEY (id_producto) REFERENCES producto(id_producto),
     INDEX idx_pedido (id_pedido),
-    INDEX idx_producto (id_producto)
+    INDEX idx_producto (id_producto),
+    INDEX idx_detalle_pedido_pendiente (id_producto, cantidad_pendiente)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ================================================================================
+-- TABLA: RECEPCION_PEDIDO
+-- Cada entrega (total o parcial) de un pedido de proveedor
+-- ================================================================================
+CREATE TABLE recepcion_pedido (
+    id_recepcion BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id_pedido BIGINT NOT NULL,
+    fecha DATETIME NOT NULL,
+    usuario VARCHAR(50) NOT NULL,
+    observacion VARCHAR(255),
+    FOREIGN KEY (id_pedido) REFERENCES pedido(id_pedido) ON DELETE CASCADE,
+    INDEX idx_recepcion_pedido (id_pedido)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ================================================================================
+-- TABLA: DETALLE_RECEPCION
+-- Unidades de cada línea del pedido recibidas en una entrega, con su lote
+-- ================================================================================
+CREATE TABLE detalle_recepcion (
+    id_detalle_recepcion BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id_recepcion BIGINT NOT NULL,
+    id_detalle_pedido BIGINT NOT NULL,
+    id_producto BIGINT NOT NULL,
+    cantidad INT NOT NULL,
+    codigo_lote VARCHAR(50) NOT NULL,
+    fecha_vencimiento_lote DATE NOT NULL,
+    FOREIGN KEY (id_recepcion) REFERENCES recepcion_pedido(id_recepcion) ON DELETE CASCADE,
+    FOREIGN KEY (id_detalle_pedido) REFERENCES detalle_pedido(id_detalle_pedido) ON DELETE CASCADE,
+    INDEX idx_detalle_recepcion_detalle_pedido (id_detalle_pedido)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- ================================================================================
@@ -124,7 +246,9 @@ CREATE TABLE venta (
     id_cliente BIGINT NOT NULL,
     id_usuario BIGINT NOT NULL COMMENT 'Usuario que registró la venta',
     total DECIMAL(10, 2) NOT NULL COMMENT 'Total incluyendo IGV',
+    id_almacen BIGINT COMMENT 'Almacén del que salió la mercadería',
     FOREIGN KEY (id_cliente) REFERENCES cliente(id_cliente),
+    FOREIGN KEY (id_almacen) REFERENCES almacen(id_almacen),
     FOREIGN KEY (id_usuario) REFERENCES usuario(id_usuario),
     INDEX idx_fecha (fecha),
     INDEX idx_cliente (id_cliente),
@@ -141,8 +265,10 @@ CREATE TABLE detalle_venta (
     id_producto BIGINT NOT NULL,
     cantidad INT NOT NULL,
     precio DECIMAL(10, 2) NOT NULL COMMENT 'Precio unitario al momento de la venta',
+    id_lote BIGINT COMMENT 'Lote del que salieron las unidades (NULL si stock sin lote)',
     FOREIGN KEY (id_venta) REFERENCES venta(id_venta) ON DELETE CASCADE,
     FOREIGN KEY (id_producto) REFERENCES producto(id_producto),
+    FOREIGN KEY (id_lote) REFERENCES lote(id_lote),
     INDEX idx_venta (id_venta),
     INDEX idx_producto (id_producto)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -164,6 +290,94 @@ CREATE TABLE auditoria (
     INDEX idx_usuario (usuario)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- ================================================================================
+-- TABLA: MOVIMIENTO_INVENTARIO
+-- Kardex: registro de solo inserción de entradas, salidas y ajustes de stock
+-- Sin FK a producto/venta/pedido: el historial se conserva aunque se eliminen
+-- ================================================================================
+CREATE TABLE movimiento_inventario (
+    id_movimiento BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id_producto BIGINT NOT NULL,
+    tipo VARCHAR(20) NOT NULL COMMENT 'ENTRADA, SALIDA, AJUSTE',
+    motivo VARCHAR(50) NOT NULL COMMENT 'VENTA, PEDIDO_RECIBIDO, STOCK_INICIAL, AJUSTE_MANUAL, TRANSFERENCIA',
+    cantidad INT NOT NULL,
+    stock_anterior INT NOT NULL,
+    stock_nuevo INT NOT NULL,
+    usuario VARCHAR(50) NOT NULL,
+    id_venta BIGINT COMMENT 'Venta que originó la salida',
+    id_pedido BIGINT COMMENT 'Pedido que originó la entrada',
+    id_almacen BIGINT COMMENT 'Almacén afectado; NULL en movimientos sobre el total',
+    fecha TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_movimiento_producto_fecha (id_producto, fecha),
+    INDEX idx_movimiento_fecha (fecha),
+    INDEX idx_movimiento_venta (id_venta),
+    INDEX idx_movimiento_pedido (id_pedido)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ================================================================================
+-- TABLA: STOCK_CHECKPOINT
+-- Stock de cada producto en una fecha de corte (proceso diario)
+-- Stock a una fecha = corte anterior + movimientos del kardex posteriores
+-- ================================================================================
+CREATE TABLE stock_checkpoint (
+    fecha_corte DATETIME(6) NOT NULL,
+    id_producto BIGINT NOT NULL,
+    stock INT NOT NULL,
+    PRIMARY KEY (fecha_corte, id_producto),
+    INDEX idx_checkpoint_producto_fecha (id_producto, fecha_corte)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ================================================================================
+-- TABLA: OUTBOX_EVENTO
+-- Eventos de dominio (venta registrada, pedido recibido, stock actualizado)
+-- escritos en la misma transacción que la operación; la secuencia, que el relay
+-- asigna en orden de confirmación, es el cursor de lectura
+-- ================================================================================
+CREATE TABLE outbox_evento (
+    id_evento BIGINT AUTO_INCREMENT PRIMARY KEY,
+    secuencia BIGINT NULL,
+    tipo VARCHAR(30) NOT NULL,
+    agregado VARCHAR(30) NOT NULL,
+    id_agregado BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    fecha DATETIME(3) NOT NULL,
+    INDEX idx_outbox_fecha (fecha),
+    UNIQUE INDEX uk_outbox_secuencia (secuencia)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ================================================================================
+-- TABLA: OUTBOX_OFFSET
+-- Secuencia del último evento procesado por cada consumidor del outbox
+-- ================================================================================
+CREATE TABLE outbox_offset (
+    consumidor VARCHAR(100) PRIMARY KEY,
+    ultimo_evento BIGINT NOT NULL,
+    fecha_actualizacion DATETIME NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ================================================================================
+-- TABLA: REABASTECIMIENTO_PENDIENTE
+-- Productos con cambios de stock por revisar en la próxima ejecución del reabastecimiento
+-- ================================================================================
+CREATE TABLE reabastecimiento_pendiente (
+    id_producto BIGINT PRIMARY KEY,
+    fecha_marca DATETIME(3) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ================================================================================
+-- TABLA: PRODUCTO_ELIMINADO
+-- Bajas de productos para la sincronización incremental del catálogo;
+-- el ID es la secuencia que recorren los terminales
+-- ================================================================================
+CREATE TABLE producto_eliminado (
+    id_eliminacion BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id_producto BIGINT NOT NULL,
+    fecha_eliminacion DATETIME(6) NOT NULL,
+    secuencia BIGINT NULL,
+    INDEX idx_producto_eliminado_fecha (fecha_eliminacion),
+    UNIQUE INDEX uk_producto_eliminado_secuencia (secuencia)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- ================================================================================
 -- DATOS INICIALES
 -- ================================================================================
@@ -252,6 +466,13 @@ INSERT INTO producto (nombre, presentacion, descripcion, precio, fecha_vencimien
 ('Omeprazol', '20mg x 14 cápsulas', 'Inhibidor de bomba de protones para gastritis', 16.00, '2025-01-15', 45, 1),
 ('Ranitidina', '150mg x 20 tabletas', 'Antiácido bloqueador H2', 14.00, '2025-01-20', 40, 1);
 
+-- Almacén principal con todo el stock inicial
+INSERT INTO almacen (nombre, direccion, principal, activo) VALUES
+('Principal', NULL, TRUE, TRUE);
+
+INSERT INTO stock_almacen (id_almacen, id_producto, cantidad)
+SELECT 1, id_producto, stock FROM producto;
+
 -- Insertar clientes (farmacias y boticas reales de Los Olivos y alrededores)
 INSERT INTO cliente (nombre, documento, direccion) VALUES
 ('Botica Farmaolivos EIRL', '20601234567', 'Av. Alfredo Mendiola 5890, Los Olivos, Lima'),
@@ -310,6 +531,11 @@ INSERT INTO detalle_pedido (id_pedido, id_producto, cantidad) VALUES
 (5, 36, 35),
 (5, 39, 25);
 
+-- Cantidades recibidas y pendientes según el estado de cada pedido
+UPDATE detalle_pedido d JOIN pedido p ON p.id_pedido = d.id_pedido
+SET d.cantidad_recibida = IF(p.estado = 'RECIBIDO', d.cantidad, 0),
+    d.cantidad_pendiente = IF(p.estado = 'RECIBIDO', 0, d.cantidad);
+
 -- ================================================================================
 -- DATOS DE EJEMPLO: VENTAS
 -- ================================================================================
@@ -19,12 +19,9 @@ const Dashboard: React.FC = () => {
   const cargarDatos = async () => {
     try {
       setLoading(true);
-      const [alertasData, estadisticasData] = await Promise.all([
-        dashboardService.obtenerAlertas(),
-        dashboardService.obtenerEstadisticas()
-      ]);
-      setAlertas(alertasData);
-      setEstadisticas(estadisticasData);
+      const resumen = await dashboardService.obtenerResumen();
+      setAlertas(resumen);
+      setEstadisticas(resumen);
     } catch (err) {
       setError('Error al cargar datos del dashboard');
     } finally {
@@ -3,7 +3,7 @@ import { useNavigate } from 'react-router-dom';
 import { pedidoService } from '../../services/pedidoService';
 import { proveedorService } from '../../services/proveedorService';
 import { productoService } from '../../services/productoService';
-import { Proveedor, Producto, DetallePedidoDTO } from '../../types';
+import { Proveedor, ResumenProducto, DetallePedidoDTO } from '../../types';
 import Alert from '../common/Alert';
 import '../ventas/VentaForm.css';
 
@@ -13,7 +13,7 @@ const PedidoForm: React.FC = () => {
   const [error, setError] = useState('');
   const [success, setSuccess] = useState('');
   const [proveedores, setProveedores] = useState<Proveedor[]>([]);
-  const [productos, setProductos] = useState<Producto[]>([]);
+  const [productos, setProductos] = useState<ResumenProducto[]>([]);
   const [idProveedor, setIdProveedor] = useState(0);
   const [detalles, setDetalles] = useState<DetallePedidoDTO[]>([]);
   const [productoSeleccionado, setProductoSeleccionado] = useState(0);
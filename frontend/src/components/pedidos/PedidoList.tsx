@@ -1,26 +1,33 @@
 import React, { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { pedidoService } from '../../services/pedidoService';
-import { Pedido, EstadoPedido } from '../../types';
+import { ResumenPedido, EstadoPedido } from '../../types';
 import Loading from '../common/Loading';
 import Alert from '../common/Alert';
 import '../productos/ProductoList.css';
 
 const PedidoList: React.FC = () => {
-  const [pedidos, setPedidos] = useState<Pedido[]>([]);
+  const [pedidos, setPedidos] = useState<ResumenPedido[]>([]);
+  const [estadoFiltro, setEstadoFiltro] = useState<EstadoPedido | ''>('');
+  const [pagina, setPagina] = useState(0);
+  const [totalPaginas, setTotalPaginas] = useState(0);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const navigate = useNavigate();
 
   useEffect(() => {
     cargarPedidos();
-  }, []);
+  }, [pagina, estadoFiltro]);
 
   const cargarPedidos = async () => {
     try {
       setLoading(true);
-      const data = await pedidoService.listarPedidos();
-      setPedidos(data);
+      const data = await pedidoService.listarPedidos({
+        estado: estadoFiltro || undefined,
+        pagina
+      });
+      setPedidos(data.content);
+      setTotalPaginas(data.totalPages);
     } catch (err) {
       setError('Error al cargar pedidos');
     } finally {
@@ -37,10 +44,21 @@ const PedidoList: React.FC = () => {
     }
   };
 
+  const descartarBorrador = async (id: number) => {
+    try {
+      await pedidoService.descartarBorrador(id);
+      cargarPedidos();
+    } catch (err: any) {
+      setError(err.response?.data?.mensaje || 'Error al descartar el borrador');
+    }
+  };
+
   const getEstadoColor = (estado: EstadoPedido) => {
     switch (estado) {
+      case 'BORRADOR': return '#7f8c8d';
       case 'PENDIENTE': return '#f39c12';
       case 'ENVIADO': return '#3498db';
+      case 'RECIBIDO_PARCIAL': return '#8e44ad';
       case 'RECIBIDO': return '#27ae60';
       default: return '#95a5a6';
     }
@@ -59,6 +77,18 @@ const PedidoList: React.FC = () => {
 
       {error && <Alert type="error" message={error} onClose={() => setError('')} />}
 
+      <div className="search-box">
+        <select
+          value={estadoFiltro}
+          onChange={(e) => { setEstadoFiltro(e.target.value as EstadoPedido | ''); setPagina(0); }}
+        >
+          <option value="">Todos los estados</option>
+          {Object.values(EstadoPedido).map(estado => (
+            <option key={estado} value={estado}>{estado}</option>
+          ))}
+        </select>
+      </div>
+
       <div className="table-container">
         <table className="data-table">
         <thead>
@@ -66,6 +96,8 @@ const PedidoList: React.FC = () => {
             <th>ID</th>
             <th>Fecha</th>
             <th>Proveedor</th>
+            <th>Líneas</th>
+            <th>Unidades</th>
             <th>Estado</th>
             <th>Acciones</th>
           </tr>
@@ -82,7 +114,13 @@ const PedidoList: React.FC = () => {
                     })()
                   : 'N/A'}
               </td>
-              <td>{pedido.proveedor.nombre}</td>
+              <td>{pedido.nombreProveedor}</td>
+              <td>{pedido.lineas}</td>
+              <td>
+                {pedido.unidades}
+                {pedido.unidadesPendientes > 0 && pedido.unidadesPendientes < pedido.unidades
+                  && ` (${pedido.unidadesPendientes} por recibir)`}
+              </td>
               <td>
                 <span style={{ 
                   padding: '0.25rem 0.75rem', 
@@ -94,6 +132,16 @@ const PedidoList: React.FC = () => {
                 </span>
               </td>
               <td>
+                {pedido.estado === EstadoPedido.BORRADOR && (
+                  <>
+                    <button className="btn btn-sm btn-primary" onClick={() => cambiarEstado(pedido.idPedido, EstadoPedido.PENDIENTE)}>
+                      Aprobar
+                    </button>
+                    <button className="btn btn-sm btn-danger" onClick={() => descartarBorrador(pedido.idPedido)}>
+                      Descartar
+                    </button>
+                  </>
+                )}
                 {pedido.estado === EstadoPedido.PENDIENTE && (
                   <button className="btn btn-sm btn-info" onClick={() => cambiarEstado(pedido.idPedido, EstadoPedido.ENVIADO)}>
                     Marcar Enviado
@@ -104,12 +152,29 @@ const PedidoList: React.FC = () => {
                     Marcar Recibido
                   </button>
                 )}
+                {pedido.estado === EstadoPedido.RECIBIDO_PARCIAL && (
+                  <button className="btn btn-sm btn-primary" onClick={() => cambiarEstado(pedido.idPedido, EstadoPedido.RECIBIDO)}>
+                    Recibir Saldo
+                  </button>
+                )}
               </td>
             </tr>
           ))}
         </tbody>
       </table>
       </div>
+
+      {totalPaginas > 1 && (
+        <div className="pagination">
+          <button className="btn btn-sm" disabled={pagina === 0} onClick={() => setPagina(pagina - 1)}>
+            Anterior
+          </button>
+          <span>Página {pagina + 1} de {totalPaginas}</span>
+          <button className="btn btn-sm" disabled={pagina + 1 >= totalPaginas} onClick={() => setPagina(pagina + 1)}>
+            Siguiente
+          </button>
+        </div>
+      )}
     </div>
   );
 };
@@ -0,0 +1,108 @@
+import React, { useState, useEffect } from 'react';
+import { productoService } from '../../services/productoService';
+import { VigenciaPrecio } from '../../types';
+import Alert from '../common/Alert';
+
+interface Props {
+  idProducto: number;
+}
+
+const formatearFecha = (valor: string) => {
+  const fecha = new Date(valor);
+  return isNaN(fecha.getTime()) ? valor : fecha.toLocaleString('es-PE');
+};
+
+// Historial de precios del producto y programación de cambios futuros
+const PreciosProducto: React.FC<Props> = ({ idProducto }) => {
+  const [precios, setPrecios] = useState<VigenciaPrecio[]>([]);
+  const [precio, setPrecio] = useState('');
+  const [vigenteDesde, setVigenteDesde] = useState('');
+  const [error, setError] = useState('');
+
+  useEffect(() => {
+    productoService.listarPrecios(idProducto)
+      .then(setPrecios)
+      .catch(() => setError('Error al cargar el historial de precios'));
+  }, [idProducto]);
+
+  const programar = async () => {
+    setError('');
+    try {
+      setPrecios(await productoService.programarPrecio(idProducto, {
+        precio: Number(precio),
+        vigenteDesde
+      }));
+      setPrecio('');
+      setVigenteDesde('');
+    } catch (err: any) {
+      setError(err.response?.data?.mensaje || 'Error al programar el precio');
+    }
+  };
+
+  const cancelar = async (idPrecio: number) => {
+    setError('');
+    try {
+      await productoService.cancelarPrecio(idProducto, idPrecio);
+      setPrecios(await productoService.listarPrecios(idProducto));
+    } catch (err: any) {
+      setError(err.response?.data?.mensaje || 'Error al cancelar el precio');
+    }
+  };
+
+  return (
+    <div className="precios-producto">
+      <h3>Precios</h3>
+      {error && <Alert type="error" message={error} onClose={() => setError('')} />}
+
+      {precios.length === 0 ? (
+        <p className="form-hint">Sin cambios de precio registrados</p>
+      ) : (
+        <table className="data-table">
+          <thead>
+            <tr>
+              <th>Precio</th>
+              <th>Desde</th>
+              <th>Hasta</th>
+              <th></th>
+            </tr>
+          </thead>
+          <tbody>
+            {[...precios].reverse().map(p => (
+              <tr key={p.idPrecio}>
+                <td>
+                  S/ {Number(p.precio).toFixed(2)}
+                  {p.programado && <span className="badge badge-warning">Programado</span>}
+                </td>
+                <td>{formatearFecha(p.vigenteDesde)}</td>
+                <td>{p.vigenteHasta ? formatearFecha(p.vigenteHasta) : '—'}</td>
+                <td>
+                  {p.programado && (
+                    <button type="button" className="btn btn-sm btn-danger" onClick={() => cancelar(p.idPrecio)}>
+                      Cancelar
+                    </button>
+                  )}
+                </td>
+              </tr>
+            ))}
+          </tbody>
+        </table>
+      )}
+
+      <div className="form-row precios-producto-nuevo">
+        <div className="form-group">
+          <label>Nuevo precio</label>
+          <input type="number" step="0.01" min="0.01" value={precio} onChange={(e) => setPrecio(e.target.value)} />
+        </div>
+        <div className="form-group">
+          <label>Vigente desde</label>
+          <input type="datetime-local" value={vigenteDesde} onChange={(e) => setVigenteDesde(e.target.value)} />
+        </div>
+      </div>
+      <button type="button" className="btn btn-primary" disabled={!precio || !vigenteDesde} onClick={programar}>
+        Programar precio
+      </button>
+    </div>
+  );
+};
+
+export default PreciosProducto;
@@ -5,6 +5,7 @@ import { categoriaService } from '../../services/categoriaService';
 import { ProductoDTO, Categoria } from '../../types';
 import Alert from '../common/Alert';
 import Loading from '../common/Loading';
+import PreciosProducto from './PreciosProducto';
 import './ProductoForm.css';
 
 const ProductoForm: React.FC = () => {
@@ -14,6 +15,7 @@ const ProductoForm: React.FC = () => {
   const [error, setError] = useState('');
   const [success, setSuccess] = useState('');
   const [categorias, setCategorias] = useState<Categoria[]>([]);
+  const [codigos, setCodigos] = useState('');
   
   const [formData, setFormData] = useState<ProductoDTO>({
     nombre: '',
@@ -45,7 +47,11 @@ const ProductoForm: React.FC = () => {
   const cargarProducto = async () => {
     try {
       setLoading(true);
-      const producto = await productoService.obtenerProducto(Number(id));
+      const [producto, codigosProducto] = await Promise.all([
+        productoService.obtenerProducto(Number(id)),
+        productoService.listarCodigos(Number(id))
+      ]);
+      setCodigos(codigosProducto.join(', '));
       setFormData({
         nombre: producto.nombre,
         presentacion: producto.presentacion || '',
@@ -53,7 +59,8 @@ const ProductoForm: React.FC = () => {
         precio: producto.precio,
         stock: producto.stock,
         fechaVencimiento: producto.fechaVencimiento,
-        idCategoria: producto.categoria.idCategoria
+        idCategoria: producto.categoria.idCategoria,
+        version: producto.version
       });
     } catch (err) {
       setError('Error al cargar producto');
@@ -67,13 +74,18 @@ const ProductoForm: React.FC = () => {
     setError('');
     setSuccess('');
 
+    const datos: ProductoDTO = {
+      ...formData,
+      codigosBarras: codigos.split(/[,\s]+/).map(c => c.trim()).filter(c => c !== '')
+    };
+
     try {
       setLoading(true);
       if (id) {
-        await productoService.actualizarProducto(Number(id), formData);
+        await productoService.actualizarProducto(Number(id), datos);
         setSuccess('Producto actualizado correctamente');
       } else {
-        await productoService.crearProducto(formData);
+        await productoService.crearProducto(datos);
         setSuccess('Producto creado correctamente');
       }
       setTimeout(() => navigate('/productos'), 1500);
@@ -116,6 +128,24 @@ const ProductoForm: React.FC = () => {
           <small className="form-hint">Especifica la cantidad o tamaño del producto</small>
         </div>
 
+        <div className="form-group">
+          <label>Códigos de barras</label>
+          <input
+            type="text"
+            value={codigos}
+            onChange={(e) => setCodigos(e.target.value)}
+            onKeyDown={(e) => {
+              // El Enter del lector separa códigos en lugar de enviar el formulario
+              if (e.key === 'Enter') {
+                e.preventDefault();
+                if (codigos.trim() !== '') setCodigos(codigos.trim() + ', ');
+              }
+            }}
+            placeholder="Ej: 7750182000284, 036000291452"
+          />
+          <small className="form-hint">Separados por comas; puede escanearlos directamente en este campo</small>
+        </div>
+
         <div className="form-group">
           <label>Descripción</label>
           <textarea
@@ -187,6 +217,8 @@ const ProductoForm: React.FC = () => {
           </button>
         </div>
       </form>
+
+      {id && <PreciosProducto idProducto={Number(id)} />}
     </div>
   );
 };
@@ -1,7 +1,8 @@
 import React, { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { productoService } from '../../services/productoService';
-import { Producto, Rol } from '../../types';
+import { categoriaService } from '../../services/categoriaService';
+import { ResumenProducto, Categoria, FiltroCatalogo, Rol } from '../../types';
 import { useAuth } from '../../context/AuthContext';
 import Loading from '../common/Loading';
 import Alert from '../common/Alert';
@@ -9,33 +10,48 @@ import ConfirmDialog from '../common/ConfirmDialog';
 import './ProductoList.css';
 
 const ProductoList: React.FC = () => {
-  const [productos, setProductos] = useState<Producto[]>([]);
-  const [filteredProductos, setFilteredProductos] = useState<Producto[]>([]);
+  const [productos, setProductos] = useState<ResumenProducto[]>([]);
+  const [categorias, setCategorias] = useState<Categoria[]>([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const [searchTerm, setSearchTerm] = useState('');
+  const [texto, setTexto] = useState('');
+  const [idCategoria, setIdCategoria] = useState<number | ''>('');
+  const [orden, setOrden] = useState<NonNullable<FiltroCatalogo['orden']>>('nombre');
+  const [pagina, setPagina] = useState(0);
+  const [totalPaginas, setTotalPaginas] = useState(0);
   const [deleteId, setDeleteId] = useState<number | null>(null);
   const { hasRole } = useAuth();
   const navigate = useNavigate();
 
   useEffect(() => {
-    cargarProductos();
+    categoriaService.listarCategorias().then(setCategorias).catch(() => setCategorias([]));
   }, []);
 
+  // El filtro por texto se aplica al dejar de escribir, no en cada tecla
+  useEffect(() => {
+    const espera = setTimeout(() => {
+      setTexto(searchTerm.trim());
+      setPagina(0);
+    }, 300);
+    return () => clearTimeout(espera);
+  }, [searchTerm]);
+
   useEffect(() => {
-    const filtered = productos.filter(p =>
-      p.nombre.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      p.categoria.nombre.toLowerCase().includes(searchTerm.toLowerCase())
-    );
-    setFilteredProductos(filtered);
-  }, [searchTerm, productos]);
+    cargarProductos();
+  }, [texto, idCategoria, orden, pagina]);
 
   const cargarProductos = async () => {
     try {
       setLoading(true);
-      const data = await productoService.listarProductos();
-      setProductos(data);
-      setFilteredProductos(data);
+      const data = await productoService.listarCatalogo({
+        texto: texto || undefined,
+        idCategoria: idCategoria || undefined,
+        orden,
+        pagina
+      });
+      setProductos(data.content);
+      setTotalPaginas(data.totalPages);
     } catch (err) {
       setError('Error al cargar productos');
     } finally {
@@ -54,8 +70,6 @@ const ProductoList: React.FC = () => {
     }
   };
 
-  if (loading) return <Loading />;
-
   return (
     <div className="producto-list-container">
       <div className="list-header">
@@ -76,8 +90,35 @@ const ProductoList: React.FC = () => {
           value={searchTerm}
           onChange={(e) => setSearchTerm(e.target.value)}
         />
+        <select
+          value={idCategoria}
+          onChange={(e) => {
+            setIdCategoria(e.target.value ? Number(e.target.value) : '');
+            setPagina(0);
+          }}
+        >
+          <option value="">Todas las categorías</option>
+          {categorias.map(c => (
+            <option key={c.idCategoria} value={c.idCategoria}>{c.nombre}</option>
+          ))}
+        </select>
+        <select
+          value={orden}
+          onChange={(e) => {
+            setOrden(e.target.value as NonNullable<FiltroCatalogo['orden']>);
+            setPagina(0);
+          }}
+        >
+          <option value="nombre">Ordenar por nombre</option>
+          <option value="categoria">Ordenar por categoría</option>
+          <option value="precio">Ordenar por precio</option>
+          <option value="stock">Ordenar por stock</option>
+          <option value="vencimiento">Ordenar por vencimiento</option>
+        </select>
       </div>
 
+      {loading ? <Loading /> : (
+
       <div className="table-container">
         <table className="data-table">
         <thead>
@@ -92,11 +133,11 @@ const ProductoList: React.FC = () => {
           </tr>
         </thead>
         <tbody>
-          {filteredProductos.map(producto => (
+          {productos.map(producto => (
             <tr key={producto.idProducto} className={producto.stock < 10 ? 'stock-bajo' : ''}>
               <td>{producto.nombre}</td>
               <td>{producto.presentacion || '-'}</td>
-              <td>{producto.categoria.nombre}</td>
+              <td>{producto.nombreCategoria}</td>
               <td>S/ {producto.precio.toFixed(2)}</td>
               <td>
                 {producto.stock}
@@ -127,6 +168,19 @@ const ProductoList: React.FC = () => {
         </tbody>
       </table>
       </div>
+      )}
+
+      {totalPaginas > 1 && (
+        <div className="pagination">
+          <button className="btn btn-sm" disabled={pagina === 0} onClick={() => setPagina(pagina - 1)}>
+            Anterior
+          </button>
+          <span>Página {pagina + 1} de {totalPaginas}</span>
+          <button className="btn btn-sm" disabled={pagina + 1 >= totalPaginas} onClick={() => setPagina(pagina + 1)}>
+            Siguiente
+          </button>
+        </div>
+      )}
 
       {deleteId && (
         <ConfirmDialog
@@ -91,7 +91,7 @@ const ReporteList: React.FC = () => {
                 <tr key={producto.idProducto}>
                   <td>{producto.nombre}</td>
                   <td>{producto.presentacion || '-'}</td>
-                  <td>{producto.categoria?.nombre || 'N/A'}</td>
+                  <td>{producto.nombreCategoria || 'N/A'}</td>
                   <td className="stock-bajo">{producto.stock}</td>
                   <td>S/ {producto.precio.toFixed(2)}</td>
                 </tr>
@@ -123,7 +123,7 @@ const ReporteList: React.FC = () => {
                 <tr key={producto.idProducto}>
                   <td>{producto.nombre}</td>
                   <td>{producto.presentacion || '-'}</td>
-                  <td>{producto.categoria?.nombre || 'N/A'}</td>
+                  <td>{producto.nombreCategoria || 'N/A'}</td>
                   <td className="fecha-vencimiento">
                     {producto.fechaVencimiento 
                       ? new Date(producto.fechaVencimiento).toLocaleDateString()
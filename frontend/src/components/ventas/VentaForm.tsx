@@ -3,7 +3,7 @@ import { useNavigate } from 'react-router-dom';
 import { ventaService } from '../../services/ventaService';
 import { clienteService } from '../../services/clienteService';
 import { productoService } from '../../services/productoService';
-import { Cliente, Producto, DetalleVentaDTO } from '../../types';
+import { Cliente, ResumenProducto, DetalleVentaDTO } from '../../types';
 import Alert from '../common/Alert';
 import './VentaForm.css';
 
@@ -13,11 +13,13 @@ const VentaForm: React.FC = () => {
   const [error, setError] = useState('');
   const [success, setSuccess] = useState('');
   const [clientes, setClientes] = useState<Cliente[]>([]);
-  const [productos, setProductos] = useState<Producto[]>([]);
+  const [productos, setProductos] = useState<ResumenProducto[]>([]);
   const [idCliente, setIdCliente] = useState(0);
   const [detalles, setDetalles] = useState<DetalleVentaDTO[]>([]);
   const [productoSeleccionado, setProductoSeleccionado] = useState(0);
   const [cantidad, setCantidad] = useState(1);
+  const [busqueda, setBusqueda] = useState('');
+  const [idsEncontrados, setIdsEncontrados] = useState<number[] | null>(null);
 
   useEffect(() => {
     cargarDatos();
@@ -36,6 +38,29 @@ const VentaForm: React.FC = () => {
     }
   };
 
+  // Búsqueda en el servidor (tolera tildes y errores de tipeo); espera a que se deje de escribir
+  useEffect(() => {
+    if (busqueda.trim() === '') {
+      setIdsEncontrados(null);
+      return;
+    }
+    const temporizador = setTimeout(async () => {
+      try {
+        const resultados = await productoService.buscarProductos(busqueda);
+        setIdsEncontrados(resultados.map(r => r.idProducto));
+      } catch (err) {
+        setIdsEncontrados(null);
+      }
+    }, 200);
+    return () => clearTimeout(temporizador);
+  }, [busqueda]);
+
+  const productosVisibles = idsEncontrados === null
+    ? productos
+    : idsEncontrados
+        .map(id => productos.find(p => p.idProducto === id))
+        .filter((p): p is ResumenProducto => p !== undefined);
+
   const agregarProducto = () => {
     if (productoSeleccionado === 0 || cantidad <= 0) {
       setError('Seleccione un producto y cantidad válida');
@@ -70,6 +95,31 @@ const VentaForm: React.FC = () => {
     setError('');
   };
 
+  // El lector de códigos escribe el código y envía Enter: se agrega una unidad del producto
+  const escanearCodigo = async (e: React.KeyboardEvent<HTMLInputElement>) => {
+    if (e.key !== 'Enter') return;
+    e.preventDefault();
+    const codigo = busqueda.trim();
+    // Un código no tiene espacios y lleva al menos un dígito; lo demás es búsqueda por nombre
+    if (!/\d/.test(codigo) || /\s/.test(codigo)) return;
+    try {
+      const producto = await productoService.buscarPorCodigo(codigo);
+      const enDetalle = detalles.find(d => d.idProducto === producto.idProducto)?.cantidad ?? 0;
+      if (enDetalle + 1 > producto.stock) {
+        setError(`Stock insuficiente de ${producto.nombre}. Disponible: ${producto.stock}`);
+      } else if (enDetalle > 0) {
+        setDetalles(detalles.map(d =>
+          d.idProducto === producto.idProducto ? { ...d, cantidad: d.cantidad + 1 } : d
+        ));
+      } else {
+        setDetalles([...detalles, { idProducto: producto.idProducto, cantidad: 1, precio: producto.precio }]);
+      }
+      setBusqueda('');
+    } catch (err: any) {
+      setError(err.response?.data?.mensaje || `No se pudo leer el código ${codigo}`);
+    }
+  };
+
   const eliminarDetalle = (idProducto: number) => {
     setDetalles(detalles.filter(d => d.idProducto !== idProducto));
   };
@@ -134,9 +184,16 @@ const VentaForm: React.FC = () => {
           <div className="form-row">
             <div className="form-group">
               <label>Producto</label>
+              <input
+                type="text"
+                placeholder="Buscar producto o escanear código..."
+                value={busqueda}
+                onChange={(e) => setBusqueda(e.target.value)}
+                onKeyDown={escanearCodigo}
+              />
               <select value={productoSeleccionado} onChange={(e) => setProductoSeleccionado(Number(e.target.value))}>
                 <option value={0}>Seleccione un producto</option>
-                {productos.map(p => (
+                {productosVisibles.map(p => (
                   <option key={p.idProducto} value={p.idProducto}>
                     {p.nombre} - S/ {p.precio.toFixed(2)} (Stock: {p.stock})
                   </option>
@@ -1,13 +1,13 @@
 import React, { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { ventaService } from '../../services/ventaService';
-import { Venta } from '../../types';
+import { ResumenVenta } from '../../types';
 import Loading from '../common/Loading';
 import Alert from '../common/Alert';
 import './VentaList.css';
 
 const VentaList: React.FC = () => {
-  const [ventas, setVentas] = useState<Venta[]>([]);
+  const [ventas, setVentas] = useState<ResumenVenta[]>([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const navigate = useNavigate();
@@ -81,8 +81,8 @@ const VentaList: React.FC = () => {
                     })()
                   : 'N/A'}
               </td>
-              <td>{venta.cliente.nombre}</td>
-              <td>{venta.usuario.nombre}</td>
+              <td>{venta.nombreCliente}</td>
+              <td>{venta.nombreUsuario}</td>
               <td>S/ {venta.total.toFixed(2)}</td>
               <td>
                 <button className="btn btn-sm btn-info" onClick={() => descargarBoleta(venta.idVenta)}>
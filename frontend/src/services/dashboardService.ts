@@ -1,9 +1,9 @@
 import api from './api';
-import { Producto } from '../types';
+import { ResumenProducto } from '../types';
 
 export interface Alertas {
-  stockBajo: Producto[];
-  proximosVencer: Producto[];
+  stockBajo: ResumenProducto[];
+  proximosVencer: ResumenProducto[];
   cantidadStockBajo: number;
   cantidadProximosVencer: number;
 }
@@ -15,7 +15,19 @@ export interface Estadisticas {
   alertasVencimiento: number;
 }
 
+export interface ResumenDashboard extends Alertas {
+  totalProductos: number;
+  stockTotal: number;
+  generadoEn: string;
+}
+
 export const dashboardService = {
+  obtenerResumen: async (): Promise<ResumenDashboard> => {
+    const response = await api.get('/api/dashboard/resumen');
+    return response.data;
+  },
+
+
   obtenerAlertas: async (): Promise<Alertas> => {
     const response = await api.get('/api/dashboard/alertas');
     return response.data;
@@ -1,5 +1,5 @@
 import api from './api';
-import { Pedido, PedidoDTO, EstadoPedido } from '../types';
+import { Pedido, PedidoDTO, EstadoPedido, ResultadoCambioEstado, ResumenPedido, Pagina, FiltroPedidos } from '../types';
 
 export const pedidoService = {
   crearPedido: async (pedido: PedidoDTO): Promise<Pedido> => {
@@ -7,8 +7,8 @@ export const pedidoService = {
     return response.data;
   },
 
-  listarPedidos: async (): Promise<Pedido[]> => {
-    const response = await api.get('/api/pedidos');
+  listarPedidos: async (filtro: FiltroPedidos = {}): Promise<Pagina<ResumenPedido>> => {
+    const response = await api.get('/api/pedidos', { params: filtro });
     return response.data;
   },
 
@@ -22,5 +22,14 @@ export const pedidoService = {
       params: { estado }
     });
     return response.data;
+  },
+
+  cambiarEstadoEnLote: async (ids: number[], estado: EstadoPedido): Promise<ResultadoCambioEstado> => {
+    const response = await api.put('/api/pedidos/estado', { ids, estado });
+    return response.data;
+  },
+
+  descartarBorrador: async (id: number): Promise<void> => {
+    await api.delete(`/api/pedidos/${id}`);
   }
 };
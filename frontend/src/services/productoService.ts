@@ -1,24 +1,78 @@
 import api from './api';
-import { Producto, ProductoDTO } from '../types';
+import { Producto, ProductoDTO, ProductoBusqueda, ResultadoImportacion, FiltroCatalogo, Pagina,
+  CambiosCatalogo, VigenciaPrecio, PrecioProgramadoDTO, ResumenProducto } from '../types';
 
 export const productoService = {
-  listarProductos: async (): Promise<Producto[]> => {
+  listarProductos: async (): Promise<ResumenProducto[]> => {
     const response = await api.get('/api/productos');
     return response.data;
   },
 
+  // El servidor responde con ETag y no-cache: el navegador revalida y reutiliza
+  // la página guardada si el catálogo no cambió (304)
+  listarCatalogo: async (filtro: FiltroCatalogo = {}): Promise<Pagina<ResumenProducto>> => {
+    const response = await api.get('/api/productos/catalogo', { params: filtro });
+    return response.data;
+  },
+
+  // Sin cursor entrega el catálogo completo; repetir con el cursor devuelto mientras completo sea false
+  obtenerCambios: async (cursor?: string, limite = 500): Promise<CambiosCatalogo> => {
+    const response = await api.get('/api/productos/cambios', { params: { cursor, limite } });
+    return response.data;
+  },
+
+  buscarProductos: async (q: string, limite = 10): Promise<ProductoBusqueda[]> => {
+    const response = await api.get('/api/productos/buscar', { params: { q, limite } });
+    return response.data;
+  },
+
   obtenerProducto: async (id: number): Promise<Producto> => {
     const response = await api.get(`/api/productos/${id}`);
     return response.data;
   },
 
+  buscarPorCodigo: async (codigo: string): Promise<Producto> => {
+    const response = await api.get(`/api/productos/codigo/${encodeURIComponent(codigo)}`);
+    return response.data;
+  },
+
+  listarCodigos: async (id: number): Promise<string[]> => {
+    const response = await api.get(`/api/productos/${id}/codigos`);
+    return response.data;
+  },
+
+  listarPrecios: async (id: number): Promise<VigenciaPrecio[]> => {
+    const response = await api.get(`/api/productos/${id}/precios`);
+    return response.data;
+  },
+
+  programarPrecio: async (id: number, precio: PrecioProgramadoDTO): Promise<VigenciaPrecio[]> => {
+    const response = await api.post(`/api/productos/${id}/precios`, precio);
+    return response.data;
+  },
+
+  cancelarPrecio: async (id: number, idPrecio: number): Promise<void> => {
+    await api.delete(`/api/productos/${id}/precios/${idPrecio}`);
+  },
+
   crearProducto: async (producto: ProductoDTO): Promise<Producto> => {
     const response = await api.post('/api/productos', producto);
     return response.data;
   },
 
   actualizarProducto: async (id: number, producto: ProductoDTO): Promise<Producto> => {
-    const response = await api.put(`/api/productos/${id}`, producto);
+    // If-Match: el servidor rechaza la edición (412) si el producto cambió desde que se cargó
+    const headers = producto.version !== undefined ? { 'If-Match': `"${producto.version}"` } : undefined;
+    const response = await api.put(`/api/productos/${id}`, producto, { headers });
+    return response.data;
+  },
+
+  importarProductos: async (archivo: File): Promise<ResultadoImportacion> => {
+    const datos = new FormData();
+    datos.append('archivo', archivo);
+    const response = await api.post('/api/productos/importar', datos, {
+      headers: { 'Content-Type': 'multipart/form-data' }
+    });
     return response.data;
   },
 
@@ -26,12 +80,12 @@ export const productoService = {
     await api.delete(`/api/productos/${id}`);
   },
 
-  obtenerStockBajo: async (): Promise<Producto[]> => {
+  obtenerStockBajo: async (): Promise<ResumenProducto[]> => {
     const response = await api.get('/api/productos/alertas/stock-bajo');
     return response.data;
   },
 
-  obtenerProximosVencer: async (): Promise<Producto[]> => {
+  obtenerProximosVencer: async (): Promise<ResumenProducto[]> => {
     const response = await api.get('/api/productos/alertas/proximos-vencer');
     return response.data;
   }
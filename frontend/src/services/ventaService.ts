@@ -1,5 +1,5 @@
 import api from './api';
-import { Venta, VentaDTO } from '../types';
+import { Venta, VentaDTO, ResumenVenta } from '../types';
 
 export const ventaService = {
   registrarVenta: async (venta: VentaDTO): Promise<Venta> => {
@@ -7,7 +7,7 @@ export const ventaService = {
     return response.data;
   },
 
-  listarVentas: async (): Promise<Venta[]> => {
+  listarVentas: async (): Promise<ResumenVenta[]> => {
     const response = await api.get('/api/ventas');
     return response.data;
   },
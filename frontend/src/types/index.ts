@@ -4,8 +4,10 @@ export enum Rol {
 }
 
 export enum EstadoPedido {
+  BORRADOR = 'BORRADOR',
   PENDIENTE = 'PENDIENTE',
   ENVIADO = 'ENVIADO',
+  RECIBIDO_PARCIAL = 'RECIBIDO_PARCIAL',
   RECIBIDO = 'RECIBIDO'
 }
 
@@ -37,6 +39,19 @@ export interface Producto {
   categoria: Categoria;
   fechaCreacion: string;
   fechaActualizacion: string;
+  version: number;
+}
+
+// Resumen de producto de los listados: la categoría viene aplanada
+export interface ResumenProducto {
+  idProducto: number;
+  nombre: string;
+  presentacion?: string;
+  precio: number;
+  stock: number;
+  fechaVencimiento: string;
+  idCategoria: number;
+  nombreCategoria: string;
 }
 
 export interface Cliente {
@@ -71,10 +86,25 @@ export interface Venta {
   detalles: DetalleVenta[];
 }
 
+// Resumen de venta del listado, sin detalles
+export interface ResumenVenta {
+  idVenta: number;
+  fecha: string;
+  idCliente: number;
+  nombreCliente: string;
+  idUsuario: number;
+  nombreUsuario: string;
+  idAlmacen?: number;
+  nombreAlmacen?: string;
+  total: number;
+}
+
 export interface DetallePedido {
   idDetallePedido: number;
   producto: Producto;
   cantidad: number;
+  cantidadRecibida: number;
+  cantidadPendiente: number;
 }
 
 export interface Pedido {
@@ -99,6 +129,29 @@ export interface AuthResponse {
   rol: Rol;
 }
 
+export interface ProductoBusqueda {
+  idProducto: number;
+  nombre: string;
+  presentacion?: string;
+  categoria: string;
+  precio: number;
+  puntaje?: number;
+}
+
+export interface ErrorFilaImportacion {
+  linea: number;
+  mensaje: string;
+}
+
+export interface ResultadoImportacion {
+  filasLeidas: number;
+  insertados: number;
+  actualizados: number;
+  filasConError: number;
+  errores: ErrorFilaImportacion[];
+  duracionMs: number;
+}
+
 export interface ProductoDTO {
   nombre: string;
   presentacion?: string;
@@ -107,6 +160,21 @@ export interface ProductoDTO {
   fechaVencimiento: string;
   stock: number;
   idCategoria: number;
+  codigosBarras?: string[];
+  version?: number;
+}
+
+export interface VigenciaPrecio {
+  idPrecio: number;
+  precio: number;
+  vigenteDesde: string;
+  vigenteHasta?: string;
+  programado: boolean;
+}
+
+export interface PrecioProgramadoDTO {
+  precio: number;
+  vigenteDesde: string;
 }
 
 export interface CategoriaDTO {
@@ -142,6 +210,7 @@ export interface DetalleVentaDTO {
 export interface VentaDTO {
   idCliente: number;
   detalles: DetalleVentaDTO[];
+  idAlmacen?: number;
 }
 
 export interface DetallePedidoDTO {
@@ -152,6 +221,83 @@ export interface DetallePedidoDTO {
 export interface PedidoDTO {
   idProveedor: number;
   detalles: DetallePedidoDTO[];
+  idAlmacen?: number;
+}
+
+export interface ResumenPedido {
+  idPedido: number;
+  fecha: string;
+  estado: EstadoPedido;
+  idProveedor: number;
+  nombreProveedor: string;
+  idAlmacen?: number;
+  nombreAlmacen?: string;
+  lineas: number;
+  unidades: number;
+  unidadesPendientes: number;
+}
+
+export interface Pagina<T> {
+  content: T[];
+  totalElements: number;
+  totalPages: number;
+  number: number;
+  size: number;
+}
+
+export interface CambioProducto {
+  idProducto: number;
+  nombre: string;
+  presentacion?: string;
+  precio: number;
+  stock: number;
+  fechaVencimiento: string;
+  idCategoria: number;
+  version: number;
+  fechaActualizacion: string;
+}
+
+export interface CambiosCatalogo {
+  productos: CambioProducto[];
+  eliminados: number[];
+  cursor: string;
+  completo: boolean;
+}
+
+export interface FiltroCatalogo {
+  texto?: string;
+  idCategoria?: number;
+  stockMin?: number;
+  stockMax?: number;
+  vencimientoDesde?: string;
+  vencimientoHasta?: string;
+  pagina?: number;
+  tamano?: number;
+  orden?: 'nombre' | 'precio' | 'stock' | 'vencimiento' | 'categoria';
+  direccion?: 'ASC' | 'DESC';
+}
+
+export interface FiltroPedidos {
+  estado?: EstadoPedido;
+  idProveedor?: number;
+  desde?: string;
+  hasta?: string;
+  pagina?: number;
+  tamano?: number;
+}
+
+export interface ResultadoCambioEstado {
+  estado: EstadoPedido;
+  actualizados: number[];
+  rechazados: number[];
+}
+
+export interface Almacen {
+  idAlmacen: number;
+  nombre: string;
+  direccion?: string;
+  principal: boolean;
+  activo: boolean;
 }
 
 // Tipos para respuestas de error
@@ -171,6 +317,6 @@ export interface EstadisticasDashboard {
 }
 
 export interface AlertasInventario {
-  stockBajo: Producto[];
-  proximosVencer: Producto[];
+  stockBajo: ResumenProducto[];
+  proximosVencer: ResumenProducto[];
 }